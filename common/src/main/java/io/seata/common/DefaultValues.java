@@ -30,6 +30,7 @@ public interface DefaultValues {
     boolean DEFAULT_CLIENT_REPORT_SUCCESS_ENABLE = false;
     boolean DEFAULT_CLIENT_TABLE_META_CHECK_ENABLE = false;
     long DEFAULT_TABLE_META_CHECKER_INTERVAL = 60000L;
+    int DEFAULT_CLIENT_SQL_RECOGNIZER_CACHE_SIZE = 8 * 1024 * 1024;
     boolean DEFAULT_TM_DEGRADE_CHECK = false;
     boolean DEFAULT_CLIENT_SAGA_BRANCH_REGISTER_ENABLE = false;
     boolean DEFAULT_CLIENT_SAGA_RETRY_PERSIST_MODE_UPDATE = false;
@@ -46,6 +47,10 @@ public interface DefaultValues {
     String DEFAULT_SELECTOR_THREAD_PREFIX = "NettyClientSelector";
     String DEFAULT_WORKER_THREAD_PREFIX = "NettyClientWorkerThread";
     boolean DEFAULT_ENABLE_CLIENT_BATCH_SEND_REQUEST = true;
+    boolean DEFAULT_ENABLE_CLIENT_COALESCE_REQUEST = true;
+    int DEFAULT_CLIENT_CHANNELS_PER_SERVER = 1;
+    int DEFAULT_COMPRESSOR_THRESHOLD = 1024;
+    int DEFAULT_COMPRESSOR_LZ4_MAX_SIZE = 0;
 
 
     String DEFAULT_BOSS_THREAD_PREFIX = "NettyBoss";
@@ -56,6 +61,7 @@ public interface DefaultValues {
     boolean DEFAULT_TRANSACTION_UNDO_DATA_VALIDATION = true;
     String DEFAULT_TRANSACTION_UNDO_LOG_SERIALIZATION = "jackson";
     boolean DEFAULT_ONLY_CARE_UPDATE_COLUMNS = true;
+    boolean DEFAULT_DERIVE_AFTER_IMAGE = false;
     /**
      * The constant  DEFAULT_TRANSACTION_UNDO_LOG_TABLE.
      */
@@ -35,20 +35,31 @@ import org.slf4j.LoggerFactory;
 public class Lz4Util {
     private static final Logger LOGGER = LoggerFactory.getLogger(Lz4Util.class);
     private static final int ARRAY_SIZE = 1024;
+    /**
+     * the larger buffer is not kept by the thread
+     */
+    private static final int MAX_REUSED_BUFFER_SIZE = 1024 * 1024;
+    private static final ThreadLocal<ByteArrayOutputStream> OUTPUT_BUFFER = ThreadLocal.withInitial(
+        () -> new ByteArrayOutputStream(ARRAY_SIZE));
 
     public static byte[] compress(byte[] bytes) {
         if (bytes == null) {
             throw new NullPointerException("bytes is null");
         }
         LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ByteArrayOutputStream outputStream = OUTPUT_BUFFER.get();
+        outputStream.reset();
         try (LZ4BlockOutputStream lz4BlockOutputStream
                      = new LZ4BlockOutputStream(outputStream, ARRAY_SIZE, compressor)) {
             lz4BlockOutputStream.write(bytes);
         } catch (IOException e) {
             LOGGER.error("compress bytes error", e);
         }
-        return outputStream.toByteArray();
+        byte[] compressed = outputStream.toByteArray();
+        if (compressed.length > MAX_REUSED_BUFFER_SIZE) {
+            OUTPUT_BUFFER.remove();
+        }
+        return compressed;
     }
 
     public static byte[] decompress(byte[] bytes) {
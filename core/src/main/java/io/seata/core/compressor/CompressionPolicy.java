@@ -0,0 +1,157 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.compressor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.seata.common.util.CollectionUtils;
+import io.seata.config.ConfigurationFactory;
+import io.seata.core.constants.ConfigurationKeys;
+import io.seata.core.protocol.MessageTypeAware;
+
+import static io.seata.common.DefaultValues.DEFAULT_COMPRESSOR_LZ4_MAX_SIZE;
+import static io.seata.common.DefaultValues.DEFAULT_COMPRESSOR_THRESHOLD;
+
+/**
+ * The compressor policy of the message body.
+ * <p>
+ * The compressor is chosen for every message by the body size, the small body is not compressed,
+ * and the mid-size body prefers the cheap lz4 compressor to the configured one.
+ *
+ * @author wang.liang
+ */
+public final class CompressionPolicy {
+
+    private static final int COMPRESSOR_THRESHOLD = ConfigurationFactory.getInstance().getInt(
+        ConfigurationKeys.COMPRESSOR_THRESHOLD, DEFAULT_COMPRESSOR_THRESHOLD);
+
+    private static final int COMPRESSOR_LZ4_MAX_SIZE = ConfigurationFactory.getInstance().getInt(
+        ConfigurationKeys.COMPRESSOR_LZ4_MAX_SIZE, DEFAULT_COMPRESSOR_LZ4_MAX_SIZE);
+
+    /**
+     * typeCode -> Statistic
+     */
+    private static final Map<Integer, Statistic> STATISTICS = new ConcurrentHashMap<>();
+
+    private static volatile Boolean lz4Available;
+
+    private CompressionPolicy() {
+    }
+
+    /**
+     * Choose the compressor of the body.
+     *
+     * @param compressor the configured compressor code
+     * @param bodyLength the length of the serialized body
+     * @return the compressor code
+     */
+    public static byte choose(byte compressor, int bodyLength) {
+        return choose(compressor, bodyLength, COMPRESSOR_THRESHOLD, COMPRESSOR_LZ4_MAX_SIZE);
+    }
+
+    static byte choose(byte compressor, int bodyLength, int threshold, int lz4MaxSize) {
+        if (compressor == CompressorType.NONE.getCode() || bodyLength < threshold) {
+            return CompressorType.NONE.getCode();
+        }
+        if (bodyLength <= lz4MaxSize && isLz4Available()) {
+            return CompressorType.LZ4.getCode();
+        }
+        return compressor;
+    }
+
+    private static boolean isLz4Available() {
+        if (lz4Available == null) {
+            lz4Available = CompressorFactory.isAvailable(CompressorType.LZ4);
+        }
+        return lz4Available;
+    }
+
+    /**
+     * Record the compression of the body.
+     *
+     * @param body             the body
+     * @param length           the length of the serialized body
+     * @param compressedLength the length of the compressed body
+     * @param nanos            the compress time in nanoseconds
+     */
+    public static void record(Object body, int length, int compressedLength, long nanos) {
+        int typeCode = body instanceof MessageTypeAware ? ((MessageTypeAware) body).getTypeCode() : -1;
+        CollectionUtils.computeIfAbsent(STATISTICS, typeCode, key -> new Statistic())
+            .record(length, compressedLength, nanos);
+    }
+
+    /**
+     * Gets the compression statistics.
+     *
+     * @return the statistics keyed by the type code of the message, -1 if the message has no type code
+     */
+    public static Map<Integer, Statistic> getStatistics() {
+        return new HashMap<>(STATISTICS);
+    }
+
+    /**
+     * The compression statistic of a message type.
+     */
+    public static final class Statistic {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder length = new LongAdder();
+
+        private final LongAdder compressedLength = new LongAdder();
+
+        private final LongAdder nanos = new LongAdder();
+
+        private void record(int length, int compressedLength, long nanos) {
+            this.count.increment();
+            this.length.add(length);
+            this.compressedLength.add(compressedLength);
+            this.nanos.add(nanos);
+        }
+
+        /**
+         * Gets the count of the compressed messages.
+         *
+         * @return the count
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Gets the compression ratio, the compressed length divided by the serialized length.
+         *
+         * @return the ratio
+         */
+        public double getRatio() {
+            long sum = length.sum();
+            return sum == 0 ? 1D : (double) compressedLength.sum() / sum;
+        }
+
+        /**
+         * Gets the average compress time in nanoseconds.
+         *
+         * @return the average nanos
+         */
+        public long getAverageNanos() {
+            long sum = count.sum();
+            return sum == 0 ? 0L : nanos.sum() / sum;
+        }
+    }
+}
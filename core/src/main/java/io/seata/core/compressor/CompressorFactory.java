@@ -16,6 +16,7 @@
 package io.seata.core.compressor;
 
 import io.seata.common.loader.EnhancedServiceLoader;
+import io.seata.common.loader.EnhancedServiceNotFoundException;
 import io.seata.common.loader.LoadLevel;
 import io.seata.common.util.CollectionUtils;
 
@@ -49,6 +50,21 @@ public class CompressorFactory {
             key -> EnhancedServiceLoader.load(Compressor.class, type.name()));
     }
 
+    /**
+     * Whether the compressor is present.
+     *
+     * @param type the type
+     * @return the boolean
+     */
+    public static boolean isAvailable(CompressorType type) {
+        try {
+            getCompressor(type.getCode());
+            return true;
+        } catch (EnhancedServiceNotFoundException e) {
+            return false;
+        }
+    }
+
     /**
      * None compressor
      */
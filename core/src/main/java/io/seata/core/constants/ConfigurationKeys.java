@@ -138,6 +138,31 @@ public interface ConfigurationKeys {
      */
     String SERVICE_SESSION_RELOAD_READ_SIZE = STORE_FILE_PREFIX + "sessionReloadReadSize";
 
+    /**
+     * The constant SERVICE_SESSION_RELOAD_THREAD_SIZE
+     */
+    String SERVICE_SESSION_RELOAD_THREAD_SIZE = STORE_FILE_PREFIX + "sessionReloadThreadSize";
+
+    /**
+     * The constant STORE_FILE_LOCK_STRIPE_SIZE
+     */
+    String STORE_FILE_LOCK_STRIPE_SIZE = STORE_FILE_PREFIX + "lockStripeSize";
+
+    /**
+     * The constant STORE_FILE_SEGMENT_ENABLE
+     */
+    String STORE_FILE_SEGMENT_ENABLE = STORE_FILE_PREFIX + "segmentEnable";
+
+    /**
+     * The constant STORE_FILE_SEGMENT_SIZE
+     */
+    String STORE_FILE_SEGMENT_SIZE = STORE_FILE_PREFIX + "segmentSize";
+
+    /**
+     * The constant STORE_FILE_MAX_SEALED_SEGMENTS
+     */
+    String STORE_FILE_MAX_SEALED_SEGMENTS = STORE_FILE_PREFIX + "maxSealedSegments";
+
     /**
      * The constant CLIENT_REPORT_SUCCESS_ENABLE.
      */
@@ -214,6 +239,16 @@ public interface ConfigurationKeys {
      */
     String COMPRESSOR_FOR_RPC = TRANSPORT_PREFIX + "compressor";
 
+    /**
+     * The constant COMPRESSOR_THRESHOLD.
+     */
+    String COMPRESSOR_THRESHOLD = TRANSPORT_PREFIX + "compressorThreshold";
+
+    /**
+     * The constant COMPRESSOR_LZ4_MAX_SIZE.
+     */
+    String COMPRESSOR_LZ4_MAX_SIZE = TRANSPORT_PREFIX + "compressorLz4MaxSize";
+
     /**
      * The constant STORE_DB_PREFIX.
      */
@@ -284,6 +319,26 @@ public interface ConfigurationKeys {
      */
     String STORE_DB_LOG_QUERY_LIMIT = STORE_DB_PREFIX + "queryLimit";
 
+    /**
+     * The constant STORE_DB_GROUP_COMMIT_ENABLE.
+     */
+    String STORE_DB_GROUP_COMMIT_ENABLE = STORE_DB_PREFIX + "groupCommitEnable";
+
+    /**
+     * The constant STORE_DB_GROUP_COMMIT_BATCH_SIZE.
+     */
+    String STORE_DB_GROUP_COMMIT_BATCH_SIZE = STORE_DB_PREFIX + "groupCommitBatchSize";
+
+    /**
+     * The constant STORE_DB_GROUP_COMMIT_WINDOW.
+     */
+    String STORE_DB_GROUP_COMMIT_WINDOW = STORE_DB_PREFIX + "groupCommitWindow";
+
+    /**
+     * The constant STORE_DB_GROUP_COMMIT_THREAD_SIZE.
+     */
+    String STORE_DB_GROUP_COMMIT_THREAD_SIZE = STORE_DB_PREFIX + "groupCommitThreadSize";
+
     /**
      * The constant LOCK_DB_TABLE.
      */
@@ -318,6 +373,26 @@ public interface ConfigurationKeys {
      */
     String TIMEOUT_RETRY_PERIOD = RECOVERY_PREFIX + "timeoutRetryPeriod";
 
+    /**
+     * The constant TIMEOUT_FULL_SCAN_PERIOD.
+     */
+    String TIMEOUT_FULL_SCAN_PERIOD = RECOVERY_PREFIX + "timeoutFullScanPeriod";
+
+    /**
+     * The constant RECOVERY_WORKER_THREAD_SIZE.
+     */
+    String RECOVERY_WORKER_THREAD_SIZE = RECOVERY_PREFIX + "workerThreadSize";
+
+    /**
+     * The constant RECOVERY_WORKER_QUEUE_SIZE.
+     */
+    String RECOVERY_WORKER_QUEUE_SIZE = RECOVERY_PREFIX + "workerQueueSize";
+
+    /**
+     * The constant RECOVERY_MAX_SESSIONS_PER_RESOURCE.
+     */
+    String RECOVERY_MAX_SESSIONS_PER_RESOURCE = RECOVERY_PREFIX + "maxSessionsPerResource";
+
     /**
      * The constant CLIENT_UNDO_PREFIX.
      */
@@ -337,6 +412,11 @@ public interface ConfigurationKeys {
      */
     String TRANSACTION_UNDO_ONLY_CARE_UPDATE_COLUMNS = CLIENT_UNDO_PREFIX + "onlyCareUpdateColumns";
 
+    /**
+     * The constant TRANSACTION_UNDO_DERIVE_AFTER_IMAGE.
+     */
+    String TRANSACTION_UNDO_DERIVE_AFTER_IMAGE = CLIENT_UNDO_PREFIX + "deriveAfterImage";
+
     /**
      * the constant CLIENT_UNDO_COMPRESS_PREFIX
      */
@@ -425,6 +505,16 @@ public interface ConfigurationKeys {
      */
     String ROLLBACK_RETRY_TIMEOUT_UNLOCK_ENABLE = SERVER_PREFIX + "rollbackRetryTimeoutUnlockEnable";
 
+    /**
+     * The constant ENABLE_PARALLEL_PHASE_TWO.
+     */
+    String ENABLE_PARALLEL_PHASE_TWO = SERVER_PREFIX + "enableParallelPhaseTwo";
+
+    /**
+     * The constant PHASE_TWO_THREAD_SIZE.
+     */
+    String PHASE_TWO_THREAD_SIZE = SERVER_PREFIX + "phaseTwoThreadSize";
+
     /**
      * the constant RETRY_DEAD_THRESHOLD
      */
@@ -455,6 +545,26 @@ public interface ConfigurationKeys {
      */
     String KEEP_ALIVE_TIME = TRANSPORT_PREFIX + "keepAliveTime";
 
+    /**
+     * The constant FAST_SERVER_POOL_SIZE.
+     */
+    String FAST_SERVER_POOL_SIZE = TRANSPORT_PREFIX + "fastServerPoolSize";
+
+    /**
+     * The constant LOCK_QUERY_SERVER_POOL_SIZE.
+     */
+    String LOCK_QUERY_SERVER_POOL_SIZE = TRANSPORT_PREFIX + "lockQueryServerPoolSize";
+
+    /**
+     * The constant LOCK_QUERY_TASK_QUEUE_SIZE.
+     */
+    String LOCK_QUERY_TASK_QUEUE_SIZE = TRANSPORT_PREFIX + "lockQueryTaskQueueSize";
+
+    /**
+     * The constant RM_CHANNEL_SELECTOR.
+     */
+    String RM_CHANNEL_SELECTOR = TRANSPORT_PREFIX + "rmChannelSelector";
+
     /**
      * The constant TRANSPORT_TYPE
      */
@@ -535,6 +645,51 @@ public interface ConfigurationKeys {
      */
     String ENABLE_CLIENT_BATCH_SEND_REQUEST = TRANSPORT_PREFIX + "enableClientBatchSendRequest";
 
+    /**
+     * The constant ENABLE_SERVER_BATCH_SEND_REQUEST
+     */
+    String ENABLE_SERVER_BATCH_SEND_REQUEST = TRANSPORT_PREFIX + "enableServerBatchSendRequest";
+
+    /**
+     * The constant TRANSPORT_ALLOCATOR
+     */
+    String TRANSPORT_ALLOCATOR = TRANSPORT_PREFIX + "allocator";
+
+    /**
+     * The constant CLIENT_TCP_NO_DELAY
+     */
+    String CLIENT_TCP_NO_DELAY = TRANSPORT_PREFIX + "clientTcpNoDelay";
+
+    /**
+     * The constant CLIENT_SOCKET_SEND_BUF_SIZE
+     */
+    String CLIENT_SOCKET_SEND_BUF_SIZE = TRANSPORT_PREFIX + "clientSocketSendBufSize";
+
+    /**
+     * The constant CLIENT_SOCKET_RCV_BUF_SIZE
+     */
+    String CLIENT_SOCKET_RCV_BUF_SIZE = TRANSPORT_PREFIX + "clientSocketRcvBufSize";
+
+    /**
+     * The constant CLIENT_WRITE_BUFFER_HIGH_WATER_MARK
+     */
+    String CLIENT_WRITE_BUFFER_HIGH_WATER_MARK = TRANSPORT_PREFIX + "clientWriteBufferHighWaterMark";
+
+    /**
+     * The constant CLIENT_WRITE_BUFFER_LOW_WATER_MARK
+     */
+    String CLIENT_WRITE_BUFFER_LOW_WATER_MARK = TRANSPORT_PREFIX + "clientWriteBufferLowWaterMark";
+
+    /**
+     * The constant ENABLE_CLIENT_COALESCE_REQUEST
+     */
+    String ENABLE_CLIENT_COALESCE_REQUEST = TRANSPORT_PREFIX + "enableClientCoalesceRequest";
+
+    /**
+     * The constant CLIENT_CHANNELS_PER_SERVER
+     */
+    String CLIENT_CHANNELS_PER_SERVER = TRANSPORT_PREFIX + "clientChannelsPerServer";
+
     /**
      * The constant DISABLE_GLOBAL_TRANSACTION.
      */
@@ -545,6 +700,11 @@ public interface ConfigurationKeys {
      */
     String SQL_PARSER_TYPE = CLIENT_RM_PREFIX + "sqlParserType";
 
+    /**
+     * The constant SQL_RECOGNIZER_CACHE_SIZE, the estimated heap bytes of the cached sql recognizers, 0 to disable the cache.
+     */
+    String SQL_RECOGNIZER_CACHE_SIZE = CLIENT_RM_PREFIX + "sqlRecognizerCacheSize";
+
     /**
      * The constant STORE_REDIS_MODE.
      */
@@ -605,6 +765,11 @@ public interface ConfigurationKeys {
      */
     String STORE_REDIS_QUERY_LIMIT = STORE_REDIS_PREFIX + "queryLimit";
 
+    /**
+     * The constant STORE_REDIS_STATUS_LIST_COMPATIBLE.
+     */
+    String STORE_REDIS_STATUS_LIST_COMPATIBLE = STORE_REDIS_PREFIX + "statusListCompatible";
+
     /**
      * The constant REDIS_SENTINEL_MODE.
      */
@@ -15,6 +15,7 @@
  */
 package io.seata.core.protocol;
 
+import io.netty.util.Timeout;
 import io.seata.common.exception.ShouldNeverHappenException;
 
 import java.util.concurrent.CompletableFuture;
@@ -32,6 +33,7 @@ public class MessageFuture {
     private long timeout;
     private long start = System.currentTimeMillis();
     private transient CompletableFuture<Object> origin = new CompletableFuture<>();
+    private volatile Timeout timeoutTask;
 
     /**
      * Is timeout boolean.
@@ -62,7 +64,10 @@ public class MessageFuture {
             throw new TimeoutException("cost " + (System.currentTimeMillis() - start) + " ms");
         }
 
-        if (result instanceof RuntimeException) {
+        if (result instanceof TimeoutException) {
+            // completed by the timeout task
+            throw new TimeoutException("cost " + (System.currentTimeMillis() - start) + " ms");
+        } else if (result instanceof RuntimeException) {
             throw (RuntimeException)result;
         } else if (result instanceof Throwable) {
             throw new RuntimeException((Throwable)result);
@@ -78,6 +83,10 @@ public class MessageFuture {
      */
     public void setResultMessage(Object obj) {
         origin.complete(obj);
+        Timeout task = timeoutTask;
+        if (task != null) {
+            task.cancel();
+        }
     }
 
     /**
@@ -115,4 +124,16 @@ public class MessageFuture {
     public void setTimeout(long timeout) {
         this.timeout = timeout;
     }
+
+    /**
+     * Sets the timeout task, it is cancelled when the result is set.
+     *
+     * @param timeoutTask the timeout task
+     */
+    public void setTimeoutTask(Timeout timeoutTask) {
+        this.timeoutTask = timeoutTask;
+        if (origin.isDone()) {
+            timeoutTask.cancel();
+        }
+    }
 }
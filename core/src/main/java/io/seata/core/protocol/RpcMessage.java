@@ -17,7 +17,6 @@ package io.seata.core.protocol;
 
 import io.seata.common.util.StringUtils;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -31,7 +30,10 @@ public class RpcMessage {
     private byte messageType;
     private byte codec;
     private byte compressor;
-    private Map<String, String> headMap = new HashMap<>();
+    /**
+     * created when the first head is put
+     */
+    private Map<String, String> headMap;
     private Object body;
 
     /**
@@ -116,9 +118,21 @@ public class RpcMessage {
      * @return the head map
      */
     public Map<String, String> getHeadMap() {
+        if (headMap == null) {
+            headMap = new HeadMap();
+        }
         return headMap;
     }
 
+    /**
+     * Whether the message has heads, the head map is not created by the check.
+     *
+     * @return the boolean
+     */
+    public boolean hasHead() {
+        return headMap != null && !headMap.isEmpty();
+    }
+
     /**
      * Sets head map.
      *
@@ -137,7 +151,7 @@ public class RpcMessage {
      * @return the head
      */
     public String getHead(String headKey) {
-        return headMap.get(headKey);
+        return headMap == null ? null : headMap.get(headKey);
     }
 
     /**
@@ -147,7 +161,7 @@ public class RpcMessage {
      * @param headValue the head value
      */
     public void putHead(String headKey, String headValue) {
-        headMap.put(headKey, headValue);
+        getHeadMap().put(headKey, headValue);
     }
 
     /**
@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The type rpc context.
@@ -52,6 +53,8 @@ public class RpcContext {
 
     private Set<String> resourceSets;
 
+    private final AtomicInteger inflightRequests = new AtomicInteger();
+
     /**
      * id
      */
@@ -311,6 +314,29 @@ public class RpcContext {
         this.resourceSets.addAll(resources);
     }
 
+    /**
+     * Gets the count of the sync requests sent to the channel and waiting for the response.
+     *
+     * @return the inflight requests
+     */
+    public int getInflightRequests() {
+        return inflightRequests.get();
+    }
+
+    /**
+     * Increase the inflight requests, before the sync request is sent.
+     */
+    public void increaseInflightRequests() {
+        inflightRequests.incrementAndGet();
+    }
+
+    /**
+     * Decrease the inflight requests, after the sync request is completed.
+     */
+    public void decreaseInflightRequests() {
+        inflightRequests.decrementAndGet();
+    }
+
     /**
      * Sets client id.
      *
@@ -18,11 +18,18 @@ package io.seata.core.rpc.netty;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.internal.PlatformDependent;
 import io.seata.common.exception.FrameworkErrorCode;
 import io.seata.common.exception.FrameworkException;
 import io.seata.common.loader.EnhancedServiceLoader;
 import io.seata.common.thread.NamedThreadFactory;
 import io.seata.common.thread.PositiveAtomicCounter;
+import io.seata.core.protocol.AbstractMessage;
+import io.seata.core.protocol.MergeMessage;
+import io.seata.core.protocol.MergedWarpMessage;
 import io.seata.core.protocol.MessageFuture;
 import io.seata.core.protocol.MessageType;
 import io.seata.core.protocol.MessageTypeAware;
@@ -39,11 +46,14 @@ import org.slf4j.MDC;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
@@ -51,6 +61,8 @@ import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * The abstract netty remoting.
@@ -65,7 +77,12 @@ public abstract class AbstractNettyRemoting implements Disposable {
      * The Timer executor.
      */
     protected final ScheduledExecutorService timerExecutor = new ScheduledThreadPoolExecutor(1,
-        new NamedThreadFactory("timeoutChecker", 1, true));
+        new NamedThreadFactory("timerExecutor", 1, true));
+    /**
+     * The timer of the message futures, every future registers its own timeout and cancels it when completed.
+     */
+    protected final HashedWheelTimer timeoutTimer = new HashedWheelTimer(
+        new NamedThreadFactory("timeoutChecker", 1, true), TIMEOUT_TICK_MILLS, TimeUnit.MILLISECONDS);
     /**
      * The Message executor.
      */
@@ -83,18 +100,32 @@ public abstract class AbstractNettyRemoting implements Disposable {
      */
     protected final ConcurrentHashMap<Integer, MessageFuture> futures = new ConcurrentHashMap<>();
 
-    private static final long NOT_WRITEABLE_CHECK_MILLS = 10L;
+    /**
+     * The count of the timeout futures, keyed by the type code of the request.
+     */
+    private final ConcurrentMap<Integer, LongAdder> timeoutCounts = new ConcurrentHashMap<>();
 
     /**
-     * The Now mills.
+     * When sending message type is {@link MergeMessage}, will be stored to mergeMsgMap.
      */
-    protected volatile long nowMills = 0;
-    private static final int TIMEOUT_CHECK_INTERVAL = 3000;
-    protected final Object lock = new Object();
+    protected final Map<Integer, MergeMessage> mergeMsgMap = new ConcurrentHashMap<>();
+
     /**
-     * The Is sending.
+     * When batch sending is enabled, the messages are queued to the {@link MergedSendQueue} of the channel,
+     * and the batches written are recorded to the stats
      */
-    protected volatile boolean isSending = false;
+    private final MergedSendStats mergedSendStats = new MergedSendStats();
+
+    private static final long NOT_WRITEABLE_CHECK_MILLS = 10L;
+
+    private static final String MSG_ID_PREFIX = "msgId:";
+    private static final String FUTURES_PREFIX = "futures:";
+    private static final String SINGLE_LOG_POSTFIX = ";";
+    private static final int MAX_MERGE_SEND_SIZE = 512;
+    private static final AttributeKey<MergedSendQueue> MERGED_SEND_QUEUE = AttributeKey.valueOf("mergedSendQueue");
+
+    private static final long TIMEOUT_TICK_MILLS = 100L;
+    protected final Object lock = new Object();
     private String group = "DEFAULT";
 
     /**
@@ -106,22 +137,7 @@ public abstract class AbstractNettyRemoting implements Disposable {
     protected final List<RpcHook> rpcHooks = EnhancedServiceLoader.loadAll(RpcHook.class);
 
     public void init() {
-        timerExecutor.scheduleAtFixedRate(new Runnable() {
-            @Override
-            public void run() {
-                for (Map.Entry<Integer, MessageFuture> entry : futures.entrySet()) {
-                    if (entry.getValue().isTimeout()) {
-                        futures.remove(entry.getKey());
-                        entry.getValue().setResultMessage(null);
-                        if (LOGGER.isDebugEnabled()) {
-                            LOGGER.debug("timeout clear future: {}", entry.getValue().getRequestMessage().getBody());
-                        }
-                    }
-                }
-
-                nowMills = System.currentTimeMillis();
-            }
-        }, TIMEOUT_CHECK_INTERVAL, TIMEOUT_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+        timeoutTimer.start();
     }
 
     public AbstractNettyRemoting(ThreadPoolExecutor messageExecutor) {
@@ -136,6 +152,76 @@ public abstract class AbstractNettyRemoting implements Disposable {
         return futures;
     }
 
+    /**
+     * Put the future of the request, and clear it when it is not completed after its timeout.
+     * The cleared future is completed with a {@link TimeoutException}, which is thrown to the waiting caller.
+     *
+     * @param rpcMessage    the request
+     * @param messageFuture the future
+     */
+    protected void putFuture(RpcMessage rpcMessage, MessageFuture messageFuture) {
+        int id = rpcMessage.getId();
+        futures.put(id, messageFuture);
+        messageFuture.setTimeoutTask(timeoutTimer.newTimeout(timeout -> {
+            if (futures.remove(id, messageFuture)) {
+                messageFuture.setResultMessage(new TimeoutException("timeout after " + messageFuture.getTimeout()
+                    + " ms"));
+                Object body = rpcMessage.getBody();
+                int typeCode = body instanceof MessageTypeAware ? ((MessageTypeAware) body).getTypeCode() : -1;
+                timeoutCounts.computeIfAbsent(typeCode, key -> new LongAdder()).increment();
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("timeout clear future: {}", body);
+                }
+            }
+        }, messageFuture.getTimeout(), TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Gets the count of the timeout futures.
+     *
+     * @return the count keyed by the type code of the request, -1 if the request has no type code
+     */
+    public Map<Integer, Long> getTimeoutCounts() {
+        Map<Integer, Long> counts = new HashMap<>(timeoutCounts.size());
+        timeoutCounts.forEach((typeCode, count) -> counts.put(typeCode, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Gets the statistics of the batch sending.
+     *
+     * @return the merged send stats
+     */
+    public MergedSendStats getMergedSendStats() {
+        return mergedSendStats;
+    }
+
+    MergedSendQueue getMergedSendQueue(Channel channel) {
+        Attribute<MergedSendQueue> attribute = channel.attr(MERGED_SEND_QUEUE);
+        MergedSendQueue queue = attribute.get();
+        if (queue == null) {
+            MergedSendQueue newQueue = new MergedSendQueue(channel);
+            queue = attribute.setIfAbsent(newQueue);
+            if (queue == null) {
+                queue = newQueue;
+            }
+        }
+        return queue;
+    }
+
+
+    /**
+     * Drain the queued requests of the channel again, when the channel becomes writable.
+     *
+     * @param channel the channel
+     */
+    protected void resumeMergedSend(Channel channel) {
+        MergedSendQueue mergedSendQueue = channel.attr(MERGED_SEND_QUEUE).get();
+        if (mergedSendQueue != null) {
+            mergedSendQueue.schedule();
+        }
+    }
+
     public String getGroup() {
         return group;
     }
@@ -151,6 +237,7 @@ public abstract class AbstractNettyRemoting implements Disposable {
     @Override
     public void destroy() {
         timerExecutor.shutdown();
+        timeoutTimer.stop();
         messageExecutor.shutdown();
     }
 
@@ -176,7 +263,7 @@ public abstract class AbstractNettyRemoting implements Disposable {
         MessageFuture messageFuture = new MessageFuture();
         messageFuture.setRequestMessage(rpcMessage);
         messageFuture.setTimeout(timeoutMillis);
-        futures.put(rpcMessage.getId(), messageFuture);
+        putFuture(rpcMessage, messageFuture);
 
         channelWritableCheck(channel, rpcMessage.getBody());
 
@@ -208,6 +295,43 @@ public abstract class AbstractNettyRemoting implements Disposable {
         }
     }
 
+    /**
+     * rpc sync request in batch
+     * The request is queued to the {@link MergedSendQueue} of the channel, and written with the requests
+     * queued at the same time in a {@link MergedWarpMessage}.
+     *
+     * @param channel       netty channel
+     * @param rpcMessage    rpc message
+     * @param timeoutMillis rpc communication timeout
+     * @return response message
+     * @throws TimeoutException
+     */
+    protected Object sendSyncMerged(Channel channel, RpcMessage rpcMessage, long timeoutMillis)
+        throws TimeoutException {
+        // send batch message is sync request, needs to create messageFuture and put it in futures.
+        MessageFuture messageFuture = new MessageFuture();
+        messageFuture.setRequestMessage(rpcMessage);
+        messageFuture.setTimeout(timeoutMillis);
+        putFuture(rpcMessage, messageFuture);
+
+        getMergedSendQueue(channel).offer(rpcMessage);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("offer message: {}", rpcMessage.getBody());
+        }
+
+        try {
+            return messageFuture.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception exx) {
+            LOGGER.error("wait response error:{},ip:{},request:{}",
+                exx.getMessage(), channel.remoteAddress(), rpcMessage.getBody());
+            if (exx instanceof TimeoutException) {
+                throw (TimeoutException) exx;
+            } else {
+                throw new RuntimeException(exx);
+            }
+        }
+    }
+
     /**
      * rpc async request.
      *
@@ -297,6 +421,7 @@ public abstract class AbstractNettyRemoting implements Disposable {
                             }
                             allowDumpStack = false;
                         }
+                        onRejectedExecution(ctx, rpcMessage);
                     }
                 } else {
                     try {
@@ -313,6 +438,15 @@ public abstract class AbstractNettyRemoting implements Disposable {
         }
     }
 
+    /**
+     * Called when the executor of the message rejects it, the server answers the request at once.
+     *
+     * @param ctx        Channel handler context.
+     * @param rpcMessage rpc message.
+     */
+    protected void onRejectedExecution(ChannelHandlerContext ctx, RpcMessage rpcMessage) {
+    }
+
     /**
      * Gets address from context.
      *
@@ -338,7 +472,18 @@ public abstract class AbstractNettyRemoting implements Disposable {
         return address;
     }
 
-    private void channelWritableCheck(Channel channel, Object msg) {
+    /**
+     * Wait until the channel is writable, the callers are blocked while the pending bytes of the channel
+     * are above the high water mark.
+     *
+     * @param channel the channel
+     * @param msg     the message to write
+     */
+    protected void channelWritableCheck(Channel channel, Object msg) {
+        // the writable channel is not blocked by the lock, which is shared by all the channels
+        if (channel.isWritable()) {
+            return;
+        }
         int tryTimes = 0;
         synchronized (lock) {
             while (!channel.isWritable()) {
@@ -376,4 +521,134 @@ public abstract class AbstractNettyRemoting implements Disposable {
             rpcHook.doAfterResponse(remoteAddr, request, response);
         }
     }
+
+    /**
+     * The queue of the batch requests of a channel.
+     * <p>
+     * The requests are offered by the callers without lock, and drained on the event loop of the channel.
+     * Only the first offer after a drain schedules the next drain, so the requests offered while a drain is
+     * pending are written in one {@link MergedWarpMessage}, and a single request is written at once when idle.
+     * All the batches of a drain are flushed once.
+     */
+    class MergedSendQueue implements Runnable {
+
+        private final Channel channel;
+
+        private final Queue<RpcMessage> queue = PlatformDependent.newMpscQueue();
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile long scheduledNanos;
+
+        MergedSendQueue(Channel channel) {
+            this.channel = channel;
+        }
+
+        void offer(RpcMessage rpcMessage) {
+            queue.offer(rpcMessage);
+            schedule();
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                scheduledNanos = System.nanoTime();
+                channel.eventLoop().execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            long latencyNanos = System.nanoTime() - scheduledNanos;
+            // the requests offered from now on schedule the next drain
+            scheduled.set(false);
+            List<RpcMessage> batch = new ArrayList<>();
+            int batches = 0;
+            int messages = 0;
+            RpcMessage rpcMessage;
+            // stop above the high water mark, the drain is scheduled again when the channel is writable,
+            // the requests to a closed channel are still written to fail fast
+            while ((channel.isWritable() || !channel.isActive()) && (rpcMessage = queue.poll()) != null) {
+                batch.add(rpcMessage);
+                if (batch.size() == MAX_MERGE_SEND_SIZE) {
+                    write(batch);
+                    batches++;
+                    messages += batch.size();
+                    batch = new ArrayList<>();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batches++;
+                messages += batch.size();
+            }
+            if (batches > 0) {
+                channel.flush();
+                mergedSendStats.record(batches, messages, latencyNanos);
+            }
+        }
+
+        private void write(List<RpcMessage> batch) {
+            RpcMessage rpcMessage;
+            if (batch.size() == 1) {
+                rpcMessage = batch.get(0);
+            } else {
+                MergedWarpMessage mergeMessage = new MergedWarpMessage();
+                for (RpcMessage msg : batch) {
+                    mergeMessage.msgs.add((AbstractMessage) msg.getBody());
+                    mergeMessage.msgIds.add(msg.getId());
+                }
+                printMergeMessageLog(mergeMessage);
+                // the responses are matched to the futures by the processor of the MergeResultMessage
+                rpcMessage = buildRequestMessage(mergeMessage, ProtocolConstants.MSGTYPE_RESQUEST_ONEWAY);
+                putMergeMessage(rpcMessage.getId(), mergeMessage, batch);
+            }
+            doBeforeRpcHooks(ChannelUtil.getAddressFromChannel(channel), rpcMessage);
+            int mergeMessageId = rpcMessage.getId();
+            channel.write(rpcMessage).addListener((ChannelFutureListener) future -> {
+                if (!future.isSuccess()) {
+                    // fast fail
+                    mergeMsgMap.remove(mergeMessageId);
+                    for (RpcMessage msg : batch) {
+                        MessageFuture messageFuture = futures.remove(msg.getId());
+                        if (messageFuture != null) {
+                            messageFuture.setResultMessage(future.cause());
+                        }
+                    }
+                    destroyChannel(future.channel());
+                }
+            });
+        }
+
+        private void putMergeMessage(int mergeMessageId, MergedWarpMessage mergeMessage, List<RpcMessage> batch) {
+            mergeMsgMap.put(mergeMessageId, mergeMessage);
+            // the merge message is cleared with the futures when no result comes back
+            long timeoutMillis = 0L;
+            for (RpcMessage msg : batch) {
+                MessageFuture messageFuture = futures.get(msg.getId());
+                if (messageFuture != null) {
+                    timeoutMillis = Math.max(timeoutMillis, messageFuture.getTimeout());
+                }
+            }
+            timeoutTimer.newTimeout(timeout -> mergeMsgMap.remove(mergeMessageId, mergeMessage),
+                timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private void printMergeMessageLog(MergedWarpMessage mergeMessage) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("merge msg size:{}", mergeMessage.msgIds.size());
+                for (AbstractMessage cm : mergeMessage.msgs) {
+                    LOGGER.debug(cm.toString());
+                }
+                StringBuilder sb = new StringBuilder();
+                for (long l : mergeMessage.msgIds) {
+                    sb.append(MSG_ID_PREFIX).append(l).append(SINGLE_LOG_POSTFIX);
+                }
+                sb.append("\n");
+                for (long l : futures.keySet()) {
+                    sb.append(FUTURES_PREFIX).append(l).append(SINGLE_LOG_POSTFIX);
+                }
+                LOGGER.debug(sb.toString());
+            }
+        }
+    }
 }
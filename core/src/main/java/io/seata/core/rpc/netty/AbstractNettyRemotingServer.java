@@ -26,6 +26,8 @@ import io.seata.common.util.NetUtil;
 import io.seata.core.protocol.HeartbeatMessage;
 import io.seata.core.protocol.ProtocolConstants;
 import io.seata.core.protocol.RpcMessage;
+import io.seata.core.protocol.transaction.BranchCommitRequest;
+import io.seata.core.protocol.transaction.BranchRollbackRequest;
 import io.seata.core.rpc.RemotingServer;
 import io.seata.core.rpc.RpcContext;
 import io.seata.core.rpc.processor.Pair;
@@ -68,7 +70,7 @@ public abstract class AbstractNettyRemotingServer extends AbstractNettyRemoting
             throw new RuntimeException("rm client is not connected. dbkey:" + resourceId + ",clientId:" + clientId);
         }
         RpcMessage rpcMessage = buildRequestMessage(msg, ProtocolConstants.MSGTYPE_RESQUEST_SYNC);
-        return super.sendSync(channel, rpcMessage, NettyServerConfig.getRpcRequestTimeout());
+        return sendSyncToClient(channel, rpcMessage);
     }
 
     @Override
@@ -77,6 +79,31 @@ public abstract class AbstractNettyRemotingServer extends AbstractNettyRemoting
             throw new RuntimeException("client is not connected");
         }
         RpcMessage rpcMessage = buildRequestMessage(msg, ProtocolConstants.MSGTYPE_RESQUEST_SYNC);
+        return sendSyncToClient(channel, rpcMessage);
+    }
+
+    private Object sendSyncToClient(Channel channel, RpcMessage rpcMessage) throws TimeoutException {
+        RpcContext rpcContext = ChannelManager.getContextFromIdentified(channel);
+        if (rpcContext == null) {
+            return doSendSyncToClient(channel, rpcMessage);
+        }
+        // counted for choosing the rm channel with the least inflight requests
+        rpcContext.increaseInflightRequests();
+        try {
+            return doSendSyncToClient(channel, rpcMessage);
+        } finally {
+            rpcContext.decreaseInflightRequests();
+        }
+    }
+
+    private Object doSendSyncToClient(Channel channel, RpcMessage rpcMessage) throws TimeoutException {
+        Object body = rpcMessage.getBody();
+        if (NettyServerConfig.isEnableServerBatchSendRequest()
+            && (body instanceof BranchCommitRequest || body instanceof BranchRollbackRequest)) {
+            // the phase two requests to the same rm channel are merged, @see MergedSendQueue
+            channelWritableCheck(channel, body);
+            return super.sendSyncMerged(channel, rpcMessage, NettyServerConfig.getRpcRequestTimeout());
+        }
         return super.sendSync(channel, rpcMessage, NettyServerConfig.getRpcRequestTimeout());
     }
 
@@ -182,6 +209,9 @@ public abstract class AbstractNettyRemotingServer extends AbstractNettyRemoting
                     lock.notifyAll();
                 }
             }
+            if (ctx.channel().isWritable()) {
+                resumeMergedSend(ctx.channel());
+            }
             ctx.fireChannelWritabilityChanged();
         }
 
@@ -52,6 +52,11 @@ public class ChannelManager {
     private static final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String,
         ConcurrentMap<Integer, RpcContext>>>> RM_CHANNELS = new ConcurrentHashMap<>();
 
+    /**
+     * resourceId -> the live rm channels
+     */
+    private static final ConcurrentMap<String, ResourceChannelRoute> RM_ROUTES = new ConcurrentHashMap<>();
+
     /**
      * ip+appname,port
      */
@@ -164,6 +169,7 @@ public class ChannelManager {
                     .computeIfAbsent(clientIp = ChannelUtil.getClientIpFromChannel(channel), key -> new ConcurrentHashMap<>());
 
             rpcContext.holdInResourceManagerChannels(resourceId, portMap);
+            addRoute(resourceId, rpcContext);
             updateChannelsResource(resourceId, clientIp, resourceManagerRequest.getApplicationId());
         }
     }
@@ -186,11 +192,29 @@ public class ChannelManager {
                     RpcContext rpcContext = portMapEntry.getValue();
                     sourcePortMap.put(port, rpcContext);
                     rpcContext.holdInResourceManagerChannels(resourceId, port);
+                    addRoute(resourceId, rpcContext);
                 }
             }
         }
     }
 
+    private static void addRoute(String resourceId, RpcContext rpcContext) {
+        CollectionUtils.computeIfAbsent(RM_ROUTES, resourceId, key -> new ResourceChannelRoute()).add(rpcContext);
+    }
+
+    private static void removeRoutes(RpcContext rpcContext) {
+        Map<String, ConcurrentMap<Integer, RpcContext>> clientRMHolderMap = rpcContext.getClientRMHolderMap();
+        if (clientRMHolderMap == null) {
+            return;
+        }
+        for (String resourceId : clientRMHolderMap.keySet()) {
+            ResourceChannelRoute route = RM_ROUTES.get(resourceId);
+            if (route != null) {
+                route.remove(rpcContext);
+            }
+        }
+    }
+
     private static Set<String> dbKeytoSet(String dbkey) {
         if (StringUtils.isNullOrEmpty(dbkey)) {
             return null;
@@ -206,6 +230,7 @@ public class ChannelManager {
     public static void releaseRpcContext(Channel channel) {
         RpcContext rpcContext = getContextFromIdentified(channel);
         if (rpcContext != null) {
+            removeRoutes(rpcContext);
             rpcContext.release();
         }
     }
@@ -274,8 +299,6 @@ public class ChannelManager {
      * @return Corresponding channel, NULL if not found.
      */
     public static Channel getChannel(String resourceId, String clientId) {
-        Channel resultChannel = null;
-
         String[] clientIdInfo = readClientId(clientId);
 
         if (clientIdInfo == null || clientIdInfo.length != 3) {
@@ -284,158 +307,55 @@ public class ChannelManager {
 
         String targetApplicationId = clientIdInfo[0];
         String targetIP = clientIdInfo[1];
-        int targetPort = Integer.parseInt(clientIdInfo[2]);
-
-        ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<Integer,
-            RpcContext>>> applicationIdMap = RM_CHANNELS.get(resourceId);
 
-        if (targetApplicationId == null || applicationIdMap == null ||  applicationIdMap.isEmpty()) {
+        ResourceChannelRoute route = RM_ROUTES.get(resourceId);
+        if (route == null) {
             if (LOGGER.isInfoEnabled()) {
                 LOGGER.info("No channel is available for resource[{}]", resourceId);
             }
             return null;
         }
 
-        ConcurrentMap<String, ConcurrentMap<Integer, RpcContext>> ipMap = applicationIdMap.get(targetApplicationId);
-
-        if (ipMap != null && !ipMap.isEmpty()) {
-            // Firstly, try to find the original channel through which the branch was registered.
-            ConcurrentMap<Integer, RpcContext> portMapOnTargetIP = ipMap.get(targetIP);
-            if (portMapOnTargetIP != null && !portMapOnTargetIP.isEmpty()) {
-                RpcContext exactRpcContext = portMapOnTargetIP.get(targetPort);
-                if (exactRpcContext != null) {
-                    Channel channel = exactRpcContext.getChannel();
-                    if (channel.isActive()) {
-                        resultChannel = channel;
-                        if (LOGGER.isDebugEnabled()) {
-                            LOGGER.debug("Just got exactly the one {} for {}", channel, clientId);
-                        }
-                    } else {
-                        if (portMapOnTargetIP.remove(targetPort, exactRpcContext)) {
-                            if (LOGGER.isInfoEnabled()) {
-                                LOGGER.info("Removed inactive {}", channel);
-                            }
-                        }
-                    }
-                }
-
-                // The original channel was broken, try another one.
-                if (resultChannel == null) {
-                    for (ConcurrentMap.Entry<Integer, RpcContext> portMapOnTargetIPEntry : portMapOnTargetIP
-                        .entrySet()) {
-                        Channel channel = portMapOnTargetIPEntry.getValue().getChannel();
-
-                        if (channel.isActive()) {
-                            resultChannel = channel;
-                            if (LOGGER.isInfoEnabled()) {
-                                LOGGER.info(
-                                    "Choose {} on the same IP[{}] as alternative of {}", channel, targetIP, clientId);
-                            }
-                            break;
-                        } else {
-                            if (portMapOnTargetIP.remove(portMapOnTargetIPEntry.getKey(),
-                                portMapOnTargetIPEntry.getValue())) {
-                                if (LOGGER.isInfoEnabled()) {
-                                    LOGGER.info("Removed inactive {}", channel);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-
-            // No channel on the this app node, try another one.
-            if (resultChannel == null) {
-                for (ConcurrentMap.Entry<String, ConcurrentMap<Integer, RpcContext>> ipMapEntry : ipMap
-                    .entrySet()) {
-                    if (ipMapEntry.getKey().equals(targetIP)) { continue; }
-
-                    ConcurrentMap<Integer, RpcContext> portMapOnOtherIP = ipMapEntry.getValue();
-                    if (portMapOnOtherIP == null || portMapOnOtherIP.isEmpty()) {
-                        continue;
-                    }
-
-                    for (ConcurrentMap.Entry<Integer, RpcContext> portMapOnOtherIPEntry : portMapOnOtherIP.entrySet()) {
-                        Channel channel = portMapOnOtherIPEntry.getValue().getChannel();
-
-                        if (channel.isActive()) {
-                            resultChannel = channel;
-                            if (LOGGER.isInfoEnabled()) {
-                                LOGGER.info("Choose {} on the same application[{}] as alternative of {}", channel, targetApplicationId, clientId);
-                            }
-                            break;
-                        } else {
-                            if (portMapOnOtherIP.remove(portMapOnOtherIPEntry.getKey(),
-                                portMapOnOtherIPEntry.getValue())) {
-                                if (LOGGER.isInfoEnabled()) {
-                                    LOGGER.info("Removed inactive {}", channel);
-                                }
-                            }
-                        }
-                    }
-                    if (resultChannel != null) { break; }
-                }
+        // Firstly, try to find the original channel through which the branch was registered.
+        Channel resultChannel = route.getChannel(clientId);
+        if (resultChannel != null) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Just got exactly the one {} for {}", resultChannel, clientId);
             }
+            return resultChannel;
         }
 
-        if (resultChannel == null) {
-            resultChannel = tryOtherApp(applicationIdMap, targetApplicationId);
-
-            if (resultChannel == null) {
-                if (LOGGER.isInfoEnabled()) {
-                    LOGGER.info("No channel is available for resource[{}] as alternative of {}", resourceId, clientId);
-                }
-            } else {
-                if (LOGGER.isInfoEnabled()) {
-                    LOGGER.info("Choose {} on the same resource[{}] as alternative of {}", resultChannel, resourceId, clientId);
-                }
+        boolean leastInflight = NettyServerConfig.isRmChannelLeastInflight();
+        // The original channel was broken, try another one.
+        resultChannel = route.chooseOnHost(targetApplicationId, targetIP, leastInflight);
+        if (resultChannel != null) {
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("Choose {} on the same IP[{}] as alternative of {}", resultChannel, targetIP, clientId);
             }
+            return resultChannel;
         }
 
-        return resultChannel;
-
-    }
-
-    private static Channel tryOtherApp(ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<Integer,
-        RpcContext>>> applicationIdMap, String myApplicationId) {
-        Channel chosenChannel = null;
-        for (ConcurrentMap.Entry<String, ConcurrentMap<String, ConcurrentMap<Integer, RpcContext>>> applicationIdMapEntry : applicationIdMap
-            .entrySet()) {
-            if (!StringUtils.isNullOrEmpty(myApplicationId) && applicationIdMapEntry.getKey().equals(myApplicationId)) {
-                continue;
+        // No channel on the this app node, try another one.
+        resultChannel = route.chooseOnApplication(targetApplicationId, leastInflight);
+        if (resultChannel != null) {
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("Choose {} on the same application[{}] as alternative of {}", resultChannel,
+                    targetApplicationId, clientId);
             }
+            return resultChannel;
+        }
 
-            ConcurrentMap<String, ConcurrentMap<Integer, RpcContext>> targetIPMap = applicationIdMapEntry.getValue();
-            if (targetIPMap == null || targetIPMap.isEmpty()) {
-                continue;
+        resultChannel = route.choose(leastInflight);
+        if (resultChannel == null) {
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("No channel is available for resource[{}] as alternative of {}", resourceId, clientId);
             }
-
-            for (ConcurrentMap.Entry<String, ConcurrentMap<Integer, RpcContext>> targetIPMapEntry : targetIPMap
-                .entrySet()) {
-                ConcurrentMap<Integer, RpcContext> portMap = targetIPMapEntry.getValue();
-                if (portMap == null || portMap.isEmpty()) {
-                    continue;
-                }
-
-                for (ConcurrentMap.Entry<Integer, RpcContext> portMapEntry : portMap.entrySet()) {
-                    Channel channel = portMapEntry.getValue().getChannel();
-                    if (channel.isActive()) {
-                        chosenChannel = channel;
-                        break;
-                    } else {
-                        if (portMap.remove(portMapEntry.getKey(), portMapEntry.getValue())) {
-                            if (LOGGER.isInfoEnabled()) {
-                                LOGGER.info("Removed inactive {}", channel);
-                            }
-                        }
-                    }
-                }
-                if (chosenChannel != null) { break; }
+        } else {
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("Choose {} on the same resource[{}] as alternative of {}", resultChannel, resourceId, clientId);
             }
-            if (chosenChannel != null) { break; }
         }
-        return chosenChannel;
-
+        return resultChannel;
     }
 
     /**
@@ -444,12 +364,13 @@ public class ChannelManager {
      * @return
      */
     public static Map<String,Channel> getRmChannels() {
-        if (RM_CHANNELS.isEmpty()) {
+        if (RM_ROUTES.isEmpty()) {
             return null;
         }
-        Map<String, Channel> channels = new HashMap<>(RM_CHANNELS.size());
-        RM_CHANNELS.forEach((resourceId, value) -> {
-            Channel channel = tryOtherApp(value, null);
+        boolean leastInflight = NettyServerConfig.isRmChannelLeastInflight();
+        Map<String, Channel> channels = new HashMap<>(RM_ROUTES.size());
+        RM_ROUTES.forEach((resourceId, route) -> {
+            Channel channel = route.choose(leastInflight);
             if (channel == null) {
                 return;
             }
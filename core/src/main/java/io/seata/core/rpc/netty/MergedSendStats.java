@@ -0,0 +1,79 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics of the batch sending.
+ * <p>
+ * A drain writes all the queued requests of a channel, as one or more batches,
+ * the latency is from the first request queued to the drain on the event loop.
+ *
+ * @author wang.liang
+ */
+public class MergedSendStats {
+
+    private final LongAdder drainCount = new LongAdder();
+
+    private final LongAdder batchCount = new LongAdder();
+
+    private final LongAdder messageCount = new LongAdder();
+
+    private final LongAdder latencyNanos = new LongAdder();
+
+    /**
+     * Record a drain.
+     *
+     * @param batches      the batches written
+     * @param messages     the requests written
+     * @param latencyNanos the nanos from the first request queued to the drain
+     */
+    void record(int batches, int messages, long latencyNanos) {
+        drainCount.increment();
+        batchCount.add(batches);
+        messageCount.add(messages);
+        this.latencyNanos.add(latencyNanos);
+    }
+
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    public long getMessageCount() {
+        return messageCount.sum();
+    }
+
+    /**
+     * Gets the average requests in a batch.
+     *
+     * @return the average batch size
+     */
+    public double getAverageBatchSize() {
+        long batches = batchCount.sum();
+        return batches == 0 ? 0 : (double) messageCount.sum() / batches;
+    }
+
+    /**
+     * Gets the average nanos from the first request queued to the drain.
+     *
+     * @return the average latency nanos
+     */
+    public double getAverageLatencyNanos() {
+        long drains = drainCount.sum();
+        return drains == 0 ? 0 : (double) latencyNanos.sum() / drains;
+    }
+}
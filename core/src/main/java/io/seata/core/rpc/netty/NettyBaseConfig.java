@@ -15,16 +15,27 @@
  */
 package io.seata.core.rpc.netty;
 
+import java.util.concurrent.ThreadFactory;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
 import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
 import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.EpollServerDomainSocketChannel;
 import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.kqueue.KQueue;
 import io.netty.channel.kqueue.KQueueDomainSocketChannel;
+import io.netty.channel.kqueue.KQueueEventLoopGroup;
 import io.netty.channel.kqueue.KQueueServerDomainSocketChannel;
 import io.netty.channel.kqueue.KQueueServerSocketChannel;
 import io.netty.channel.kqueue.KQueueSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.NettyRuntime;
@@ -91,6 +102,13 @@ public class NettyBaseConfig {
      */
     protected static final TransportProtocolType TRANSPORT_PROTOCOL_TYPE;
 
+    /**
+     * The constant ALLOCATOR, the pooled allocator prefers the direct buffers.
+     */
+    protected static final ByteBufAllocator ALLOCATOR = "unpooled".equalsIgnoreCase(
+        CONFIG.getConfig(ConfigurationKeys.TRANSPORT_ALLOCATOR, "pooled"))
+        ? UnpooledByteBufAllocator.DEFAULT : PooledByteBufAllocator.DEFAULT;
+
     private static final int DEFAULT_WRITE_IDLE_SECONDS = 5;
 
     private static final int READIDLE_BASE_WRITEIDLE = 3;
@@ -136,6 +154,19 @@ public class NettyBaseConfig {
             case NATIVE:
                 if (PlatformDependent.isWindows()) {
                     throw new IllegalArgumentException("no native supporting for Windows.");
+                } else if (PlatformDependent.isOsx() ? !KQueue.isAvailable() : !Epoll.isAvailable()) {
+                    // the native library can not be loaded, fall back to nio
+                    Throwable cause = PlatformDependent.isOsx() ? KQueue.unavailabilityCause() : Epoll.unavailabilityCause();
+                    if (TRANSPORT_PROTOCOL_TYPE == TransportProtocolType.TCP) {
+                        LOGGER.warn("The native transport is unavailable, use nio instead: {}",
+                            cause == null ? null : cause.getMessage());
+                        SERVER_CHANNEL_CLAZZ = NioServerSocketChannel.class;
+                        CLIENT_CHANNEL_CLAZZ = NioSocketChannel.class;
+                    } else {
+                        raiseUnsupportedTransportError();
+                        SERVER_CHANNEL_CLAZZ = null;
+                        CLIENT_CHANNEL_CLAZZ = null;
+                    }
                 } else if (PlatformDependent.isOsx()) {
                     if (TRANSPORT_PROTOCOL_TYPE == TransportProtocolType.TCP) {
                         SERVER_CHANNEL_CLAZZ = KQueueServerSocketChannel.class;
@@ -174,6 +205,23 @@ public class NettyBaseConfig {
         MAX_READ_IDLE_SECONDS = MAX_WRITE_IDLE_SECONDS * READIDLE_BASE_WRITEIDLE;
     }
 
+    /**
+     * Create the event loop group matching the channel class of the transport.
+     *
+     * @param threads       the thread size
+     * @param threadFactory the thread factory
+     * @return the event loop group
+     */
+    protected static EventLoopGroup newEventLoopGroup(int threads, ThreadFactory threadFactory) {
+        if (CLIENT_CHANNEL_CLAZZ == EpollSocketChannel.class || CLIENT_CHANNEL_CLAZZ == EpollDomainSocketChannel.class) {
+            return new EpollEventLoopGroup(threads, threadFactory);
+        }
+        if (CLIENT_CHANNEL_CLAZZ == KQueueSocketChannel.class || CLIENT_CHANNEL_CLAZZ == KQueueDomainSocketChannel.class) {
+            return new KQueueEventLoopGroup(threads, threadFactory);
+        }
+        return new NioEventLoopGroup(threads, threadFactory);
+    }
+
     private static void raiseUnsupportedTransportError() throws RuntimeException {
         String errMsg = String.format("Unsupported provider type :[%s] for transport:[%s].", TRANSPORT_SERVER_TYPE,
             TRANSPORT_PROTOCOL_TYPE);
@@ -40,6 +40,9 @@ import java.util.stream.Collectors;
 
 /**
  * Netty client pool manager.
+ * <p>
+ * When more than one channel is opened to every server, the extra channels are kept with the keys
+ * {@code serverAddress#slot}, each of them has its own pool key, and the first channel keeps the server address.
  *
  * @author slievrly
  * @author zhaojun
@@ -54,6 +57,12 @@ class NettyClientChannelManager {
 
     private final ConcurrentMap<String, Channel> channels = new ConcurrentHashMap<>();
 
+    private final ConcurrentMap<Channel, String> slotChannelKeys = new ConcurrentHashMap<>();
+
+    private static final char SLOT_SEPARATOR = '#';
+
+    private final int channelsPerServer;
+
     private final GenericKeyedObjectPool<NettyPoolKey, Channel> nettyClientKeyPool;
 
     private Function<String, NettyPoolKey> poolKeyFunction;
@@ -63,6 +72,7 @@ class NettyClientChannelManager {
         nettyClientKeyPool = new GenericKeyedObjectPool<>(keyPoolableFactory);
         nettyClientKeyPool.setConfig(getNettyPoolConfig(clientConfig));
         this.poolKeyFunction = poolKeyFunction;
+        this.channelsPerServer = clientConfig.getClientChannelsPerServer();
     }
 
     private GenericKeyedObjectPool.Config getNettyPoolConfig(final NettyClientConfig clientConfig) {
@@ -108,6 +118,21 @@ class NettyClientChannelManager {
         }
     }
 
+    /**
+     * Acquire one of the channels connected to remote server, chosen by the hash of the xid.
+     *
+     * @param serverAddress server address
+     * @param xid           the xid
+     * @return netty channel
+     */
+    Channel acquireChannel(String serverAddress, String xid) {
+        if (channelsPerServer <= 1 || xid == null) {
+            return acquireChannel(serverAddress);
+        }
+        int slot = (xid.hashCode() & Integer.MAX_VALUE) % channelsPerServer;
+        return acquireChannel(slot == 0 ? serverAddress : serverAddress + SLOT_SEPARATOR + slot);
+    }
+
     /**
      * Release channel to pool if necessary.
      *
@@ -116,11 +141,12 @@ class NettyClientChannelManager {
      */
     void releaseChannel(Channel channel, String serverAddress) {
         if (channel == null || serverAddress == null) { return; }
+        serverAddress = getChannelKey(channel, serverAddress);
         try {
             synchronized (channelLocks.get(serverAddress)) {
                 Channel ch = channels.get(serverAddress);
                 if (ch == null) {
-                    nettyClientKeyPool.returnObject(poolKeyMap.get(serverAddress), channel);
+                    returnObject(serverAddress, channel);
                     return;
                 }
                 if (ch.compareTo(channel) == 0) {
@@ -129,7 +155,7 @@ class NettyClientChannelManager {
                     }
                     destroyChannel(serverAddress, channel);
                 } else {
-                    nettyClientKeyPool.returnObject(poolKeyMap.get(serverAddress), channel);
+                    returnObject(serverAddress, channel);
                 }
             }
         } catch (Exception exx) {
@@ -145,10 +171,14 @@ class NettyClientChannelManager {
      */
     void destroyChannel(String serverAddress, Channel channel) {
         if (channel == null) { return; }
+        serverAddress = getChannelKey(channel, serverAddress);
         try {
             if (channel.equals(channels.get(serverAddress))) {
                 channels.remove(serverAddress);
             }
+            // the registered slot channel may be kept with the server address too
+            channels.remove(getServerAddress(serverAddress), channel);
+            slotChannelKeys.remove(channel);
             nettyClientKeyPool.returnObject(poolKeyMap.get(serverAddress), channel);
         } catch (Exception exx) {
             LOGGER.error("return channel to rmPool error:{}", exx.getMessage());
@@ -194,7 +224,26 @@ class NettyClientChannelManager {
     }
 
     void invalidateObject(final String serverAddress, final Channel channel) throws Exception {
-        nettyClientKeyPool.invalidateObject(poolKeyMap.get(serverAddress), channel);
+        String channelKey = getChannelKey(channel, serverAddress);
+        slotChannelKeys.remove(channel);
+        nettyClientKeyPool.invalidateObject(poolKeyMap.get(channelKey), channel);
+    }
+
+    private void returnObject(String channelKey, Channel channel) throws Exception {
+        nettyClientKeyPool.returnObject(poolKeyMap.get(channelKey), channel);
+        if (!channel.isActive()) {
+            slotChannelKeys.remove(channel);
+        }
+    }
+
+    private String getChannelKey(Channel channel, String serverAddress) {
+        String channelKey = slotChannelKeys.get(channel);
+        return channelKey != null ? channelKey : serverAddress;
+    }
+
+    private static String getServerAddress(String channelKey) {
+        int index = channelKey.indexOf(SLOT_SEPARATOR);
+        return index < 0 ? channelKey : channelKey.substring(0, index);
     }
 
     void registerChannel(final String serverAddress, final Channel channel) {
@@ -212,13 +261,16 @@ class NettyClientChannelManager {
         }
         Channel channelFromPool;
         try {
-            NettyPoolKey currentPoolKey = poolKeyFunction.apply(serverAddress);
+            NettyPoolKey currentPoolKey = poolKeyFunction.apply(getServerAddress(serverAddress));
             NettyPoolKey previousPoolKey = poolKeyMap.putIfAbsent(serverAddress, currentPoolKey);
             if (previousPoolKey != null && previousPoolKey.getMessage() instanceof RegisterRMRequest) {
                 RegisterRMRequest registerRMRequest = (RegisterRMRequest) currentPoolKey.getMessage();
                 ((RegisterRMRequest) previousPoolKey.getMessage()).setResourceIds(registerRMRequest.getResourceIds());
             }
             channelFromPool = nettyClientKeyPool.borrowObject(poolKeyMap.get(serverAddress));
+            if (serverAddress.indexOf(SLOT_SEPARATOR) >= 0) {
+                slotChannelKeys.put(channelFromPool, serverAddress);
+            }
             channels.put(serverAddress, channelFromPool);
         } catch (Exception exx) {
             LOGGER.error("{} register RM failed.",FrameworkErrorCode.RegisterRM.getErrCode(), exx);
@@ -16,10 +16,12 @@
 package io.seata.core.rpc.netty;
 
 import io.netty.channel.Channel;
+import io.netty.channel.socket.nio.NioSocketChannel;
 import io.seata.core.constants.ConfigurationKeys;
-import io.seata.core.rpc.TransportServerType;
 
+import static io.seata.common.DefaultValues.DEFAULT_CLIENT_CHANNELS_PER_SERVER;
 import static io.seata.common.DefaultValues.DEFAULT_ENABLE_CLIENT_BATCH_SEND_REQUEST;
+import static io.seata.common.DefaultValues.DEFAULT_ENABLE_CLIENT_COALESCE_REQUEST;
 import static io.seata.common.DefaultValues.DEFAULT_SELECTOR_THREAD_PREFIX;
 import static io.seata.common.DefaultValues.DEFAULT_SELECTOR_THREAD_SIZE;
 import static io.seata.common.DefaultValues.DEFAULT_WORKER_THREAD_PREFIX;
@@ -32,8 +34,11 @@ import static io.seata.common.DefaultValues.DEFAULT_WORKER_THREAD_PREFIX;
 public class NettyClientConfig extends NettyBaseConfig {
 
     private int connectTimeoutMillis = 10000;
-    private int clientSocketSndBufSize = 153600;
-    private int clientSocketRcvBufSize = 153600;
+    private int clientSocketSndBufSize = CONFIG.getInt(ConfigurationKeys.CLIENT_SOCKET_SEND_BUF_SIZE, 153600);
+    private int clientSocketRcvBufSize = CONFIG.getInt(ConfigurationKeys.CLIENT_SOCKET_RCV_BUF_SIZE, 153600);
+    private boolean clientTcpNoDelay = CONFIG.getBoolean(ConfigurationKeys.CLIENT_TCP_NO_DELAY, true);
+    private int writeBufferHighWaterMark = CONFIG.getInt(ConfigurationKeys.CLIENT_WRITE_BUFFER_HIGH_WATER_MARK, 65536);
+    private int writeBufferLowWaterMark = CONFIG.getInt(ConfigurationKeys.CLIENT_WRITE_BUFFER_LOW_WATER_MARK, 32768);
     private int clientWorkerThreads = WORKER_THREAD_SIZE;
     private final Class<? extends Channel> clientChannelClazz = CLIENT_CHANNEL_CLAZZ;
     private int perHostMaxConn = 2;
@@ -56,6 +61,7 @@ public class NettyClientConfig extends NettyBaseConfig {
     private static final boolean DEFAULT_POOL_TEST_RETURN = true;
     private static final boolean DEFAULT_POOL_LIFO = true;
     private static final boolean ENABLE_CLIENT_BATCH_SEND_REQUEST = CONFIG.getBoolean(ConfigurationKeys.ENABLE_CLIENT_BATCH_SEND_REQUEST, DEFAULT_ENABLE_CLIENT_BATCH_SEND_REQUEST);
+    private static final boolean ENABLE_CLIENT_COALESCE_REQUEST = CONFIG.getBoolean(ConfigurationKeys.ENABLE_CLIENT_COALESCE_REQUEST, DEFAULT_ENABLE_CLIENT_COALESCE_REQUEST);
 
     /**
      * Gets connect timeout millis.
@@ -111,6 +117,60 @@ public class NettyClientConfig extends NettyBaseConfig {
         this.clientSocketRcvBufSize = clientSocketRcvBufSize;
     }
 
+    /**
+     * Is the tcp no delay of the client channels enabled.
+     *
+     * @return the boolean
+     */
+    public boolean isClientTcpNoDelay() {
+        return clientTcpNoDelay;
+    }
+
+    /**
+     * Sets the tcp no delay of the client channels.
+     *
+     * @param clientTcpNoDelay the client tcp no delay
+     */
+    public void setClientTcpNoDelay(boolean clientTcpNoDelay) {
+        this.clientTcpNoDelay = clientTcpNoDelay;
+    }
+
+    /**
+     * Gets write buffer high water mark, the callers wait when the pending bytes of the channel are above it.
+     *
+     * @return the write buffer high water mark
+     */
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    /**
+     * Sets write buffer high water mark.
+     *
+     * @param writeBufferHighWaterMark the write buffer high water mark
+     */
+    public void setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+    }
+
+    /**
+     * Gets write buffer low water mark, the waiting callers go on when the pending bytes are below it.
+     *
+     * @return the write buffer low water mark
+     */
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    /**
+     * Sets write buffer low water mark.
+     *
+     * @param writeBufferLowWaterMark the write buffer low water mark
+     */
+    public void setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+    }
+
     /**
      * Gets client channel max idle time seconds.
      *
@@ -171,7 +231,7 @@ public class NettyClientConfig extends NettyBaseConfig {
      * @return the boolean
      */
     public boolean enableNative() {
-        return TRANSPORT_SERVER_TYPE == TransportServerType.NATIVE;
+        return clientChannelClazz != NioSocketChannel.class;
     }
 
     /**
@@ -442,4 +502,17 @@ public class NettyClientConfig extends NettyBaseConfig {
     public static boolean isEnableClientBatchSendRequest() {
         return ENABLE_CLIENT_BATCH_SEND_REQUEST;
     }
+
+    public static boolean isEnableClientCoalesceRequest() {
+        return ENABLE_CLIENT_COALESCE_REQUEST;
+    }
+
+    /**
+     * Gets the channels to every server, the requests are spread over them by xid.
+     *
+     * @return the client channels per server
+     */
+    public int getClientChannelsPerServer() {
+        return Math.max(1, CONFIG.getInt(ConfigurationKeys.CLIENT_CHANNELS_PER_SERVER, DEFAULT_CLIENT_CHANNELS_PER_SERVER));
+    }
 }
@@ -16,8 +16,28 @@
 package io.seata.core.rpc.netty;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.seata.common.thread.NamedThreadFactory;
+import io.seata.core.exception.TransactionExceptionCode;
+import io.seata.core.protocol.AbstractMessage;
+import io.seata.core.protocol.AbstractResultMessage;
+import io.seata.core.protocol.MergeResultMessage;
+import io.seata.core.protocol.MergedWarpMessage;
 import io.seata.core.protocol.MessageType;
+import io.seata.core.protocol.ResultCode;
+import io.seata.core.protocol.RpcMessage;
+import io.seata.core.protocol.transaction.AbstractTransactionResponse;
+import io.seata.core.protocol.transaction.BranchRegisterResponse;
+import io.seata.core.protocol.transaction.BranchReportResponse;
+import io.seata.core.protocol.transaction.GlobalBeginResponse;
+import io.seata.core.protocol.transaction.GlobalCommitResponse;
+import io.seata.core.protocol.transaction.GlobalLockQueryResponse;
+import io.seata.core.protocol.transaction.GlobalReportResponse;
+import io.seata.core.protocol.transaction.GlobalRollbackResponse;
+import io.seata.core.protocol.transaction.GlobalStatusResponse;
 import io.seata.core.rpc.TransactionMessageHandler;
+import io.seata.core.rpc.processor.Pair;
+import io.seata.core.rpc.processor.RemotingProcessor;
 import io.seata.core.rpc.processor.server.RegRmProcessor;
 import io.seata.core.rpc.processor.server.RegTmProcessor;
 import io.seata.core.rpc.processor.server.ServerHeartbeatProcessor;
@@ -26,11 +46,20 @@ import io.seata.core.rpc.processor.server.ServerOnResponseProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * The netty remoting server.
+ * <p>
+ * The requests are isolated by type: the global commit, rollback, status and report requests run on
+ * the fast executor, the global lock queries on their own executor, and the branch results are completed
+ * on the io thread, so a flood of begin and register requests can not delay the end of the transactions.
+ * The sub requests of a merged request are dispatched to the executors of their own types.
+ * A request rejected by its executor is answered with a failed response at once.
  *
  * @author slievrly
  * @author xingfudeshi@gmail.com
@@ -44,6 +73,10 @@ public class NettyRemotingServer extends AbstractNettyRemotingServer {
 
     private final AtomicBoolean initialized = new AtomicBoolean(false);
 
+    private final ThreadPoolExecutor fastExecutor;
+
+    private final ThreadPoolExecutor lockQueryExecutor;
+
     @Override
     public void init() {
         // registry processor
@@ -60,6 +93,16 @@ public class NettyRemotingServer extends AbstractNettyRemotingServer {
      */
     public NettyRemotingServer(ThreadPoolExecutor messageExecutor) {
         super(messageExecutor, new NettyServerConfig());
+        this.fastExecutor = new ThreadPoolExecutor(NettyServerConfig.getFastServerPoolSize(),
+            NettyServerConfig.getFastServerPoolSize(), NettyServerConfig.getKeepAliveTime(), TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(NettyServerConfig.getMaxTaskQueueSize()),
+            new NamedThreadFactory("ServerFastHandlerThread", NettyServerConfig.getFastServerPoolSize()),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.lockQueryExecutor = new ThreadPoolExecutor(NettyServerConfig.getLockQueryServerPoolSize(),
+            NettyServerConfig.getLockQueryServerPoolSize(), NettyServerConfig.getKeepAliveTime(), TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(NettyServerConfig.getLockQueryTaskQueueSize()),
+            new NamedThreadFactory("ServerLockQueryThread", NettyServerConfig.getLockQueryServerPoolSize()),
+            new ThreadPoolExecutor.AbortPolicy());
     }
 
     /**
@@ -84,24 +127,112 @@ public class NettyRemotingServer extends AbstractNettyRemotingServer {
         channel.close();
     }
 
-    private void registerProcessor() {
+    @Override
+    public void destroy() {
+        super.destroy();
+        fastExecutor.shutdown();
+        lockQueryExecutor.shutdown();
+    }
+
+    @Override
+    protected void onRejectedExecution(ChannelHandlerContext ctx, RpcMessage rpcMessage) {
+        AbstractMessage response = buildRejectedResponse(rpcMessage.getBody());
+        if (response == null) {
+            return;
+        }
+        try {
+            sendAsyncResponse(rpcMessage, ctx.channel(), response);
+        } catch (Throwable t) {
+            LOGGER.warn("send the rejected response failed, channel:{}, error:{}", ctx.channel(), t.getMessage());
+        }
+    }
+
+    /**
+     * Build the failed response of the request rejected by the busy executor.
+     * <p>
+     * The exception code must be known by the old clients: the branch register and the lock query
+     * are answered with LockKeyConflict, so the rm retries them by its lock retry policy,
+     * and the tm retries the global commit and rollback on any failure.
+     *
+     * @param request the request
+     * @return the response, null if the request has no response
+     */
+    public static AbstractMessage buildRejectedResponse(Object request) {
+        if (request instanceof MergedWarpMessage) {
+            MergedWarpMessage mergedWarpMessage = (MergedWarpMessage)request;
+            AbstractResultMessage[] results = new AbstractResultMessage[mergedWarpMessage.msgs.size()];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = (AbstractResultMessage)buildRejectedResponse(mergedWarpMessage.msgs.get(i));
+                if (results[i] == null) {
+                    return null;
+                }
+            }
+            MergeResultMessage resultMessage = new MergeResultMessage();
+            resultMessage.setMsgs(results);
+            return resultMessage;
+        }
+        if (!(request instanceof AbstractMessage)) {
+            return null;
+        }
+        AbstractTransactionResponse response;
+        TransactionExceptionCode exceptionCode = TransactionExceptionCode.IO;
+        switch (((AbstractMessage)request).getTypeCode()) {
+            case MessageType.TYPE_GLOBAL_BEGIN:
+                response = new GlobalBeginResponse();
+                exceptionCode = TransactionExceptionCode.BeginFailed;
+                break;
+            case MessageType.TYPE_GLOBAL_COMMIT:
+                response = new GlobalCommitResponse();
+                break;
+            case MessageType.TYPE_GLOBAL_ROLLBACK:
+                response = new GlobalRollbackResponse();
+                break;
+            case MessageType.TYPE_GLOBAL_STATUS:
+                response = new GlobalStatusResponse();
+                break;
+            case MessageType.TYPE_GLOBAL_REPORT:
+                response = new GlobalReportResponse();
+                break;
+            case MessageType.TYPE_BRANCH_REGISTER:
+                response = new BranchRegisterResponse();
+                exceptionCode = TransactionExceptionCode.LockKeyConflict;
+                break;
+            case MessageType.TYPE_BRANCH_STATUS_REPORT:
+                response = new BranchReportResponse();
+                break;
+            case MessageType.TYPE_GLOBAL_LOCK_QUERY:
+                response = new GlobalLockQueryResponse();
+                exceptionCode = TransactionExceptionCode.LockKeyConflict;
+                break;
+            default:
+                return null;
+        }
+        response.setResultCode(ResultCode.Failed);
+        response.setTransactionExceptionCode(exceptionCode);
+        response.setMsg("TC is busy, please retry later");
+        return response;
+    }
+
+    void registerProcessor() {
         // 1. registry on request message processor
         ServerOnRequestProcessor onRequestProcessor =
-            new ServerOnRequestProcessor(this, getHandler());
+            new ServerOnRequestProcessor(this, getHandler(), this::getRequestExecutor);
         super.registerProcessor(MessageType.TYPE_BRANCH_REGISTER, onRequestProcessor, messageExecutor);
         super.registerProcessor(MessageType.TYPE_BRANCH_STATUS_REPORT, onRequestProcessor, messageExecutor);
         super.registerProcessor(MessageType.TYPE_GLOBAL_BEGIN, onRequestProcessor, messageExecutor);
-        super.registerProcessor(MessageType.TYPE_GLOBAL_COMMIT, onRequestProcessor, messageExecutor);
-        super.registerProcessor(MessageType.TYPE_GLOBAL_LOCK_QUERY, onRequestProcessor, messageExecutor);
-        super.registerProcessor(MessageType.TYPE_GLOBAL_REPORT, onRequestProcessor, messageExecutor);
-        super.registerProcessor(MessageType.TYPE_GLOBAL_ROLLBACK, onRequestProcessor, messageExecutor);
-        super.registerProcessor(MessageType.TYPE_GLOBAL_STATUS, onRequestProcessor, messageExecutor);
-        super.registerProcessor(MessageType.TYPE_SEATA_MERGE, onRequestProcessor, messageExecutor);
-        // 2. registry on response message processor
+        super.registerProcessor(MessageType.TYPE_GLOBAL_COMMIT, onRequestProcessor, fastExecutor);
+        super.registerProcessor(MessageType.TYPE_GLOBAL_LOCK_QUERY, onRequestProcessor, lockQueryExecutor);
+        super.registerProcessor(MessageType.TYPE_GLOBAL_REPORT, onRequestProcessor, fastExecutor);
+        super.registerProcessor(MessageType.TYPE_GLOBAL_ROLLBACK, onRequestProcessor, fastExecutor);
+        super.registerProcessor(MessageType.TYPE_GLOBAL_STATUS, onRequestProcessor, fastExecutor);
+        // the merged requests are split on the io thread to the executors of their types
+        super.registerProcessor(MessageType.TYPE_SEATA_MERGE, onRequestProcessor, null);
+        // 2. registry on response message processor, the results only complete the futures on the io thread
         ServerOnResponseProcessor onResponseProcessor =
-            new ServerOnResponseProcessor(getHandler(), getFutures());
-        super.registerProcessor(MessageType.TYPE_BRANCH_COMMIT_RESULT, onResponseProcessor, messageExecutor);
-        super.registerProcessor(MessageType.TYPE_BRANCH_ROLLBACK_RESULT, onResponseProcessor, messageExecutor);
+            new ServerOnResponseProcessor(getHandler(), getFutures(), mergeMsgMap);
+        super.registerProcessor(MessageType.TYPE_BRANCH_COMMIT_RESULT, onResponseProcessor, null);
+        super.registerProcessor(MessageType.TYPE_BRANCH_ROLLBACK_RESULT, onResponseProcessor, null);
+        super.registerProcessor(MessageType.TYPE_SEATA_MERGE_RESULT, onResponseProcessor, null);
         // 3. registry rm message processor
         RegRmProcessor regRmProcessor = new RegRmProcessor(this);
         super.registerProcessor(MessageType.TYPE_REG_RM, regRmProcessor, messageExecutor);
@@ -113,4 +244,9 @@ public class NettyRemotingServer extends AbstractNettyRemotingServer {
         super.registerProcessor(MessageType.TYPE_HEARTBEAT_MSG, heartbeatMessageProcessor, null);
     }
 
+    private ExecutorService getRequestExecutor(int messageType) {
+        Pair<RemotingProcessor, ExecutorService> pair = processorTable.get(messageType);
+        return pair != null && pair.getSecond() != null ? pair.getSecond() : messageExecutor;
+    }
+
 }
@@ -16,7 +16,7 @@
 package io.seata.core.rpc.netty;
 
 import io.netty.channel.ServerChannel;
-import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
 import io.netty.channel.epoll.EpollServerSocketChannel;
 import io.seata.core.constants.ConfigurationKeys;
 
@@ -47,6 +47,10 @@ public class NettyServerConfig extends NettyBaseConfig {
             ConfigurationKeys.TRANSPORT_PREFIX + "writeBufferHighWaterMark", String.valueOf(67108864)));
     private int writeBufferLowWaterMark = Integer.parseInt(System.getProperty(
             ConfigurationKeys.TRANSPORT_PREFIX + "writeBufferLowWaterMark", String.valueOf(1048576)));
+    private boolean serverTcpNoDelay = Boolean.parseBoolean(System.getProperty(
+            ConfigurationKeys.TRANSPORT_PREFIX + "serverTcpNoDelay", String.valueOf(true)));
+    private static final String RM_CHANNEL_SELECTOR_ROUND_ROBIN = "roundRobin";
+    private static final String RM_CHANNEL_SELECTOR_LEAST_INFLIGHT = "leastInflight";
     private static final int DEFAULT_LISTEN_PORT = 8091;
     private static final int RPC_REQUEST_TIMEOUT = 30 * 1000;
     private int serverChannelMaxIdleTimeSeconds = Integer.parseInt(System.getProperty(
@@ -60,6 +64,16 @@ public class NettyServerConfig extends NettyBaseConfig {
             ConfigurationKeys.MAX_TASK_QUEUE_SIZE, "20000"));
     private static int keepAliveTime = Integer.parseInt(System.getProperty(
             ConfigurationKeys.KEEP_ALIVE_TIME, "500"));
+    private static int fastServerPoolSize = Integer.parseInt(System.getProperty(
+            ConfigurationKeys.FAST_SERVER_POOL_SIZE, "50"));
+    private static int lockQueryServerPoolSize = Integer.parseInt(System.getProperty(
+            ConfigurationKeys.LOCK_QUERY_SERVER_POOL_SIZE, "20"));
+    private static int lockQueryTaskQueueSize = Integer.parseInt(System.getProperty(
+            ConfigurationKeys.LOCK_QUERY_TASK_QUEUE_SIZE, "2000"));
+    private static boolean enableServerBatchSendRequest = Boolean.parseBoolean(System.getProperty(
+            ConfigurationKeys.ENABLE_SERVER_BATCH_SEND_REQUEST, String.valueOf(false)));
+    private static String rmChannelSelector = System.getProperty(
+            ConfigurationKeys.RM_CHANNEL_SELECTOR, RM_CHANNEL_SELECTOR_ROUND_ROBIN);
 
     /**
      * The Server channel clazz.
@@ -92,7 +106,7 @@ public class NettyServerConfig extends NettyBaseConfig {
      */
     public static boolean enableEpoll() {
         return NettyBaseConfig.SERVER_CHANNEL_CLAZZ.equals(EpollServerSocketChannel.class)
-            && Epoll.isAvailable();
+            || NettyBaseConfig.SERVER_CHANNEL_CLAZZ.equals(EpollServerDomainSocketChannel.class);
 
     }
 
@@ -204,6 +218,24 @@ public class NettyServerConfig extends NettyBaseConfig {
         this.writeBufferLowWaterMark = writeBufferLowWaterMark;
     }
 
+    /**
+     * Is the tcp no delay of the server channels enabled.
+     *
+     * @return the boolean
+     */
+    public boolean isServerTcpNoDelay() {
+        return serverTcpNoDelay;
+    }
+
+    /**
+     * Sets the tcp no delay of the server channels.
+     *
+     * @param serverTcpNoDelay the server tcp no delay
+     */
+    public void setServerTcpNoDelay(boolean serverTcpNoDelay) {
+        this.serverTcpNoDelay = serverTcpNoDelay;
+    }
+
     /**
      * Gets listen port.
      *
@@ -302,4 +334,50 @@ public class NettyServerConfig extends NettyBaseConfig {
     public static int getKeepAliveTime() {
         return keepAliveTime;
     }
+
+    /**
+     * Gets the pool size of the global commit, rollback, status and report requests.
+     *
+     * @return the fast server pool size
+     */
+    public static int getFastServerPoolSize() {
+        return fastServerPoolSize;
+    }
+
+    /**
+     * Gets the pool size of the global lock query requests.
+     *
+     * @return the lock query server pool size
+     */
+    public static int getLockQueryServerPoolSize() {
+        return lockQueryServerPoolSize;
+    }
+
+    /**
+     * Gets the task queue size of the global lock query requests.
+     *
+     * @return the lock query task queue size
+     */
+    public static int getLockQueryTaskQueueSize() {
+        return lockQueryTaskQueueSize;
+    }
+
+    /**
+     * Whether the branch commit and rollback requests to the same rm channel are sent in batch,
+     * the rm needs to handle the merged requests.
+     *
+     * @return the boolean
+     */
+    public static boolean isEnableServerBatchSendRequest() {
+        return enableServerBatchSendRequest;
+    }
+
+    /**
+     * Whether the alternative rm channel is the one with the least inflight requests, instead of by round-robin.
+     *
+     * @return the boolean
+     */
+    public static boolean isRmChannelLeastInflight() {
+        return RM_CHANNEL_SELECTOR_LEAST_INFLIGHT.equalsIgnoreCase(rmChannelSelector);
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.seata.core.protocol.transaction.GlobalStatusRequest;
+
+/**
+ * Coalesce the identical in-flight requests of the client into a single rpc.
+ * <p>
+ * Only the global status request is coalesced: the first caller sends the request, and the callers asking
+ * the same question before its response arrives share the response. The shared status may be computed a little
+ * before a later caller started, which is fine for the polling status queries.
+ * The global lock query is never coalesced, a response computed before the local row lock of a later caller
+ * existed may wrongly tell it the rows are lockable.
+ *
+ * @author wang.liang
+ */
+class RequestCoalescer {
+
+    private final ConcurrentMap<List<Object>, CompletableFuture<Object>> inflightRequests = new ConcurrentHashMap<>();
+
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * Send the request, or wait for the identical in-flight one.
+     *
+     * @param msg           the request
+     * @param timeoutMillis the timeout of waiting for the in-flight request
+     * @param request       the sending of the request
+     * @return the response
+     * @throws TimeoutException the timeout exception
+     */
+    Object send(Object msg, long timeoutMillis, SyncRequest request) throws TimeoutException {
+        List<Object> key = getCoalesceKey(msg);
+        if (key == null) {
+            return request.send(msg);
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inflight = inflightRequests.putIfAbsent(key, future);
+        if (inflight != null) {
+            coalescedCount.increment();
+            return await(inflight, timeoutMillis);
+        }
+        Object result;
+        try {
+            result = request.send(msg);
+        } catch (Throwable t) {
+            inflightRequests.remove(key, future);
+            future.completeExceptionally(t);
+            throw t;
+        }
+        // remove it first, so a caller coming after the response sends a new request
+        inflightRequests.remove(key, future);
+        future.complete(result);
+        return result;
+    }
+
+    private static Object await(CompletableFuture<Object> inflight, long timeoutMillis) throws TimeoutException {
+        try {
+            return inflight.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                throw (TimeoutException)cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Gets the key of the request, the requests with the equal keys have the same response.
+     *
+     * @param msg the request
+     * @return the key, null if the request can not be coalesced
+     */
+    static List<Object> getCoalesceKey(Object msg) {
+        if (msg instanceof GlobalStatusRequest) {
+            GlobalStatusRequest request = (GlobalStatusRequest)msg;
+            return Arrays.asList(request.getTypeCode(), request.getXid(), request.getExtraData());
+        }
+        return null;
+    }
+
+    /**
+     * Gets the count of the requests answered by the identical in-flight ones.
+     *
+     * @return the coalesced count
+     */
+    long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * The sending of a sync request.
+     */
+    @FunctionalInterface
+    interface SyncRequest {
+
+        /**
+         * Send the request and wait for the response.
+         *
+         * @param msg the request
+         * @return the response
+         * @throws TimeoutException the timeout exception
+         */
+        Object send(Object msg) throws TimeoutException;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.channel.Channel;
+import io.seata.common.Constants;
+import io.seata.core.rpc.RpcContext;
+
+/**
+ * The live rm channels of a resource, indexed for the phase two dispatch.
+ * <p>
+ * The index is rebuilt when a channel is registered or released, the lookup reads the immutable snapshot
+ * without locks and iterators.
+ *
+ * @author wang.liang
+ */
+final class ResourceChannelRoute {
+
+    private static final RpcContext[] EMPTY = new RpcContext[0];
+
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    private volatile Snapshot snapshot = new Snapshot(EMPTY);
+
+    /**
+     * Add the channel, it replaces the released channel with the same client id.
+     *
+     * @param rpcContext the rpc context
+     */
+    synchronized void add(RpcContext rpcContext) {
+        RpcContext[] contexts = snapshot.contexts;
+        List<RpcContext> list = new ArrayList<>(contexts.length + 1);
+        for (RpcContext context : contexts) {
+            if (context != rpcContext && !context.getClientId().equals(rpcContext.getClientId())) {
+                list.add(context);
+            }
+        }
+        list.add(rpcContext);
+        snapshot = new Snapshot(list.toArray(EMPTY));
+    }
+
+    /**
+     * Remove the channel, the empty route is kept for the channels registered again.
+     *
+     * @param rpcContext the rpc context
+     */
+    synchronized void remove(RpcContext rpcContext) {
+        RpcContext[] contexts = snapshot.contexts;
+        List<RpcContext> list = new ArrayList<>(contexts.length);
+        for (RpcContext context : contexts) {
+            if (context != rpcContext) {
+                list.add(context);
+            }
+        }
+        if (list.size() != contexts.length) {
+            snapshot = new Snapshot(list.toArray(EMPTY));
+        }
+    }
+
+    /**
+     * Gets the channel registered by the client.
+     *
+     * @param clientId the client id
+     * @return the active channel, null if not found
+     */
+    Channel getChannel(String clientId) {
+        RpcContext rpcContext = snapshot.clientContexts.get(clientId);
+        if (rpcContext == null || !rpcContext.getChannel().isActive()) {
+            return null;
+        }
+        return rpcContext.getChannel();
+    }
+
+    /**
+     * Choose a channel of the client host.
+     *
+     * @param applicationId the application id
+     * @param clientIp      the client ip
+     * @param leastInflight choose the channel with the least inflight requests, or by round-robin
+     * @return the active channel, null if not found
+     */
+    Channel chooseOnHost(String applicationId, String clientIp, boolean leastInflight) {
+        return choose(snapshot.hostContexts.get(applicationId + Constants.CLIENT_ID_SPLIT_CHAR + clientIp),
+            leastInflight);
+    }
+
+    /**
+     * Choose a channel of the application.
+     *
+     * @param applicationId the application id
+     * @param leastInflight choose the channel with the least inflight requests, or by round-robin
+     * @return the active channel, null if not found
+     */
+    Channel chooseOnApplication(String applicationId, boolean leastInflight) {
+        return choose(snapshot.applicationContexts.get(applicationId), leastInflight);
+    }
+
+    /**
+     * Choose a channel of the resource.
+     *
+     * @param leastInflight choose the channel with the least inflight requests, or by round-robin
+     * @return the active channel, null if not found
+     */
+    Channel choose(boolean leastInflight) {
+        return choose(snapshot.contexts, leastInflight);
+    }
+
+    private Channel choose(RpcContext[] contexts, boolean leastInflight) {
+        if (contexts == null || contexts.length == 0) {
+            return null;
+        }
+        int start = cursor.getAndIncrement() & Integer.MAX_VALUE;
+        Channel chosen = null;
+        int chosenInflight = Integer.MAX_VALUE;
+        for (int i = 0; i < contexts.length; i++) {
+            RpcContext context = contexts[(start + i) % contexts.length];
+            Channel channel = context.getChannel();
+            if (!channel.isActive()) {
+                continue;
+            }
+            if (!leastInflight) {
+                return channel;
+            }
+            int inflight = context.getInflightRequests();
+            if (inflight < chosenInflight) {
+                chosen = channel;
+                chosenInflight = inflight;
+            }
+        }
+        return chosen;
+    }
+
+    private static final class Snapshot {
+
+        private final RpcContext[] contexts;
+
+        /**
+         * clientId -> RpcContext
+         */
+        private final Map<String, RpcContext> clientContexts;
+
+        /**
+         * applicationId -> RpcContexts
+         */
+        private final Map<String, RpcContext[]> applicationContexts;
+
+        /**
+         * applicationId:ip -> RpcContexts
+         */
+        private final Map<String, RpcContext[]> hostContexts;
+
+        private Snapshot(RpcContext[] contexts) {
+            this.contexts = contexts;
+            this.clientContexts = new HashMap<>(contexts.length * 2);
+            Map<String, List<RpcContext>> applications = new HashMap<>();
+            Map<String, List<RpcContext>> hosts = new HashMap<>();
+            for (RpcContext context : contexts) {
+                clientContexts.put(context.getClientId(), context);
+                applications.computeIfAbsent(context.getApplicationId(), key -> new ArrayList<>()).add(context);
+                hosts.computeIfAbsent(context.getApplicationId() + Constants.CLIENT_ID_SPLIT_CHAR
+                    + ChannelUtil.getClientIpFromChannel(context.getChannel()), key -> new ArrayList<>()).add(context);
+            }
+            this.applicationContexts = toArrays(applications);
+            this.hostContexts = toArrays(hosts);
+        }
+
+        private static Map<String, RpcContext[]> toArrays(Map<String, List<RpcContext>> lists) {
+            Map<String, RpcContext[]> arrays = new HashMap<>(lists.size() * 2);
+            lists.forEach((key, list) -> arrays.put(key, list.toArray(EMPTY)));
+            return arrays;
+        }
+    }
+}
@@ -31,6 +31,7 @@ import io.seata.core.rpc.netty.NettyPoolKey.TransactionRole;
 import io.seata.core.rpc.processor.client.ClientHeartbeatProcessor;
 import io.seata.core.rpc.processor.client.ClientOnResponseProcessor;
 import io.seata.core.rpc.processor.client.RmBranchCommitProcessor;
+import io.seata.core.rpc.processor.client.RmBranchPhaseTwoProcessor;
 import io.seata.core.rpc.processor.client.RmBranchRollbackProcessor;
 import io.seata.core.rpc.processor.client.RmUndoLogProcessor;
 import org.slf4j.Logger;
@@ -271,6 +272,10 @@ public final class RmNettyRemotingClient extends AbstractNettyRemotingClient {
         // 1.registry rm client handle branch commit processor
         RmBranchCommitProcessor rmBranchCommitProcessor = new RmBranchCommitProcessor(getTransactionMessageHandler(), this);
         super.registerProcessor(MessageType.TYPE_BRANCH_COMMIT, rmBranchCommitProcessor, messageExecutor);
+        // the branch commit and rollback requests merged by TC
+        RmBranchPhaseTwoProcessor rmBranchPhaseTwoProcessor =
+            new RmBranchPhaseTwoProcessor(getTransactionMessageHandler(), this, messageExecutor);
+        super.registerProcessor(MessageType.TYPE_SEATA_MERGE, rmBranchPhaseTwoProcessor, messageExecutor);
         // 2.registry rm client handle branch rollback processor
         RmBranchRollbackProcessor rmBranchRollbackProcessor = new RmBranchRollbackProcessor(getTransactionMessageHandler(), this);
         super.registerProcessor(MessageType.TYPE_BRANCH_ROLLBACK, rmBranchRollbackProcessor, messageExecutor);
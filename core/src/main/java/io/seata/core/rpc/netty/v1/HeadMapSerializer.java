@@ -16,14 +16,18 @@
 package io.seata.core.rpc.netty.v1;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.seata.common.Constants;
 import io.seata.common.util.StringUtils;
+import io.seata.core.protocol.HeadMap;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Common serializer of map (this generally refers to header).
+ * <p>
+ * The strings are written to the buffer by their utf-8 bytes without the intermediate arrays,
+ * and the keys read are interned, a message has the same few keys, so the decoding allocates the values only.
  *
  * @author Geng Zhang
  * @since 0.7.0
@@ -32,6 +36,15 @@ public class HeadMapSerializer {
 
     private static final HeadMapSerializer INSTANCE = new HeadMapSerializer();
 
+    /**
+     * The longer key is not interned
+     */
+    private static final int MAX_INTERNED_KEY_LENGTH = 64;
+
+    private static final int INTERNED_KEY_SLOTS = 64;
+
+    private final InternedKey[] internedKeys = new InternedKey[INTERNED_KEY_SLOTS];
+
     private HeadMapSerializer() {
 
     }
@@ -52,17 +65,26 @@ public class HeadMapSerializer {
             return 0;
         }
         int start = out.writerIndex();
-        for (Map.Entry<String, String> entry : map.entrySet()) {
-            String key = entry.getKey();
-            String value = entry.getValue();
-            if (key != null) {
-                writeString(out, key);
-                writeString(out, value);
+        if (map instanceof HeadMap) {
+            HeadMap headMap = (HeadMap) map;
+            for (int i = 0; i < headMap.size(); i++) {
+                writeEntry(out, headMap.keyAt(i), headMap.valueAt(i));
+            }
+        } else {
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                writeEntry(out, entry.getKey(), entry.getValue());
             }
         }
         return out.writerIndex() - start;
     }
 
+    private void writeEntry(ByteBuf out, String key, String value) {
+        if (key != null) {
+            writeString(out, key);
+            writeString(out, value);
+        }
+    }
+
     /**
      * decode head map
      *
@@ -71,13 +93,13 @@ public class HeadMapSerializer {
      * @return header map
      */
     public Map<String, String> decode(ByteBuf in, int length) {
-        Map<String, String> map = new HashMap<>();
+        Map<String, String> map = new HeadMap();
         if (in == null || in.readableBytes() == 0 || length == 0) {
             return map;
         }
         int tick = in.readerIndex();
         while (in.readerIndex() - tick < length) {
-            String key = readString(in);
+            String key = readKey(in);
             String value = readString(in);
             map.put(key, value);
         }
@@ -97,11 +119,13 @@ public class HeadMapSerializer {
         } else if (str.isEmpty()) {
             out.writeShort(0);
         } else {
-            byte[] bs = str.getBytes(Constants.DEFAULT_CHARSET);
-            out.writeShort(bs.length);
-            out.writeBytes(bs);
+            int lengthIndex = out.writerIndex();
+            out.writeShort(0);
+            int length = ByteBufUtil.writeUtf8(out, str);
+            out.setShort(lengthIndex, length);
         }
     }
+
     /**
      * Read string
      *
@@ -115,9 +139,61 @@ public class HeadMapSerializer {
         } else if (length == 0) {
             return StringUtils.EMPTY;
         } else {
-            byte[] value = new byte[length];
-            in.readBytes(value);
-            return new String(value, Constants.DEFAULT_CHARSET);
+            return in.readCharSequence(length, Constants.DEFAULT_CHARSET).toString();
+        }
+    }
+
+    /**
+     * Read the key, the same key read before is returned without decoding.
+     *
+     * @param in ByteBuf
+     * @return String
+     */
+    protected String readKey(ByteBuf in) {
+        int length = in.getShort(in.readerIndex());
+        if (length <= 0 || length > MAX_INTERNED_KEY_LENGTH) {
+            return readString(in);
+        }
+        int start = in.readerIndex() + 2;
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + in.getByte(start + i);
+        }
+        int slot = hash & (INTERNED_KEY_SLOTS - 1);
+        InternedKey internedKey = internedKeys[slot];
+        if (internedKey != null && internedKey.matches(in, start, length)) {
+            in.skipBytes(2 + length);
+            return internedKey.key;
+        }
+        String key = readString(in);
+        internedKeys[slot] = new InternedKey(key);
+        return key;
+    }
+
+    /**
+     * The key and its utf-8 bytes, immutable to be shared by the io threads.
+     */
+    private static final class InternedKey {
+
+        private final String key;
+
+        private final byte[] bytes;
+
+        private InternedKey(String key) {
+            this.key = key;
+            this.bytes = key.getBytes(Constants.DEFAULT_CHARSET);
+        }
+
+        private boolean matches(ByteBuf in, int start, int length) {
+            if (bytes.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (bytes[i] != in.getByte(start + i)) {
+                    return false;
+                }
+            }
+            return true;
         }
     }
 }
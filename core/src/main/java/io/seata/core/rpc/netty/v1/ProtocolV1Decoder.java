@@ -19,9 +19,11 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.seata.common.loader.EnhancedServiceLoader;
+import io.seata.core.serializer.ByteBufSerializer;
 import io.seata.core.serializer.Serializer;
 import io.seata.core.compressor.Compressor;
 import io.seata.core.compressor.CompressorFactory;
+import io.seata.core.compressor.CompressorType;
 import io.seata.core.protocol.HeartbeatMessage;
 import io.seata.core.protocol.ProtocolConstants;
 import io.seata.core.protocol.RpcMessage;
@@ -29,8 +31,6 @@ import io.seata.core.serializer.SerializerType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
-
 /**
  * <pre>
  * 0     1     2     3     4     5     6     7     8     9    10     11    12    13    14    15    16
@@ -122,8 +122,7 @@ public class ProtocolV1Decoder extends LengthFieldBasedFrameDecoder {
         // direct read head with zero-copy
         int headMapLength = headLength - ProtocolConstants.V1_HEAD_LENGTH;
         if (headMapLength > 0) {
-            Map<String, String> map = HeadMapSerializer.getInstance().decode(frame, headMapLength);
-            rpcMessage.getHeadMap().putAll(map);
+            rpcMessage.setHeadMap(HeadMapSerializer.getInstance().decode(frame, headMapLength));
         }
 
         // read body
@@ -134,11 +133,16 @@ public class ProtocolV1Decoder extends LengthFieldBasedFrameDecoder {
         } else {
             int bodyLength = fullLength - headLength;
             if (bodyLength > 0) {
+                Serializer serializer = EnhancedServiceLoader.load(Serializer.class, SerializerType.getByCode(rpcMessage.getCodec()).name());
+                if (serializer instanceof ByteBufSerializer && compressorType == CompressorType.NONE.getCode()) {
+                    // direct read body with zero-copy
+                    rpcMessage.setBody(((ByteBufSerializer) serializer).deserialize(frame.readSlice(bodyLength)));
+                    return rpcMessage;
+                }
                 byte[] bs = new byte[bodyLength];
                 frame.readBytes(bs);
                 Compressor compressor = CompressorFactory.getCompressor(compressorType);
                 bs = compressor.decompress(bs);
-                Serializer serializer = EnhancedServiceLoader.load(Serializer.class, SerializerType.getByCode(rpcMessage.getCodec()).name());
                 rpcMessage.setBody(serializer.deserialize(bs));
             }
         }
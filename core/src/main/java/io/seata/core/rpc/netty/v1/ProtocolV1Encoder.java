@@ -16,20 +16,21 @@
 package io.seata.core.rpc.netty.v1;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 import io.seata.common.loader.EnhancedServiceLoader;
+import io.seata.core.serializer.ByteBufSerializer;
 import io.seata.core.serializer.Serializer;
-import io.seata.core.compressor.Compressor;
+import io.seata.core.compressor.CompressionPolicy;
 import io.seata.core.compressor.CompressorFactory;
+import io.seata.core.compressor.CompressorType;
 import io.seata.core.protocol.ProtocolConstants;
 import io.seata.core.protocol.RpcMessage;
 import io.seata.core.serializer.SerializerType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Map;
-
 /**
  * <pre>
  * 0     1     2     3     4     5     6     7     8     9    10     11    12    13    14    15    16
@@ -77,30 +78,54 @@ public class ProtocolV1Encoder extends MessageToByteEncoder {
                 out.writerIndex(out.writerIndex() + 6);
                 out.writeByte(messageType);
                 out.writeByte(rpcMessage.getCodec());
+                // the compressor is fixed after the body is serialized
+                int compressorIndex = out.writerIndex();
                 out.writeByte(rpcMessage.getCompressor());
                 out.writeInt(rpcMessage.getId());
 
                 // direct write head with zero-copy
-                Map<String, String> headMap = rpcMessage.getHeadMap();
-                if (headMap != null && !headMap.isEmpty()) {
-                    int headMapBytesLength = HeadMapSerializer.getInstance().encode(headMap, out);
+                if (rpcMessage.hasHead()) {
+                    int headMapBytesLength = HeadMapSerializer.getInstance().encode(rpcMessage.getHeadMap(), out);
                     headLength += headMapBytesLength;
                     fullLength += headMapBytesLength;
                 }
 
-                byte[] bodyBytes = null;
                 if (messageType != ProtocolConstants.MSGTYPE_HEARTBEAT_REQUEST
                         && messageType != ProtocolConstants.MSGTYPE_HEARTBEAT_RESPONSE) {
                     // heartbeat has no body
                     Serializer serializer = EnhancedServiceLoader.load(Serializer.class, SerializerType.getByCode(rpcMessage.getCodec()).name());
-                    bodyBytes = serializer.serialize(rpcMessage.getBody());
-                    Compressor compressor = CompressorFactory.getCompressor(rpcMessage.getCompressor());
-                    bodyBytes = compressor.compress(bodyBytes);
-                    fullLength += bodyBytes.length;
-                }
-
-                if (bodyBytes != null) {
-                    out.writeBytes(bodyBytes);
+                    int bodyIndex = out.writerIndex();
+                    byte compressor;
+                    if (serializer instanceof ByteBufSerializer) {
+                        // direct write body with zero-copy, it is copied out only when compressed
+                        ((ByteBufSerializer) serializer).serialize(rpcMessage.getBody(), out);
+                        int bodyLength = out.writerIndex() - bodyIndex;
+                        compressor = CompressionPolicy.choose(rpcMessage.getCompressor(), bodyLength);
+                        if (compressor != CompressorType.NONE.getCode()) {
+                            byte[] bodyBytes = ByteBufUtil.getBytes(out, bodyIndex, bodyLength);
+                            byte[] compressedBytes = compress(rpcMessage.getBody(), compressor, bodyBytes);
+                            if (compressedBytes == null) {
+                                compressor = CompressorType.NONE.getCode();
+                            } else {
+                                out.writerIndex(bodyIndex);
+                                out.writeBytes(compressedBytes);
+                            }
+                        }
+                    } else {
+                        byte[] bodyBytes = serializer.serialize(rpcMessage.getBody());
+                        compressor = CompressionPolicy.choose(rpcMessage.getCompressor(), bodyBytes.length);
+                        if (compressor != CompressorType.NONE.getCode()) {
+                            byte[] compressedBytes = compress(rpcMessage.getBody(), compressor, bodyBytes);
+                            if (compressedBytes == null) {
+                                compressor = CompressorType.NONE.getCode();
+                            } else {
+                                bodyBytes = compressedBytes;
+                            }
+                        }
+                        out.writeBytes(bodyBytes);
+                    }
+                    out.setByte(compressorIndex, compressor);
+                    fullLength += out.writerIndex() - bodyIndex;
                 }
 
                 // fix fullLength and headLength
@@ -117,4 +142,16 @@ public class ProtocolV1Encoder extends MessageToByteEncoder {
             LOGGER.error("Encode request error!", e);
         }
     }
+
+    /**
+     * Compress the body.
+     *
+     * @return the compressed bytes, null if they are not smaller than the serialized bytes
+     */
+    private byte[] compress(Object body, byte compressor, byte[] bodyBytes) {
+        long start = System.nanoTime();
+        byte[] compressedBytes = CompressorFactory.getCompressor(compressor).compress(bodyBytes);
+        CompressionPolicy.record(body, bodyBytes.length, compressedBytes.length, System.nanoTime() - start);
+        return compressedBytes.length < bodyBytes.length ? compressedBytes : null;
+    }
 }
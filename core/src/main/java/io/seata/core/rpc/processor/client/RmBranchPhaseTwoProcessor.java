@@ -0,0 +1,109 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.processor.client;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.seata.common.util.NetUtil;
+import io.seata.core.protocol.AbstractMessage;
+import io.seata.core.protocol.AbstractResultMessage;
+import io.seata.core.protocol.MergeResultMessage;
+import io.seata.core.protocol.MergedWarpMessage;
+import io.seata.core.protocol.ResultCode;
+import io.seata.core.protocol.RpcMessage;
+import io.seata.core.protocol.transaction.AbstractBranchEndResponse;
+import io.seata.core.protocol.transaction.BranchCommitRequest;
+import io.seata.core.protocol.transaction.BranchCommitResponse;
+import io.seata.core.protocol.transaction.BranchRollbackRequest;
+import io.seata.core.protocol.transaction.BranchRollbackResponse;
+import io.seata.core.rpc.RemotingClient;
+import io.seata.core.rpc.TransactionMessageHandler;
+import io.seata.core.rpc.processor.RemotingProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * process the phase two commands merged by TC.
+ * <p>
+ * process message type:
+ * {@link MergedWarpMessage} of {@link BranchCommitRequest} and {@link BranchRollbackRequest},
+ * each request is handled on the executor and all the results are answered by one {@link MergeResultMessage}.
+ *
+ * @author wang.liang
+ */
+public class RmBranchPhaseTwoProcessor implements RemotingProcessor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RmBranchPhaseTwoProcessor.class);
+
+    private TransactionMessageHandler handler;
+
+    private RemotingClient remotingClient;
+
+    private ExecutorService executor;
+
+    public RmBranchPhaseTwoProcessor(TransactionMessageHandler handler, RemotingClient remotingClient,
+                                     ExecutorService executor) {
+        this.handler = handler;
+        this.remotingClient = remotingClient;
+        this.executor = executor;
+    }
+
+    @Override
+    public void process(ChannelHandlerContext ctx, RpcMessage rpcMessage) throws Exception {
+        String remoteAddress = NetUtil.toStringAddress(ctx.channel().remoteAddress());
+        List<AbstractMessage> msgs = ((MergedWarpMessage) rpcMessage.getBody()).msgs;
+        if (LOGGER.isInfoEnabled()) {
+            LOGGER.info("rm client handle merged branch requests process, size:" + msgs.size());
+        }
+        AbstractResultMessage[] results = new AbstractResultMessage[msgs.size()];
+        AtomicInteger remaining = new AtomicInteger(results.length);
+        for (int i = 0; i < results.length; i++) {
+            final int index = i;
+            executor.execute(() -> {
+                results[index] = handleRequest(msgs.get(index));
+                if (remaining.decrementAndGet() == 0) {
+                    sendResults(rpcMessage, remoteAddress, results);
+                }
+            });
+        }
+    }
+
+    private AbstractResultMessage handleRequest(AbstractMessage request) {
+        try {
+            return handler.onRequest(request, null);
+        } catch (Throwable throwable) {
+            LOGGER.error("merged branch request error: {}, request: {}", throwable.getMessage(), request, throwable);
+            AbstractBranchEndResponse response = request instanceof BranchCommitRequest
+                ? new BranchCommitResponse() : new BranchRollbackResponse();
+            response.setResultCode(ResultCode.Failed);
+            response.setMsg(throwable.getMessage());
+            return response;
+        }
+    }
+
+    private void sendResults(RpcMessage request, String serverAddress, AbstractResultMessage[] results) {
+        MergeResultMessage resultMessage = new MergeResultMessage();
+        resultMessage.setMsgs(results);
+        try {
+            this.remotingClient.sendAsyncResponse(serverAddress, request, resultMessage);
+        } catch (Throwable throwable) {
+            LOGGER.error("merged branch requests error: {}", throwable.getMessage(), throwable);
+        }
+    }
+}
@@ -15,6 +15,15 @@
  */
 package io.seata.core.rpc.processor.server;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
 import io.netty.channel.ChannelHandlerContext;
 import io.seata.common.util.NetUtil;
 import io.seata.core.protocol.AbstractMessage;
@@ -31,6 +40,7 @@ import io.seata.core.protocol.transaction.GlobalReportRequest;
 import io.seata.core.protocol.transaction.GlobalRollbackRequest;
 import io.seata.core.protocol.transaction.GlobalStatusRequest;
 import io.seata.core.rpc.netty.ChannelManager;
+import io.seata.core.rpc.netty.NettyRemotingServer;
 import io.seata.core.rpc.RemotingServer;
 import io.seata.core.rpc.RpcContext;
 import io.seata.core.rpc.TransactionMessageHandler;
@@ -54,6 +64,9 @@ import org.slf4j.LoggerFactory;
  * 4) {@link GlobalReportRequest}
  * 5) {@link GlobalRollbackRequest}
  * 6) {@link GlobalStatusRequest}
+ * <p>
+ * The sub requests of a {@link MergedWarpMessage} are grouped by the executor registered for their type,
+ * so the merged global commit and rollback requests still run on their own executor.
  *
  * @author zhangchenghui.dev@gmail.com
  * @since 1.3.0
@@ -66,9 +79,20 @@ public class ServerOnRequestProcessor implements RemotingProcessor {
 
     private TransactionMessageHandler transactionMessageHandler;
 
+    /**
+     * the executor of the message type, the merged sub requests run on the caller thread if absent
+     */
+    private Function<Integer, ExecutorService> requestExecutors;
+
     public ServerOnRequestProcessor(RemotingServer remotingServer, TransactionMessageHandler transactionMessageHandler) {
+        this(remotingServer, transactionMessageHandler, null);
+    }
+
+    public ServerOnRequestProcessor(RemotingServer remotingServer, TransactionMessageHandler transactionMessageHandler,
+                                    Function<Integer, ExecutorService> requestExecutors) {
         this.remotingServer = remotingServer;
         this.transactionMessageHandler = transactionMessageHandler;
+        this.requestExecutors = requestExecutors;
     }
 
     @Override
@@ -110,14 +134,7 @@ public class ServerOnRequestProcessor implements RemotingProcessor {
             return;
         }
         if (message instanceof MergedWarpMessage) {
-            AbstractResultMessage[] results = new AbstractResultMessage[((MergedWarpMessage) message).msgs.size()];
-            for (int i = 0; i < results.length; i++) {
-                final AbstractMessage subMessage = ((MergedWarpMessage) message).msgs.get(i);
-                results[i] = transactionMessageHandler.onRequest(subMessage, rpcContext);
-            }
-            MergeResultMessage resultMessage = new MergeResultMessage();
-            resultMessage.setMsgs(results);
-            remotingServer.sendAsyncResponse(rpcMessage, ctx.channel(), resultMessage);
+            onMergedRequestMessage(ctx, rpcMessage, ((MergedWarpMessage) message).msgs, rpcContext);
         } else {
             // the single send request message
             final AbstractMessage msg = (AbstractMessage) message;
@@ -126,4 +143,54 @@ public class ServerOnRequestProcessor implements RemotingProcessor {
         }
     }
 
+    private void onMergedRequestMessage(ChannelHandlerContext ctx, RpcMessage rpcMessage, List<AbstractMessage> msgs,
+                                        RpcContext rpcContext) {
+        AbstractResultMessage[] results = new AbstractResultMessage[msgs.size()];
+        if (requestExecutors == null) {
+            for (int i = 0; i < results.length; i++) {
+                results[i] = transactionMessageHandler.onRequest(msgs.get(i), rpcContext);
+            }
+            sendMergeResult(ctx, rpcMessage, results);
+            return;
+        }
+        Map<ExecutorService, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            ExecutorService executor = requestExecutors.apply((int) msgs.get(i).getTypeCode());
+            groups.computeIfAbsent(executor, k -> new ArrayList<>()).add(i);
+        }
+        AtomicInteger remaining = new AtomicInteger(groups.size());
+        for (Map.Entry<ExecutorService, List<Integer>> group : groups.entrySet()) {
+            List<Integer> indexes = group.getValue();
+            try {
+                group.getKey().execute(() -> {
+                    try {
+                        for (int index : indexes) {
+                            results[index] = transactionMessageHandler.onRequest(msgs.get(index), rpcContext);
+                        }
+                    } catch (Throwable th) {
+                        LOGGER.error("handle merged requests error: {}", th.getMessage(), th);
+                        return;
+                    }
+                    if (remaining.decrementAndGet() == 0) {
+                        sendMergeResult(ctx, rpcMessage, results);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                LOGGER.warn("the executor is full, reject {} merged requests", indexes.size());
+                for (int index : indexes) {
+                    results[index] = (AbstractResultMessage) NettyRemotingServer.buildRejectedResponse(msgs.get(index));
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    sendMergeResult(ctx, rpcMessage, results);
+                }
+            }
+        }
+    }
+
+    private void sendMergeResult(ChannelHandlerContext ctx, RpcMessage rpcMessage, AbstractResultMessage[] results) {
+        MergeResultMessage resultMessage = new MergeResultMessage();
+        resultMessage.setMsgs(results);
+        remotingServer.sendAsyncResponse(rpcMessage, ctx.channel(), resultMessage);
+    }
+
 }
@@ -18,6 +18,9 @@ package io.seata.core.rpc.processor.server;
 import io.netty.channel.ChannelHandlerContext;
 import io.seata.common.util.NetUtil;
 import io.seata.core.protocol.AbstractResultMessage;
+import io.seata.core.protocol.MergeMessage;
+import io.seata.core.protocol.MergeResultMessage;
+import io.seata.core.protocol.MergedWarpMessage;
 import io.seata.core.protocol.MessageFuture;
 import io.seata.core.protocol.RpcMessage;
 import io.seata.core.protocol.transaction.BranchCommitResponse;
@@ -29,6 +32,7 @@ import io.seata.core.rpc.processor.RemotingProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -39,6 +43,7 @@ import java.util.concurrent.ConcurrentMap;
  * RM:
  * 1) {@link BranchCommitResponse}
  * 2) {@link BranchRollbackResponse}
+ * 3) {@link MergeResultMessage}
  *
  * @author zhangchenghui.dev@gmail.com
  * @since 1.3.0
@@ -57,14 +62,30 @@ public class ServerOnResponseProcessor implements RemotingProcessor {
      */
     private ConcurrentMap<Integer, MessageFuture> futures;
 
+    /**
+     * The Merge msg map from io.seata.core.rpc.netty.AbstractNettyRemoting#mergeMsgMap.
+     */
+    private Map<Integer, MergeMessage> mergeMsgMap;
+
     public ServerOnResponseProcessor(TransactionMessageHandler transactionMessageHandler,
                                      ConcurrentHashMap<Integer, MessageFuture> futures) {
+        this(transactionMessageHandler, futures, new ConcurrentHashMap<>());
+    }
+
+    public ServerOnResponseProcessor(TransactionMessageHandler transactionMessageHandler,
+                                     ConcurrentHashMap<Integer, MessageFuture> futures,
+                                     Map<Integer, MergeMessage> mergeMsgMap) {
         this.transactionMessageHandler = transactionMessageHandler;
         this.futures = futures;
+        this.mergeMsgMap = mergeMsgMap;
     }
 
     @Override
     public void process(ChannelHandlerContext ctx, RpcMessage rpcMessage) throws Exception {
+        if (rpcMessage.getBody() instanceof MergeResultMessage) {
+            onMergeResultMessage(rpcMessage);
+            return;
+        }
         MessageFuture messageFuture = futures.remove(rpcMessage.getId());
         if (messageFuture != null) {
             messageFuture.setResultMessage(rpcMessage.getBody());
@@ -88,6 +109,28 @@ public class ServerOnResponseProcessor implements RemotingProcessor {
         }
     }
 
+    private void onMergeResultMessage(RpcMessage rpcMessage) {
+        MergeResultMessage results = (MergeResultMessage) rpcMessage.getBody();
+        MergedWarpMessage mergeMessage = (MergedWarpMessage) mergeMsgMap.remove(rpcMessage.getId());
+        if (mergeMessage == null) {
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("merge msg: {} is not found, the requests are timeout.", rpcMessage.getId());
+            }
+            return;
+        }
+        for (int i = 0; i < mergeMessage.msgIds.size(); i++) {
+            int msgId = mergeMessage.msgIds.get(i);
+            MessageFuture future = futures.remove(msgId);
+            if (future == null) {
+                if (LOGGER.isInfoEnabled()) {
+                    LOGGER.info("msg: {} is not found in futures.", msgId);
+                }
+            } else {
+                future.setResultMessage(results.getMsgs()[i]);
+            }
+        }
+    }
+
     private void onResponseMessage(ChannelHandlerContext ctx, RpcMessage rpcMessage) {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("server received:{},clientIp:{},vgroup:{}", rpcMessage.getBody(),
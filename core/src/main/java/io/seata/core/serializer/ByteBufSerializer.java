@@ -0,0 +1,47 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.serializer;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * The serializer reading and writing the netty buffers directly.
+ * <p>
+ * When the body is not compressed, the protocol codec encodes the body into the outbound frame
+ * and decodes it from the slice of the inbound frame, the body is not copied through the byte arrays.
+ *
+ * @author wang.liang
+ */
+public interface ByteBufSerializer extends Serializer {
+
+    /**
+     * Encode object to the buffer, from its writer index.
+     *
+     * @param <T> the type parameter
+     * @param t   the t
+     * @param out the buffer
+     */
+    <T> void serialize(T t, ByteBuf out);
+
+    /**
+     * Decode t from the readable bytes of the buffer, the reader index is moved after the decoded bytes.
+     *
+     * @param <T> the type parameter
+     * @param in  the buffer
+     * @return the t
+     */
+    <T> T deserialize(ByteBuf in);
+}
@@ -114,6 +114,15 @@ public interface LogStore {
      */
     boolean deleteBranchTransactionDO(BranchTransactionDO branchTransactionDO);
 
+    /**
+     * Delete the branch transactions of the global transaction in one operation.
+     *
+     * @param xid       the xid
+     * @param branchIds the branch ids
+     * @return the boolean
+     */
+    boolean deleteBranchTransactionDO(String xid, List<Long> branchIds);
+
     /**
      * Gets current max session id.
      *
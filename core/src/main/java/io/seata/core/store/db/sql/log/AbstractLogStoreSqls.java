@@ -91,6 +91,13 @@ public abstract class AbstractLogStoreSqls implements LogStoreSqls {
             + " where " + ServerTableColumnsName.BRANCH_TABLE_XID + " = ?"
             + "   and " + ServerTableColumnsName.BRANCH_TABLE_BRANCH_ID + " = ?";
 
+    /**
+     * The constant DELETE_BRANCH_TRANSACTION_BY_BRANCH_IDS.
+     */
+    public static final String DELETE_BRANCH_TRANSACTION_BY_BRANCH_IDS = "delete from " + BRANCH_TABLE_PLACEHOLD
+            + " where " + ServerTableColumnsName.BRANCH_TABLE_XID + " = ?"
+            + "   and " + ServerTableColumnsName.BRANCH_TABLE_BRANCH_ID + " in (" + PRAMETER_PLACEHOLD + ")";
+
     /**
      * The constant DELETE_BRANCH_TRANSACTION_BY_XID.
      */
@@ -169,6 +176,12 @@ public abstract class AbstractLogStoreSqls implements LogStoreSqls {
         return DELETE_BRANCH_TRANSACTION_BY_BRANCH_ID.replace(BRANCH_TABLE_PLACEHOLD, branchTable);
     }
 
+    @Override
+    public String getDeleteBranchTransactionByBranchIdsSQL(String branchTable, String paramsPlaceHolder) {
+        return DELETE_BRANCH_TRANSACTION_BY_BRANCH_IDS.replace(BRANCH_TABLE_PLACEHOLD, branchTable)
+                .replace(PRAMETER_PLACEHOLD, paramsPlaceHolder);
+    }
+
     @Override
     public String getDeleteBranchTransactionByXId(String branchTable) {
         return DELETE_BRANCH_TRANSACTION_BY_XID.replace(BRANCH_TABLE_PLACEHOLD, branchTable);
@@ -118,6 +118,15 @@ public interface LogStoreSqls {
      */
     String getDeleteBranchTransactionByXId(String branchTable);
 
+    /**
+     * Get delete branch transaction by branch ids sql string.
+     *
+     * @param branchTable       the branch table
+     * @param paramsPlaceHolder the params place holder
+     * @return the string
+     */
+    String getDeleteBranchTransactionByBranchIdsSQL(String branchTable, String paramsPlaceHolder);
+
     /**
      * Get query branch transaction string.
      *
@@ -0,0 +1,51 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.compressor;
+
+import io.seata.core.protocol.MessageType;
+import io.seata.core.protocol.transaction.BranchRegisterRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Compression policy test.
+ *
+ * @author wang.liang
+ */
+public class CompressionPolicyTest {
+
+    @Test
+    public void testChoose() {
+        byte none = CompressorType.NONE.getCode();
+        byte gzip = CompressorType.GZIP.getCode();
+        Assertions.assertEquals(none, CompressionPolicy.choose(none, 4096, 1024, 0));
+        Assertions.assertEquals(none, CompressionPolicy.choose(gzip, 1023, 1024, 0));
+        Assertions.assertEquals(gzip, CompressionPolicy.choose(gzip, 1024, 1024, 0));
+        // the lz4 compressor is not present in the core module
+        Assertions.assertEquals(gzip, CompressionPolicy.choose(gzip, 1024, 1024, 8192));
+    }
+
+    @Test
+    public void testRecord() {
+        CompressionPolicy.record(new BranchRegisterRequest(), 1000, 200, 3000);
+        CompressionPolicy.record(new BranchRegisterRequest(), 1000, 400, 1000);
+        CompressionPolicy.Statistic statistic = CompressionPolicy.getStatistics().get(
+            (int) MessageType.TYPE_BRANCH_REGISTER);
+        Assertions.assertEquals(2, statistic.getCount());
+        Assertions.assertEquals(0.3D, statistic.getRatio(), 0.0001D);
+        Assertions.assertEquals(2000, statistic.getAverageNanos());
+    }
+}
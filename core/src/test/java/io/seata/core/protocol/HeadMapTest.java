@@ -0,0 +1,77 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.protocol;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Head map test.
+ *
+ * @author wang.liang
+ */
+public class HeadMapTest {
+
+    @Test
+    public void testPutAndRemove() {
+        HeadMap headMap = new HeadMap();
+        Assertions.assertTrue(headMap.isEmpty());
+        Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertNull(headMap.put("k" + i, "v" + i));
+            expected.put("k" + i, "v" + i);
+        }
+        Assertions.assertEquals("v2", headMap.put("k2", "x"));
+        expected.put("k2", "x");
+        Assertions.assertEquals(expected, headMap);
+
+        Assertions.assertEquals("v0", headMap.remove("k0"));
+        Assertions.assertNull(headMap.remove("k0"));
+        expected.remove("k0");
+        Assertions.assertEquals(expected, headMap);
+        Assertions.assertEquals(expected.hashCode(), headMap.hashCode());
+
+        headMap.clear();
+        Assertions.assertEquals(0, headMap.size());
+        Assertions.assertNull(headMap.get("k1"));
+    }
+
+    @Test
+    public void testEntryIterator() {
+        HeadMap headMap = new HeadMap();
+        headMap.put("a", "1");
+        headMap.put("b", "2");
+        headMap.put("c", "3");
+        Iterator<Map.Entry<String, String>> iterator = headMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, String> entry = iterator.next();
+            if ("b".equals(entry.getKey())) {
+                iterator.remove();
+            } else {
+                entry.setValue(entry.getValue() + "0");
+            }
+        }
+        Assertions.assertEquals(2, headMap.size());
+        Assertions.assertEquals("10", headMap.get("a"));
+        Assertions.assertEquals("30", headMap.get("c"));
+        Assertions.assertEquals("a", headMap.keyAt(0));
+        Assertions.assertEquals("30", headMap.valueAt(1));
+    }
+}
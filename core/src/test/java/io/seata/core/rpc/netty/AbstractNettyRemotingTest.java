@@ -0,0 +1,101 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.netty.channel.Channel;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.seata.core.protocol.MessageFuture;
+import io.seata.core.protocol.MessageType;
+import io.seata.core.protocol.RpcMessage;
+import io.seata.core.protocol.transaction.GlobalBeginRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Abstract netty remoting test.
+ *
+ * @author wang.liang
+ */
+public class AbstractNettyRemotingTest {
+
+    private final AbstractNettyRemoting remoting = new AbstractNettyRemoting(
+        new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>())) {
+        @Override
+        public void destroyChannel(String serverAddress, Channel channel) {
+        }
+    };
+
+    @AfterEach
+    public void tearDown() {
+        remoting.destroy();
+    }
+
+    @Test
+    public void testFutureTimeout() throws Exception {
+        remoting.init();
+        MessageFuture timeoutFuture = putFuture(100);
+        MessageFuture completedFuture = putFuture(100);
+        remoting.getFutures().remove(2).setResultMessage("ok");
+
+        Thread.sleep(500);
+        Assertions.assertTrue(remoting.getFutures().isEmpty());
+        Assertions.assertThrows(TimeoutException.class, () -> timeoutFuture.get(0, TimeUnit.MILLISECONDS));
+        Assertions.assertEquals("ok", completedFuture.get(0, TimeUnit.MILLISECONDS));
+        Assertions.assertEquals(1L, remoting.getTimeoutCounts().get((int) MessageType.TYPE_GLOBAL_BEGIN));
+    }
+
+    @Test
+    public void testWritableChannelCheckWithoutLock() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            synchronized (remoting.lock) {
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignore) {
+                }
+            }
+        });
+        holder.start();
+        locked.await();
+        try {
+            // returns while the lock is held by another thread
+            remoting.channelWritableCheck(new EmbeddedChannel(), "msg");
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+    }
+
+    private MessageFuture putFuture(long timeoutMillis) {
+        RpcMessage rpcMessage = new RpcMessage();
+        rpcMessage.setId(remoting.getNextMessageId());
+        rpcMessage.setBody(new GlobalBeginRequest());
+        MessageFuture messageFuture = new MessageFuture();
+        messageFuture.setRequestMessage(rpcMessage);
+        messageFuture.setTimeout(timeoutMillis);
+        remoting.putFuture(rpcMessage, messageFuture);
+        return messageFuture;
+    }
+}
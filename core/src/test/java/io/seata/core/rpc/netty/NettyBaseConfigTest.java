@@ -15,6 +15,10 @@
  */
 package io.seata.core.rpc.netty;
 
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.seata.common.thread.NamedThreadFactory;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -34,6 +38,20 @@ class NettyBaseConfigTest {
         System.out.print("test static .");
     }
 
+    @Test
+    void testTransportDefaults() {
+        EventLoopGroup eventLoopGroup = NettyBaseConfig.newEventLoopGroup(1, new NamedThreadFactory("test", 1));
+        try {
+            Assertions.assertTrue(eventLoopGroup instanceof NioEventLoopGroup);
+        } finally {
+            eventLoopGroup.shutdownGracefully();
+        }
+        Assertions.assertSame(PooledByteBufAllocator.DEFAULT, NettyBaseConfig.ALLOCATOR);
+        NettyClientConfig clientConfig = new NettyClientConfig();
+        Assertions.assertFalse(clientConfig.enableNative());
+        Assertions.assertTrue(clientConfig.getWriteBufferLowWaterMark() < clientConfig.getWriteBufferHighWaterMark());
+    }
+
     @Test
     void test_enum_WorkThreadMode_getModeByName() {
         for (NettyBaseConfig.WorkThreadMode value : NettyBaseConfig.WorkThreadMode.values()) {
@@ -108,6 +108,26 @@ class NettyClientChannelManagerTest {
         Assertions.assertEquals(actual, newChannel);
     }
     
+    @Test
+    void assertAcquireSlotChannel() {
+        NettyClientConfig slotConfig = new NettyClientConfig() {
+            @Override
+            public int getClientChannelsPerServer() {
+                return 2;
+            }
+        };
+        channelManager = new NettyClientChannelManager(poolableFactory, poolKeyFunction, slotConfig);
+        String xid = "127.0.0.1:8091:1";
+        String slotKey = (xid.hashCode() & Integer.MAX_VALUE) % 2 == 0 ? "127.0.0.1:8091" : "127.0.0.1:8091#1";
+        setupPoolFactory(nettyPoolKey, channel);
+        Channel actual = channelManager.acquireChannel("127.0.0.1:8091", xid);
+        verify(poolKeyFunction).apply("127.0.0.1:8091");
+        Assertions.assertEquals(channel, actual);
+        Assertions.assertEquals(channel, channelManager.getChannels().get(slotKey));
+        channelManager.destroyChannel("127.0.0.1:8091", channel);
+        assertTrue(channelManager.getChannels().isEmpty());
+    }
+
     @Test
     void assertReconnect() {
         channelManager.getChannels().putIfAbsent("127.0.0.1:8091", channel);
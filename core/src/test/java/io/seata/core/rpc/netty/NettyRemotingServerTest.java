@@ -0,0 +1,127 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.seata.core.exception.TransactionExceptionCode;
+import io.seata.core.protocol.AbstractResultMessage;
+import io.seata.core.protocol.HeartbeatMessage;
+import io.seata.core.protocol.MergeResultMessage;
+import io.seata.core.protocol.MergedWarpMessage;
+import io.seata.core.protocol.ResultCode;
+import io.seata.core.protocol.RegisterTMRequest;
+import io.seata.core.protocol.RpcMessage;
+import io.seata.core.protocol.transaction.AbstractTransactionResponse;
+import io.seata.core.protocol.transaction.BranchRegisterRequest;
+import io.seata.core.protocol.transaction.BranchRegisterResponse;
+import io.seata.core.protocol.transaction.GlobalCommitRequest;
+import io.seata.core.protocol.transaction.GlobalCommitResponse;
+import io.seata.core.protocol.transaction.GlobalLockQueryRequest;
+import io.seata.core.protocol.transaction.GlobalLockQueryResponse;
+import io.seata.core.rpc.TransactionMessageHandler;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * The type Netty remoting server test.
+ *
+ * @author wang.liang
+ */
+public class NettyRemotingServerTest {
+
+    @Test
+    public void testBuildRejectedResponse() {
+        AbstractTransactionResponse response = (AbstractTransactionResponse)NettyRemotingServer
+            .buildRejectedResponse(new GlobalCommitRequest());
+        Assertions.assertTrue(response instanceof GlobalCommitResponse);
+        Assertions.assertEquals(ResultCode.Failed, response.getResultCode());
+        Assertions.assertEquals(TransactionExceptionCode.IO, response.getTransactionExceptionCode());
+
+        response = (AbstractTransactionResponse)NettyRemotingServer
+            .buildRejectedResponse(new GlobalLockQueryRequest());
+        Assertions.assertTrue(response instanceof GlobalLockQueryResponse);
+        Assertions.assertEquals(TransactionExceptionCode.LockKeyConflict, response.getTransactionExceptionCode());
+
+        Assertions.assertNull(NettyRemotingServer.buildRejectedResponse(HeartbeatMessage.PING));
+    }
+
+    @Test
+    public void testBuildRejectedMergeResponse() {
+        MergedWarpMessage request = new MergedWarpMessage();
+        request.msgs.add(new BranchRegisterRequest());
+        request.msgs.add(new GlobalCommitRequest());
+        MergeResultMessage response = (MergeResultMessage)NettyRemotingServer.buildRejectedResponse(request);
+        AbstractResultMessage[] results = response.getMsgs();
+        Assertions.assertEquals(2, results.length);
+        Assertions.assertTrue(results[0] instanceof BranchRegisterResponse);
+        Assertions.assertEquals(TransactionExceptionCode.LockKeyConflict,
+            ((AbstractTransactionResponse)results[0]).getTransactionExceptionCode());
+        Assertions.assertTrue(results[1] instanceof GlobalCommitResponse);
+        Assertions.assertEquals(ResultCode.Failed, results[1].getResultCode());
+    }
+
+    @Test
+    public void testMergedGlobalCommitRunsOnFastExecutor() throws Exception {
+        ThreadPoolExecutor messageExecutor = new ThreadPoolExecutor(1, 1, 500, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> new Thread(r, "ServerHandlerThread"));
+        NettyRemotingServer server = new NettyRemotingServer(messageExecutor);
+        AtomicReference<String> handlerThread = new AtomicReference<>();
+        CountDownLatch handled = new CountDownLatch(1);
+        TransactionMessageHandler handler = Mockito.mock(TransactionMessageHandler.class);
+        Mockito.when(handler.onRequest(any(), any())).thenAnswer(invocation -> {
+            handlerThread.set(Thread.currentThread().getName());
+            handled.countDown();
+            return new GlobalCommitResponse();
+        });
+        server.setHandler(handler);
+        server.registerProcessor();
+
+        EmbeddedChannel channel = new EmbeddedChannel() {
+            @Override
+            protected SocketAddress remoteAddress0() {
+                return new InetSocketAddress("127.0.0.1", 8091);
+            }
+        };
+        ChannelManager.registerTMChannel(new RegisterTMRequest("app", "group"), channel);
+        ChannelHandlerContext ctx = Mockito.mock(ChannelHandlerContext.class);
+        Mockito.when(ctx.channel()).thenReturn(channel);
+        MergedWarpMessage request = new MergedWarpMessage();
+        request.msgs.add(new GlobalCommitRequest());
+        RpcMessage rpcMessage = new RpcMessage();
+        rpcMessage.setBody(request);
+        try {
+            server.processMessage(ctx, rpcMessage);
+
+            Assertions.assertTrue(handled.await(5, TimeUnit.SECONDS));
+            Assertions.assertTrue(handlerThread.get().startsWith("ServerFastHandlerThread"), handlerThread.get());
+        } finally {
+            ChannelManager.releaseRpcContext(channel);
+            server.destroy();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.seata.core.protocol.transaction.GlobalBeginRequest;
+import io.seata.core.protocol.transaction.GlobalLockQueryRequest;
+import io.seata.core.protocol.transaction.GlobalStatusRequest;
+import io.seata.core.protocol.transaction.GlobalStatusResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Request coalescer test.
+ *
+ * @author wang.liang
+ */
+public class RequestCoalescerTest {
+
+    @Test
+    public void testCoalesceInflightRequests() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        AtomicInteger sent = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        GlobalStatusResponse response = new GlobalStatusResponse();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future[4];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = executor.submit(() -> coalescer.send(statusRequest("xid-1"), 3000, msg -> {
+                    sent.incrementAndGet();
+                    await(release);
+                    return response;
+                }));
+            }
+            long deadline = System.currentTimeMillis() + 3000;
+            while (coalescer.getCoalescedCount() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+            for (Future<?> future : futures) {
+                Assertions.assertSame(response, future.get(3, TimeUnit.SECONDS));
+            }
+            Assertions.assertEquals(1, sent.get());
+            Assertions.assertEquals(3, coalescer.getCoalescedCount());
+
+            // the finished request is not shared any more
+            coalescer.send(statusRequest("xid-1"), 3000, msg -> {
+                sent.incrementAndGet();
+                return response;
+            });
+            Assertions.assertEquals(2, sent.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testShareFailure() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> leader = executor.submit(() -> coalescer.send(statusRequest("xid-2"), 3000, msg -> {
+                await(release);
+                throw new IllegalStateException("broken");
+            }));
+            Thread.sleep(100);
+            Future<?> follower = executor.submit(() -> coalescer.send(statusRequest("xid-2"), 3000, msg -> null));
+            long deadline = System.currentTimeMillis() + 3000;
+            while (coalescer.getCoalescedCount() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+            ExecutionException leaderException = Assertions.assertThrows(ExecutionException.class,
+                () -> leader.get(3, TimeUnit.SECONDS));
+            Assertions.assertTrue(leaderException.getCause() instanceof IllegalStateException);
+            ExecutionException followerException = Assertions.assertThrows(ExecutionException.class,
+                () -> follower.get(3, TimeUnit.SECONDS));
+            Assertions.assertTrue(followerException.getCause() instanceof IllegalStateException);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCoalesceKey() {
+        Assertions.assertEquals(RequestCoalescer.getCoalesceKey(statusRequest("xid-1")),
+            RequestCoalescer.getCoalesceKey(statusRequest("xid-1")));
+        Assertions.assertNotEquals(RequestCoalescer.getCoalesceKey(statusRequest("xid-1")),
+            RequestCoalescer.getCoalesceKey(statusRequest("xid-2")));
+        // the lock query of @GlobalLock must see the local row lock of its caller
+        Assertions.assertNull(RequestCoalescer.getCoalesceKey(lockQuery("t:1")));
+        Assertions.assertNull(RequestCoalescer.getCoalesceKey(new GlobalBeginRequest()));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static GlobalStatusRequest statusRequest(String xid) {
+        GlobalStatusRequest request = new GlobalStatusRequest();
+        request.setXid(xid);
+        return request;
+    }
+
+    private static GlobalLockQueryRequest lockQuery(String lockKey) {
+        GlobalLockQueryRequest request = new GlobalLockQueryRequest();
+        request.setResourceId("jdbc:mysql://127.0.0.1:3306/seata");
+        request.setLockKey(lockKey);
+        return request;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import io.netty.channel.Channel;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.seata.core.rpc.RpcContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Resource channel route test.
+ *
+ * @author wang.liang
+ */
+public class ResourceChannelRouteTest {
+
+    @Test
+    public void testChooseAlternative() {
+        ResourceChannelRoute route = new ResourceChannelRoute();
+        RpcContext original = newContext("app1", "app1:embedded:1");
+        RpcContext sameHost = newContext("app1", "app1:embedded:2");
+        RpcContext otherApp = newContext("app2", "app2:embedded:3");
+        route.add(original);
+        route.add(sameHost);
+        route.add(otherApp);
+        Assertions.assertSame(original.getChannel(), route.getChannel("app1:embedded:1"));
+
+        original.getChannel().close();
+        Assertions.assertNull(route.getChannel("app1:embedded:1"));
+        Assertions.assertSame(sameHost.getChannel(), route.chooseOnHost("app1", "embedded", false));
+        Assertions.assertSame(sameHost.getChannel(), route.chooseOnApplication("app1", false));
+        Assertions.assertSame(otherApp.getChannel(), route.chooseOnApplication("app2", false));
+        Assertions.assertNull(route.chooseOnHost("app1", "127.0.0.1", false));
+
+        route.remove(sameHost);
+        Assertions.assertNull(route.chooseOnApplication("app1", false));
+        Assertions.assertSame(otherApp.getChannel(), route.choose(false));
+    }
+
+    @Test
+    public void testRoundRobinAndLeastInflight() {
+        ResourceChannelRoute route = new ResourceChannelRoute();
+        RpcContext first = newContext("app1", "app1:embedded:1");
+        RpcContext second = newContext("app1", "app1:embedded:2");
+        route.add(first);
+        route.add(second);
+        Channel chosen = route.choose(false);
+        Assertions.assertNotSame(chosen, route.choose(false));
+        Assertions.assertSame(chosen, route.choose(false));
+
+        first.increaseInflightRequests();
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertSame(second.getChannel(), route.choose(true));
+        }
+        first.decreaseInflightRequests();
+        second.increaseInflightRequests();
+        Assertions.assertSame(first.getChannel(), route.choose(true));
+    }
+
+    @Test
+    public void testReplaceSameClient() {
+        ResourceChannelRoute route = new ResourceChannelRoute();
+        RpcContext released = newContext("app1", "app1:embedded:1");
+        RpcContext reconnected = newContext("app1", "app1:embedded:1");
+        route.add(released);
+        route.add(reconnected);
+        route.remove(released);
+        Assertions.assertSame(reconnected.getChannel(), route.getChannel("app1:embedded:1"));
+    }
+
+    private RpcContext newContext(String applicationId, String clientId) {
+        RpcContext rpcContext = new RpcContext();
+        rpcContext.setApplicationId(applicationId);
+        rpcContext.setClientId(clientId);
+        rpcContext.setChannel(new EmbeddedChannel());
+        return rpcContext;
+    }
+}
@@ -19,7 +19,14 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFactory;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.seata.core.protocol.MergedWarpMessage;
+import io.seata.core.protocol.MessageFuture;
+import io.seata.core.protocol.ProtocolConstants;
+import io.seata.core.protocol.RpcMessage;
+import io.seata.core.protocol.transaction.GlobalBeginRequest;
 import org.apache.commons.pool.impl.GenericKeyedObjectPool;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -63,6 +70,77 @@ public class TmNettyClientTest {
         Assertions.assertEquals(defaultNettyClientConfig.isPoolLifo(), nettyClientKeyPool.getLifo());
     }
 
+    /**
+     * The requests queued before a drain are written in one merged message, and a single request as it is.
+     */
+    @Test
+    public void testMergedSend() {
+        TmNettyRemotingClient tmNettyRemotingClient = TmNettyRemotingClient.getInstance("app 1", "group A");
+        EmbeddedChannel channel = new EmbeddedChannel();
+        AbstractNettyRemotingClient.MergedSendQueue queue = tmNettyRemotingClient.getMergedSendQueue(channel);
+        Assertions.assertSame(queue, tmNettyRemotingClient.getMergedSendQueue(channel));
+        long batchCount = tmNettyRemotingClient.getMergedSendStats().getBatchCount();
+
+        for (int i = 0; i < 3; i++) {
+            queue.offer(buildRequest(tmNettyRemotingClient));
+        }
+        channel.runPendingTasks();
+        RpcMessage merged = channel.readOutbound();
+        Assertions.assertEquals(3, ((MergedWarpMessage) merged.getBody()).msgIds.size());
+        Assertions.assertNotNull(tmNettyRemotingClient.mergeMsgMap.remove(merged.getId()));
+        Assertions.assertNull(channel.readOutbound());
+
+        RpcMessage single = buildRequest(tmNettyRemotingClient);
+        queue.offer(single);
+        channel.runPendingTasks();
+        Assertions.assertSame(single, channel.readOutbound());
+        Assertions.assertEquals(batchCount + 2, tmNettyRemotingClient.getMergedSendStats().getBatchCount());
+
+        // the futures fail fast when the channel is closed
+        channel.close();
+        RpcMessage failed = buildRequest(tmNettyRemotingClient);
+        queue.offer(failed);
+        channel.runPendingTasks();
+        Assertions.assertNull(tmNettyRemotingClient.getFutures().get(failed.getId()));
+        tmNettyRemotingClient.getFutures().clear();
+    }
+
+    @Test
+    public void testMergedSendAboveHighWaterMark() {
+        TmNettyRemotingClient tmNettyRemotingClient = TmNettyRemotingClient.getInstance("app 1", "group A");
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1, 2));
+        AbstractNettyRemotingClient.MergedSendQueue queue = tmNettyRemotingClient.getMergedSendQueue(channel);
+
+        // the unflushed message makes the channel not writable, the drain waits
+        Object pending = new Object();
+        channel.write(pending);
+        Assertions.assertFalse(channel.isWritable());
+        RpcMessage request = buildRequest(tmNettyRemotingClient);
+        queue.offer(request);
+        channel.runPendingTasks();
+        channel.flush();
+        Assertions.assertSame(pending, channel.readOutbound());
+        Assertions.assertNull(channel.readOutbound());
+
+        // scheduled again when the channel is writable
+        Assertions.assertTrue(channel.isWritable());
+        queue.schedule();
+        channel.runPendingTasks();
+        Assertions.assertSame(request, channel.readOutbound());
+        tmNettyRemotingClient.getFutures().clear();
+    }
+
+    private RpcMessage buildRequest(AbstractNettyRemotingClient client) {
+        RpcMessage rpcMessage = client.buildRequestMessage(new GlobalBeginRequest(),
+            ProtocolConstants.MSGTYPE_RESQUEST_SYNC);
+        MessageFuture messageFuture = new MessageFuture();
+        messageFuture.setRequestMessage(rpcMessage);
+        messageFuture.setTimeout(3000);
+        client.getFutures().put(rpcMessage.getId(), messageFuture);
+        return rpcMessage;
+    }
+
     /**
      * Do connect.
      *
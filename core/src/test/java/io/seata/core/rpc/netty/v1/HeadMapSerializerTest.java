@@ -0,0 +1,70 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty.v1;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.seata.core.protocol.HeadMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Head map serializer test.
+ *
+ * @author wang.liang
+ */
+public class HeadMapSerializerTest {
+
+    @Test
+    public void testEncodeAndDecode() {
+        HeadMap headMap = new HeadMap();
+        headMap.put("tx-xid", "192.168.0.1:8091:2000");
+        headMap.put("empty", "");
+        headMap.put("null", null);
+        headMap.put("unicode", "中文");
+        assertRoundTrip(headMap);
+
+        Map<String, String> hashMap = new HashMap<>(headMap);
+        assertRoundTrip(hashMap);
+    }
+
+    @Test
+    public void testInternKeys() {
+        Map<String, String> headMap = new HeadMap();
+        headMap.put("tx-xid", "1");
+        ByteBuf out = Unpooled.buffer();
+        int length = HeadMapSerializer.getInstance().encode(headMap, out);
+        String key = HeadMapSerializer.getInstance().decode(out.slice(), length).keySet().iterator().next();
+        Map<String, String> decoded = HeadMapSerializer.getInstance().decode(out, length);
+        Assertions.assertSame(key, decoded.keySet().iterator().next());
+        Assertions.assertEquals("1", decoded.get("tx-xid"));
+        out.release();
+    }
+
+    private void assertRoundTrip(Map<String, String> headMap) {
+        ByteBuf out = Unpooled.buffer();
+        int length = HeadMapSerializer.getInstance().encode(headMap, out);
+        Assertions.assertEquals(out.readableBytes(), length);
+        Map<String, String> decoded = HeadMapSerializer.getInstance().decode(out, length);
+        Assertions.assertTrue(decoded instanceof HeadMap);
+        Assertions.assertEquals(headMap, decoded);
+        Assertions.assertEquals(0, out.readableBytes());
+        out.release();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.processor.client;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.seata.core.protocol.MergeResultMessage;
+import io.seata.core.protocol.MergedWarpMessage;
+import io.seata.core.protocol.ResultCode;
+import io.seata.core.protocol.RpcMessage;
+import io.seata.core.protocol.transaction.BranchCommitRequest;
+import io.seata.core.protocol.transaction.BranchCommitResponse;
+import io.seata.core.protocol.transaction.BranchRollbackRequest;
+import io.seata.core.protocol.transaction.BranchRollbackResponse;
+import io.seata.core.rpc.RemotingClient;
+import io.seata.core.rpc.TransactionMessageHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+
+/**
+ * The type Rm branch phase two processor test.
+ *
+ * @author wang.liang
+ */
+public class RmBranchPhaseTwoProcessorTest {
+
+    private ExecutorService executor;
+
+    private TransactionMessageHandler handler;
+
+    private RemotingClient remotingClient;
+
+    private RpcMessage rpcMessage;
+
+    private ChannelHandlerContext ctx;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        handler = Mockito.mock(TransactionMessageHandler.class);
+        remotingClient = Mockito.mock(RemotingClient.class);
+        rpcMessage = new RpcMessage();
+        ctx = Mockito.mock(ChannelHandlerContext.class);
+        Channel channel = Mockito.mock(Channel.class);
+        Mockito.when(channel.remoteAddress()).thenReturn(new InetSocketAddress("127.0.0.1", 8091));
+        Mockito.when(ctx.channel()).thenReturn(channel);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testMergedRequestsRunConcurrently() throws Exception {
+        BranchCommitRequest commitRequest = new BranchCommitRequest();
+        BranchRollbackRequest rollbackRequest = new BranchRollbackRequest();
+        BranchCommitResponse commitResponse = new BranchCommitResponse();
+        BranchRollbackResponse rollbackResponse = new BranchRollbackResponse();
+        // each request waits for the other one, so they only complete when handled at the same time
+        CountDownLatch started = new CountDownLatch(2);
+        Mockito.when(handler.onRequest(eq(commitRequest), isNull())).thenAnswer(invocation -> {
+            started.countDown();
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            return commitResponse;
+        });
+        Mockito.when(handler.onRequest(eq(rollbackRequest), isNull())).thenAnswer(invocation -> {
+            started.countDown();
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+            return rollbackResponse;
+        });
+        rpcMessage.setBody(mergedWarpMessage(commitRequest, rollbackRequest));
+
+        new RmBranchPhaseTwoProcessor(handler, remotingClient, executor).process(ctx, rpcMessage);
+
+        MergeResultMessage results = captureResults();
+        Assertions.assertArrayEquals(new Object[] {commitResponse, rollbackResponse}, results.getMsgs());
+    }
+
+    @Test
+    public void testFailedRequest() throws Exception {
+        BranchCommitRequest commitRequest = new BranchCommitRequest();
+        BranchRollbackRequest rollbackRequest = new BranchRollbackRequest();
+        BranchRollbackResponse rollbackResponse = new BranchRollbackResponse();
+        Mockito.when(handler.onRequest(eq(commitRequest), isNull())).thenThrow(new IllegalStateException("broken"));
+        Mockito.when(handler.onRequest(eq(rollbackRequest), isNull())).thenReturn(rollbackResponse);
+        rpcMessage.setBody(mergedWarpMessage(commitRequest, rollbackRequest));
+
+        new RmBranchPhaseTwoProcessor(handler, remotingClient, executor).process(ctx, rpcMessage);
+
+        MergeResultMessage results = captureResults();
+        Assertions.assertTrue(results.getMsgs()[0] instanceof BranchCommitResponse);
+        Assertions.assertEquals(ResultCode.Failed, results.getMsgs()[0].getResultCode());
+        Assertions.assertSame(rollbackResponse, results.getMsgs()[1]);
+    }
+
+    private MergedWarpMessage mergedWarpMessage(BranchCommitRequest commitRequest,
+                                                BranchRollbackRequest rollbackRequest) {
+        MergedWarpMessage mergedWarpMessage = new MergedWarpMessage();
+        mergedWarpMessage.msgs.add(commitRequest);
+        mergedWarpMessage.msgs.add(rollbackRequest);
+        return mergedWarpMessage;
+    }
+
+    private MergeResultMessage captureResults() {
+        ArgumentCaptor<Object> response = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(remotingClient, Mockito.timeout(5000)).sendAsyncResponse(eq("127.0.0.1:8091"), eq(rpcMessage),
+            response.capture());
+        return (MergeResultMessage) response.getValue();
+    }
+}
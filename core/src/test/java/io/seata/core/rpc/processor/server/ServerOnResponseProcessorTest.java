@@ -0,0 +1,76 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.processor.server;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.seata.core.protocol.AbstractResultMessage;
+import io.seata.core.protocol.MergeMessage;
+import io.seata.core.protocol.MergeResultMessage;
+import io.seata.core.protocol.MergedWarpMessage;
+import io.seata.core.protocol.MessageFuture;
+import io.seata.core.protocol.RpcMessage;
+import io.seata.core.protocol.transaction.BranchCommitRequest;
+import io.seata.core.protocol.transaction.BranchCommitResponse;
+import io.seata.core.protocol.transaction.BranchRollbackRequest;
+import io.seata.core.protocol.transaction.BranchRollbackResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Server on response processor test.
+ *
+ * @author wang.liang
+ */
+public class ServerOnResponseProcessorTest {
+
+    @Test
+    public void testMergeResultMessage() throws Exception {
+        ConcurrentHashMap<Integer, MessageFuture> futures = new ConcurrentHashMap<>();
+        Map<Integer, MergeMessage> mergeMsgMap = new ConcurrentHashMap<>();
+        ServerOnResponseProcessor processor = new ServerOnResponseProcessor(null, futures, mergeMsgMap);
+
+        MergedWarpMessage mergeMessage = new MergedWarpMessage();
+        mergeMessage.msgs.add(new BranchCommitRequest());
+        mergeMessage.msgIds.add(1);
+        mergeMessage.msgs.add(new BranchRollbackRequest());
+        mergeMessage.msgIds.add(2);
+        mergeMsgMap.put(3, mergeMessage);
+        MessageFuture commitFuture = new MessageFuture();
+        MessageFuture rollbackFuture = new MessageFuture();
+        futures.put(1, commitFuture);
+        futures.put(2, rollbackFuture);
+
+        BranchCommitResponse commitResponse = new BranchCommitResponse();
+        BranchRollbackResponse rollbackResponse = new BranchRollbackResponse();
+        MergeResultMessage results = new MergeResultMessage();
+        results.setMsgs(new AbstractResultMessage[] {commitResponse, rollbackResponse});
+        RpcMessage rpcMessage = new RpcMessage();
+        rpcMessage.setId(3);
+        rpcMessage.setBody(results);
+        processor.process(null, rpcMessage);
+
+        Assertions.assertSame(commitResponse, commitFuture.get(0, TimeUnit.MILLISECONDS));
+        Assertions.assertSame(rollbackResponse, rollbackFuture.get(0, TimeUnit.MILLISECONDS));
+        Assertions.assertTrue(futures.isEmpty());
+        Assertions.assertTrue(mergeMsgMap.isEmpty());
+
+        // the results after the timeout are dropped
+        processor.process(null, rpcMessage);
+    }
+}
@@ -62,6 +62,8 @@ public class LogStoreSqlsFactoryTest {
         Assertions.assertNotNull(sql);
         sql = mysqlLog.getDeleteBranchTransactionByXId(branchTable);
         Assertions.assertNotNull(sql);
+        sql = mysqlLog.getDeleteBranchTransactionByBranchIdsSQL(branchTable, "1");
+        Assertions.assertNotNull(sql);
         sql = mysqlLog.getQueryBranchTransaction(branchTable);
         Assertions.assertNotNull(sql);
         sql = mysqlLog.getQueryBranchTransaction(branchTable, "1");
@@ -97,6 +99,8 @@ public class LogStoreSqlsFactoryTest {
         Assertions.assertNotNull(sql);
         sql = oracleLog.getDeleteBranchTransactionByXId(branchTable);
         Assertions.assertNotNull(sql);
+        sql = oracleLog.getDeleteBranchTransactionByBranchIdsSQL(branchTable, "1");
+        Assertions.assertNotNull(sql);
         sql = oracleLog.getQueryBranchTransaction(branchTable);
         Assertions.assertNotNull(sql);
         sql = oracleLog.getQueryBranchTransaction(branchTable, "1");
@@ -132,6 +136,8 @@ public class LogStoreSqlsFactoryTest {
         Assertions.assertNotNull(sql);
         sql = pgLog.getDeleteBranchTransactionByXId(branchTable);
         Assertions.assertNotNull(sql);
+        sql = pgLog.getDeleteBranchTransactionByBranchIdsSQL(branchTable, "1");
+        Assertions.assertNotNull(sql);
         sql = pgLog.getQueryBranchTransaction(branchTable);
         Assertions.assertNotNull(sql);
         sql = pgLog.getQueryBranchTransaction(branchTable, "1");
@@ -167,6 +173,8 @@ public class LogStoreSqlsFactoryTest {
         Assertions.assertNotNull(sql);
         sql = h2Log.getDeleteBranchTransactionByXId(branchTable);
         Assertions.assertNotNull(sql);
+        sql = h2Log.getDeleteBranchTransactionByBranchIdsSQL(branchTable, "1");
+        Assertions.assertNotNull(sql);
         sql = h2Log.getQueryBranchTransaction(branchTable);
         Assertions.assertNotNull(sql);
         sql = h2Log.getQueryBranchTransaction(branchTable, "1");
@@ -202,6 +210,8 @@ public class LogStoreSqlsFactoryTest {
         Assertions.assertNotNull(sql);
         sql = oceanbase.getDeleteBranchTransactionByXId(branchTable);
         Assertions.assertNotNull(sql);
+        sql = oceanbase.getDeleteBranchTransactionByBranchIdsSQL(branchTable, "1");
+        Assertions.assertNotNull(sql);
         sql = oceanbase.getQueryBranchTransaction(branchTable);
         Assertions.assertNotNull(sql);
         sql = oceanbase.getQueryBranchTransaction(branchTable, "1");
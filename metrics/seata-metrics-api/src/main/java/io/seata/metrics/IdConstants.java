@@ -66,4 +66,12 @@ public interface IdConstants {
     String STATUS_VALUE_COMMITTED = "committed";
 
     String STATUS_VALUE_ROLLBACKED = "rollbacked";
+
+    String NAME_VALUE_TIMEOUT_INDEX_SIZE = "timeoutIndexSize";
+
+    String NAME_VALUE_TIMEOUT_EXPIRY_LAG = "timeoutExpiryLag";
+
+    String NAME_VALUE_SESSION_RELOAD_RECORDS = "sessionReloadRecords";
+
+    String NAME_VALUE_SESSION_RELOAD_DURATION = "sessionReloadDuration";
 }
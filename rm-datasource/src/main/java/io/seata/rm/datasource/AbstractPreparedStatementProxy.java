@@ -16,6 +16,8 @@
 package io.seata.rm.datasource;
 
 import io.seata.common.util.CollectionUtils;
+import io.seata.rm.datasource.sql.SQLVisitorFactory;
+import io.seata.sqlparser.SQLRecognizer;
 import io.seata.sqlparser.struct.Null;
 import java.io.InputStream;
 import java.io.Reader;
@@ -54,6 +56,13 @@ public abstract class AbstractPreparedStatementProxy extends StatementProxy<Prep
      */
     protected Map<Integer, ArrayList<Object>> parameters;
 
+    /**
+     * The recognizers of the target sql, recognized at the first execution.
+     */
+    private List<SQLRecognizer> sqlRecognizers;
+
+    private String recognizedSQL;
+
     private void initParameterHolder() {
         this.parameters = new HashMap<>();
     }
@@ -85,6 +94,22 @@ public abstract class AbstractPreparedStatementProxy extends StatementProxy<Prep
         initParameterHolder();
     }
 
+    /**
+     * Gets the sql recognizers of the target sql, the sql is prepared, so the repeated executions
+     * reuse the recognizers without parsing.
+     *
+     * @return the sql recognizers, null if the sql is not recognized
+     */
+    public List<SQLRecognizer> getSqlRecognizers() {
+        String sql = getTargetSQL();
+        // the target sql is replaced only by adding the batch sql
+        if (sql == null || sql != recognizedSQL) {
+            sqlRecognizers = SQLVisitorFactory.get(sql, getConnectionProxy().getDbType());
+            recognizedSQL = sql;
+        }
+        return sqlRecognizers;
+    }
+
     /**
      * Gets params by index.
      *
@@ -24,6 +24,8 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Collections;
 
 
 import io.seata.common.exception.ShouldNeverHappenException;
@@ -298,10 +300,28 @@ public class ConnectionContext {
             return null;
         }
 
+        // merge the primary keys of the same table, so the table name is sent and parsed only once by the TC
+        Map<String, Set<String>> tableGroupedLockKeys = new LinkedHashMap<>();
+        for (String lockKeys : lockKeysBufferSet) {
+            int idx = lockKeys.indexOf(':');
+            if (idx <= 0 || idx == lockKeys.length() - 1 || lockKeys.indexOf(';') >= 0) {
+                // unknown format, keep it as it is
+                tableGroupedLockKeys.put(lockKeys, null);
+                continue;
+            }
+            Set<String> pks = tableGroupedLockKeys.computeIfAbsent(lockKeys.substring(0, idx + 1),
+                k -> new LinkedHashSet<>());
+            Collections.addAll(pks, lockKeys.substring(idx + 1).split(","));
+        }
+
         StringBuilder appender = new StringBuilder();
-        Iterator<String> iterable = lockKeysBufferSet.iterator();
+        Iterator<Map.Entry<String, Set<String>>> iterable = tableGroupedLockKeys.entrySet().iterator();
         while (iterable.hasNext()) {
-            appender.append(iterable.next());
+            Map.Entry<String, Set<String>> entry = iterable.next();
+            appender.append(entry.getKey());
+            if (entry.getValue() != null) {
+                appender.append(String.join(",", entry.getValue()));
+            }
             if (iterable.hasNext()) {
                 appender.append(";");
             }
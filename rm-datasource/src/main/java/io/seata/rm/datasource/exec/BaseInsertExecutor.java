@@ -21,6 +21,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,11 +30,18 @@ import java.util.Objects;
 import com.google.common.collect.Lists;
 import io.seata.common.exception.NotSupportYetException;
 import io.seata.common.exception.ShouldNeverHappenException;
+import io.seata.common.DefaultValues;
 import io.seata.common.util.CollectionUtils;
+import io.seata.config.ConfigurationFactory;
+import io.seata.core.constants.ConfigurationKeys;
 import io.seata.rm.datasource.ColumnUtils;
 import io.seata.rm.datasource.PreparedStatementProxy;
 import io.seata.rm.datasource.StatementProxy;
 import io.seata.rm.datasource.sql.struct.ColumnMeta;
+import io.seata.rm.datasource.sql.struct.Field;
+import io.seata.rm.datasource.sql.struct.KeyType;
+import io.seata.rm.datasource.sql.struct.Row;
+import io.seata.rm.datasource.sql.struct.TableMeta;
 import io.seata.rm.datasource.sql.struct.TableRecords;
 import io.seata.sqlparser.SQLInsertRecognizer;
 import io.seata.sqlparser.SQLRecognizer;
@@ -55,6 +63,9 @@ public abstract class BaseInsertExecutor<T, S extends Statement> extends Abstrac
 
     protected static final String PLACEHOLDER = "?";
 
+    private static final boolean DERIVE_AFTER_IMAGE = ConfigurationFactory.getInstance().getBoolean(
+        ConfigurationKeys.TRANSACTION_UNDO_DERIVE_AFTER_IMAGE, DefaultValues.DEFAULT_DERIVE_AFTER_IMAGE);
+
     /**
      * Instantiates a new Abstract dml base executor.
      *
@@ -75,13 +86,122 @@ public abstract class BaseInsertExecutor<T, S extends Statement> extends Abstrac
     @Override
     protected TableRecords afterImage(TableRecords beforeImage) throws SQLException {
         Map<String, List<Object>> pkValues = getPkValues();
-        TableRecords afterImage = buildTableRecords(pkValues);
+        TableRecords afterImage = DERIVE_AFTER_IMAGE ? deriveAfterImage(pkValues) : null;
+        if (afterImage == null) {
+            afterImage = buildTableRecords(pkValues);
+        }
         if (afterImage == null) {
             throw new SQLException("Failed to build after-image for insert");
         }
         return afterImage;
     }
 
+    /**
+     * Derive the after image from the primary keys and the inserted values, instead of selecting it.
+     * The image has the primary keys and the inserted columns only, the columns filled by the database,
+     * like the default values, are not checked when the branch is rolled back.
+     *
+     * @param pkValuesMap the primary key values of the rows
+     * @return the after image, null if any of the values is not a literal number or boolean nor a parameter,
+     * or the insert is a batch or not inserting every row
+     * @throws SQLException the sql exception
+     */
+    protected TableRecords deriveAfterImage(Map<String, List<Object>> pkValuesMap) throws SQLException {
+        SQLInsertRecognizer recognizer = (SQLInsertRecognizer) sqlRecognizer;
+        List<String> insertColumns = recognizer.getInsertColumns();
+        if (CollectionUtils.isEmpty(insertColumns) || CollectionUtils.isNotEmpty(recognizer.getDuplicateKeyUpdate())) {
+            return null;
+        }
+        Map<Integer, ArrayList<Object>> parameters = statementProxy instanceof PreparedStatementProxy
+            ? ((PreparedStatementProxy) statementProxy).getParameters() : null;
+        if (!ImagePlan.isSingleExecution(parameters)) {
+            return null;
+        }
+        TableMeta tableMeta = getTableMeta();
+        int columnSize = insertColumns.size();
+        ColumnMeta[] columns = new ColumnMeta[columnSize];
+        String[] pkNames = new String[columnSize];
+        Set<String> insertedPkNames = new HashSet<>();
+        for (int c = 0; c < columnSize; c++) {
+            columns[c] = tableMeta.getColumnMeta(ColumnUtils.delEscape(insertColumns.get(c), getDbType()));
+            if (columns[c] == null) {
+                return null;
+            }
+            pkNames[c] = getStandardPkColumnName(insertColumns.get(c));
+            if (pkNames[c] != null) {
+                insertedPkNames.add(pkNames[c]);
+            }
+        }
+        List<List<Object>> insertRows = recognizer.getInsertRows(getPkIndex().values());
+        List<String> pkNameList = tableMeta.getPrimaryKeyOnlyName();
+        for (String pkName : pkNameList) {
+            List<Object> pkValues = pkValuesMap.get(pkName);
+            if (pkValues == null || pkValues.size() != insertRows.size()) {
+                return null;
+            }
+        }
+        // the ignored or the upserted rows are selected
+        if (statementProxy.getUpdateCount() != insertRows.size()) {
+            return null;
+        }
+
+        TableRecords afterImage = new TableRecords(tableMeta);
+        int paramIndex = 0;
+        for (int r = 0; r < insertRows.size(); r++) {
+            List<Object> insertRow = insertRows.get(r);
+            if (insertRow.size() != columnSize) {
+                return null;
+            }
+            List<Field> fields = new ArrayList<>(columnSize + pkNameList.size());
+            for (int c = 0; c < columnSize; c++) {
+                Object value = insertRow.get(c);
+                if (PLACEHOLDER.equals(value)) {
+                    paramIndex++;
+                    if (parameters == null || !parameters.containsKey(paramIndex)) {
+                        return null;
+                    }
+                    value = parameters.get(paramIndex).get(0);
+                } else if (!(value instanceof Number) && !(value instanceof Boolean)) {
+                    value = null;
+                }
+                if (pkNames[c] != null) {
+                    value = pkValuesMap.get(pkNames[c]).get(r);
+                }
+                Field field = buildDerivedField(columns[c], value);
+                if (field == null) {
+                    return null;
+                }
+                if (pkNames[c] != null) {
+                    field.setKeyType(KeyType.PRIMARY_KEY);
+                }
+                fields.add(field);
+            }
+            for (String pkName : pkNameList) {
+                if (!insertedPkNames.contains(pkName)) {
+                    Field field = buildDerivedField(tableMeta.getColumnMeta(pkName), pkValuesMap.get(pkName).get(r));
+                    if (field == null) {
+                        return null;
+                    }
+                    field.setKeyType(KeyType.PRIMARY_KEY);
+                    fields.add(field);
+                }
+            }
+            Row row = new Row();
+            row.setFields(fields);
+            afterImage.add(row);
+        }
+        // a literal "?" is not a parameter
+        if (parameters != null && paramIndex != parameters.size()) {
+            return null;
+        }
+        return afterImage;
+    }
+
+    private Field buildDerivedField(ColumnMeta columnMeta, Object value) {
+        Object imageValue = ImagePlan.toImageValue(columnMeta, value);
+        return imageValue == null ? null : new Field(columnMeta.getColumnName(), columnMeta.getDataType(), imageValue);
+    }
+
     protected boolean containsPK() {
         SQLInsertRecognizer recognizer = (SQLInsertRecognizer) sqlRecognizer;
         List<String> insertColumns = recognizer.getInsertColumns();
@@ -21,7 +21,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.StringJoiner;
 
-import io.seata.common.util.StringUtils;
 import io.seata.rm.datasource.ColumnUtils;
 import io.seata.rm.datasource.StatementProxy;
 import io.seata.rm.datasource.sql.struct.TableMeta;
@@ -61,27 +60,21 @@ public class DeleteExecutor<T, S extends Statement> extends AbstractDMLBaseExecu
         return buildTableRecords(tmeta, selectSQL, paramAppenderList);
     }
 
-    private String buildBeforeImageSQL(SQLDeleteRecognizer visitor, TableMeta tableMeta, ArrayList<List<Object>> paramAppenderList) {
+    private String buildBeforeImageSQL(SQLDeleteRecognizer visitor, TableMeta tableMeta,
+                                       ArrayList<List<Object>> paramAppenderList) throws SQLException {
         String whereCondition = buildWhereCondition(visitor, paramAppenderList);
-        StringBuilder suffix = new StringBuilder(" FROM ").append(getFromTableInSQL());
-        if (StringUtils.isNotBlank(whereCondition)) {
-            suffix.append(WHERE).append(whereCondition);
-        }
-        String orderBy = visitor.getOrderBy();
-        if (StringUtils.isNotBlank(orderBy)) {
-            suffix.append(orderBy);
-        }
         ParametersHolder parametersHolder = statementProxy instanceof ParametersHolder ? (ParametersHolder)statementProxy : null;
         String limit = visitor.getLimit(parametersHolder, paramAppenderList);
-        if (StringUtils.isNotBlank(limit)) {
-            suffix.append(limit);
-        }
-        suffix.append(" FOR UPDATE");
-        StringJoiner selectSQLAppender = new StringJoiner(", ", "SELECT ", suffix.toString());
-        for (String column : tableMeta.getAllColumns().keySet()) {
-            selectSQLAppender.add(getColumnNameInSQL(ColumnUtils.addEscape(column, getDbType())));
-        }
-        return selectSQLAppender.toString();
+        ImagePlan imagePlan = ImagePlan.get(sqlRecognizer, tableMeta, () -> {
+            StringJoiner selectSQLAppender = new StringJoiner(", ", "SELECT ", " FROM " + getFromTableInSQL());
+            for (String column : tableMeta.getAllColumns().keySet()) {
+                selectSQLAppender.add(getColumnNameInSQL(ColumnUtils.addEscape(column, getDbType())));
+            }
+            return new ImagePlan(tableMeta, selectSQLAppender.toString(), visitor.getOrderBy(),
+                visitor.getWhereEqualityColumns(), getDbType());
+        });
+        String batchSQL = imagePlan.buildBatchBeforeImageSQL(paramAppenderList, limit);
+        return batchSQL != null ? batchSQL : imagePlan.buildBeforeImageSQL(whereCondition, limit);
     }
 
     @Override
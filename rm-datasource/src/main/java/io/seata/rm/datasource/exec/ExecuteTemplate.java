@@ -20,6 +20,7 @@ import io.seata.common.loader.EnhancedServiceLoader;
 import io.seata.common.util.CollectionUtils;
 import io.seata.core.context.RootContext;
 import io.seata.core.model.BranchType;
+import io.seata.rm.datasource.AbstractPreparedStatementProxy;
 import io.seata.rm.datasource.StatementProxy;
 import io.seata.rm.datasource.exec.mysql.MySQLInsertOrUpdateExecutor;
 import io.seata.rm.datasource.sql.SQLVisitorFactory;
@@ -77,9 +78,14 @@ public class ExecuteTemplate {
 
         String dbType = statementProxy.getConnectionProxy().getDbType();
         if (CollectionUtils.isEmpty(sqlRecognizers)) {
-            sqlRecognizers = SQLVisitorFactory.get(
-                    statementProxy.getTargetSQL(),
-                    dbType);
+            if (statementProxy instanceof AbstractPreparedStatementProxy) {
+                sqlRecognizers = ((AbstractPreparedStatementProxy) statementProxy).getSqlRecognizers();
+            } else {
+                // the sql of a plain statement usually has the literal values, do not fill the cache with it
+                sqlRecognizers = SQLVisitorFactory.get(
+                        statementProxy.getTargetSQL(),
+                        dbType, false);
+            }
         }
         Executor<T> executor;
         if (CollectionUtils.isEmpty(sqlRecognizers)) {
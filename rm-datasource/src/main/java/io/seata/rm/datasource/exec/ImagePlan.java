@@ -0,0 +1,425 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.rm.datasource.exec;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.seata.common.util.CollectionUtils;
+import io.seata.common.util.StringUtils;
+import io.seata.rm.datasource.ColumnUtils;
+import io.seata.rm.datasource.SqlGenerateUtils;
+import io.seata.rm.datasource.sql.struct.ColumnMeta;
+import io.seata.rm.datasource.sql.struct.Field;
+import io.seata.rm.datasource.sql.struct.Row;
+import io.seata.rm.datasource.sql.struct.TableMeta;
+import io.seata.rm.datasource.sql.struct.TableRecords;
+import io.seata.sqlparser.SQLRecognizer;
+
+/**
+ * The image sql of a dml on its table.
+ * <p>
+ * The select of the images depends on the recognizer and the table meta only, so it is built once
+ * and the sql of every execution just appends the where condition, or the primary keys condition
+ * which is cached by the row size. The plans are cached by the identity of the recognizer,
+ * which is shared by the executions of the same sql, and rebuilt when the table meta is refreshed.
+ * The stable sql text lets the statement cache of the driver or the pool reuse the prepared statements.
+ * <p>
+ * When the where condition is the equality of the primary keys, the before image of a batch selects
+ * the distinct primary keys of the batch by the chunked in condition, instead of the or of the where conditions.
+ * <p>
+ * When the set of an update is made of the literal numbers or booleans and the parameters only,
+ * its after image can be derived from the before image and the set values, instead of selected again.
+ * The derived values must be read back as they are, so only the strings, the integers and the booleans
+ * of the types which the drivers read as the same java types are derived, the others are selected.
+ *
+ * @author wang.liang
+ */
+public final class ImagePlan {
+
+    private static final int MAX_PLAN_SIZE = 10000;
+
+    /**
+     * The larger row size is not cached, it is rarely repeated.
+     */
+    private static final int MAX_CACHED_ROW_SIZE = 64;
+
+    private static final Cache<SQLRecognizer, ImagePlan> IMAGE_PLAN_CACHE = Caffeine.newBuilder()
+        .weakKeys().maximumSize(MAX_PLAN_SIZE).build();
+
+    private final TableMeta tableMeta;
+
+    private final String selectSQL;
+
+    private final String orderBy;
+
+    private final String dbType;
+
+    private final List<String> pkNames;
+
+    /**
+     * The index of the parameter of each primary key in the where condition,
+     * null if the where condition is not the equality of the primary keys.
+     */
+    private final int[] pkParamIndexes;
+
+    private final ConcurrentMap<Integer, String> pkImageSQLs = new ConcurrentHashMap<>();
+
+    /**
+     * The columns of the set of the update, null if its after image can't be derived.
+     */
+    private ColumnMeta[] setColumns;
+
+    /**
+     * The literal value of each set column, null for a parameter.
+     */
+    private Object[] setLiterals;
+
+    /**
+     * The index of the parameter of each set column, 0 for a literal.
+     */
+    private int[] setParamIndexes;
+
+    /**
+     * Instantiates a new image plan.
+     *
+     * @param tableMeta the table meta
+     * @param selectSQL the select of the image, like "SELECT id, name FROM t"
+     * @param orderBy   the order by of the dml, nullable
+     * @param dbType    the db type
+     */
+    public ImagePlan(TableMeta tableMeta, String selectSQL, String orderBy, String dbType) {
+        this(tableMeta, selectSQL, orderBy, null, dbType);
+    }
+
+    /**
+     * Instantiates a new image plan.
+     *
+     * @param tableMeta            the table meta
+     * @param selectSQL            the select of the image, like "SELECT id, name FROM t"
+     * @param orderBy              the order by of the dml, nullable
+     * @param whereEqualityColumns the columns of the where condition which is only the equalities of the columns
+     *                             and the placeholders, in the order of the placeholders, nullable
+     * @param dbType               the db type
+     * @see io.seata.sqlparser.WhereRecognizer#getWhereEqualityColumns()
+     */
+    public ImagePlan(TableMeta tableMeta, String selectSQL, String orderBy, List<String> whereEqualityColumns,
+                     String dbType) {
+        this.tableMeta = tableMeta;
+        this.selectSQL = selectSQL;
+        this.orderBy = orderBy;
+        this.dbType = dbType;
+        this.pkNames = tableMeta.getPrimaryKeyOnlyName();
+        this.pkParamIndexes = toPkParamIndexes(whereEqualityColumns, pkNames, dbType);
+    }
+
+    /**
+     * Get the plan of the recognizer, it is built by the builder when absent or the table meta is changed.
+     *
+     * @param sqlRecognizer the sql recognizer
+     * @param tableMeta     the table meta
+     * @param builder       the plan builder
+     * @return the image plan
+     */
+    public static ImagePlan get(SQLRecognizer sqlRecognizer, TableMeta tableMeta, Supplier<ImagePlan> builder) {
+        ImagePlan imagePlan = IMAGE_PLAN_CACHE.getIfPresent(sqlRecognizer);
+        if (imagePlan == null || imagePlan.tableMeta != tableMeta) {
+            imagePlan = builder.get();
+            IMAGE_PLAN_CACHE.put(sqlRecognizer, imagePlan);
+        }
+        return imagePlan;
+    }
+
+    /**
+     * Build the sql of the before image, which locks the rows.
+     *
+     * @param whereCondition the where condition, nullable
+     * @param limit          the limit, nullable
+     * @return the sql
+     */
+    public String buildBeforeImageSQL(String whereCondition, String limit) {
+        StringBuilder sql = new StringBuilder(selectSQL.length() + 64).append(selectSQL);
+        if (StringUtils.isNotBlank(whereCondition)) {
+            sql.append(AbstractDMLBaseExecutor.WHERE).append(whereCondition);
+        }
+        if (StringUtils.isNotBlank(orderBy)) {
+            sql.append(orderBy);
+        }
+        if (StringUtils.isNotBlank(limit)) {
+            sql.append(limit);
+        }
+        return sql.append(" FOR UPDATE").toString();
+    }
+
+    /**
+     * Build the sql of the before image of a batch by its distinct primary keys,
+     * the param rows are replaced by the primary keys of the rows.
+     *
+     * @param paramAppenderList the param rows of the where condition
+     * @param limit             the limit, nullable
+     * @return the sql, null if the batch can't be selected by the primary keys
+     * @throws SQLException the sql exception
+     */
+    public String buildBatchBeforeImageSQL(ArrayList<List<Object>> paramAppenderList, String limit) throws SQLException {
+        if (pkParamIndexes == null || paramAppenderList.size() < 2
+            || StringUtils.isNotBlank(orderBy) || StringUtils.isNotBlank(limit)) {
+            return null;
+        }
+        Set<List<Object>> pkRows = new LinkedHashSet<>(paramAppenderList.size());
+        for (List<Object> params : paramAppenderList) {
+            List<Object> pkRow = new ArrayList<>(pkParamIndexes.length);
+            for (int pkParamIndex : pkParamIndexes) {
+                pkRow.add(params.get(pkParamIndex));
+            }
+            pkRows.add(pkRow);
+        }
+        paramAppenderList.clear();
+        paramAppenderList.addAll(pkRows);
+        return buildPkImageSQL(pkRows.size()) + " FOR UPDATE";
+    }
+
+    /**
+     * Build the sql of the image selected by the primary keys.
+     *
+     * @param rowSize the row size
+     * @return the sql
+     * @throws SQLException the sql exception
+     */
+    public String buildPkImageSQL(int rowSize) throws SQLException {
+        if (rowSize > MAX_CACHED_ROW_SIZE) {
+            return buildPkImageSQL0(rowSize);
+        }
+        String sql = pkImageSQLs.get(rowSize);
+        if (sql == null) {
+            sql = buildPkImageSQL0(rowSize);
+            pkImageSQLs.putIfAbsent(rowSize, sql);
+        }
+        return sql;
+    }
+
+    private String buildPkImageSQL0(int rowSize) throws SQLException {
+        return selectSQL + AbstractDMLBaseExecutor.WHERE + SqlGenerateUtils.buildWhereConditionByPKs(pkNames, rowSize, dbType);
+    }
+
+    /**
+     * Record the set of the update to derive its after image, it is ignored when a column is a primary key
+     * or repeated, or a value is not a literal number or boolean nor a parameter.
+     * The parameters of the set are the first parameters of the update.
+     *
+     * @param updateColumns the update columns
+     * @param updateValues  the update values, the parameter is the marker which is printed as "?"
+     */
+    public void setUpdateItems(List<String> updateColumns, List<Object> updateValues) {
+        if (CollectionUtils.isEmpty(updateColumns) || updateValues == null || updateColumns.size() != updateValues.size()) {
+            return;
+        }
+        int size = updateColumns.size();
+        ColumnMeta[] columns = new ColumnMeta[size];
+        Object[] literals = new Object[size];
+        int[] paramIndexes = new int[size];
+        int paramIndex = 0;
+        for (int i = 0; i < size; i++) {
+            String columnName = updateColumns.get(i);
+            columnName = ColumnUtils.delEscape(columnName.substring(columnName.lastIndexOf('.') + 1), dbType);
+            ColumnMeta columnMeta = tableMeta.getColumnMeta(columnName);
+            if (columnMeta == null || tableMeta.getPrimaryKeyMap().containsKey(columnMeta.getColumnName())) {
+                return;
+            }
+            for (int j = 0; j < i; j++) {
+                if (columns[j] == columnMeta) {
+                    return;
+                }
+            }
+            columns[i] = columnMeta;
+            Object value = updateValues.get(i);
+            if (value instanceof Number || value instanceof Boolean) {
+                literals[i] = value;
+            } else if (value != null && !(value instanceof CharSequence) && "?".equals(value.toString())) {
+                paramIndexes[i] = ++paramIndex;
+            } else {
+                return;
+            }
+        }
+        this.setLiterals = literals;
+        this.setParamIndexes = paramIndexes;
+        this.setColumns = columns;
+    }
+
+    /**
+     * Derive the after image of the update from its before image and the set values.
+     *
+     * @param beforeImage the before image, which contains the primary keys and the set columns
+     * @param parameters  the parameters of the update, null for a statement
+     * @return the after image, null if it can't be derived
+     */
+    public TableRecords deriveAfterImage(TableRecords beforeImage, Map<Integer, ArrayList<Object>> parameters) {
+        ColumnMeta[] columns = this.setColumns;
+        if (columns == null || !isSingleExecution(parameters)) {
+            return null;
+        }
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            Object value = setLiterals[i];
+            if (setParamIndexes[i] > 0) {
+                if (parameters == null || !parameters.containsKey(setParamIndexes[i])) {
+                    return null;
+                }
+                value = parameters.get(setParamIndexes[i]).get(0);
+            }
+            values[i] = toImageValue(columns[i], value);
+            if (values[i] == null) {
+                return null;
+            }
+        }
+        TableRecords afterImage = new TableRecords(tableMeta);
+        for (Row beforeRow : beforeImage.getRows()) {
+            List<Field> fields = new ArrayList<>(beforeRow.getFields().size());
+            int setCount = 0;
+            for (Field beforeField : beforeRow.getFields()) {
+                Field field = new Field(beforeField.getName(), beforeField.getType(), beforeField.getValue());
+                field.setKeyType(beforeField.getKeyType());
+                for (int i = 0; i < columns.length; i++) {
+                    if (columns[i].getColumnName().equals(field.getName())) {
+                        Object beforeValue = field.getValue();
+                        if (beforeValue != null && beforeValue.getClass() != values[i].getClass()) {
+                            return null;
+                        }
+                        field.setValue(values[i]);
+                        setCount++;
+                        break;
+                    }
+                }
+                fields.add(field);
+            }
+            if (setCount != columns.length) {
+                return null;
+            }
+            Row row = new Row();
+            row.setFields(fields);
+            afterImage.add(row);
+        }
+        return afterImage;
+    }
+
+    /**
+     * Whether the parameters are of a single execution, not of a batch.
+     *
+     * @param parameters the parameters, null for a statement
+     * @return true if not a batch
+     */
+    static boolean isSingleExecution(Map<Integer, ArrayList<Object>> parameters) {
+        if (parameters != null) {
+            for (ArrayList<Object> values : parameters.values()) {
+                if (values.size() != 1) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Convert the value written to the column to the value read back by the driver.
+     *
+     * @param columnMeta the column meta
+     * @param value      the written value
+     * @return the read value, null if it is unknown
+     */
+    static Object toImageValue(ColumnMeta columnMeta, Object value) {
+        String dataTypeName = columnMeta.getDataTypeName();
+        if (value == null || (dataTypeName != null && dataTypeName.toUpperCase().contains("UNSIGNED"))) {
+            return null;
+        }
+        switch (columnMeta.getDataType()) {
+            case Types.VARCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+                // the empty string is null in oracle, the longer string may be truncated
+                if (value instanceof String && !((String) value).isEmpty()
+                    && (columnMeta.getColumnSize() <= 0 || ((String) value).length() <= columnMeta.getColumnSize())) {
+                    return value;
+                }
+                return null;
+            case Types.SMALLINT:
+                return toInteger(value, Short.MIN_VALUE, Short.MAX_VALUE);
+            case Types.INTEGER:
+                return toInteger(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            case Types.BIGINT:
+                return isInteger(value) ? ((Number) value).longValue() : null;
+            case Types.BOOLEAN:
+                return value instanceof Boolean ? value : null;
+            default:
+                return null;
+        }
+    }
+
+    private static Integer toInteger(Object value, long min, long max) {
+        if (!isInteger(value)) {
+            return null;
+        }
+        long longValue = ((Number) value).longValue();
+        return longValue >= min && longValue <= max ? (int) longValue : null;
+    }
+
+    private static boolean isInteger(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private static int[] toPkParamIndexes(List<String> whereEqualityColumns, List<String> pkNames, String dbType) {
+        if (whereEqualityColumns == null || CollectionUtils.isEmpty(pkNames)
+            || whereEqualityColumns.size() != pkNames.size()) {
+            return null;
+        }
+        int[] pkParamIndexes = new int[pkNames.size()];
+        Arrays.fill(pkParamIndexes, -1);
+        for (int i = 0; i < whereEqualityColumns.size(); i++) {
+            String columnName = ColumnUtils.delEscape(whereEqualityColumns.get(i), dbType);
+            int pkIndex = -1;
+            for (int j = 0; j < pkNames.size(); j++) {
+                if (pkNames.get(j).equalsIgnoreCase(columnName)) {
+                    pkIndex = j;
+                    break;
+                }
+            }
+            if (pkIndex < 0 || pkParamIndexes[pkIndex] >= 0) {
+                return null;
+            }
+            pkParamIndexes[pkIndex] = i;
+        }
+        return pkParamIndexes;
+    }
+
+    /**
+     * Gets the select of the image.
+     *
+     * @return the select sql
+     */
+    public String getSelectSQL() {
+        return selectSQL;
+    }
+}
@@ -21,10 +21,10 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
 
 import io.seata.common.util.IOUtil;
-import io.seata.common.util.StringUtils;
 import io.seata.config.Configuration;
 import io.seata.config.ConfigurationFactory;
 import io.seata.core.constants.ConfigurationKeys;
@@ -35,6 +35,7 @@ import io.seata.rm.datasource.StatementProxy;
 import io.seata.rm.datasource.sql.struct.TableMeta;
 import io.seata.rm.datasource.sql.struct.TableRecords;
 import io.seata.sqlparser.ParametersHolder;
+import io.seata.sqlparser.SQLParsingException;
 import io.seata.sqlparser.SQLRecognizer;
 import io.seata.sqlparser.SQLUpdateRecognizer;
 
@@ -52,6 +53,9 @@ public class UpdateExecutor<T, S extends Statement> extends AbstractDMLBaseExecu
     private static final boolean ONLY_CARE_UPDATE_COLUMNS = CONFIG.getBoolean(
             ConfigurationKeys.TRANSACTION_UNDO_ONLY_CARE_UPDATE_COLUMNS, DefaultValues.DEFAULT_ONLY_CARE_UPDATE_COLUMNS);
 
+    private static final boolean DERIVE_AFTER_IMAGE = CONFIG.getBoolean(
+            ConfigurationKeys.TRANSACTION_UNDO_DERIVE_AFTER_IMAGE, DefaultValues.DEFAULT_DERIVE_AFTER_IMAGE);
+
     /**
      * Instantiates a new Update executor.
      *
@@ -72,39 +76,45 @@ public class UpdateExecutor<T, S extends Statement> extends AbstractDMLBaseExecu
         return buildTableRecords(tmeta, selectSQL, paramAppenderList);
     }
 
-    private String buildBeforeImageSQL(TableMeta tableMeta, ArrayList<List<Object>> paramAppenderList) {
+    private String buildBeforeImageSQL(TableMeta tableMeta, ArrayList<List<Object>> paramAppenderList) throws SQLException {
         SQLUpdateRecognizer recognizer = (SQLUpdateRecognizer) sqlRecognizer;
-        List<String> updateColumns = recognizer.getUpdateColumns();
-        StringBuilder prefix = new StringBuilder("SELECT ");
-        StringBuilder suffix = new StringBuilder(" FROM ").append(getFromTableInSQL());
         String whereCondition = buildWhereCondition(recognizer, paramAppenderList);
-        if (StringUtils.isNotBlank(whereCondition)) {
-            suffix.append(WHERE).append(whereCondition);
-        }
-        String orderBy = recognizer.getOrderBy();
-        if (StringUtils.isNotBlank(orderBy)) {
-            suffix.append(orderBy);
-        }
         ParametersHolder parametersHolder = statementProxy instanceof ParametersHolder ? (ParametersHolder)statementProxy : null;
         String limit = recognizer.getLimit(parametersHolder, paramAppenderList);
-        if (StringUtils.isNotBlank(limit)) {
-            suffix.append(limit);
-        }
-        suffix.append(" FOR UPDATE");
-        StringJoiner selectSQLJoin = new StringJoiner(", ", prefix.toString(), suffix.toString());
-        if (ONLY_CARE_UPDATE_COLUMNS) {
-            if (!containsPK(updateColumns)) {
-                selectSQLJoin.add(getColumnNamesInSQL(tableMeta.getEscapePkNameList(getDbType())));
-            }
-            for (String columnName : updateColumns) {
-                selectSQLJoin.add(columnName);
+        ImagePlan imagePlan = getImagePlan(tableMeta);
+        String batchSQL = imagePlan.buildBatchBeforeImageSQL(paramAppenderList, limit);
+        return batchSQL != null ? batchSQL : imagePlan.buildBeforeImageSQL(whereCondition, limit);
+    }
+
+    private ImagePlan getImagePlan(TableMeta tableMeta) {
+        return ImagePlan.get(sqlRecognizer, tableMeta, () -> {
+            StringJoiner selectSQLJoin = new StringJoiner(", ", "SELECT ", " FROM " + getFromTableInSQL());
+            if (ONLY_CARE_UPDATE_COLUMNS) {
+                List<String> updateColumns = ((SQLUpdateRecognizer) sqlRecognizer).getUpdateColumns();
+                if (!containsPK(updateColumns)) {
+                    selectSQLJoin.add(getColumnNamesInSQL(tableMeta.getEscapePkNameList(getDbType())));
+                }
+                for (String columnName : updateColumns) {
+                    selectSQLJoin.add(columnName);
+                }
+            } else {
+                for (String columnName : tableMeta.getAllColumns().keySet()) {
+                    selectSQLJoin.add(ColumnUtils.addEscape(columnName, getDbType()));
+                }
             }
-        } else {
-            for (String columnName : tableMeta.getAllColumns().keySet()) {
-                selectSQLJoin.add(ColumnUtils.addEscape(columnName, getDbType()));
+            SQLUpdateRecognizer recognizer = (SQLUpdateRecognizer) sqlRecognizer;
+            ImagePlan imagePlan = new ImagePlan(tableMeta, selectSQLJoin.toString(), recognizer.getOrderBy(),
+                recognizer.getWhereEqualityColumns(), getDbType());
+            // the image of the other columns, like the timestamp updated on update, can't be derived
+            if (DERIVE_AFTER_IMAGE && ONLY_CARE_UPDATE_COLUMNS) {
+                try {
+                    imagePlan.setUpdateItems(recognizer.getUpdateColumns(), recognizer.getUpdateValues());
+                } catch (SQLParsingException e) {
+                    // the set of the expressions is selected
+                }
             }
-        }
-        return selectSQLJoin.toString();
+            return imagePlan;
+        });
     }
 
     @Override
@@ -113,6 +123,14 @@ public class UpdateExecutor<T, S extends Statement> extends AbstractDMLBaseExecu
         if (beforeImage == null || beforeImage.size() == 0) {
             return TableRecords.empty(getTableMeta());
         }
+        if (DERIVE_AFTER_IMAGE) {
+            Map<Integer, ArrayList<Object>> parameters = statementProxy instanceof ParametersHolder
+                ? ((ParametersHolder) statementProxy).getParameters() : null;
+            TableRecords afterImage = getImagePlan(tmeta).deriveAfterImage(beforeImage, parameters);
+            if (afterImage != null) {
+                return afterImage;
+            }
+        }
         String selectSQL = buildAfterImageSQL(tmeta, beforeImage);
         ResultSet rs = null;
         try (PreparedStatement pst = statementProxy.getConnection().prepareStatement(selectSQL)) {
@@ -125,25 +143,7 @@ public class UpdateExecutor<T, S extends Statement> extends AbstractDMLBaseExecu
     }
 
     private String buildAfterImageSQL(TableMeta tableMeta, TableRecords beforeImage) throws SQLException {
-        StringBuilder prefix = new StringBuilder("SELECT ");
-        String whereSql = SqlGenerateUtils.buildWhereConditionByPKs(tableMeta.getPrimaryKeyOnlyName(), beforeImage.pkRows().size(), getDbType());
-        String suffix = " FROM " + getFromTableInSQL() + " WHERE " + whereSql;
-        StringJoiner selectSQLJoiner = new StringJoiner(", ", prefix.toString(), suffix);
-        if (ONLY_CARE_UPDATE_COLUMNS) {
-            SQLUpdateRecognizer recognizer = (SQLUpdateRecognizer) sqlRecognizer;
-            List<String> updateColumns = recognizer.getUpdateColumns();
-            if (!containsPK(updateColumns)) {
-                selectSQLJoiner.add(getColumnNamesInSQL(tableMeta.getEscapePkNameList(getDbType())));
-            }
-            for (String columnName : updateColumns) {
-                selectSQLJoiner.add(columnName);
-            }
-        } else {
-            for (String columnName : tableMeta.getAllColumns().keySet()) {
-                selectSQLJoiner.add(ColumnUtils.addEscape(columnName, getDbType()));
-            }
-        }
-        return selectSQLJoiner.toString();
+        return getImagePlan(tableMeta).buildPkImageSQL(beforeImage.pkRows().size());
     }
 
 }
@@ -15,6 +15,9 @@
  */
 package io.seata.rm.datasource.sql;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.seata.common.loader.EnhancedServiceLoader;
 import io.seata.config.ConfigurationFactory;
 import io.seata.core.constants.ConfigurationKeys;
@@ -22,9 +25,19 @@ import io.seata.sqlparser.SQLRecognizer;
 import io.seata.sqlparser.SQLRecognizerFactory;
 import io.seata.sqlparser.SqlParserType;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+
+import static io.seata.common.DefaultValues.DEFAULT_CLIENT_SQL_RECOGNIZER_CACHE_SIZE;
 
 /**
+ * The sql recognizers are cached by the db type and the sql.
+ * <p>
+ * A recognizer reads its ast only and the parameters are bound by the {@code ParametersHolder} of every
+ * execution, so the recognizers of the same sql are shared by the executions. The cache is bounded by the
+ * estimated heap bytes of the cached recognizers, which mostly grows with the length of the sql.
+ *
  * @author ggndnn
  */
 public class SQLVisitorFactory {
@@ -33,9 +46,33 @@ public class SQLVisitorFactory {
      */
     private final static SQLRecognizerFactory SQL_RECOGNIZER_FACTORY;
 
+    /**
+     * The sql recognized no recognizer is cached as the empty list.
+     */
+    private final static Cache<CacheKey, List<SQLRecognizer>> SQL_RECOGNIZER_CACHE;
+
+    /**
+     * The estimated heap bytes of the ast per char of the sql, about 16 bytes for the common dml parsed by druid.
+     */
+    private final static int ESTIMATED_AST_BYTES_PER_CHAR = 16;
+
+    /**
+     * The estimated heap bytes of the cache entry itself.
+     */
+    private final static int ESTIMATED_ENTRY_BYTES = 128;
+
     static {
         String sqlparserType = ConfigurationFactory.getInstance().getConfig(ConfigurationKeys.SQL_PARSER_TYPE, SqlParserType.SQL_PARSER_TYPE_DRUID);
         SQL_RECOGNIZER_FACTORY = EnhancedServiceLoader.load(SQLRecognizerFactory.class, sqlparserType);
+        int cacheSize = ConfigurationFactory.getInstance().getInt(ConfigurationKeys.SQL_RECOGNIZER_CACHE_SIZE,
+            DEFAULT_CLIENT_SQL_RECOGNIZER_CACHE_SIZE);
+        SQL_RECOGNIZER_CACHE = cacheSize > 0 ? Caffeine.newBuilder().maximumWeight(cacheSize)
+            .weigher(SQLVisitorFactory::weigh).recordStats().build() : null;
+    }
+
+    private static int weigh(CacheKey key, List<SQLRecognizer> value) {
+        long bytes = ESTIMATED_ENTRY_BYTES + (long)key.sql.length() * ESTIMATED_AST_BYTES_PER_CHAR;
+        return (int)Math.min(Integer.MAX_VALUE, bytes);
     }
 
     /**
@@ -46,8 +83,71 @@ public class SQLVisitorFactory {
      * @return the sql recognizer
      */
     public static List<SQLRecognizer> get(String sql, String dbType) {
-        return SQL_RECOGNIZER_FACTORY.create(sql, dbType);
+        return get(sql, dbType, true);
+    }
+
+    /**
+     * Get sql recognizer.
+     *
+     * @param sql       the sql
+     * @param dbType    the db type
+     * @param cacheable false if the sql is unlikely to be executed again, it is parsed without being cached
+     * @return the sql recognizer
+     */
+    public static List<SQLRecognizer> get(String sql, String dbType, boolean cacheable) {
+        if (SQL_RECOGNIZER_CACHE == null || sql == null || dbType == null) {
+            return SQL_RECOGNIZER_FACTORY.create(sql, dbType);
+        }
+        if (!cacheable) {
+            List<SQLRecognizer> cached = SQL_RECOGNIZER_CACHE.getIfPresent(new CacheKey(dbType, sql));
+            if (cached != null) {
+                return cached.isEmpty() ? null : cached;
+            }
+            return SQL_RECOGNIZER_FACTORY.create(sql, dbType);
+        }
+        List<SQLRecognizer> sqlRecognizers = SQL_RECOGNIZER_CACHE.get(new CacheKey(dbType, sql), key -> {
+            List<SQLRecognizer> recognizers = SQL_RECOGNIZER_FACTORY.create(sql, dbType);
+            return recognizers == null ? Collections.emptyList() : Collections.unmodifiableList(recognizers);
+        });
+        return sqlRecognizers.isEmpty() ? null : sqlRecognizers;
     }
 
+    /**
+     * Get the statistics of the recognizer cache, the hit rate and the average parse time in nanoseconds
+     * are given by {@link CacheStats#hitRate()} and {@link CacheStats#averageLoadPenalty()}.
+     *
+     * @return the cache stats
+     */
+    public static CacheStats getCacheStats() {
+        return SQL_RECOGNIZER_CACHE == null ? CacheStats.empty() : SQL_RECOGNIZER_CACHE.stats();
+    }
+
+    private static final class CacheKey {
+
+        private final String dbType;
+
+        private final String sql;
 
+        private CacheKey(String dbType, String sql) {
+            this.dbType = dbType;
+            this.sql = sql;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey cacheKey = (CacheKey) o;
+            return dbType.equals(cacheKey.dbType) && sql.equals(cacheKey.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dbType, sql);
+        }
+    }
 }
@@ -187,16 +187,23 @@ public class TableRecords implements java.io.Serializable {
         ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
         Map<String, ColumnMeta> primaryKeyMap = tmeta.getPrimaryKeyMap();
         int columnCount = resultSetMetaData.getColumnCount();
+        // the columns are resolved once for all the rows
+        ColumnMeta[] columnMetas = new ColumnMeta[columnCount + 1];
+        boolean[] primaryKeys = new boolean[columnCount + 1];
+        for (int i = 1; i <= columnCount; i++) {
+            String colName = resultSetMetaData.getColumnName(i);
+            columnMetas[i] = tmeta.getColumnMeta(colName);
+            primaryKeys[i] = primaryKeyMap.containsKey(colName);
+        }
 
         while (resultSet.next()) {
             List<Field> fields = new ArrayList<>(columnCount);
             for (int i = 1; i <= columnCount; i++) {
-                String colName = resultSetMetaData.getColumnName(i);
-                ColumnMeta col = tmeta.getColumnMeta(colName);
+                ColumnMeta col = columnMetas[i];
                 int dataType = col.getDataType();
                 Field field = new Field();
                 field.setName(col.getColumnName());
-                if (primaryKeyMap.containsKey(colName)) {
+                if (primaryKeys[i]) {
                     field.setKeyType(KeyType.PRIMARY_KEY);
                 }
                 field.setType(dataType);
@@ -0,0 +1,694 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.rm.datasource.undo.parser;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+
+import io.seata.common.exception.ShouldNeverHappenException;
+import io.seata.common.loader.EnhancedServiceLoader;
+import io.seata.common.loader.LoadLevel;
+import io.seata.rm.datasource.sql.struct.Field;
+import io.seata.rm.datasource.sql.struct.KeyType;
+import io.seata.rm.datasource.sql.struct.Row;
+import io.seata.rm.datasource.sql.struct.TableRecords;
+import io.seata.rm.datasource.undo.BranchUndoLog;
+import io.seata.rm.datasource.undo.SQLUndoLog;
+import io.seata.rm.datasource.undo.UndoLogParser;
+import io.seata.sqlparser.SQLType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The compact binary undo log parser.
+ * <p>
+ * The undo log is written field by field into a buffer reused by the thread, without the intermediate object graph
+ * or the class names of the generic serializers. Each image keeps a dictionary of its columns, the name, the jdbc type
+ * and the key type of a column are written once where the column first appears, and the fields reference the column
+ * by its index in the dictionary. The dictionary is kept in the image rather than taken from the table meta,
+ * because the table may be altered before the branch is rolled back.
+ * <p>
+ * Each value is written by the codec of its java type, which is the type the driver read for the jdbc type of the column.
+ * The java type is kept, because the rollback compares the images with the current records by the values.
+ * When a value has no codec, the whole undo log is written by the jackson parser behind a marker.
+ *
+ * @author wang.liang
+ */
+@LoadLevel(name = CompactUndoLogParser.NAME)
+public class CompactUndoLogParser implements UndoLogParser {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompactUndoLogParser.class);
+
+    public static final String NAME = "compact";
+
+    private static final byte FORMAT_COMPACT = 1;
+    private static final byte FORMAT_DELEGATED = 2;
+
+    private static final byte RECORDS_NULL = 0;
+    private static final byte RECORDS = 1;
+    private static final byte RECORDS_EMPTY = 2;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INTEGER = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_SHORT = 4;
+    private static final byte TYPE_BYTE = 5;
+    private static final byte TYPE_TRUE = 6;
+    private static final byte TYPE_FALSE = 7;
+    private static final byte TYPE_DECIMAL = 8;
+    private static final byte TYPE_BIG_DECIMAL = 9;
+    private static final byte TYPE_BIG_INTEGER = 10;
+    private static final byte TYPE_DOUBLE = 11;
+    private static final byte TYPE_FLOAT = 12;
+    private static final byte TYPE_TIMESTAMP = 13;
+    private static final byte TYPE_SQL_DATE = 14;
+    private static final byte TYPE_TIME = 15;
+    private static final byte TYPE_DATE = 16;
+    private static final byte TYPE_LOCAL_DATE_TIME = 17;
+    private static final byte TYPE_LOCAL_DATE = 18;
+    private static final byte TYPE_LOCAL_TIME = 19;
+    private static final byte TYPE_BYTES = 20;
+    private static final byte TYPE_BLOB = 21;
+    private static final byte TYPE_CLOB = 22;
+
+    private static final KeyType[] KEY_TYPES = KeyType.values();
+
+    private static final ThreadLocal<Writer> WRITER = ThreadLocal.withInitial(Writer::new);
+
+    private volatile UndoLogParser delegate;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] getDefaultContent() {
+        return encode(new BranchUndoLog());
+    }
+
+    @Override
+    public byte[] encode(BranchUndoLog branchUndoLog) {
+        Writer writer = WRITER.get();
+        try {
+            writer.writeByte(FORMAT_COMPACT);
+            writeBranchUndoLog(writer, branchUndoLog);
+            return writer.toByteArray();
+        } catch (UnsupportedValueException e) {
+            LOGGER.debug("The undo log of the branch {} is encoded by the {} parser, the value type is {}",
+                branchUndoLog.getBranchId(), JacksonUndoLogParser.NAME, e.getMessage());
+            byte[] bytes = getDelegate().encode(branchUndoLog);
+            byte[] content = new byte[bytes.length + 1];
+            content[0] = FORMAT_DELEGATED;
+            System.arraycopy(bytes, 0, content, 1, bytes.length);
+            return content;
+        } finally {
+            writer.reset();
+        }
+    }
+
+    @Override
+    public BranchUndoLog decode(byte[] bytes) {
+        if (bytes.length == 0) {
+            return new BranchUndoLog();
+        }
+        if (bytes[0] == FORMAT_DELEGATED) {
+            return getDelegate().decode(Arrays.copyOfRange(bytes, 1, bytes.length));
+        }
+        if (bytes[0] != FORMAT_COMPACT) {
+            throw new ShouldNeverHappenException("Unknown compact undo log format: " + bytes[0]);
+        }
+        Reader reader = new Reader(bytes, 1);
+        return readBranchUndoLog(reader);
+    }
+
+    private UndoLogParser getDelegate() {
+        if (delegate == null) {
+            delegate = EnhancedServiceLoader.load(UndoLogParser.class, JacksonUndoLogParser.NAME);
+        }
+        return delegate;
+    }
+
+    private static void writeBranchUndoLog(Writer writer, BranchUndoLog branchUndoLog) {
+        writer.writeString(branchUndoLog.getXid());
+        writer.writeLong(branchUndoLog.getBranchId());
+        List<SQLUndoLog> sqlUndoLogs = branchUndoLog.getSqlUndoLogs();
+        writer.writeSize(sqlUndoLogs);
+        if (sqlUndoLogs != null) {
+            for (SQLUndoLog sqlUndoLog : sqlUndoLogs) {
+                SQLType sqlType = sqlUndoLog.getSqlType();
+                writer.writeVarInt(sqlType == null ? 0 : sqlType.value() + 1);
+                writer.writeString(sqlUndoLog.getTableName());
+                writeRecords(writer, sqlUndoLog.getBeforeImage());
+                writeRecords(writer, sqlUndoLog.getAfterImage());
+            }
+        }
+    }
+
+    private static BranchUndoLog readBranchUndoLog(Reader reader) {
+        BranchUndoLog branchUndoLog = new BranchUndoLog();
+        branchUndoLog.setXid(reader.readString());
+        branchUndoLog.setBranchId(reader.readLong());
+        int size = reader.readSize();
+        if (size >= 0) {
+            List<SQLUndoLog> sqlUndoLogs = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                SQLUndoLog sqlUndoLog = new SQLUndoLog();
+                int sqlType = reader.readVarInt();
+                if (sqlType > 0) {
+                    sqlUndoLog.setSqlType(SQLType.valueOf(sqlType - 1));
+                }
+                sqlUndoLog.setTableName(reader.readString());
+                sqlUndoLog.setBeforeImage(readRecords(reader));
+                sqlUndoLog.setAfterImage(readRecords(reader));
+                sqlUndoLogs.add(sqlUndoLog);
+            }
+            branchUndoLog.setSqlUndoLogs(sqlUndoLogs);
+        }
+        return branchUndoLog;
+    }
+
+    private static void writeRecords(Writer writer, TableRecords records) {
+        if (records == null) {
+            writer.writeByte(RECORDS_NULL);
+            return;
+        }
+        if (records instanceof TableRecords.EmptyTableRecords) {
+            writer.writeByte(RECORDS_EMPTY);
+            writer.writeString(records.getTableName());
+            return;
+        }
+        writer.writeByte(RECORDS);
+        writer.writeString(records.getTableName());
+        List<Row> rows = records.getRows();
+        writer.writeSize(rows);
+        if (rows == null) {
+            return;
+        }
+        List<Field> columns = writer.columns;
+        columns.clear();
+        for (Row row : rows) {
+            List<Field> fields = row.getFields();
+            writer.writeSize(fields);
+            if (fields == null) {
+                continue;
+            }
+            for (int i = 0; i < fields.size(); i++) {
+                Field field = fields.get(i);
+                // the rows of an image have the same columns in the same order mostly
+                int index = i < columns.size() && isSameColumn(columns.get(i), field) ? i : indexOf(columns, field);
+                if (index >= 0) {
+                    writer.writeVarInt(index);
+                } else {
+                    writer.writeVarInt(columns.size());
+                    writer.writeString(field.getName());
+                    writer.writeZigZagInt(field.getType());
+                    writer.writeByte((byte) field.getKeyType().ordinal());
+                    columns.add(field);
+                }
+                writeValue(writer, field.getValue());
+            }
+        }
+        columns.clear();
+    }
+
+    private static TableRecords readRecords(Reader reader) {
+        byte kind = reader.readByte();
+        if (kind == RECORDS_NULL) {
+            return null;
+        }
+        if (kind == RECORDS_EMPTY) {
+            TableRecords records = new TableRecords.EmptyTableRecords();
+            records.setTableName(reader.readString());
+            return records;
+        }
+        TableRecords records = new TableRecords();
+        records.setTableName(reader.readString());
+        int rowSize = reader.readSize();
+        if (rowSize < 0) {
+            records.setRows(null);
+            return records;
+        }
+        List<Row> rows = new ArrayList<>(rowSize);
+        List<Field> columns = new ArrayList<>();
+        for (int r = 0; r < rowSize; r++) {
+            Row row = new Row();
+            int fieldSize = reader.readSize();
+            if (fieldSize >= 0) {
+                List<Field> fields = new ArrayList<>(fieldSize);
+                for (int i = 0; i < fieldSize; i++) {
+                    int index = reader.readVarInt();
+                    if (index == columns.size()) {
+                        Field column = new Field();
+                        column.setName(reader.readString());
+                        column.setType(reader.readZigZagInt());
+                        column.setKeyType(KEY_TYPES[reader.readByte()]);
+                        columns.add(column);
+                    }
+                    Field column = columns.get(index);
+                    Field field = new Field(column.getName(), column.getType(), readValue(reader));
+                    field.setKeyType(column.getKeyType());
+                    fields.add(field);
+                }
+                row.setFields(fields);
+            } else {
+                row.setFields(null);
+            }
+            rows.add(row);
+        }
+        records.setRows(rows);
+        return records;
+    }
+
+    private static boolean isSameColumn(Field column, Field field) {
+        String name = column.getName();
+        return (name == null ? field.getName() == null : name.equals(field.getName()))
+            && column.getType() == field.getType() && column.getKeyType() == field.getKeyType();
+    }
+
+    private static int indexOf(List<Field> columns, Field field) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (isSameColumn(columns.get(i), field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void writeValue(Writer writer, Object value) {
+        if (value == null) {
+            writer.writeByte(TYPE_NULL);
+            return;
+        }
+        // the exact class is matched, the subclasses, like the timestamp of the date, have their own codecs
+        Class<?> clazz = value.getClass();
+        if (clazz == String.class) {
+            writer.writeByte(TYPE_STRING);
+            writer.writeString((String) value);
+        } else if (clazz == Integer.class) {
+            writer.writeByte(TYPE_INTEGER);
+            writer.writeZigZagInt((Integer) value);
+        } else if (clazz == Long.class) {
+            writer.writeByte(TYPE_LONG);
+            writer.writeZigZagLong((Long) value);
+        } else if (clazz == Short.class) {
+            writer.writeByte(TYPE_SHORT);
+            writer.writeZigZagInt((Short) value);
+        } else if (clazz == Byte.class) {
+            writer.writeByte(TYPE_BYTE);
+            writer.writeByte((Byte) value);
+        } else if (clazz == Boolean.class) {
+            writer.writeByte((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+        } else if (clazz == BigDecimal.class) {
+            BigDecimal decimal = (BigDecimal) value;
+            BigInteger unscaled = decimal.unscaledValue();
+            if (unscaled.bitLength() < Long.SIZE) {
+                writer.writeByte(TYPE_DECIMAL);
+                writer.writeZigZagInt(decimal.scale());
+                writer.writeZigZagLong(unscaled.longValue());
+            } else {
+                writer.writeByte(TYPE_BIG_DECIMAL);
+                writer.writeZigZagInt(decimal.scale());
+                writer.writeBytes(unscaled.toByteArray());
+            }
+        } else if (clazz == BigInteger.class) {
+            writer.writeByte(TYPE_BIG_INTEGER);
+            writer.writeBytes(((BigInteger) value).toByteArray());
+        } else if (clazz == Double.class) {
+            writer.writeByte(TYPE_DOUBLE);
+            writer.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (clazz == Float.class) {
+            writer.writeByte(TYPE_FLOAT);
+            writer.writeZigZagInt(Float.floatToRawIntBits((Float) value));
+        } else if (clazz == Timestamp.class) {
+            Timestamp timestamp = (Timestamp) value;
+            writer.writeByte(TYPE_TIMESTAMP);
+            writer.writeZigZagLong(timestamp.getTime());
+            writer.writeVarInt(timestamp.getNanos());
+        } else if (clazz == java.sql.Date.class) {
+            writer.writeByte(TYPE_SQL_DATE);
+            writer.writeZigZagLong(((Date) value).getTime());
+        } else if (clazz == Time.class) {
+            writer.writeByte(TYPE_TIME);
+            writer.writeZigZagLong(((Date) value).getTime());
+        } else if (clazz == Date.class) {
+            writer.writeByte(TYPE_DATE);
+            writer.writeZigZagLong(((Date) value).getTime());
+        } else if (clazz == LocalDateTime.class) {
+            LocalDateTime dateTime = (LocalDateTime) value;
+            writer.writeByte(TYPE_LOCAL_DATE_TIME);
+            writer.writeZigZagLong(dateTime.toLocalDate().toEpochDay());
+            writer.writeZigZagLong(dateTime.toLocalTime().toNanoOfDay());
+        } else if (clazz == LocalDate.class) {
+            writer.writeByte(TYPE_LOCAL_DATE);
+            writer.writeZigZagLong(((LocalDate) value).toEpochDay());
+        } else if (clazz == LocalTime.class) {
+            writer.writeByte(TYPE_LOCAL_TIME);
+            writer.writeZigZagLong(((LocalTime) value).toNanoOfDay());
+        } else if (clazz == byte[].class) {
+            writer.writeByte(TYPE_BYTES);
+            writer.writeBytes((byte[]) value);
+        } else if (clazz == SerialBlob.class) {
+            SerialBlob blob = (SerialBlob) value;
+            writer.writeByte(TYPE_BLOB);
+            try {
+                writer.writeBytes(blob.getBytes(1, (int) blob.length()));
+            } catch (SQLException e) {
+                throw new ShouldNeverHappenException(e);
+            }
+        } else if (clazz == SerialClob.class) {
+            SerialClob clob = (SerialClob) value;
+            writer.writeByte(TYPE_CLOB);
+            try {
+                writer.writeString(clob.getSubString(1, (int) clob.length()));
+            } catch (SQLException e) {
+                throw new ShouldNeverHappenException(e);
+            }
+        } else {
+            throw new UnsupportedValueException(clazz.getName());
+        }
+    }
+
+    private static Object readValue(Reader reader) {
+        byte type = reader.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return reader.readString();
+            case TYPE_INTEGER:
+                return reader.readZigZagInt();
+            case TYPE_LONG:
+                return reader.readZigZagLong();
+            case TYPE_SHORT:
+                return (short) reader.readZigZagInt();
+            case TYPE_BYTE:
+                return reader.readByte();
+            case TYPE_TRUE:
+                return Boolean.TRUE;
+            case TYPE_FALSE:
+                return Boolean.FALSE;
+            case TYPE_DECIMAL:
+                int scale = reader.readZigZagInt();
+                return BigDecimal.valueOf(reader.readZigZagLong(), scale);
+            case TYPE_BIG_DECIMAL:
+                int bigScale = reader.readZigZagInt();
+                return new BigDecimal(new BigInteger(reader.readBytes()), bigScale);
+            case TYPE_BIG_INTEGER:
+                return new BigInteger(reader.readBytes());
+            case TYPE_DOUBLE:
+                return Double.longBitsToDouble(reader.readLong());
+            case TYPE_FLOAT:
+                return Float.intBitsToFloat(reader.readZigZagInt());
+            case TYPE_TIMESTAMP:
+                Timestamp timestamp = new Timestamp(reader.readZigZagLong());
+                timestamp.setNanos(reader.readVarInt());
+                return timestamp;
+            case TYPE_SQL_DATE:
+                return new java.sql.Date(reader.readZigZagLong());
+            case TYPE_TIME:
+                return new Time(reader.readZigZagLong());
+            case TYPE_DATE:
+                return new Date(reader.readZigZagLong());
+            case TYPE_LOCAL_DATE_TIME:
+                LocalDate date = LocalDate.ofEpochDay(reader.readZigZagLong());
+                return LocalDateTime.of(date, LocalTime.ofNanoOfDay(reader.readZigZagLong()));
+            case TYPE_LOCAL_DATE:
+                return LocalDate.ofEpochDay(reader.readZigZagLong());
+            case TYPE_LOCAL_TIME:
+                return LocalTime.ofNanoOfDay(reader.readZigZagLong());
+            case TYPE_BYTES:
+                return reader.readBytes();
+            case TYPE_BLOB:
+                try {
+                    return new SerialBlob(reader.readBytes());
+                } catch (SQLException e) {
+                    throw new ShouldNeverHappenException(e);
+                }
+            case TYPE_CLOB:
+                try {
+                    return new SerialClob(reader.readString().toCharArray());
+                } catch (SQLException e) {
+                    throw new ShouldNeverHappenException(e);
+                }
+            default:
+                throw new ShouldNeverHappenException("Unknown compact undo log value type: " + type);
+        }
+    }
+
+    /**
+     * The value has no codec, the undo log is delegated.
+     */
+    private static class UnsupportedValueException extends RuntimeException {
+
+        UnsupportedValueException(String type) {
+            super(type, null, false, false);
+        }
+    }
+
+    /**
+     * The buffer of the encoding, reused by the thread.
+     */
+    private static class Writer {
+
+        private static final int INITIAL_SIZE = 1024;
+
+        /**
+         * The larger buffer is not kept by the thread after the encoding.
+         */
+        private static final int MAX_RETAINED_SIZE = 1024 * 1024;
+
+        private byte[] buf = new byte[INITIAL_SIZE];
+
+        private int pos;
+
+        private final List<Field> columns = new ArrayList<>();
+
+        void reset() {
+            pos = 0;
+            columns.clear();
+            if (buf.length > MAX_RETAINED_SIZE) {
+                buf = new byte[INITIAL_SIZE];
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensure(int size) {
+            if (pos + size > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + size));
+            }
+        }
+
+        void writeByte(byte b) {
+            ensure(1);
+            buf[pos++] = b;
+        }
+
+        void writeVarInt(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeZigZagInt(int value) {
+            writeVarInt((value << 1) ^ (value >> 31));
+        }
+
+        void writeZigZagLong(long value) {
+            value = (value << 1) ^ (value >> 63);
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buf[pos++] = (byte) (value >>> shift);
+            }
+        }
+
+        /**
+         * Write the size of the list plus one, 0 for null.
+         */
+        void writeSize(List<?> list) {
+            writeVarInt(list == null ? 0 : list.size() + 1);
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarInt(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        /**
+         * Write the utf-8 length plus one, 0 for null, and the utf-8 bytes, which are encoded into the buffer directly.
+         * The unpaired surrogate is written as '?', like {@link String#getBytes(java.nio.charset.Charset)}.
+         */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            int length = value.length();
+            int utf8Length = 0;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    utf8Length++;
+                } else if (c < 0x800) {
+                    utf8Length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    utf8Length += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) {
+                    utf8Length++;
+                } else {
+                    utf8Length += 3;
+                }
+            }
+            writeVarInt(utf8Length + 1);
+            ensure(utf8Length);
+            byte[] bytes = buf;
+            int index = pos;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    bytes[index++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[index++] = (byte) (0xC0 | (c >> 6));
+                    bytes[index++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[index++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[index++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[index++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[index++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    bytes[index++] = '?';
+                } else {
+                    bytes[index++] = (byte) (0xE0 | (c >> 12));
+                    bytes[index++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[index++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            pos = index;
+        }
+    }
+
+    /**
+     * The reader of the encoded bytes.
+     */
+    private static class Reader {
+
+        private final byte[] buf;
+
+        private int pos;
+
+        Reader(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        byte readByte() {
+            return buf[pos++];
+        }
+
+        int readVarInt() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buf[pos++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        int readZigZagInt() {
+            int value = readVarInt();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long readZigZagLong() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buf[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buf[pos++] & 0xFF);
+            }
+            return value;
+        }
+
+        /**
+         * Read the size of the list, -1 for null.
+         */
+        int readSize() {
+            return readVarInt() - 1;
+        }
+
+        byte[] readBytes() {
+            int length = readVarInt();
+            byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+
+        String readString() {
+            int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+    }
+}
@@ -43,6 +43,23 @@ public class ConnectionContextProxyTest {
         Assertions.assertEquals(connectionContext.buildLockKeys(), "bcd;abc");
     }
 
+    @Test
+    public void testBuildLockKeysMergeTable() {
+        connectionContext.appendLockKey("t1:1,2");
+        connectionContext.appendLockKey("t1:2,3");
+        connectionContext.appendLockKey("t2:1");
+
+        String lockKeys = connectionContext.buildLockKeys();
+        Assertions.assertEquals(2, lockKeys.split(";").length);
+        for (String tableGroupedLockKeys : lockKeys.split(";")) {
+            if (tableGroupedLockKeys.startsWith("t1:")) {
+                Assertions.assertEquals(3, tableGroupedLockKeys.substring(3).split(",").length);
+            } else {
+                Assertions.assertEquals("t2:1", tableGroupedLockKeys);
+            }
+        }
+    }
+
     @Test
     public void testAppendUndoItem() {
         SQLUndoLog sqlUndoLog = new SQLUndoLog();
@@ -0,0 +1,219 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.rm.datasource.exec;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.druid.filter.FilterEventAdapter;
+import com.alibaba.druid.pool.DruidDataSource;
+import io.seata.core.context.RootContext;
+import io.seata.rm.datasource.ConnectionProxy;
+import io.seata.rm.datasource.DataSourceProxy;
+import io.seata.rm.datasource.sql.struct.Row;
+import io.seata.rm.datasource.sql.struct.TableRecords;
+import io.seata.rm.datasource.undo.SQLUndoLog;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Run the prepared batches through the data source proxy on h2 in the mysql mode,
+ * and count the statements sent to the database for each batch.
+ * <p>
+ * The batch repeats every primary key twice, so the before image by the distinct primary keys binds half
+ * of the parameters of the or of the where conditions, which is still used when the where condition
+ * is not the equality of the primary keys.
+ *
+ * @author wang.liang
+ */
+public class BatchImageH2Test {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchImageH2Test.class);
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final int DISTINCT_SIZE = BATCH_SIZE / 2;
+
+    private static final String PK_UPDATE_SQL = "update batch_image_test set name = ? where id = ?";
+
+    private static final String OR_UPDATE_SQL = "update batch_image_test set name = ? where id = ? and name is not null";
+
+    private static final List<String> EXECUTED_SQLS = Collections.synchronizedList(new ArrayList<>());
+
+    private static DruidDataSource dataSource;
+
+    private static DataSourceProxy dataSourceProxy;
+
+    @BeforeAll
+    public static void init() throws Exception {
+        dataSource = new DruidDataSource();
+        dataSource.setDriverClassName("org.h2.Driver");
+        dataSource.setUrl("jdbc:h2:mem:batch_image_test;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setProxyFilters(Collections.singletonList(new FilterEventAdapter() {
+            @Override
+            protected void statementExecuteQueryBefore(com.alibaba.druid.proxy.jdbc.StatementProxy statement,
+                                                       String sql) {
+                EXECUTED_SQLS.add(sql);
+            }
+
+            @Override
+            protected void statementExecuteUpdateBefore(com.alibaba.druid.proxy.jdbc.StatementProxy statement,
+                                                        String sql) {
+                EXECUTED_SQLS.add(sql);
+            }
+
+            @Override
+            protected void statementExecuteBatchBefore(com.alibaba.druid.proxy.jdbc.StatementProxy statement) {
+                EXECUTED_SQLS.add(statement.getLastExecuteSql());
+            }
+        }));
+        dataSourceProxy = new DataSourceProxy(dataSource);
+        // the mysql recognizers and table meta cache are used for h2 in the mysql mode
+        Field field = DataSourceProxy.class.getDeclaredField("dbType");
+        field.setAccessible(true);
+        field.set(dataSourceProxy, "mysql");
+    }
+
+    @AfterAll
+    public static void destroy() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @BeforeEach
+    public void prepareTable() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS batch_image_test");
+            statement.execute("CREATE TABLE batch_image_test (id INT NOT NULL, name VARCHAR(64))");
+            // the mysql table meta cache finds the primary key by the index name
+            statement.execute("CREATE UNIQUE INDEX \"PRIMARY\" ON batch_image_test (id)");
+            for (int i = 0; i < DISTINCT_SIZE; i++) {
+                statement.execute("INSERT INTO batch_image_test VALUES (" + i + ", 'name" + i + "')");
+            }
+        }
+        RootContext.bind("127.0.0.1:8091:" + System.nanoTime());
+        // load the table meta before counting
+        executeRowByRow(PK_UPDATE_SQL, 1);
+        EXECUTED_SQLS.clear();
+    }
+
+    @AfterEach
+    public void unbind() {
+        RootContext.unbind();
+    }
+
+    @Test
+    public void testStatementsPerBatch() throws SQLException {
+        int rowByRow = executeRowByRow(PK_UPDATE_SQL, BATCH_SIZE);
+        // a before image, an update and an after image for every row
+        Assertions.assertEquals(3 * BATCH_SIZE, rowByRow);
+
+        List<String> orSQLs = new ArrayList<>();
+        SQLUndoLog orUndoLog = executeBatch(OR_UPDATE_SQL, orSQLs);
+        Assertions.assertEquals(3, orSQLs.size(), orSQLs.toString());
+        Assertions.assertEquals(BATCH_SIZE, countPlaceholders(orSQLs.get(0)), orSQLs.get(0));
+
+        List<String> pkSQLs = new ArrayList<>();
+        SQLUndoLog pkUndoLog = executeBatch(PK_UPDATE_SQL, pkSQLs);
+        Assertions.assertEquals(3, pkSQLs.size(), pkSQLs.toString());
+        Assertions.assertTrue(pkSQLs.get(0).contains(" in ( "), pkSQLs.get(0));
+        Assertions.assertEquals(DISTINCT_SIZE, countPlaceholders(pkSQLs.get(0)), pkSQLs.get(0));
+
+        for (SQLUndoLog undoLog : new SQLUndoLog[] {orUndoLog, pkUndoLog}) {
+            assertImage(undoLog.getBeforeImage(), "name");
+            assertImage(undoLog.getAfterImage(), "batch");
+        }
+        LOGGER.info("statements of {} rows: {} executed row by row, {} in a batch, the before image binds {} "
+                + "parameters by the or of the where conditions, {} by the distinct primary keys",
+            BATCH_SIZE, rowByRow, pkSQLs.size(), countPlaceholders(orSQLs.get(0)), countPlaceholders(pkSQLs.get(0)));
+    }
+
+    private int executeRowByRow(String sql, int rows) throws SQLException {
+        EXECUTED_SQLS.clear();
+        try (ConnectionProxy connection = dataSourceProxy.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < rows; i++) {
+                    statement.setString(1, "row" + i);
+                    statement.setInt(2, i % DISTINCT_SIZE);
+                    statement.executeUpdate();
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+        return EXECUTED_SQLS.size();
+    }
+
+    private SQLUndoLog executeBatch(String sql, List<String> executedSQLs) throws SQLException {
+        EXECUTED_SQLS.clear();
+        try (ConnectionProxy connection = dataSourceProxy.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    statement.setString(1, "batch" + (i % DISTINCT_SIZE));
+                    statement.setInt(2, i % DISTINCT_SIZE);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                executedSQLs.addAll(EXECUTED_SQLS);
+                List<SQLUndoLog> undoItems = connection.getContext().getUndoItems();
+                Assertions.assertEquals(1, undoItems.size());
+                return undoItems.get(0);
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    private void assertImage(TableRecords image, String namePrefix) {
+        Assertions.assertEquals(DISTINCT_SIZE, image.size());
+        for (Row row : image.getRows()) {
+            Assertions.assertEquals(namePrefix + getValue(row, "id"), getValue(row, "name"));
+        }
+    }
+
+    private static Object getValue(Row row, String columnName) {
+        return row.getFields().stream().filter(field -> columnName.equalsIgnoreCase(field.getName()))
+            .findFirst().map(io.seata.rm.datasource.sql.struct.Field::getValue).orElse(null);
+    }
+
+    private static int countPlaceholders(String sql) {
+        int count = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+}
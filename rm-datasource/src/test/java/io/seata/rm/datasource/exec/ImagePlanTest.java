@@ -0,0 +1,183 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.rm.datasource.exec;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.druid.sql.SQLUtils;
+import com.alibaba.druid.sql.ast.SQLStatement;
+import io.seata.rm.datasource.sql.struct.ColumnMeta;
+import io.seata.rm.datasource.sql.struct.Field;
+import io.seata.rm.datasource.sql.struct.KeyType;
+import io.seata.rm.datasource.sql.struct.Row;
+import io.seata.rm.datasource.sql.struct.TableMeta;
+import io.seata.rm.datasource.sql.struct.TableRecords;
+import io.seata.sqlparser.druid.mysql.MySQLUpdateRecognizer;
+import io.seata.sqlparser.util.JdbcConstants;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+/**
+ * The type Image plan test.
+ *
+ * @author wang.liang
+ */
+public class ImagePlanTest {
+
+    @Test
+    public void testBuildImageSQL() throws Exception {
+        String sql = "update t set name = ? where id = ?";
+        List<SQLStatement> asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        MySQLUpdateRecognizer recognizer = new MySQLUpdateRecognizer(sql, asts.get(0));
+        TableMeta tableMeta = newTableMeta();
+
+        ImagePlan imagePlan = ImagePlan.get(recognizer, tableMeta,
+            () -> new ImagePlan(tableMeta, "SELECT id, name FROM t", " ORDER BY id", JdbcConstants.MYSQL));
+        Assertions.assertSame(imagePlan, ImagePlan.get(recognizer, tableMeta, () -> {
+            throw new IllegalStateException("the plan is cached");
+        }));
+        Assertions.assertEquals("SELECT id, name FROM t WHERE id = ? ORDER BY id LIMIT ? FOR UPDATE",
+            imagePlan.buildBeforeImageSQL("id = ?", " LIMIT ?"));
+        Assertions.assertEquals("SELECT id, name FROM t ORDER BY id FOR UPDATE",
+            imagePlan.buildBeforeImageSQL(null, null));
+        Assertions.assertEquals("SELECT id, name FROM t WHERE (id) in ( (?),(?) )", imagePlan.buildPkImageSQL(2));
+        Assertions.assertSame(imagePlan.buildPkImageSQL(2), imagePlan.buildPkImageSQL(2));
+
+        // rebuilt when the table meta is refreshed
+        TableMeta refreshed = newTableMeta();
+        ImagePlan rebuilt = ImagePlan.get(recognizer, refreshed,
+            () -> new ImagePlan(refreshed, "SELECT * FROM t", null, JdbcConstants.MYSQL));
+        Assertions.assertNotSame(imagePlan, rebuilt);
+        Assertions.assertEquals("SELECT * FROM t FOR UPDATE", rebuilt.buildBeforeImageSQL("", ""));
+    }
+
+    @Test
+    public void testBuildBatchBeforeImageSQL() throws Exception {
+        TableMeta tableMeta = Mockito.mock(TableMeta.class);
+        Mockito.when(tableMeta.getPrimaryKeyOnlyName()).thenReturn(Arrays.asList("id", "code"));
+        ImagePlan imagePlan = new ImagePlan(tableMeta, "SELECT * FROM t a", null,
+            whereEqualityColumns("a.`code` = ? AND id = ?"), JdbcConstants.MYSQL);
+        ArrayList<List<Object>> paramAppenderList = new ArrayList<>();
+        paramAppenderList.add(Arrays.asList("x", 1));
+        paramAppenderList.add(Arrays.asList("y", 2));
+        paramAppenderList.add(Arrays.asList("x", 1));
+        Assertions.assertEquals("SELECT * FROM t a WHERE (id,code) in ( (?,?),(?,?) ) FOR UPDATE",
+            imagePlan.buildBatchBeforeImageSQL(paramAppenderList, null));
+        Assertions.assertEquals(Arrays.asList(Arrays.asList(1, "x"), Arrays.asList(2, "y")), paramAppenderList);
+        Assertions.assertNull(imagePlan.buildBatchBeforeImageSQL(paramAppenderList, " LIMIT ?"));
+
+        // the where condition is not the equality of the primary keys
+        for (String whereCondition : new String[] {"id = ?", "id = ? OR code = ?", "id = ? AND name = ?",
+            "id > ? AND code = ?", "id = ? AND code = 'x'", "id = ? AND (code = ? OR code = ?)", "id = ? AND id = ?"}) {
+            imagePlan = new ImagePlan(tableMeta, "SELECT * FROM t", null, whereEqualityColumns(whereCondition),
+                JdbcConstants.MYSQL);
+            Assertions.assertNull(imagePlan.buildBatchBeforeImageSQL(paramAppenderList, null), whereCondition);
+        }
+    }
+
+    @Test
+    public void testDeriveAfterImage() {
+        TableMeta tableMeta = newTableMeta();
+        ColumnMeta idMeta = newColumnMeta("id", Types.INTEGER, "INT");
+        Map<String, ColumnMeta> primaryKeyMap = new HashMap<>();
+        primaryKeyMap.put("id", idMeta);
+        Mockito.when(tableMeta.getPrimaryKeyMap()).thenReturn(primaryKeyMap);
+        Mockito.when(tableMeta.getColumnMeta("id")).thenReturn(idMeta);
+        Mockito.when(tableMeta.getColumnMeta("name")).thenReturn(newColumnMeta("name", Types.VARCHAR, "VARCHAR"));
+        Mockito.when(tableMeta.getColumnMeta("age")).thenReturn(newColumnMeta("age", Types.INTEGER, "INT"));
+        Mockito.when(tableMeta.getColumnMeta("score")).thenReturn(newColumnMeta("score", Types.DECIMAL, "DECIMAL"));
+        TableRecords beforeImage = new TableRecords(tableMeta);
+        beforeImage.add(newRow(1, "Tom", 17));
+        beforeImage.add(newRow(2, "Jerry", null));
+
+        ImagePlan imagePlan = newImagePlan(tableMeta, "update t a set a.`name` = ?, age = 18 where id > ?");
+        Map<Integer, ArrayList<Object>> parameters = new HashMap<>();
+        parameters.put(1, new ArrayList<>(Collections.singletonList("Spike")));
+        parameters.put(2, new ArrayList<>(Collections.singletonList(0)));
+        TableRecords afterImage = imagePlan.deriveAfterImage(beforeImage, parameters);
+        Assertions.assertEquals(2, afterImage.size());
+        for (Row row : afterImage.getRows()) {
+            Assertions.assertEquals(KeyType.PRIMARY_KEY, row.getFields().get(0).getKeyType());
+            Assertions.assertEquals("Spike", row.getFields().get(1).getValue());
+            Assertions.assertEquals(18, row.getFields().get(2).getValue());
+        }
+        Assertions.assertEquals(2, afterImage.getRows().get(1).getFields().get(0).getValue());
+        Assertions.assertEquals("Tom", beforeImage.getRows().get(0).getFields().get(1).getValue());
+
+        // the value is read back as another type
+        parameters.get(1).set(0, 1);
+        Assertions.assertNull(imagePlan.deriveAfterImage(beforeImage, parameters));
+        // a batch
+        parameters.get(1).set(0, "Spike");
+        parameters.get(2).add(1);
+        Assertions.assertNull(imagePlan.deriveAfterImage(beforeImage, parameters));
+
+        // the set is not derived
+        for (String sql : new String[] {"update t set name = 'Spike' where id = ?", "update t set age = age + 1 where id = ?",
+            "update t set score = ? where id = ?", "update t set id = ? where id = ?", "update t set age = ?, age = ? where id = ?"}) {
+            Assertions.assertNull(newImagePlan(tableMeta, sql).deriveAfterImage(beforeImage, parameters), sql);
+        }
+    }
+
+    private List<String> whereEqualityColumns(String whereCondition) {
+        String sql = "update t a set name = ? where " + whereCondition;
+        List<SQLStatement> asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        return new MySQLUpdateRecognizer(sql, asts.get(0)).getWhereEqualityColumns();
+    }
+
+    private ImagePlan newImagePlan(TableMeta tableMeta, String sql) {
+        List<SQLStatement> asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        MySQLUpdateRecognizer recognizer = new MySQLUpdateRecognizer(sql, asts.get(0));
+        ImagePlan imagePlan = new ImagePlan(tableMeta, "SELECT id, name, age FROM t", null, JdbcConstants.MYSQL);
+        try {
+            imagePlan.setUpdateItems(recognizer.getUpdateColumns(), recognizer.getUpdateValues());
+        } catch (RuntimeException e) {
+            // the set of the expressions is not derived
+        }
+        return imagePlan;
+    }
+
+    private Row newRow(int id, String name, Integer age) {
+        Field idField = new Field("id", Types.INTEGER, id);
+        idField.setKeyType(KeyType.PRIMARY_KEY);
+        Row row = new Row();
+        row.setFields(new ArrayList<>(Arrays.asList(idField, new Field("name", Types.VARCHAR, name),
+            new Field("age", Types.INTEGER, age))));
+        return row;
+    }
+
+    private ColumnMeta newColumnMeta(String columnName, int dataType, String dataTypeName) {
+        ColumnMeta columnMeta = new ColumnMeta();
+        columnMeta.setColumnName(columnName);
+        columnMeta.setDataType(dataType);
+        columnMeta.setDataTypeName(dataTypeName);
+        columnMeta.setColumnSize(16);
+        return columnMeta;
+    }
+
+    private TableMeta newTableMeta() {
+        TableMeta tableMeta = Mockito.mock(TableMeta.class);
+        Mockito.when(tableMeta.getPrimaryKeyOnlyName()).thenReturn(Collections.singletonList("id"));
+        return tableMeta;
+    }
+}
@@ -47,12 +47,14 @@ import java.math.BigDecimal;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -139,6 +141,62 @@ public class MySQLInsertExecutorTest {
         Assertions.assertEquals(resultTableRecords, tableRecords);
     }
 
+    @Test
+    public void testDeriveAfterImage() throws SQLException {
+        doReturn(tableMeta).when(insertExecutor).getTableMeta();
+        when(tableMeta.getPrimaryKeyOnlyName()).thenReturn(Arrays.asList(ID_COLUMN));
+        when(tableMeta.getColumnMeta(ID_COLUMN)).thenReturn(newColumnMeta(ID_COLUMN, Types.BIGINT, 20));
+        when(tableMeta.getColumnMeta(USER_NAME_COLUMN)).thenReturn(newColumnMeta(USER_NAME_COLUMN, Types.VARCHAR, 8));
+        when(tableMeta.getColumnMeta(USER_STATUS_COLUMN)).thenReturn(newColumnMeta(USER_STATUS_COLUMN, Types.INTEGER, 11));
+        when(sqlInsertRecognizer.getInsertColumns()).thenReturn(Arrays.asList(ID_COLUMN, USER_NAME_COLUMN, USER_STATUS_COLUMN));
+        when(sqlInsertRecognizer.getInsertRows(any())).thenReturn(Arrays.asList(Arrays.asList("?", "?", 1),
+            Arrays.asList("?", "?", 2L)));
+        Map<Integer, ArrayList<Object>> parameters = new HashMap<>();
+        parameters.put(1, new ArrayList<>(Arrays.asList(PK_VALUE)));
+        parameters.put(2, new ArrayList<>(Arrays.asList("Tom")));
+        parameters.put(3, new ArrayList<>(Arrays.asList(PK_VALUE + 1)));
+        parameters.put(4, new ArrayList<>(Arrays.asList("Jerry")));
+        when(((PreparedStatementProxy) statementProxy).getParameters()).thenReturn(parameters);
+        when(statementProxy.getUpdateCount()).thenReturn(2);
+        Map<String, List<Object>> pkValuesMap = new HashMap<>();
+        pkValuesMap.put(ID_COLUMN, Arrays.asList(PK_VALUE, PK_VALUE + 1));
+
+        TableRecords afterImage = insertExecutor.deriveAfterImage(pkValuesMap);
+        Assertions.assertEquals(2, afterImage.size());
+        Row row = afterImage.getRows().get(1);
+        Assertions.assertEquals(101L, row.primaryKeys().get(0).getValue());
+        Assertions.assertEquals("Jerry", row.getFields().get(1).getValue());
+        Assertions.assertEquals(2, row.getFields().get(2).getValue());
+
+        // the row is not inserted
+        when(statementProxy.getUpdateCount()).thenReturn(1);
+        Assertions.assertNull(insertExecutor.deriveAfterImage(pkValuesMap));
+        // the string may be truncated
+        when(statementProxy.getUpdateCount()).thenReturn(2);
+        parameters.get(4).set(0, "Jerry the mouse");
+        Assertions.assertNull(insertExecutor.deriveAfterImage(pkValuesMap));
+        // the value is not a parameter
+        parameters.get(4).set(0, "Jerry");
+        when(sqlInsertRecognizer.getInsertRows(any())).thenReturn(Arrays.asList(Arrays.asList("?", "?", 1),
+            Arrays.asList("?", "?", SqlMethodExpr.get())));
+        Assertions.assertNull(insertExecutor.deriveAfterImage(pkValuesMap));
+        // a batch
+        when(sqlInsertRecognizer.getInsertRows(any())).thenReturn(Arrays.asList(Arrays.asList("?", "?", 1)));
+        parameters.remove(3);
+        parameters.remove(4);
+        parameters.get(1).add(PK_VALUE + 1);
+        parameters.get(2).add("Jerry");
+        Assertions.assertNull(insertExecutor.deriveAfterImage(pkValuesMap));
+    }
+
+    private ColumnMeta newColumnMeta(String columnName, int dataType, int columnSize) {
+        ColumnMeta columnMeta = new ColumnMeta();
+        columnMeta.setColumnName(columnName);
+        columnMeta.setDataType(dataType);
+        columnMeta.setColumnSize(columnSize);
+        return columnMeta;
+    }
+
     @Test
     public void testAfterImage_ByAuto() throws SQLException {
         doReturn(false).when(insertExecutor).containsPK();
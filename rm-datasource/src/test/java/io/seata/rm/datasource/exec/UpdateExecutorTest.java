@@ -18,6 +18,7 @@ package io.seata.rm.datasource.exec;
 import java.lang.reflect.Field;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.alibaba.druid.mock.MockStatement;
@@ -30,8 +31,11 @@ import com.alibaba.druid.util.JdbcConstants;
 import com.google.common.collect.Lists;
 import io.seata.rm.datasource.ConnectionProxy;
 import io.seata.rm.datasource.DataSourceProxy;
+import io.seata.rm.datasource.PreparedStatementProxy;
 import io.seata.rm.datasource.StatementProxy;
+import io.seata.rm.datasource.mock.MockConnection;
 import io.seata.rm.datasource.mock.MockDriver;
+import io.seata.rm.datasource.mock.MockExecuteHandlerImpl;
 import io.seata.rm.datasource.sql.struct.TableRecords;
 import io.seata.sqlparser.druid.mysql.MySQLUpdateRecognizer;
 import org.junit.jupiter.api.Assertions;
@@ -47,14 +51,22 @@ public class UpdateExecutorTest {
 
     private static StatementProxy statementProxy;
 
+    private static MockDriver mockDriver;
+
+    private static List<String> returnValueColumnLabels;
+
+    private static Object[][] returnValue;
+
+    private static Object[][] columnMetas;
+
     @BeforeAll
     public static void init() {
-        List<String> returnValueColumnLabels = Lists.newArrayList("id", "name");
-        Object[][] returnValue = new Object[][] {
+        returnValueColumnLabels = Lists.newArrayList("id", "name");
+        returnValue = new Object[][] {
             new Object[] {1, "Tom"},
             new Object[] {2, "Jack"},
         };
-        Object[][] columnMetas = new Object[][] {
+        columnMetas = new Object[][] {
             new Object[] {"", "", "table_update_executor_test", "id", Types.INTEGER, "INTEGER", 64, 0, 10, 1, "", "", 0, 0, 64, 1, "NO", "YES"},
             new Object[] {"", "", "table_update_executor_test", "name", Types.VARCHAR, "VARCHAR", 64, 0, 10, 0, "", "", 0, 0, 64, 2, "YES", "NO"},
         };
@@ -62,7 +74,7 @@ public class UpdateExecutorTest {
             new Object[] {"PRIMARY", "id", false, "", 3, 1, "A", 34},
         };
 
-        MockDriver mockDriver = new MockDriver(returnValueColumnLabels, returnValue, columnMetas, indexMetas);
+        mockDriver = new MockDriver(returnValueColumnLabels, returnValue, columnMetas, indexMetas);
         DruidDataSource dataSource = new DruidDataSource();
         dataSource.setUrl("jdbc:mock:xxx");
         dataSource.setDriver(mockDriver);
@@ -109,4 +121,36 @@ public class UpdateExecutorTest {
         afterImage = updateExecutor.afterImage(null);
         Assertions.assertNotNull(afterImage);
     }
+
+    @Test
+    public void testBatchImages() throws SQLException {
+        List<String> executedSQLs = new ArrayList<>();
+        MockExecuteHandlerImpl executeHandler = new MockExecuteHandlerImpl(returnValueColumnLabels, returnValue, columnMetas);
+        mockDriver.setMockExecuteHandler((statement, sql) -> {
+            executedSQLs.add(sql);
+            return executeHandler.executeQuery(statement, sql);
+        });
+        try {
+            String sql = "update table_update_executor_test set name = ? where id = ?";
+            PreparedStatementProxy preparedStatementProxy = new PreparedStatementProxy(statementProxy.getConnectionProxy(),
+                mockDriver.createSeataMockPreparedStatement((MockConnection) statementProxy.getConnectionProxy().getTargetConnection(), sql), sql);
+            for (int id : new int[] {1, 2, 1}) {
+                preparedStatementProxy.setString(1, "WILL");
+                preparedStatementProxy.setInt(2, id);
+                preparedStatementProxy.addBatch();
+            }
+            List<SQLStatement> asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+            UpdateExecutor batchExecutor = new UpdateExecutor(preparedStatementProxy, (statement, args) -> null,
+                new MySQLUpdateRecognizer(sql, asts.get(0)));
+
+            // one query for each image of the batch, the before image selects the distinct primary keys
+            TableRecords beforeImage = batchExecutor.beforeImage();
+            Assertions.assertEquals(1, executedSQLs.size());
+            Assertions.assertTrue(executedSQLs.get(0).endsWith(" WHERE (id) in ( (?),(?) ) FOR UPDATE"), executedSQLs.get(0));
+            batchExecutor.afterImage(beforeImage);
+            Assertions.assertEquals(2, executedSQLs.size());
+        } finally {
+            mockDriver.setMockExecuteHandler(new MockExecuteHandlerImpl(returnValueColumnLabels, returnValue, columnMetas));
+        }
+    }
 }
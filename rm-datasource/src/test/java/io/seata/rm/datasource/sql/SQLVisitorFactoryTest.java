@@ -191,4 +191,31 @@ public class SQLVisitorFactoryTest {
         Assertions.assertEquals(SQLType.UPDATE, recognizer.getSQLType());
         Assertions.assertEquals("t1", recognizer.getTableName());
     }
+
+    @Test
+    public void testSqlRecognizerCache() {
+        String sql = "update t2 set name = ? where id = ?";
+        long hitCount = SQLVisitorFactory.getCacheStats().hitCount();
+        List<SQLRecognizer> recognizers = SQLVisitorFactory.get(sql, JdbcConstants.MYSQL);
+        Assertions.assertSame(recognizers, SQLVisitorFactory.get(sql, JdbcConstants.MYSQL));
+        Assertions.assertNotSame(recognizers, SQLVisitorFactory.get(sql, JdbcConstants.ORACLE));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> recognizers.add(recognizers.get(0)));
+
+        // the sql without recognizer is cached too
+        Assertions.assertNull(SQLVisitorFactory.get("select * from t2", JdbcConstants.MYSQL));
+        Assertions.assertNull(SQLVisitorFactory.get("select * from t2", JdbcConstants.MYSQL));
+        Assertions.assertEquals(hitCount + 2, SQLVisitorFactory.getCacheStats().hitCount());
+    }
+
+    @Test
+    public void testSqlRecognizerNotCacheable() {
+        String sql = "update t3 set name = 'test' where id = '1'";
+        List<SQLRecognizer> recognizers = SQLVisitorFactory.get(sql, JdbcConstants.MYSQL, false);
+        Assertions.assertNotNull(recognizers);
+        // parsed again, as it is not cached
+        Assertions.assertNotSame(recognizers, SQLVisitorFactory.get(sql, JdbcConstants.MYSQL, false));
+        // the cached one is still used
+        List<SQLRecognizer> cached = SQLVisitorFactory.get(sql, JdbcConstants.MYSQL);
+        Assertions.assertSame(cached, SQLVisitorFactory.get(sql, JdbcConstants.MYSQL, false));
+    }
 }
@@ -20,6 +20,7 @@ import org.junit.jupiter.api.Test;
 
 import io.seata.common.loader.EnhancedServiceLoader;
 import io.seata.common.loader.EnhancedServiceNotFoundException;
+import io.seata.rm.datasource.undo.parser.CompactUndoLogParser;
 import io.seata.rm.datasource.undo.parser.FastjsonUndoLogParser;
 import io.seata.rm.datasource.undo.parser.FstUndoLogParser;
 import io.seata.rm.datasource.undo.parser.JacksonUndoLogParser;
@@ -53,6 +54,10 @@ class UndoLogParserProviderTest {
         Assertions.assertNotNull(parser);
         Assertions.assertTrue(parser instanceof KryoUndoLogParser);
 
+        parser = EnhancedServiceLoader.load(UndoLogParser.class, "compact");
+        Assertions.assertNotNull(parser);
+        Assertions.assertTrue(parser instanceof CompactUndoLogParser);
+
         try {
             EnhancedServiceLoader.load(UndoLogParser.class, "adadad");
             Assertions.fail();
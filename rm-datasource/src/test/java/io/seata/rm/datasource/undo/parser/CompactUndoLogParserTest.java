@@ -0,0 +1,165 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.rm.datasource.undo.parser;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.JDBCType;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+
+import io.seata.common.loader.EnhancedServiceLoader;
+import io.seata.rm.datasource.DataCompareUtils;
+import io.seata.rm.datasource.sql.struct.Field;
+import io.seata.rm.datasource.sql.struct.KeyType;
+import io.seata.rm.datasource.sql.struct.Row;
+import io.seata.rm.datasource.sql.struct.TableMeta;
+import io.seata.rm.datasource.sql.struct.TableRecords;
+import io.seata.rm.datasource.undo.BaseUndoLogParserTest;
+import io.seata.rm.datasource.undo.BranchUndoLog;
+import io.seata.rm.datasource.undo.SQLUndoLog;
+import io.seata.rm.datasource.undo.UndoLogParser;
+import io.seata.sqlparser.SQLType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Compact undo log parser test.
+ *
+ * @author wang.liang
+ */
+class CompactUndoLogParserTest extends BaseUndoLogParserTest {
+
+    CompactUndoLogParser parser = (CompactUndoLogParser) EnhancedServiceLoader.load(UndoLogParser.class, CompactUndoLogParser.NAME);
+
+    @Override
+    public UndoLogParser getParser() {
+        return parser;
+    }
+
+    @Test
+    public void testValueTypes() throws Exception {
+        Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+        timestamp.setNanos(123456789);
+        List<Object> values = Arrays.asList(null, "", "ascii", "é中😀", Integer.MIN_VALUE, -1,
+            Long.MAX_VALUE, (short) -2, (byte) 3, true, false, new BigDecimal("-12.3400"), new BigDecimal("1E+3"),
+            new BigDecimal("123456789012345678901234567890.123"), new BigInteger("-123456789012345678901234567890"),
+            Double.NaN, -0.5d, 1.5f, timestamp, new java.sql.Date(86400000L), new Time(3600000L), new Date(-1L),
+            LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999999999), LocalDate.of(2020, 2, 29), LocalTime.MIDNIGHT,
+            new byte[] {1, 2, 3}, new SerialBlob(new byte[] {4, 5}), new SerialClob("clob".toCharArray()));
+        Row row = new Row();
+        for (int i = 0; i < values.size(); i++) {
+            row.add(new Field("c" + i, JDBCType.OTHER.getVendorTypeNumber(), values.get(i)));
+        }
+        BranchUndoLog branchUndoLog = newBranchUndoLog(newRecords(Collections.singletonList(row)));
+
+        byte[] bytes = parser.encode(branchUndoLog);
+        Assertions.assertEquals(1, bytes[0]);
+        List<Field> fields = parser.decode(bytes).getSqlUndoLogs().get(0).getAfterImage().getRows().get(0).getFields();
+        for (int i = 0; i < values.size(); i++) {
+            Object expected = values.get(i);
+            Object actual = fields.get(i).getValue();
+            if (expected instanceof SerialBlob) {
+                Assertions.assertArrayEquals(new byte[] {4, 5}, ((SerialBlob) actual).getBytes(1, 2));
+            } else if (expected instanceof SerialClob) {
+                Assertions.assertEquals("clob", ((SerialClob) actual).getSubString(1, 4));
+            } else {
+                Assertions.assertTrue(expected == null || expected.getClass() == actual.getClass(), "c" + i);
+                Assertions.assertTrue(java.util.Objects.deepEquals(expected, actual), "c" + i);
+            }
+        }
+        Assertions.assertEquals(((Timestamp) values.get(18)).getNanos(), ((Timestamp) fields.get(18).getValue()).getNanos());
+    }
+
+    @Test
+    public void testColumns() {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Row row = new Row();
+            Field id = new Field("id", JDBCType.INTEGER.getVendorTypeNumber(), i);
+            id.setKeyType(KeyType.PRIMARY_KEY);
+            row.add(id);
+            row.add(new Field("name", JDBCType.VARCHAR.getVendorTypeNumber(), "name" + i));
+            rows.add(row);
+        }
+        // the rows don't have the same columns
+        rows.get(1).getFields().remove(1);
+        rows.get(2).getFields().add(0, new Field("age", JDBCType.INTEGER.getVendorTypeNumber(), 18));
+        BranchUndoLog branchUndoLog = newBranchUndoLog(newRecords(rows));
+
+        BranchUndoLog decoded = parser.decode(parser.encode(branchUndoLog));
+        SQLUndoLog sqlUndoLog = decoded.getSqlUndoLogs().get(0);
+        Assertions.assertEquals(SQLType.INSERT, sqlUndoLog.getSqlType());
+        Assertions.assertTrue(sqlUndoLog.getBeforeImage() instanceof TableRecords.EmptyTableRecords);
+        Assertions.assertEquals("t", sqlUndoLog.getBeforeImage().getTableName());
+        List<Row> decodedRows = sqlUndoLog.getAfterImage().getRows();
+        for (int i = 0; i < rows.size(); i++) {
+            List<Field> fields = rows.get(i).getFields();
+            Assertions.assertEquals(fields.size(), decodedRows.get(i).getFields().size());
+            for (int j = 0; j < fields.size(); j++) {
+                Assertions.assertTrue(DataCompareUtils.isFieldEquals(fields.get(j), decodedRows.get(i).getFields().get(j)).getResult());
+            }
+        }
+        Assertions.assertEquals(KeyType.PRIMARY_KEY, decodedRows.get(2).getFields().get(1).getKeyType());
+        Assertions.assertSame(decodedRows.get(0).getFields().get(1).getName(), decodedRows.get(2).getFields().get(2).getName());
+    }
+
+    @Test
+    public void testDelegate() {
+        Row row = new Row();
+        row.add(new Field("c", JDBCType.OTHER.getVendorTypeNumber(), 'c'));
+        BranchUndoLog branchUndoLog = newBranchUndoLog(newRecords(Collections.singletonList(row)));
+
+        byte[] bytes = parser.encode(branchUndoLog);
+        Assertions.assertEquals(2, bytes[0]);
+        BranchUndoLog decoded = parser.decode(bytes);
+        Assertions.assertEquals(branchUndoLog.getXid(), decoded.getXid());
+        Assertions.assertEquals("c", String.valueOf(
+            decoded.getSqlUndoLogs().get(0).getAfterImage().getRows().get(0).getFields().get(0).getValue()));
+    }
+
+    private BranchUndoLog newBranchUndoLog(TableRecords afterImage) {
+        TableMeta tableMeta = new TableMeta();
+        tableMeta.setTableName("t");
+        SQLUndoLog sqlUndoLog = new SQLUndoLog();
+        sqlUndoLog.setSqlType(SQLType.INSERT);
+        sqlUndoLog.setTableName("t");
+        sqlUndoLog.setBeforeImage(TableRecords.empty(tableMeta));
+        sqlUndoLog.setAfterImage(afterImage);
+        BranchUndoLog branchUndoLog = new BranchUndoLog();
+        branchUndoLog.setXid("192.168.0.1:8091:123456");
+        branchUndoLog.setBranchId(Long.MAX_VALUE);
+        branchUndoLog.setSqlUndoLogs(Collections.singletonList(sqlUndoLog));
+        return branchUndoLog;
+    }
+
+    private TableRecords newRecords(List<Row> rows) {
+        TableRecords records = new TableRecords();
+        records.setTableName("t");
+        records.setRows(rows);
+        return records;
+    }
+}
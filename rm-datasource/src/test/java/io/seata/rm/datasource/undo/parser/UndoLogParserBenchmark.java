@@ -0,0 +1,160 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.rm.datasource.undo.parser;
+
+import java.math.BigDecimal;
+import java.sql.JDBCType;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.seata.common.loader.EnhancedServiceLoader;
+import io.seata.rm.datasource.sql.struct.Field;
+import io.seata.rm.datasource.sql.struct.KeyType;
+import io.seata.rm.datasource.sql.struct.Row;
+import io.seata.rm.datasource.sql.struct.TableRecords;
+import io.seata.rm.datasource.undo.BranchUndoLog;
+import io.seata.rm.datasource.undo.SQLUndoLog;
+import io.seata.rm.datasource.undo.UndoLogParser;
+import io.seata.sqlparser.SQLType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the undo log parsers by the encode and decode time of an update of the wide rows.
+ * <p>
+ * The main method prints the encoded size of each parser first, and adds the gc profiler to the benchmark,
+ * the gc.alloc.rate.norm shows the bytes allocated per operation. It is not run by the unit tests.
+ *
+ * @author wang.liang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UndoLogParserBenchmark {
+
+    private static final String[] PARSERS = {"jackson", "fastjson", "kryo", "protostuff", "fst", "compact"};
+
+    @Param({"jackson", "fastjson", "kryo", "protostuff", "fst", "compact"})
+    private String parserName;
+
+    @Param({"8", "32"})
+    private int columns;
+
+    @Param({"10"})
+    private int rows;
+
+    private UndoLogParser parser;
+
+    private BranchUndoLog branchUndoLog;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        parser = EnhancedServiceLoader.load(UndoLogParser.class, parserName);
+        branchUndoLog = newBranchUndoLog(columns, rows);
+        bytes = parser.encode(branchUndoLog);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return parser.encode(branchUndoLog);
+    }
+
+    @Benchmark
+    public BranchUndoLog decode() {
+        return parser.decode(bytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int columns : new int[] {8, 32}) {
+            BranchUndoLog branchUndoLog = newBranchUndoLog(columns, 10);
+            for (String parserName : PARSERS) {
+                UndoLogParser parser = EnhancedServiceLoader.load(UndoLogParser.class, parserName);
+                System.out.printf("columns: %d, parser: %s, size: %d bytes%n", columns, parserName,
+                    parser.encode(branchUndoLog).length);
+            }
+        }
+        new Runner(new OptionsBuilder().include(UndoLogParserBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class).build()).run();
+    }
+
+    private static BranchUndoLog newBranchUndoLog(int columns, int rows) {
+        SQLUndoLog sqlUndoLog = new SQLUndoLog();
+        sqlUndoLog.setSqlType(SQLType.UPDATE);
+        sqlUndoLog.setTableName("t_order");
+        sqlUndoLog.setBeforeImage(newRecords(columns, rows, 0));
+        sqlUndoLog.setAfterImage(newRecords(columns, rows, 1));
+        BranchUndoLog branchUndoLog = new BranchUndoLog();
+        branchUndoLog.setXid("192.168.0.1:8091:2000042948");
+        branchUndoLog.setBranchId(2000042949L);
+        List<SQLUndoLog> sqlUndoLogs = new ArrayList<>();
+        sqlUndoLogs.add(sqlUndoLog);
+        branchUndoLog.setSqlUndoLogs(sqlUndoLogs);
+        return branchUndoLog;
+    }
+
+    private static TableRecords newRecords(int columns, int rows, int version) {
+        TableRecords records = new TableRecords();
+        records.setTableName("t_order");
+        List<Row> rowList = new ArrayList<>(rows);
+        for (int r = 0; r < rows; r++) {
+            Row row = new Row();
+            Field id = new Field("id", JDBCType.BIGINT.getVendorTypeNumber(), 10000L + r);
+            id.setKeyType(KeyType.PRIMARY_KEY);
+            row.add(id);
+            for (int c = 1; c < columns; c++) {
+                String name = "column_" + c;
+                switch (c % 4) {
+                    case 0:
+                        row.add(new Field(name, JDBCType.VARCHAR.getVendorTypeNumber(), "value of " + name + " " + version));
+                        break;
+                    case 1:
+                        row.add(new Field(name, JDBCType.INTEGER.getVendorTypeNumber(), c * 100 + version));
+                        break;
+                    case 2:
+                        row.add(new Field(name, JDBCType.DECIMAL.getVendorTypeNumber(), new BigDecimal("1234.56")));
+                        break;
+                    default:
+                        row.add(new Field(name, JDBCType.TIMESTAMP.getVendorTypeNumber(),
+                            new Timestamp(1600000000000L + r)));
+                        break;
+                }
+            }
+            rowList.add(row);
+        }
+        records.setRows(rowList);
+        return records;
+    }
+}
@@ -24,6 +24,7 @@ import static io.seata.common.DefaultValues.DEFAULT_CLIENT_REPORT_SUCCESS_ENABLE
 import static io.seata.common.DefaultValues.DEFAULT_CLIENT_SAGA_BRANCH_REGISTER_ENABLE;
 import static io.seata.common.DefaultValues.DEFAULT_CLIENT_SAGA_COMPENSATE_PERSIST_MODE_UPDATE;
 import static io.seata.common.DefaultValues.DEFAULT_CLIENT_SAGA_RETRY_PERSIST_MODE_UPDATE;
+import static io.seata.common.DefaultValues.DEFAULT_CLIENT_SQL_RECOGNIZER_CACHE_SIZE;
 import static io.seata.common.DefaultValues.DEFAULT_CLIENT_TABLE_META_CHECK_ENABLE;
 import static io.seata.common.DefaultValues.DEFAULT_SAGA_JSON_PARSER;
 import static io.seata.common.DefaultValues.DEFAULT_TABLE_META_CHECKER_INTERVAL;
@@ -40,6 +41,7 @@ public class RmProperties {
     private int reportRetryCount = DEFAULT_CLIENT_REPORT_RETRY_COUNT;
     private boolean tableMetaCheckEnable = DEFAULT_CLIENT_TABLE_META_CHECK_ENABLE;
     private long tableMetaCheckerInterval = DEFAULT_TABLE_META_CHECKER_INTERVAL;
+    private int sqlRecognizerCacheSize = DEFAULT_CLIENT_SQL_RECOGNIZER_CACHE_SIZE;
     private boolean reportSuccessEnable = DEFAULT_CLIENT_REPORT_SUCCESS_ENABLE;
     private boolean sagaBranchRegisterEnable = DEFAULT_CLIENT_SAGA_BRANCH_REGISTER_ENABLE;
     private String sagaJsonParser = DEFAULT_SAGA_JSON_PARSER;
@@ -108,6 +110,14 @@ public class RmProperties {
         this.tableMetaCheckerInterval = tableMetaCheckerInterval;
     }
 
+    public int getSqlRecognizerCacheSize() {
+        return sqlRecognizerCacheSize;
+    }
+
+    public void setSqlRecognizerCacheSize(int sqlRecognizerCacheSize) {
+        this.sqlRecognizerCacheSize = sqlRecognizerCacheSize;
+    }
+
     public boolean isSagaRetryPersistModeUpdate() {
         return sagaRetryPersistModeUpdate;
     }
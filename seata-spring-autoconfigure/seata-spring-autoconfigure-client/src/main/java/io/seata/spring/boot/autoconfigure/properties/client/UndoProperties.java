@@ -18,6 +18,7 @@ package io.seata.spring.boot.autoconfigure.properties.client;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import static io.seata.common.DefaultValues.DEFAULT_DERIVE_AFTER_IMAGE;
 import static io.seata.common.DefaultValues.DEFAULT_ONLY_CARE_UPDATE_COLUMNS;
 import static io.seata.common.DefaultValues.DEFAULT_TRANSACTION_UNDO_DATA_VALIDATION;
 import static io.seata.common.DefaultValues.DEFAULT_TRANSACTION_UNDO_LOG_SERIALIZATION;
@@ -34,6 +35,7 @@ public class UndoProperties {
     private String logSerialization = DEFAULT_TRANSACTION_UNDO_LOG_SERIALIZATION;
     private String logTable = DEFAULT_TRANSACTION_UNDO_LOG_TABLE;
     private boolean onlyCareUpdateColumns = DEFAULT_ONLY_CARE_UPDATE_COLUMNS;
+    private boolean deriveAfterImage = DEFAULT_DERIVE_AFTER_IMAGE;
 
     public boolean isDataValidation() {
         return dataValidation;
@@ -70,4 +72,13 @@ public class UndoProperties {
         this.onlyCareUpdateColumns = onlyCareUpdateColumns;
         return this;
     }
+
+    public boolean isDeriveAfterImage() {
+        return deriveAfterImage;
+    }
+
+    public UndoProperties setDeriveAfterImage(boolean deriveAfterImage) {
+        this.deriveAfterImage = deriveAfterImage;
+        return this;
+    }
 }
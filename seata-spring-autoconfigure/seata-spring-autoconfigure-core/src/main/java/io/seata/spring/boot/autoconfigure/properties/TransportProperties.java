@@ -18,7 +18,11 @@ package io.seata.spring.boot.autoconfigure.properties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import static io.seata.common.DefaultValues.DEFAULT_CLIENT_CHANNELS_PER_SERVER;
+import static io.seata.common.DefaultValues.DEFAULT_COMPRESSOR_LZ4_MAX_SIZE;
+import static io.seata.common.DefaultValues.DEFAULT_COMPRESSOR_THRESHOLD;
 import static io.seata.common.DefaultValues.DEFAULT_ENABLE_CLIENT_BATCH_SEND_REQUEST;
+import static io.seata.common.DefaultValues.DEFAULT_ENABLE_CLIENT_COALESCE_REQUEST;
 import static io.seata.common.DefaultValues.DEFAULT_TRANSPORT_HEARTBEAT;
 import static io.seata.spring.boot.autoconfigure.StarterConstants.TRANSPORT_PREFIX;
 
@@ -49,11 +53,61 @@ public class TransportProperties {
      */
     private String compressor = "none";
 
+    /**
+     * the body smaller than the threshold is not compressed
+     */
+    private int compressorThreshold = DEFAULT_COMPRESSOR_THRESHOLD;
+
+    /**
+     * the body not larger than the size is compressed by lz4, 0 means disabled
+     */
+    private int compressorLz4MaxSize = DEFAULT_COMPRESSOR_LZ4_MAX_SIZE;
+
     /**
      * enable client batch send request
      */
     private boolean enableClientBatchSendRequest = DEFAULT_ENABLE_CLIENT_BATCH_SEND_REQUEST;
 
+    /**
+     * enable client coalesce the identical in-flight requests
+     */
+    private boolean enableClientCoalesceRequest = DEFAULT_ENABLE_CLIENT_COALESCE_REQUEST;
+
+    /**
+     * the client channels to every server
+     */
+    private int clientChannelsPerServer = DEFAULT_CLIENT_CHANNELS_PER_SERVER;
+
+    /**
+     * allocator, pooled or unpooled
+     */
+    private String allocator = "pooled";
+
+    /**
+     * client tcp no delay
+     */
+    private boolean clientTcpNoDelay = true;
+
+    /**
+     * client socket send buffer size
+     */
+    private int clientSocketSendBufSize = 153600;
+
+    /**
+     * client socket receive buffer size
+     */
+    private int clientSocketRcvBufSize = 153600;
+
+    /**
+     * client write buffer high water mark
+     */
+    private int clientWriteBufferHighWaterMark = 65536;
+
+    /**
+     * client write buffer low water mark
+     */
+    private int clientWriteBufferLowWaterMark = 32768;
+
     public String getType() {
         return type;
     }
@@ -99,6 +153,24 @@ public class TransportProperties {
         return this;
     }
 
+    public int getCompressorThreshold() {
+        return compressorThreshold;
+    }
+
+    public TransportProperties setCompressorThreshold(int compressorThreshold) {
+        this.compressorThreshold = compressorThreshold;
+        return this;
+    }
+
+    public int getCompressorLz4MaxSize() {
+        return compressorLz4MaxSize;
+    }
+
+    public TransportProperties setCompressorLz4MaxSize(int compressorLz4MaxSize) {
+        this.compressorLz4MaxSize = compressorLz4MaxSize;
+        return this;
+    }
+
     public boolean isEnableClientBatchSendRequest() {
         return enableClientBatchSendRequest;
     }
@@ -107,4 +179,76 @@ public class TransportProperties {
         this.enableClientBatchSendRequest = enableClientBatchSendRequest;
         return this;
     }
+
+    public boolean isEnableClientCoalesceRequest() {
+        return enableClientCoalesceRequest;
+    }
+
+    public TransportProperties setEnableClientCoalesceRequest(boolean enableClientCoalesceRequest) {
+        this.enableClientCoalesceRequest = enableClientCoalesceRequest;
+        return this;
+    }
+
+    public int getClientChannelsPerServer() {
+        return clientChannelsPerServer;
+    }
+
+    public TransportProperties setClientChannelsPerServer(int clientChannelsPerServer) {
+        this.clientChannelsPerServer = clientChannelsPerServer;
+        return this;
+    }
+
+    public String getAllocator() {
+        return allocator;
+    }
+
+    public TransportProperties setAllocator(String allocator) {
+        this.allocator = allocator;
+        return this;
+    }
+
+    public boolean isClientTcpNoDelay() {
+        return clientTcpNoDelay;
+    }
+
+    public TransportProperties setClientTcpNoDelay(boolean clientTcpNoDelay) {
+        this.clientTcpNoDelay = clientTcpNoDelay;
+        return this;
+    }
+
+    public int getClientSocketSendBufSize() {
+        return clientSocketSendBufSize;
+    }
+
+    public TransportProperties setClientSocketSendBufSize(int clientSocketSendBufSize) {
+        this.clientSocketSendBufSize = clientSocketSendBufSize;
+        return this;
+    }
+
+    public int getClientSocketRcvBufSize() {
+        return clientSocketRcvBufSize;
+    }
+
+    public TransportProperties setClientSocketRcvBufSize(int clientSocketRcvBufSize) {
+        this.clientSocketRcvBufSize = clientSocketRcvBufSize;
+        return this;
+    }
+
+    public int getClientWriteBufferHighWaterMark() {
+        return clientWriteBufferHighWaterMark;
+    }
+
+    public TransportProperties setClientWriteBufferHighWaterMark(int clientWriteBufferHighWaterMark) {
+        this.clientWriteBufferHighWaterMark = clientWriteBufferHighWaterMark;
+        return this;
+    }
+
+    public int getClientWriteBufferLowWaterMark() {
+        return clientWriteBufferLowWaterMark;
+    }
+
+    public TransportProperties setClientWriteBufferLowWaterMark(int clientWriteBufferLowWaterMark) {
+        this.clientWriteBufferLowWaterMark = clientWriteBufferLowWaterMark;
+        return this;
+    }
 }
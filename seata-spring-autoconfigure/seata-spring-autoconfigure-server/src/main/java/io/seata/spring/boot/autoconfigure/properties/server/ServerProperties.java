@@ -33,6 +33,8 @@ public class ServerProperties {
     private Boolean rollbackRetryTimeoutUnlockEnable = false;
     private Boolean enableCheckAuth = true;
     private Integer retryDeadThreshold = 130000;
+    private Boolean enableParallelPhaseTwo = false;
+    private Integer phaseTwoThreadSize = 16;
 
     public Duration getMaxCommitRetryTimeout() {
         return maxCommitRetryTimeout;
@@ -78,4 +80,22 @@ public class ServerProperties {
         this.retryDeadThreshold = retryDeadThreshold;
         return this;
     }
+
+    public Boolean getEnableParallelPhaseTwo() {
+        return enableParallelPhaseTwo;
+    }
+
+    public ServerProperties setEnableParallelPhaseTwo(Boolean enableParallelPhaseTwo) {
+        this.enableParallelPhaseTwo = enableParallelPhaseTwo;
+        return this;
+    }
+
+    public Integer getPhaseTwoThreadSize() {
+        return phaseTwoThreadSize;
+    }
+
+    public ServerProperties setPhaseTwoThreadSize(Integer phaseTwoThreadSize) {
+        this.phaseTwoThreadSize = phaseTwoThreadSize;
+        return this;
+    }
 }
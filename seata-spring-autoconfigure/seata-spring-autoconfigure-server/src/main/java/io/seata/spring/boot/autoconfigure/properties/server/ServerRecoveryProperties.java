@@ -30,6 +30,10 @@ public class ServerRecoveryProperties {
     private Integer asynCommittingRetryPeriod = 1000;
     private Integer rollbackingRetryPeriod = 1000;
     private Integer timeoutRetryPeriod = 1000;
+    private Integer timeoutFullScanPeriod = 1000;
+    private Integer workerThreadSize = Runtime.getRuntime().availableProcessors();
+    private Integer workerQueueSize = 1024;
+    private Integer maxSessionsPerResource = 2;
 
     public Integer getCommittingRetryPeriod() {
         return committingRetryPeriod;
@@ -66,4 +70,40 @@ public class ServerRecoveryProperties {
         this.timeoutRetryPeriod = timeoutRetryPeriod;
         return this;
     }
+
+    public Integer getTimeoutFullScanPeriod() {
+        return timeoutFullScanPeriod;
+    }
+
+    public ServerRecoveryProperties setTimeoutFullScanPeriod(Integer timeoutFullScanPeriod) {
+        this.timeoutFullScanPeriod = timeoutFullScanPeriod;
+        return this;
+    }
+
+    public Integer getWorkerThreadSize() {
+        return workerThreadSize;
+    }
+
+    public ServerRecoveryProperties setWorkerThreadSize(Integer workerThreadSize) {
+        this.workerThreadSize = workerThreadSize;
+        return this;
+    }
+
+    public Integer getWorkerQueueSize() {
+        return workerQueueSize;
+    }
+
+    public ServerRecoveryProperties setWorkerQueueSize(Integer workerQueueSize) {
+        this.workerQueueSize = workerQueueSize;
+        return this;
+    }
+
+    public Integer getMaxSessionsPerResource() {
+        return maxSessionsPerResource;
+    }
+
+    public ServerRecoveryProperties setMaxSessionsPerResource(Integer maxSessionsPerResource) {
+        this.maxSessionsPerResource = maxSessionsPerResource;
+        return this;
+    }
 }
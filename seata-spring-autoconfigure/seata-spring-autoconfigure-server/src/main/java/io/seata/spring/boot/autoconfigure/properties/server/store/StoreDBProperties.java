@@ -39,6 +39,10 @@ public class StoreDBProperties {
     private String lockTable = "lock_table";
     private Integer queryLimit = 100;
     private Integer maxWait = 5000;
+    private Boolean groupCommitEnable = false;
+    private Integer groupCommitBatchSize = 128;
+    private Integer groupCommitWindow = 1;
+    private Integer groupCommitThreadSize = 4;
 
     public String getDatasource() {
         return datasource;
@@ -156,4 +160,40 @@ public class StoreDBProperties {
         this.maxWait = maxWait;
         return this;
     }
+
+    public Boolean getGroupCommitEnable() {
+        return groupCommitEnable;
+    }
+
+    public StoreDBProperties setGroupCommitEnable(Boolean groupCommitEnable) {
+        this.groupCommitEnable = groupCommitEnable;
+        return this;
+    }
+
+    public Integer getGroupCommitBatchSize() {
+        return groupCommitBatchSize;
+    }
+
+    public StoreDBProperties setGroupCommitBatchSize(Integer groupCommitBatchSize) {
+        this.groupCommitBatchSize = groupCommitBatchSize;
+        return this;
+    }
+
+    public Integer getGroupCommitWindow() {
+        return groupCommitWindow;
+    }
+
+    public StoreDBProperties setGroupCommitWindow(Integer groupCommitWindow) {
+        this.groupCommitWindow = groupCommitWindow;
+        return this;
+    }
+
+    public Integer getGroupCommitThreadSize() {
+        return groupCommitThreadSize;
+    }
+
+    public StoreDBProperties setGroupCommitThreadSize(Integer groupCommitThreadSize) {
+        this.groupCommitThreadSize = groupCommitThreadSize;
+        return this;
+    }
 }
@@ -31,7 +31,12 @@ public class StoreFileProperties {
     private Integer maxGlobalSessionSize = 512;
     private Integer fileWriteBufferCacheSize = 16384;
     private Integer sessionReloadReadSize = 100;
+    private Integer sessionReloadThreadSize = 8;
     private String flushDiskMode = "async";
+    private Integer lockStripeSize = 256;
+    private Boolean segmentEnable = false;
+    private Integer segmentSize = 67108864;
+    private Integer maxSealedSegments = 4;
 
     public String getDir() {
         return dir;
@@ -78,6 +83,15 @@ public class StoreFileProperties {
         return this;
     }
 
+    public Integer getSessionReloadThreadSize() {
+        return sessionReloadThreadSize;
+    }
+
+    public StoreFileProperties setSessionReloadThreadSize(Integer sessionReloadThreadSize) {
+        this.sessionReloadThreadSize = sessionReloadThreadSize;
+        return this;
+    }
+
     public String getFlushDiskMode() {
         return flushDiskMode;
     }
@@ -86,4 +100,40 @@ public class StoreFileProperties {
         this.flushDiskMode = flushDiskMode;
         return this;
     }
+
+    public Integer getLockStripeSize() {
+        return lockStripeSize;
+    }
+
+    public StoreFileProperties setLockStripeSize(Integer lockStripeSize) {
+        this.lockStripeSize = lockStripeSize;
+        return this;
+    }
+
+    public Boolean getSegmentEnable() {
+        return segmentEnable;
+    }
+
+    public StoreFileProperties setSegmentEnable(Boolean segmentEnable) {
+        this.segmentEnable = segmentEnable;
+        return this;
+    }
+
+    public Integer getSegmentSize() {
+        return segmentSize;
+    }
+
+    public StoreFileProperties setSegmentSize(Integer segmentSize) {
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    public Integer getMaxSealedSegments() {
+        return maxSealedSegments;
+    }
+
+    public StoreFileProperties setMaxSealedSegments(Integer maxSealedSegments) {
+        this.maxSealedSegments = maxSealedSegments;
+        return this;
+    }
 }
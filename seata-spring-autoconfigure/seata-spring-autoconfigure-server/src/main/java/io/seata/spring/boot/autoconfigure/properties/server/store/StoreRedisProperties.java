@@ -37,6 +37,7 @@ public class StoreRedisProperties {
     private Integer minConn = 1;
     private Integer database = 0;
     private Integer queryLimit = 100;
+    private Boolean statusListCompatible = false;
     private Integer maxTotal = 100;
 
     public String getMode() {
@@ -93,6 +94,15 @@ public class StoreRedisProperties {
         return this;
     }
 
+    public Boolean getStatusListCompatible() {
+        return statusListCompatible;
+    }
+
+    public StoreRedisProperties setStatusListCompatible(Boolean statusListCompatible) {
+        this.statusListCompatible = statusListCompatible;
+        return this;
+    }
+
     public Integer getMaxTotal() {
         return maxTotal;
     }
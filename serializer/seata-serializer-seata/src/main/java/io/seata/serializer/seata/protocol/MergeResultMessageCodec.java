@@ -52,7 +52,7 @@ public class MergeResultMessageCodec extends AbstractMessageCodec {
             messageCodec.encode(msg, out);
         }
 
-        int length = out.readableBytes() - 4;
+        int length = out.writerIndex() - writeIndex - 4;
         out.setInt(writeIndex,length);
         if (msgs.length > 20) {
             if (LOGGER.isDebugEnabled()) {
@@ -72,9 +72,9 @@ public class MergeResultMessageCodec extends AbstractMessageCodec {
         if (in.remaining() < length) {
             return;
         }
-        byte[] buffer = new byte[length];
-        in.get(buffer);
-        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        ByteBuffer byteBuffer = in.slice();
+        byteBuffer.limit(length);
+        in.position(in.position() + length);
         decode(mergeResultMessage, byteBuffer);
     }
 
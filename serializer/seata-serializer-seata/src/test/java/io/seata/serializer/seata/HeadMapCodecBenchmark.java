@@ -0,0 +1,123 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.serializer.seata;
+
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.seata.core.compressor.CompressorType;
+import io.seata.core.protocol.HeartbeatMessage;
+import io.seata.core.protocol.ProtocolConstants;
+import io.seata.core.protocol.RpcMessage;
+import io.seata.core.rpc.netty.v1.ProtocolV1Decoder;
+import io.seata.core.rpc.netty.v1.ProtocolV1Encoder;
+import io.seata.core.serializer.SerializerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measure the cost of the head map in the protocol v1 codec.
+ * <p>
+ * The heartbeat is encoded and decoded, it has no body, so the frame is the fixed head and the head map only.
+ * The main method adds the gc profiler, the gc.alloc.rate.norm shows the bytes allocated per operation.
+ * It is not run by the unit tests.
+ *
+ * @author wang.liang
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeadMapCodecBenchmark {
+
+    @Param({"0", "2"})
+    private int heads;
+
+    private EmbeddedChannel encoder;
+
+    private EmbeddedChannel decoder;
+
+    private RpcMessage rpcMessage;
+
+    private ByteBuf frame;
+
+    @Setup
+    public void setup() {
+        encoder = new EmbeddedChannel(new ProtocolV1Encoder());
+        decoder = new EmbeddedChannel(new ProtocolV1Decoder());
+        rpcMessage = new RpcMessage();
+        rpcMessage.setId(1);
+        rpcMessage.setMessageType(ProtocolConstants.MSGTYPE_HEARTBEAT_REQUEST);
+        rpcMessage.setCodec(SerializerType.SEATA.getCode());
+        rpcMessage.setCompressor(CompressorType.NONE.getCode());
+        rpcMessage.setBody(HeartbeatMessage.PING);
+        if (heads > 0) {
+            rpcMessage.putHead("sw8", "1-MTkyLjE2OC4wLjEuMTYzMDAwMDAwMDAwMC4x-0-1");
+        }
+        if (heads > 1) {
+            rpcMessage.putHead("sw8-correlation", "c2VhdGE=:dHJ1ZQ==");
+        }
+        frame = encode();
+    }
+
+    @TearDown
+    public void tearDown() {
+        frame.release();
+        encoder.finishAndReleaseAll();
+        decoder.finishAndReleaseAll();
+    }
+
+    @Benchmark
+    public int encodeHead() {
+        ByteBuf out = encode();
+        int length = out.readableBytes();
+        out.release();
+        return length;
+    }
+
+    @Benchmark
+    public Object decodeHead() {
+        decoder.writeInbound(frame.retainedDuplicate());
+        return decoder.readInbound();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(HeadMapCodecBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class).build()).run();
+    }
+
+    private ByteBuf encode() {
+        encoder.writeOutbound(rpcMessage);
+        return encoder.readOutbound();
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.serializer.seata;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.seata.core.model.BranchType;
+import io.seata.core.protocol.AbstractMessage;
+import io.seata.core.protocol.MergedWarpMessage;
+import io.seata.core.protocol.transaction.BranchRegisterRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the allocation per message of the serialize paths of the protocol codec.
+ * <p>
+ * Every invocation encodes a merged message into a pooled frame buffer and decodes it back,
+ * by the copies of the serializer before, by the byte[] methods and by the ByteBuf methods.
+ * Run it with the main method, the gc profiler reports the allocated bytes per message
+ * as {@code gc.alloc.rate.norm}. It is not run by the unit tests.
+ *
+ * @author wang.liang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SeataSerializerBenchmark {
+
+    @Param({"1", "20"})
+    private int mergedSize;
+
+    private final ByteBufAllocator allocator = PooledByteBufAllocator.DEFAULT;
+
+    private final SeataSerializer serializer = new SeataSerializer();
+
+    private MergedWarpMessage message;
+
+    @Setup
+    public void setup() {
+        List<AbstractMessage> msgs = new ArrayList<>();
+        for (int i = 0; i < mergedSize; i++) {
+            BranchRegisterRequest request = new BranchRegisterRequest();
+            request.setXid("192.168.0.1:8091:" + (2000042948L + i));
+            request.setBranchType(BranchType.AT);
+            request.setResourceId("jdbc:mysql://192.168.0.2:3306/seata");
+            request.setLockKey("stock_tbl:" + i + ",10" + i + ",20" + i);
+            msgs.add(request);
+        }
+        message = new MergedWarpMessage();
+        message.msgs = msgs;
+    }
+
+    @Benchmark
+    public Object legacyCopies() {
+        ByteBuf frame = allocator.buffer();
+        try {
+            frame.writeBytes(legacySerialize(message));
+            byte[] body = new byte[frame.readableBytes()];
+            frame.readBytes(body);
+            return legacyDeserialize(body);
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Benchmark
+    public Object byteArray() {
+        ByteBuf frame = allocator.buffer();
+        try {
+            frame.writeBytes(serializer.serialize(message));
+            byte[] body = new byte[frame.readableBytes()];
+            frame.readBytes(body);
+            return serializer.deserialize(body);
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Benchmark
+    public Object byteBuf() {
+        ByteBuf frame = allocator.buffer();
+        try {
+            serializer.serialize(message, frame);
+            return serializer.deserialize(frame.readSlice(frame.readableBytes()));
+        } finally {
+            frame.release();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SeataSerializerBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class).build()).run();
+    }
+
+    /**
+     * The serialize of the serializer before, the merged message is copied once more inside its codec.
+     */
+    private static byte[] legacySerialize(MergedWarpMessage message) {
+        short typecode = message.getTypeCode();
+        ByteBuf out = Unpooled.buffer(1024);
+        ByteBuf merged = Unpooled.buffer(1024);
+        merged.writeInt(0);
+        merged.writeShort((short)message.msgs.size());
+        for (AbstractMessage msg : message.msgs) {
+            ByteBuf subBuffer = Unpooled.buffer(1024);
+            MessageCodecFactory.getMessageCodec(msg.getTypeCode()).encode(msg, subBuffer);
+            merged.writeShort(msg.getTypeCode());
+            merged.writeBytes(subBuffer);
+        }
+        byte[] content = new byte[merged.readableBytes()];
+        merged.setInt(0, content.length - 4);
+        merged.readBytes(content);
+        out.writeBytes(content);
+        byte[] body = new byte[out.readableBytes()];
+        out.readBytes(body);
+
+        ByteBuffer byteBuffer = ByteBuffer.allocate(2 + body.length);
+        byteBuffer.putShort(typecode);
+        byteBuffer.put(body);
+        byteBuffer.flip();
+        byte[] bytes = new byte[byteBuffer.limit()];
+        byteBuffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * The deserialize of the serializer before, the merged message is copied once more inside its codec.
+     */
+    private static Object legacyDeserialize(byte[] bytes) {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+        byteBuffer.getShort();
+        byte[] body = new byte[byteBuffer.remaining()];
+        byteBuffer.get(body);
+        ByteBuffer in = ByteBuffer.wrap(body);
+        byte[] merged = new byte[in.getInt()];
+        in.get(merged);
+        ByteBuffer mergedBuffer = ByteBuffer.wrap(merged);
+        short msgNum = mergedBuffer.getShort();
+        List<AbstractMessage> msgs = new ArrayList<>(msgNum);
+        for (int i = 0; i < msgNum; i++) {
+            short typeCode = mergedBuffer.getShort();
+            AbstractMessage msg = MessageCodecFactory.getMessage(typeCode);
+            MessageCodecFactory.getMessageCodec(typeCode).decode(msg, mergedBuffer);
+            msgs.add(msg);
+        }
+        MergedWarpMessage message = new MergedWarpMessage();
+        message.msgs = msgs;
+        return message;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.serializer.seata;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.seata.core.compressor.CompressorType;
+import io.seata.core.model.BranchType;
+import io.seata.core.protocol.ProtocolConstants;
+import io.seata.core.protocol.RpcMessage;
+import io.seata.core.protocol.transaction.BranchRegisterRequest;
+import io.seata.core.rpc.netty.v1.ProtocolV1Decoder;
+import io.seata.core.rpc.netty.v1.ProtocolV1Encoder;
+import io.seata.core.serializer.SerializerType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The type Seata serializer test.
+ *
+ * @author wang.liang
+ */
+public class SeataSerializerTest {
+
+    private final SeataSerializer seataSerializer = new SeataSerializer();
+
+    /**
+     * Test the body is encoded into the frame and decoded from it directly.
+     */
+    @Test
+    public void test_codecInFrame() {
+        RpcMessage rpcMessage = new RpcMessage();
+        rpcMessage.setId(1);
+        rpcMessage.setMessageType(ProtocolConstants.MSGTYPE_RESQUEST_SYNC);
+        rpcMessage.setCodec(SerializerType.SEATA.getCode());
+        rpcMessage.setCompressor(CompressorType.NONE.getCode());
+        rpcMessage.getHeadMap().put("k", "v");
+        rpcMessage.setBody(buildBranchRegisterRequest());
+
+        ByteBuf frame = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            new ProtocolV1Encoder().encode(null, rpcMessage, frame);
+            RpcMessage rpcMessage2 = (RpcMessage) new ProtocolV1Decoder().decodeFrame(frame);
+            assertThat(frame.isReadable()).isFalse();
+            assertThat(rpcMessage2.getId()).isEqualTo(1);
+            assertThat(rpcMessage2.getHeadMap()).containsEntry("k", "v");
+            BranchRegisterRequest request = (BranchRegisterRequest) rpcMessage2.getBody();
+            assertThat(request.getXid()).isEqualTo("127.0.0.1:8091:1");
+            assertThat(request.getLockKey()).isEqualTo("t:1,2,3");
+            assertThat(request.getApplicationData()).isEqualTo("{\"data\":\"test\"}");
+        } finally {
+            frame.release();
+        }
+    }
+
+    /**
+     * Test the same bytes are written by the byte[] and the ByteBuf serialize.
+     */
+    @Test
+    public void test_serializeByteBuf() {
+        byte[] bytes = seataSerializer.serialize(buildBranchRegisterRequest());
+        ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            seataSerializer.serialize(buildBranchRegisterRequest(), buffer);
+            byte[] bytes2 = new byte[buffer.readableBytes()];
+            buffer.getBytes(buffer.readerIndex(), bytes2);
+            assertThat(bytes2).isEqualTo(bytes);
+
+            BranchRegisterRequest request = seataSerializer.deserialize(buffer);
+            assertThat(request.getResourceId()).isEqualTo("jdbc:mysql://127.0.0.1:3306/seata");
+            assertThat(buffer.isReadable()).isFalse();
+            assertThatThrownBy(() -> seataSerializer.deserialize(buffer)).isInstanceOf(IllegalArgumentException.class);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private BranchRegisterRequest buildBranchRegisterRequest() {
+        BranchRegisterRequest request = new BranchRegisterRequest();
+        request.setXid("127.0.0.1:8091:1");
+        request.setBranchType(BranchType.AT);
+        request.setResourceId("jdbc:mysql://127.0.0.1:3306/seata");
+        request.setLockKey("t:1,2,3");
+        request.setApplicationData("{\"data\":\"test\"}");
+        return request;
+    }
+}
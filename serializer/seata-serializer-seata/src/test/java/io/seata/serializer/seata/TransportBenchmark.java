@@ -0,0 +1,193 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.serializer.seata;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.seata.core.compressor.CompressorType;
+import io.seata.core.model.BranchType;
+import io.seata.core.protocol.ProtocolConstants;
+import io.seata.core.protocol.ResultCode;
+import io.seata.core.protocol.RpcMessage;
+import io.seata.core.protocol.transaction.BranchRegisterRequest;
+import io.seata.core.protocol.transaction.BranchRegisterResponse;
+import io.seata.core.rpc.netty.v1.ProtocolV1Decoder;
+import io.seata.core.rpc.netty.v1.ProtocolV1Encoder;
+import io.seata.core.serializer.SerializerType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the throughput of the netty transports by the {@link BranchRegisterRequest} round trips on the loopback.
+ * <p>
+ * The client and the server use the protocol v1 codec and the pooled allocator like the TC and the RM,
+ * the server answers every request on its io thread, so the benchmark measures the transport and the codec.
+ * The epoll transport is skipped when the native library is unavailable. Run it with the main method,
+ * it is not run by the unit tests.
+ *
+ * @author wang.liang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(16)
+@Fork(1)
+public class TransportBenchmark {
+
+    @Param({"nio", "epoll"})
+    private String transport;
+
+    private EventLoopGroup serverGroup;
+
+    private EventLoopGroup clientGroup;
+
+    private Channel serverChannel;
+
+    private Channel clientChannel;
+
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    private final Map<Integer, CompletableFuture<Object>> futures = new ConcurrentHashMap<>();
+
+    @Setup
+    public void setup() throws Exception {
+        boolean epoll = "epoll".equals(transport);
+        if (epoll && !Epoll.isAvailable()) {
+            throw new IllegalStateException("epoll is unavailable: " + Epoll.unavailabilityCause());
+        }
+        Class<? extends ServerChannel> serverChannelClass = epoll ? EpollServerSocketChannel.class
+            : NioServerSocketChannel.class;
+        Class<? extends Channel> clientChannelClass = epoll ? EpollSocketChannel.class : NioSocketChannel.class;
+        serverGroup = epoll ? new EpollEventLoopGroup(2) : new NioEventLoopGroup(2);
+        clientGroup = epoll ? new EpollEventLoopGroup(1) : new NioEventLoopGroup(1);
+
+        serverChannel = new ServerBootstrap().group(serverGroup).channel(serverChannelClass)
+            .childOption(ChannelOption.TCP_NODELAY, true)
+            .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+            .childHandler(new ChannelInitializer<Channel>() {
+                @Override
+                protected void initChannel(Channel ch) {
+                    ch.pipeline().addLast(new ProtocolV1Decoder(), new ProtocolV1Encoder(), new ServerHandler());
+                }
+            }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+
+        clientChannel = new Bootstrap().group(clientGroup).channel(clientChannelClass)
+            .option(ChannelOption.TCP_NODELAY, true)
+            .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+            .handler(new ChannelInitializer<Channel>() {
+                @Override
+                protected void initChannel(Channel ch) {
+                    ch.pipeline().addLast(new ProtocolV1Decoder(), new ProtocolV1Encoder(), new ClientHandler());
+                }
+            }).connect(serverChannel.localAddress()).sync().channel();
+    }
+
+    @TearDown
+    public void tearDown() {
+        clientChannel.close().syncUninterruptibly();
+        serverChannel.close().syncUninterruptibly();
+        clientGroup.shutdownGracefully();
+        serverGroup.shutdownGracefully();
+    }
+
+    @Benchmark
+    public Object branchRegister() throws Exception {
+        BranchRegisterRequest request = new BranchRegisterRequest();
+        request.setXid("192.168.0.1:8091:2000042948");
+        request.setBranchType(BranchType.AT);
+        request.setResourceId("jdbc:mysql://192.168.0.2:3306/seata");
+        request.setLockKey("stock_tbl:1,2,3");
+        RpcMessage rpcMessage = newMessage(nextId.incrementAndGet(), ProtocolConstants.MSGTYPE_RESQUEST_SYNC, request);
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        futures.put(rpcMessage.getId(), future);
+        clientChannel.writeAndFlush(rpcMessage);
+        return future.get(10, TimeUnit.SECONDS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TransportBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static RpcMessage newMessage(int id, byte messageType, Object body) {
+        RpcMessage rpcMessage = new RpcMessage();
+        rpcMessage.setId(id);
+        rpcMessage.setMessageType(messageType);
+        rpcMessage.setCodec(SerializerType.SEATA.getCode());
+        rpcMessage.setCompressor(CompressorType.NONE.getCode());
+        rpcMessage.setBody(body);
+        return rpcMessage;
+    }
+
+    private static class ServerHandler extends SimpleChannelInboundHandler<RpcMessage> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, RpcMessage msg) {
+            BranchRegisterResponse response = new BranchRegisterResponse();
+            response.setResultCode(ResultCode.Success);
+            response.setBranchId(1L);
+            ctx.writeAndFlush(newMessage(msg.getId(), ProtocolConstants.MSGTYPE_RESPONSE, response));
+        }
+    }
+
+    private class ClientHandler extends SimpleChannelInboundHandler<RpcMessage> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, RpcMessage msg) {
+            CompletableFuture<Object> future = futures.remove(msg.getId());
+            if (future != null) {
+                future.complete(msg.getBody());
+            }
+        }
+    }
+}
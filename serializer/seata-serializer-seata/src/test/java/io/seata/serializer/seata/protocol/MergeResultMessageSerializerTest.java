@@ -15,6 +15,8 @@
  */
 package io.seata.serializer.seata.protocol;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.seata.serializer.seata.SeataSerializer;
 import io.seata.core.exception.TransactionExceptionCode;
 import io.seata.core.protocol.AbstractResultMessage;
@@ -72,6 +74,31 @@ public class MergeResultMessageSerializerTest {
 
     }
 
+    /**
+     * Test codec with the ByteBuf, the length must not count the bytes written before.
+     */
+    @Test
+    public void test_codecByteBuf() {
+        MergeResultMessage mergeResultMessage = new MergeResultMessage();
+        mergeResultMessage.setMsgs(new AbstractResultMessage[] {buildGlobalBeginResponse("a1"),
+            buildGlobalBeginResponse("a2")});
+
+        ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            buffer.writeInt(1);
+            seataSerializer.serialize(mergeResultMessage, buffer);
+            buffer.writeInt(2);
+            assertThat(buffer.readInt()).isEqualTo(1);
+
+            MergeResultMessage mergeResultMessage2 = seataSerializer.deserialize(buffer);
+            assertThat(mergeResultMessage2.msgs.length).isEqualTo(2);
+            assertThat(((GlobalBeginResponse) mergeResultMessage2.msgs[1]).getXid()).isEqualTo("a2");
+            assertThat(buffer.readInt()).isEqualTo(2);
+        } finally {
+            buffer.release();
+        }
+    }
+
     private GlobalBeginResponse buildGlobalBeginResponse(String xid) {
         final GlobalBeginResponse globalBeginResponse = new GlobalBeginResponse();
         globalBeginResponse.setXid(xid);
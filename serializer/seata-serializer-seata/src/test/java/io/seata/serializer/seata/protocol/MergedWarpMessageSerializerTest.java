@@ -15,6 +15,8 @@
  */
 package io.seata.serializer.seata.protocol;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.seata.serializer.seata.SeataSerializer;
 import io.seata.core.protocol.AbstractMessage;
 import io.seata.core.protocol.MergedWarpMessage;
@@ -67,6 +69,33 @@ public class MergedWarpMessageSerializerTest {
 
     }
 
+    /**
+     * Test codec with the ByteBuf.
+     */
+    @Test
+    public void test_codecByteBuf() {
+        MergedWarpMessage mergedWarpMessage = new MergedWarpMessage();
+        final ArrayList<AbstractMessage> msgs = new ArrayList<>();
+        msgs.add(buildGlobalBeginRequest("x1"));
+        msgs.add(buildGlobalBeginRequest("x2"));
+        mergedWarpMessage.msgs = msgs;
+
+        ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            buffer.writeInt(1);
+            seataSerializer.serialize(mergedWarpMessage, buffer);
+            buffer.writeInt(2);
+            assertThat(buffer.readInt()).isEqualTo(1);
+
+            MergedWarpMessage mergedWarpMessage2 = seataSerializer.deserialize(buffer);
+            assertThat(mergedWarpMessage2.msgs.size()).isEqualTo(2);
+            assertThat(((GlobalBeginRequest) mergedWarpMessage2.msgs.get(1)).getTransactionName()).isEqualTo("x2");
+            assertThat(buffer.readInt()).isEqualTo(2);
+        } finally {
+            buffer.release();
+        }
+    }
+
     private GlobalBeginRequest buildGlobalBeginRequest(String name) {
         final GlobalBeginRequest globalBeginRequest = new GlobalBeginRequest();
         globalBeginRequest.setTransactionName(name);
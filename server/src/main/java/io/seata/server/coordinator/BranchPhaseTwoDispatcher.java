@@ -0,0 +1,277 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.coordinator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import io.seata.common.thread.NamedThreadFactory;
+import io.seata.core.context.RootContext;
+import io.seata.core.exception.TransactionException;
+import io.seata.core.model.BranchStatus;
+import io.seata.core.model.BranchType;
+import io.seata.server.session.BranchSession;
+import org.slf4j.MDC;
+
+/**
+ * Send the phase two requests of the branches concurrently.
+ * <p>
+ * Only the AT and XA branches are dispatched, the other branch types keep the sequential semantics.
+ * When rollback, the branches of the same resource are still sent one by one in the reverse order,
+ * because the undo logs of the same rows must be applied from the last one.
+ * The results are only collected here, the caller still drives the branch status in the original order,
+ * so a branch may have been sent even though the caller stops at a failed branch before it, which is safe because
+ * the phase two of AT and XA is idempotent and the branch will be sent again when retrying.
+ * When the caller stops, it cancels the branches not sent yet and waits for the ones being sent, so no request of
+ * the session is still in flight when it is retried.
+ *
+ * @author wang.liang
+ */
+public class BranchPhaseTwoDispatcher {
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Instantiates a new Branch phase two dispatcher.
+     *
+     * @param threadSize the thread size
+     */
+    public BranchPhaseTwoDispatcher(int threadSize) {
+        int size = Math.max(1, threadSize);
+        this.executor = new ThreadPoolExecutor(size, size, Integer.MAX_VALUE, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(), new NamedThreadFactory("BranchPhaseTwo", size));
+    }
+
+    /**
+     * Send the branch commit requests concurrently.
+     *
+     * @param branchSessions the branch sessions
+     * @param filter         the branches need to be committed
+     * @param call           the branch commit call
+     * @return the futures of the branch status
+     */
+    public PhaseTwoFutures dispatchCommit(List<BranchSession> branchSessions,
+                                                                     Predicate<BranchSession> filter,
+                                                                     BranchPhaseTwoCall call) {
+        Map<Object, List<BranchSession>> groups = new LinkedHashMap<>();
+        for (BranchSession branchSession : branchSessions) {
+            if (isParallelable(branchSession) && filter.test(branchSession)) {
+                groups.put(branchSession.getBranchId(), Collections.singletonList(branchSession));
+            }
+        }
+        return dispatch(groups, BranchStatus.PhaseTwo_Committed, call);
+    }
+
+    /**
+     * Send the branch rollback requests concurrently, the branches of the same resource are sent in order.
+     *
+     * @param reverseSortedBranchSessions the reverse sorted branch sessions
+     * @param filter                      the branches need to be rollbacked
+     * @param call                        the branch rollback call
+     * @return the futures of the branch status
+     */
+    public PhaseTwoFutures dispatchRollback(List<BranchSession> reverseSortedBranchSessions,
+                                                                       Predicate<BranchSession> filter,
+                                                                       BranchPhaseTwoCall call) {
+        Map<Object, List<BranchSession>> groups = new LinkedHashMap<>();
+        for (BranchSession branchSession : reverseSortedBranchSessions) {
+            if (isParallelable(branchSession) && filter.test(branchSession)) {
+                groups.computeIfAbsent(branchSession.getResourceId(), key -> new ArrayList<>()).add(branchSession);
+            }
+        }
+        return dispatch(groups, BranchStatus.PhaseTwo_Rollbacked, call);
+    }
+
+    private PhaseTwoFutures dispatch(Map<Object, List<BranchSession>> groups, BranchStatus successStatus,
+                                     BranchPhaseTwoCall call) {
+        if (groups.size() < 2) {
+            // nothing to be parallel
+            return PhaseTwoFutures.EMPTY;
+        }
+        Map<Long, CompletableFuture<BranchStatus>> futures = new HashMap<>();
+        List<CompletableFuture<Void>> groupsDone = new ArrayList<>(groups.size());
+        for (List<BranchSession> group : groups.values()) {
+            List<CompletableFuture<BranchStatus>> groupFutures = new ArrayList<>(group.size());
+            for (BranchSession branchSession : group) {
+                CompletableFuture<BranchStatus> future = new CompletableFuture<>();
+                futures.put(branchSession.getBranchId(), future);
+                groupFutures.add(future);
+            }
+            CompletableFuture<Void> groupDone = new CompletableFuture<>();
+            groupsDone.add(groupDone);
+            try {
+                executor.execute(() -> {
+                    try {
+                        sendInOrder(group, groupFutures, successStatus, call);
+                    } finally {
+                        groupDone.complete(null);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // let the caller send them itself
+                groupFutures.forEach(future -> future.complete(null));
+                groupDone.complete(null);
+            }
+        }
+        return new PhaseTwoFutures(futures, groupsDone);
+    }
+
+    private void sendInOrder(List<BranchSession> group, List<CompletableFuture<BranchStatus>> groupFutures,
+                             BranchStatus successStatus, BranchPhaseTwoCall call) {
+        int i = 0;
+        try {
+            for (; i < group.size(); i++) {
+                if (groupFutures.get(i).isCancelled()) {
+                    // the caller has stopped
+                    break;
+                }
+                BranchSession branchSession = group.get(i);
+                MDC.put(RootContext.MDC_KEY_XID, branchSession.getXid());
+                MDC.put(RootContext.MDC_KEY_BRANCH_ID, String.valueOf(branchSession.getBranchId()));
+                BranchStatus branchStatus;
+                try {
+                    branchStatus = call.call(branchSession);
+                } catch (Throwable t) {
+                    groupFutures.get(i++).completeExceptionally(t);
+                    break;
+                }
+                groupFutures.get(i).complete(branchStatus);
+                if (branchStatus != successStatus) {
+                    i++;
+                    break;
+                }
+            }
+        } finally {
+            MDC.remove(RootContext.MDC_KEY_XID);
+            MDC.remove(RootContext.MDC_KEY_BRANCH_ID);
+            // the following branches are not sent, the caller decides what to do with them
+            for (; i < groupFutures.size(); i++) {
+                groupFutures.get(i).complete(null);
+            }
+        }
+    }
+
+    private boolean isParallelable(BranchSession branchSession) {
+        return branchSession.getBranchType() == BranchType.AT || branchSession.getBranchType() == BranchType.XA;
+    }
+
+    /**
+     * Wait for the branch status.
+     *
+     * @param future the future
+     * @return the branch status, null if it is not sent
+     * @throws TransactionException the transaction exception
+     */
+    public static BranchStatus await(CompletableFuture<BranchStatus> future) throws TransactionException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransactionException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TransactionException) {
+                throw (TransactionException)cause;
+            }
+            throw new TransactionException(cause);
+        }
+    }
+
+    /**
+     * The futures of the branches which are dispatched.
+     */
+    public static class PhaseTwoFutures {
+
+        /**
+         * The futures of nothing dispatched.
+         */
+        public static final PhaseTwoFutures EMPTY = new PhaseTwoFutures(Collections.emptyMap(),
+            Collections.emptyList());
+
+        private final Map<Long, CompletableFuture<BranchStatus>> branchFutures;
+
+        private final List<CompletableFuture<Void>> groupsDone;
+
+        PhaseTwoFutures(Map<Long, CompletableFuture<BranchStatus>> branchFutures,
+                        List<CompletableFuture<Void>> groupsDone) {
+            this.branchFutures = branchFutures;
+            this.groupsDone = groupsDone;
+        }
+
+        /**
+         * Get the future of the branch.
+         *
+         * @param branchId the branch id
+         * @return the future, null if the branch is not dispatched
+         */
+        public CompletableFuture<BranchStatus> get(long branchId) {
+            return branchFutures.get(branchId);
+        }
+
+        /**
+         * Get the count of the dispatched branches.
+         *
+         * @return the count
+         */
+        public int size() {
+            return branchFutures.size();
+        }
+
+        /**
+         * Cancel the branches which are not sent yet, and wait for the ones being sent.
+         */
+        public void cancel() {
+            branchFutures.values().forEach(future -> future.cancel(false));
+            for (CompletableFuture<Void> groupDone : groupsDone) {
+                try {
+                    groupDone.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException ignore) {
+                    // never happen, it is completed normally
+                }
+            }
+        }
+    }
+
+    /**
+     * The branch phase two call.
+     */
+    @FunctionalInterface
+    public interface BranchPhaseTwoCall {
+
+        /**
+         * Send the phase two request of the branch.
+         *
+         * @param branchSession the branch session
+         * @return the branch status
+         * @throws TransactionException the transaction exception
+         */
+        BranchStatus call(BranchSession branchSession) throws TransactionException;
+    }
+}
@@ -16,7 +16,9 @@
 package io.seata.server.coordinator;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -58,11 +60,17 @@ import io.seata.core.rpc.RpcContext;
 import io.seata.core.rpc.TransactionMessageHandler;
 import io.seata.core.rpc.netty.ChannelManager;
 import io.seata.core.rpc.netty.NettyRemotingServer;
+import io.seata.metrics.registry.Registry;
 import io.seata.server.AbstractTCInboundHandler;
 import io.seata.server.event.EventBusManager;
+import io.seata.server.metrics.MeterIdConstants;
+import io.seata.server.metrics.MetricsManager;
 import io.seata.server.session.GlobalSession;
+import io.seata.server.session.Reloadable;
+import io.seata.server.session.SessionCondition;
 import io.seata.server.session.SessionHelper;
 import io.seata.server.session.SessionHolder;
+import io.seata.server.session.SessionTimeoutIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -99,6 +107,13 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
      */
     protected static final long TIMEOUT_RETRY_PERIOD = CONFIG.getLong(ConfigurationKeys.TIMEOUT_RETRY_PERIOD, 1000L);
 
+    /**
+     * The constant TIMEOUT_FULL_SCAN_PERIOD, only for the store mode which shares sessions between servers.
+     * The sessions began on the other servers are only found by the full scan, so it is as short as the timeout check.
+     */
+    protected static final long TIMEOUT_FULL_SCAN_PERIOD = CONFIG.getLong(ConfigurationKeys.TIMEOUT_FULL_SCAN_PERIOD,
+        1000L);
+
     /**
      * The Transaction undo log delete period.
      */
@@ -110,6 +125,24 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
      */
     protected static final long UNDO_LOG_DELAY_DELETE_PERIOD = 3 * 60 * 1000;
 
+    /**
+     * The constant RECOVERY_WORKER_THREAD_SIZE.
+     */
+    protected static final int RECOVERY_WORKER_THREAD_SIZE = CONFIG.getInt(
+        ConfigurationKeys.RECOVERY_WORKER_THREAD_SIZE, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The constant RECOVERY_WORKER_QUEUE_SIZE.
+     */
+    protected static final int RECOVERY_WORKER_QUEUE_SIZE = CONFIG.getInt(
+        ConfigurationKeys.RECOVERY_WORKER_QUEUE_SIZE, 1024);
+
+    /**
+     * The constant RECOVERY_MAX_SESSIONS_PER_RESOURCE.
+     */
+    protected static final int RECOVERY_MAX_SESSIONS_PER_RESOURCE = CONFIG.getInt(
+        ConfigurationKeys.RECOVERY_MAX_SESSIONS_PER_RESOURCE, ShardedSessionExecutor.DEFAULT_MAX_SESSIONS_PER_RESOURCE);
+
     private static final int ALWAYS_RETRY_BOUNDARY = 0;
 
     private static final Duration MAX_COMMIT_RETRY_TIMEOUT = ConfigurationFactory.getInstance().getDuration(
@@ -136,12 +169,17 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
     private ScheduledThreadPoolExecutor undoLogDelete = new ScheduledThreadPoolExecutor(1,
         new NamedThreadFactory("UndoLogDelete", 1));
 
+    private ShardedSessionExecutor recoveryExecutor = new ShardedSessionExecutor("RecoveryWorker",
+        RECOVERY_WORKER_THREAD_SIZE, RECOVERY_WORKER_QUEUE_SIZE, RECOVERY_MAX_SESSIONS_PER_RESOURCE);
+
     private RemotingServer remotingServer;
 
     private DefaultCore core;
 
     private EventBus eventBus = EventBusManager.get();
 
+    private volatile long lastTimeoutFullScanTime;
+
     /**
      * Instantiates a new Default coordinator.
      *
@@ -223,48 +261,91 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
      * @throws TransactionException the transaction exception
      */
     protected void timeoutCheck() throws TransactionException {
-        Collection<GlobalSession> allSessions = SessionHolder.getRootSessionManager().allSessions();
-        if (CollectionUtils.isEmpty(allSessions)) {
+        long now = System.currentTimeMillis();
+        SessionTimeoutIndex timeoutIndex = SessionHolder.getTimeoutIndex();
+        if (isTimeoutFullScanRequired(now)) {
+            // the sessions began on other servers, or before restart, are not indexed yet,
+            // the condition without the paging token reads all the pages
+            Collection<GlobalSession> beginSessions = SessionHolder.getRootSessionManager()
+                .findGlobalSessions(new SessionCondition(GlobalStatus.Begin));
+            if (CollectionUtils.isNotEmpty(beginSessions)) {
+                beginSessions.forEach(timeoutIndex::add);
+            }
+            lastTimeoutFullScanTime = now;
+        }
+
+        List<SessionTimeoutIndex.Entry> expiredEntries = timeoutIndex.pollExpired(now);
+        if (CollectionUtils.isEmpty(expiredEntries)) {
             return;
         }
-        if (allSessions.size() > 0 && LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Global transaction timeout check begin, size: {}", allSessions.size());
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Global transaction timeout check begin, size: {}", expiredEntries.size());
         }
-        SessionHelper.forEach(allSessions, globalSession -> {
+        Registry registry = MetricsManager.get().getRegistry();
+        List<GlobalSession> timeoutSessions = new ArrayList<>(expiredEntries.size());
+        for (SessionTimeoutIndex.Entry expiredEntry : expiredEntries) {
+            GlobalSession globalSession = SessionHolder.findGlobalSession(expiredEntry.getXid(), false);
+            if (globalSession == null) {
+                continue;
+            }
+            if (registry != null) {
+                registry.getTimer(MeterIdConstants.TIMER_TIMEOUT_EXPIRY_LAG)
+                    .record(now - expiredEntry.getDeadline(), TimeUnit.MILLISECONDS);
+            }
+            timeoutSessions.add(globalSession);
+        }
+        SessionHelper.forEach(timeoutSessions, globalSession -> {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug(
                     globalSession.getXid() + " " + globalSession.getStatus() + " " + globalSession.getBeginTime() + " "
                         + globalSession.getTimeout());
             }
-            SessionHolder.lockAndExecute(globalSession, () -> {
-                if (globalSession.getStatus() != GlobalStatus.Begin || !globalSession.isTimeout()) {
-                    return false;
-                }
-
-                LOGGER.info("Global transaction[{}] is timeout and will be rollback.", globalSession.getXid());
-
-                globalSession.addSessionLifecycleListener(SessionHolder.getRootSessionManager());
-                globalSession.close();
-                globalSession.setStatus(GlobalStatus.TimeoutRollbacking);
-
-                globalSession.addSessionLifecycleListener(SessionHolder.getRetryRollbackingSessionManager());
-                SessionHolder.getRetryRollbackingSessionManager().addGlobalSession(globalSession);
-
-                // transaction timeout and start rollbacking event
-                eventBus.post(new GlobalTransactionEvent(globalSession.getTransactionId(),
-                        GlobalTransactionEvent.ROLE_TC,
-                        globalSession.getTransactionName(),
-                        globalSession.getApplicationId(),
-                        globalSession.getTransactionServiceGroup(),
-                        globalSession.getBeginTime(), null, globalSession.getStatus()));
+            try {
+                SessionHolder.lockAndExecute(globalSession, () -> {
+                    if (globalSession.getStatus() != GlobalStatus.Begin || !globalSession.isTimeout()) {
+                        return false;
+                    }
 
-                return true;
-            });
+                    LOGGER.info("Global transaction[{}] is timeout and will be rollback.", globalSession.getXid());
+
+                    globalSession.addSessionLifecycleListener(SessionHolder.getRootSessionManager());
+                    globalSession.close();
+                    globalSession.setStatus(GlobalStatus.TimeoutRollbacking);
+
+                    globalSession.addSessionLifecycleListener(SessionHolder.getRetryRollbackingSessionManager());
+                    SessionHolder.getRetryRollbackingSessionManager().addGlobalSession(globalSession);
+
+                    // transaction timeout and start rollbacking event
+                    eventBus.post(new GlobalTransactionEvent(globalSession.getTransactionId(),
+                            GlobalTransactionEvent.ROLE_TC,
+                            globalSession.getTransactionName(),
+                            globalSession.getApplicationId(),
+                            globalSession.getTransactionServiceGroup(),
+                            globalSession.getBeginTime(), null, globalSession.getStatus()));
+
+                    return true;
+                });
+            } catch (TransactionException e) {
+                // put it back, so it will be checked again on the next tick
+                if (globalSession.getStatus() == GlobalStatus.Begin) {
+                    timeoutIndex.add(globalSession);
+                }
+                throw e;
+            }
         });
-        if (allSessions.size() > 0 && LOGGER.isDebugEnabled()) {
+        if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Global transaction timeout check end. ");
         }
+    }
 
+    private boolean isTimeoutFullScanRequired(long now) {
+        // the reloadable session manager keeps all sessions in memory, and they are all indexed on begin or reload
+        if (SessionHolder.getRootSessionManager() instanceof Reloadable) {
+            return false;
+        }
+        // tolerate the jitter of the half tick, so the full scan period equal to the tick runs on every tick
+        return TIMEOUT_FULL_SCAN_PERIOD > 0
+            && now - lastTimeoutFullScanTime + TIMEOUT_RETRY_PERIOD / 2 >= TIMEOUT_FULL_SCAN_PERIOD;
     }
 
     /**
@@ -276,7 +357,7 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
             return;
         }
         long now = System.currentTimeMillis();
-        SessionHelper.forEach(rollbackingSessions, rollbackingSession -> {
+        recoveryExecutor.forEach(rollbackingSessions, rollbackingSession -> {
             try {
                 // prevent repeated rollback
                 if (rollbackingSession.getStatus().equals(GlobalStatus.Rollbacking) && !rollbackingSession.isDeadSession()) {
@@ -312,7 +393,7 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
             return;
         }
         long now = System.currentTimeMillis();
-        SessionHelper.forEach(committingSessions, committingSession -> {
+        recoveryExecutor.forEach(committingSessions, committingSession -> {
             try {
                 // prevent repeated commit
                 if (committingSession.getStatus().equals(GlobalStatus.Committing) && !committingSession.isDeadSession()) {
@@ -349,7 +430,7 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
         if (CollectionUtils.isEmpty(asyncCommittingSessions)) {
             return;
         }
-        SessionHelper.forEach(asyncCommittingSessions, asyncCommittingSession -> {
+        recoveryExecutor.forEach(asyncCommittingSessions, asyncCommittingSession -> {
             try {
                 // Instruction reordering in DefaultCore#asyncCommit may cause this situation
                 if (GlobalStatus.AsyncCommitting != asyncCommittingSession.getStatus()) {
@@ -394,6 +475,11 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
      * Init.
      */
     public void init() {
+        Registry registry = MetricsManager.get().getRegistry();
+        if (registry != null) {
+            registry.getGauge(MeterIdConstants.GAUGE_TIMEOUT_INDEX_SIZE, () -> SessionHolder.getTimeoutIndex().size());
+        }
+
         retryRollbacking.scheduleAtFixedRate(() -> {
             boolean lock = SessionHolder.retryRollbackingLock();
             if (lock) {
@@ -494,6 +580,7 @@ public class DefaultCoordinator extends AbstractTCInboundHandler implements Tran
         } catch (InterruptedException ignore) {
 
         }
+        recoveryExecutor.destroy();
         // 2. second close netty flow
         if (remotingServer instanceof NettyRemotingServer) {
             ((NettyRemotingServer) remotingServer).destroy();
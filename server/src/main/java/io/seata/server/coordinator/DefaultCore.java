@@ -15,13 +15,17 @@
  */
 package io.seata.server.coordinator;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 import io.seata.common.exception.NotSupportYetException;
 import io.seata.common.loader.EnhancedServiceLoader;
 import io.seata.common.util.CollectionUtils;
+import io.seata.config.ConfigurationFactory;
+import io.seata.core.constants.ConfigurationKeys;
 import io.seata.core.context.RootContext;
 import io.seata.core.event.EventBus;
 import io.seata.core.event.GlobalTransactionEvent;
@@ -31,8 +35,10 @@ import io.seata.core.model.BranchStatus;
 import io.seata.core.model.BranchType;
 import io.seata.core.model.GlobalStatus;
 import io.seata.core.rpc.RemotingServer;
+import io.seata.server.coordinator.BranchPhaseTwoDispatcher.PhaseTwoFutures;
 import io.seata.server.event.EventBusManager;
 import io.seata.server.session.BranchSession;
+import io.seata.server.session.BranchSessionHandler;
 import io.seata.server.session.GlobalSession;
 import io.seata.server.session.SessionHelper;
 import io.seata.server.session.SessionHolder;
@@ -55,6 +61,15 @@ public class DefaultCore implements Core {
 
     private static Map<BranchType, AbstractCore> coreMap = new ConcurrentHashMap<>();
 
+    /**
+     * Send the phase two of the branches concurrently, null if it is disabled
+     */
+    private static final BranchPhaseTwoDispatcher PHASE_TWO_DISPATCHER =
+        ConfigurationFactory.getInstance().getBoolean(ConfigurationKeys.ENABLE_PARALLEL_PHASE_TWO, false)
+            ? new BranchPhaseTwoDispatcher(ConfigurationFactory.getInstance().getInt(
+                ConfigurationKeys.PHASE_TWO_THREAD_SIZE, Runtime.getRuntime().availableProcessors() * 2))
+            : null;
+
     /**
      * get the Default core.
      *
@@ -189,7 +204,16 @@ public class DefaultCore implements Core {
         if (globalSession.isSaga()) {
             success = getCore(BranchType.SAGA).doGlobalCommit(globalSession, retrying);
         } else {
-            Boolean result = SessionHelper.forEach(globalSession.getSortedBranches(), branchSession -> {
+            List<BranchSession> sortedBranches = globalSession.getSortedBranches();
+            PhaseTwoFutures phaseTwoFutures = PHASE_TWO_DISPATCHER == null
+                ? PhaseTwoFutures.EMPTY
+                : PHASE_TWO_DISPATCHER.dispatchCommit(sortedBranches,
+                    branchSession -> (retrying || !branchSession.canBeCommittedAsync())
+                        && branchSession.getStatus() != BranchStatus.PhaseOne_Failed,
+                    branchSession -> branchCommit(globalSession, branchSession));
+            // the finished branches are removed together, before the global session is changed
+            List<BranchSession> finishedBranches = new ArrayList<>(sortedBranches.size());
+            BranchSessionHandler handler = branchSession -> {
                 // if not retrying, skip the canBeCommittedAsync branches
                 if (!retrying && branchSession.canBeCommittedAsync()) {
                     return CONTINUE;
@@ -197,17 +221,21 @@ public class DefaultCore implements Core {
 
                 BranchStatus currentStatus = branchSession.getStatus();
                 if (currentStatus == BranchStatus.PhaseOne_Failed) {
-                    globalSession.removeBranch(branchSession);
+                    finishedBranches.add(branchSession);
                     return CONTINUE;
                 }
                 try {
-                    BranchStatus branchStatus = getCore(branchSession.getBranchType()).branchCommit(globalSession, branchSession);
+                    BranchStatus branchStatus = phaseTwoStatus(phaseTwoFutures, branchSession);
+                    if (branchStatus == null) {
+                        branchStatus = getCore(branchSession.getBranchType()).branchCommit(globalSession, branchSession);
+                    }
 
                     switch (branchStatus) {
                         case PhaseTwo_Committed:
-                            globalSession.removeBranch(branchSession);
+                            finishedBranches.add(branchSession);
                             return CONTINUE;
                         case PhaseTwo_CommitFailed_Unretryable:
+                            removeBranches(globalSession, finishedBranches);
                             if (globalSession.canBeCommittedAsync()) {
                                 LOGGER.error(
                                     "Committing branch transaction[{}], status: PhaseTwo_CommitFailed_Unretryable, please check the business log.", branchSession.getBranchId());
@@ -218,6 +246,7 @@ public class DefaultCore implements Core {
                                 return false;
                             }
                         default:
+                            removeBranches(globalSession, finishedBranches);
                             if (!retrying) {
                                 globalSession.queueToRetryCommit();
                                 return false;
@@ -235,13 +264,22 @@ public class DefaultCore implements Core {
                 } catch (Exception ex) {
                     StackTraceLogger.error(LOGGER, ex, "Committing branch transaction exception: {}",
                         new String[] {branchSession.toString()});
+                    removeBranches(globalSession, finishedBranches);
                     if (!retrying) {
                         globalSession.queueToRetryCommit();
                         throw new TransactionException(ex);
                     }
                 }
                 return CONTINUE;
-            });
+            };
+            Boolean result;
+            try {
+                result = SessionHelper.forEach(sortedBranches, handler);
+            } finally {
+                // the walk may stop early, do not leave the dispatched branches in flight
+                phaseTwoFutures.cancel();
+            }
+            removeBranches(globalSession, finishedBranches);
             // Return if the result is not null
             if (result != null) {
                 return result;
@@ -304,24 +342,37 @@ public class DefaultCore implements Core {
         if (globalSession.isSaga()) {
             success = getCore(BranchType.SAGA).doGlobalRollback(globalSession, retrying);
         } else {
-            Boolean result = SessionHelper.forEach(globalSession.getReverseSortedBranches(), branchSession -> {
+            List<BranchSession> reverseSortedBranches = globalSession.getReverseSortedBranches();
+            PhaseTwoFutures phaseTwoFutures = PHASE_TWO_DISPATCHER == null
+                ? PhaseTwoFutures.EMPTY
+                : PHASE_TWO_DISPATCHER.dispatchRollback(reverseSortedBranches,
+                    branchSession -> branchSession.getStatus() != BranchStatus.PhaseOne_Failed,
+                    branchSession -> branchRollback(globalSession, branchSession));
+            // the finished branches are removed together, before the global session is changed
+            List<BranchSession> finishedBranches = new ArrayList<>(reverseSortedBranches.size());
+            BranchSessionHandler handler = branchSession -> {
                 BranchStatus currentBranchStatus = branchSession.getStatus();
                 if (currentBranchStatus == BranchStatus.PhaseOne_Failed) {
-                    globalSession.removeBranch(branchSession);
+                    finishedBranches.add(branchSession);
                     return CONTINUE;
                 }
                 try {
-                    BranchStatus branchStatus = branchRollback(globalSession, branchSession);
+                    BranchStatus branchStatus = phaseTwoStatus(phaseTwoFutures, branchSession);
+                    if (branchStatus == null) {
+                        branchStatus = branchRollback(globalSession, branchSession);
+                    }
                     switch (branchStatus) {
                         case PhaseTwo_Rollbacked:
-                            globalSession.removeBranch(branchSession);
+                            finishedBranches.add(branchSession);
                             LOGGER.info("Rollback branch transaction successfully, xid = {} branchId = {}", globalSession.getXid(), branchSession.getBranchId());
                             return CONTINUE;
                         case PhaseTwo_RollbackFailed_Unretryable:
+                            removeBranches(globalSession, finishedBranches);
                             SessionHelper.endRollbackFailed(globalSession);
                             LOGGER.info("Rollback branch transaction fail and stop retry, xid = {} branchId = {}", globalSession.getXid(), branchSession.getBranchId());
                             return false;
                         default:
+                            removeBranches(globalSession, finishedBranches);
                             LOGGER.info("Rollback branch transaction fail and will retry, xid = {} branchId = {}", globalSession.getXid(), branchSession.getBranchId());
                             if (!retrying) {
                                 globalSession.queueToRetryRollback();
@@ -332,12 +383,21 @@ public class DefaultCore implements Core {
                     StackTraceLogger.error(LOGGER, ex,
                         "Rollback branch transaction exception, xid = {} branchId = {} exception = {}",
                         new String[] {globalSession.getXid(), String.valueOf(branchSession.getBranchId()), ex.getMessage()});
+                    removeBranches(globalSession, finishedBranches);
                     if (!retrying) {
                         globalSession.queueToRetryRollback();
                     }
                     throw new TransactionException(ex);
                 }
-            });
+            };
+            Boolean result;
+            try {
+                result = SessionHelper.forEach(reverseSortedBranches, handler);
+            } finally {
+                // the walk may stop early, do not leave the dispatched branches in flight
+                phaseTwoFutures.cancel();
+            }
+            removeBranches(globalSession, finishedBranches);
             // Return if the result is not null
             if (result != null) {
                 return result;
@@ -371,6 +431,33 @@ public class DefaultCore implements Core {
         return success;
     }
 
+    /**
+     * Remove the finished branches together and clear them.
+     *
+     * @param globalSession    the global session
+     * @param finishedBranches the finished branches
+     * @throws TransactionException the transaction exception
+     */
+    private static void removeBranches(GlobalSession globalSession, List<BranchSession> finishedBranches)
+        throws TransactionException {
+        globalSession.removeBranches(finishedBranches);
+        finishedBranches.clear();
+    }
+
+    /**
+     * Get the phase two status of the branch which is sent concurrently.
+     *
+     * @param phaseTwoFutures the phase two futures
+     * @param branchSession   the branch session
+     * @return the branch status, null if the branch is not sent yet
+     * @throws TransactionException the transaction exception
+     */
+    private BranchStatus phaseTwoStatus(PhaseTwoFutures phaseTwoFutures, BranchSession branchSession)
+        throws TransactionException {
+        CompletableFuture<BranchStatus> future = phaseTwoFutures.get(branchSession.getBranchId());
+        return future == null ? null : BranchPhaseTwoDispatcher.await(future);
+    }
+
     @Override
     public GlobalStatus getStatus(String xid) throws TransactionException {
         GlobalSession globalSession = SessionHolder.findGlobalSession(xid, false);
@@ -0,0 +1,198 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.coordinator;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.seata.common.thread.NamedThreadFactory;
+import io.seata.core.rpc.Disposable;
+import io.seata.server.session.BranchSession;
+import io.seata.server.session.GlobalSession;
+import io.seata.server.session.GlobalSessionHandler;
+import io.seata.server.session.SessionHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The executor which handles the global sessions of the recovery tasks concurrently.
+ * <p>
+ * The sessions are sharded by the hash of xid, and every shard is a single thread, so one session is never handled
+ * by two threads at the same time, even it is handled by different recovery tasks.
+ * The submitting thread is never blocked: a session which is still queued or being handled is not submitted again,
+ * and a session whose shard is full, or one of whose resources already has the max sessions in flight, is skipped
+ * and handled in the next period, so an unreachable resource cannot starve the others or stall the recovery tasks.
+ *
+ * @author wang.liang
+ */
+public class ShardedSessionExecutor implements Disposable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardedSessionExecutor.class);
+
+    /**
+     * The default max sessions of one resource in flight.
+     */
+    public static final int DEFAULT_MAX_SESSIONS_PER_RESOURCE = 2;
+
+    private static final int SHUTDOWN_MAX_WAIT_MILLS = 5000;
+
+    private final ThreadPoolExecutor[] shards;
+
+    private final Semaphore[] shardPermits;
+
+    private final int maxSessionsPerResource;
+
+    private final ConcurrentMap<String, AtomicInteger> resourceInFlight = new ConcurrentHashMap<>();
+
+    private final Set<String> xidsInFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Instantiates a new Sharded session executor.
+     *
+     * @param name                   the thread name prefix
+     * @param shardSize              the shard size, also the thread size
+     * @param queueSize              the queue size of every shard
+     * @param maxSessionsPerResource the max sessions of one resource in flight, 0 means the default
+     */
+    public ShardedSessionExecutor(String name, int shardSize, int queueSize, int maxSessionsPerResource) {
+        int size = Math.max(1, shardSize);
+        this.shards = new ThreadPoolExecutor[size];
+        this.shardPermits = new Semaphore[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new ThreadPoolExecutor(1, 1, Integer.MAX_VALUE, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory(name + "_" + i, 1));
+            shardPermits[i] = new Semaphore(Math.max(1, queueSize));
+        }
+        this.maxSessionsPerResource = maxSessionsPerResource > 0 ? maxSessionsPerResource
+            : DEFAULT_MAX_SESSIONS_PER_RESOURCE;
+    }
+
+    /**
+     * Submit the sessions to be handled concurrently, without waiting for them to be handled.
+     *
+     * @param sessions the sessions
+     * @param handler  the handler
+     * @return the count of the submitted sessions, the others are skipped
+     */
+    public int forEach(Collection<GlobalSession> sessions, GlobalSessionHandler handler) {
+        int submitted = 0;
+        for (GlobalSession globalSession : sessions) {
+            if (submit(globalSession, handler)) {
+                submitted++;
+            }
+        }
+        return submitted;
+    }
+
+    private boolean submit(GlobalSession globalSession, GlobalSessionHandler handler) {
+        String xid = globalSession.getXid();
+        if (!xidsInFlight.add(xid)) {
+            return false;
+        }
+        int index = (xid.hashCode() & Integer.MAX_VALUE) % shards.length;
+        if (!shardPermits[index].tryAcquire()) {
+            xidsInFlight.remove(xid);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("The recovery worker {} is full, skip [{}] this time", index, xid);
+            }
+            return false;
+        }
+        Set<String> resourceIds = getResourceIds(globalSession);
+        if (!tryAcquire(resourceIds)) {
+            shardPermits[index].release();
+            xidsInFlight.remove(xid);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Too many sessions of the resources {} are in flight, skip [{}] this time",
+                    resourceIds, xid);
+            }
+            return false;
+        }
+        Runnable done = () -> {
+            release(resourceIds);
+            shardPermits[index].release();
+            xidsInFlight.remove(xid);
+        };
+        try {
+            shards[index].execute(() -> {
+                try {
+                    SessionHelper.forEach(Collections.singletonList(globalSession), handler);
+                } finally {
+                    done.run();
+                }
+            });
+        } catch (RuntimeException e) {
+            done.run();
+            throw e;
+        }
+        return true;
+    }
+
+    private Set<String> getResourceIds(GlobalSession globalSession) {
+        Set<String> resourceIds = new HashSet<>();
+        for (BranchSession branchSession : globalSession.getSortedBranches()) {
+            if (branchSession.getResourceId() != null) {
+                resourceIds.add(branchSession.getResourceId());
+            }
+        }
+        return resourceIds;
+    }
+
+    private boolean tryAcquire(Set<String> resourceIds) {
+        Set<String> acquired = new HashSet<>(resourceIds.size());
+        for (String resourceId : resourceIds) {
+            AtomicInteger inFlight = resourceInFlight.computeIfAbsent(resourceId, key -> new AtomicInteger());
+            if (inFlight.incrementAndGet() > maxSessionsPerResource) {
+                inFlight.decrementAndGet();
+                release(acquired);
+                return false;
+            }
+            acquired.add(resourceId);
+        }
+        return true;
+    }
+
+    private void release(Set<String> resourceIds) {
+        for (String resourceId : resourceIds) {
+            AtomicInteger inFlight = resourceInFlight.get(resourceId);
+            if (inFlight != null) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+        try {
+            for (ThreadPoolExecutor shard : shards) {
+                shard.awaitTermination(SHUTDOWN_MAX_WAIT_MILLS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException ignore) {
+
+        }
+    }
+}
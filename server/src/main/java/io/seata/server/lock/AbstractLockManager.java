@@ -145,6 +145,8 @@ public abstract class AbstractLockManager implements LockManager {
 
     /**
      * Collect row locks list.
+     * <p>
+     * The lock key is scanned in place, only the table names and the primary keys are copied out of it.
      *
      * @param lockKey       the lock key
      * @param resourceId    the resource id
@@ -157,35 +159,64 @@ public abstract class AbstractLockManager implements LockManager {
                                             Long branchID) {
         List<RowLock> locks = new ArrayList<RowLock>();
 
-        String[] tableGroupedLockKeys = lockKey.split(";");
-        for (String tableGroupedLockKey : tableGroupedLockKeys) {
-            int idx = tableGroupedLockKey.indexOf(":");
-            if (idx < 0) {
+        // the empty table groups in the end are ignored
+        int end = trimTrailing(lockKey, 0, lockKey.length(), ';');
+        int start = 0;
+        while (start < end) {
+            int groupEnd = lockKey.indexOf(';', start);
+            if (groupEnd < 0 || groupEnd > end) {
+                groupEnd = end;
+            }
+            int idx = lockKey.indexOf(':', start);
+            if (idx < 0 || idx >= groupEnd) {
                 return locks;
             }
-            String tableName = tableGroupedLockKey.substring(0, idx);
-            String mergedPKs = tableGroupedLockKey.substring(idx + 1);
-            if (StringUtils.isBlank(mergedPKs)) {
+            if (isBlank(lockKey, idx + 1, groupEnd)) {
                 return locks;
             }
-            String[] pks = mergedPKs.split(",");
-            if (pks == null || pks.length == 0) {
+            // the empty primary keys in the end are ignored
+            int pksEnd = trimTrailing(lockKey, idx + 1, groupEnd, ',');
+            if (pksEnd == idx + 1) {
                 return locks;
             }
-            for (String pk : pks) {
-                if (StringUtils.isNotBlank(pk)) {
+            String tableName = lockKey.substring(start, idx);
+            int pkStart = idx + 1;
+            while (pkStart <= pksEnd) {
+                int pkEnd = lockKey.indexOf(',', pkStart);
+                if (pkEnd < 0 || pkEnd > pksEnd) {
+                    pkEnd = pksEnd;
+                }
+                if (!isBlank(lockKey, pkStart, pkEnd)) {
                     RowLock rowLock = new RowLock();
                     rowLock.setXid(xid);
                     rowLock.setTransactionId(transactionId);
                     rowLock.setBranchId(branchID);
                     rowLock.setTableName(tableName);
-                    rowLock.setPk(pk);
+                    rowLock.setPk(lockKey.substring(pkStart, pkEnd));
                     rowLock.setResourceId(resourceId);
                     locks.add(rowLock);
                 }
+                pkStart = pkEnd + 1;
             }
+            start = groupEnd + 1;
         }
         return locks;
     }
 
+    private static int trimTrailing(String str, int start, int end, char separator) {
+        while (end > start && str.charAt(end - 1) == separator) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isBlank(String str, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(str.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
@@ -15,6 +15,8 @@
  */
 package io.seata.server.lock;
 
+import java.util.List;
+
 import io.seata.core.exception.TransactionException;
 import io.seata.server.session.BranchSession;
 import io.seata.server.session.GlobalSession;
@@ -44,6 +46,23 @@ public interface LockManager {
      */
     boolean releaseLock(BranchSession branchSession) throws TransactionException;
 
+    /**
+     * Release the locks of the branches of one global session.
+     *
+     * @param branchSessions the branch sessions
+     * @return the boolean
+     * @throws TransactionException the transaction exception
+     */
+    default boolean releaseLock(List<BranchSession> branchSessions) throws TransactionException {
+        boolean releaseLockResult = true;
+        for (BranchSession branchSession : branchSessions) {
+            if (!releaseLock(branchSession)) {
+                releaseLockResult = false;
+            }
+        }
+        return releaseLockResult;
+    }
+
     /**
      * Un lock boolean.
      *
@@ -71,4 +90,16 @@ public interface LockManager {
      */
     void cleanAllLocks() throws TransactionException;
 
+    /**
+     * Restore the locks of the branches reloaded on the startup.
+     *
+     * @param branchSessions the branch sessions
+     * @throws TransactionException the transaction exception
+     */
+    default void restoreLocks(List<BranchSession> branchSessions) throws TransactionException {
+        for (BranchSession branchSession : branchSessions) {
+            branchSession.lock();
+        }
+    }
+
 }
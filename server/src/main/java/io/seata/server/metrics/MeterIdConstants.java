@@ -58,4 +58,24 @@ public interface MeterIdConstants {
         .withTag(IdConstants.ROLE_KEY, IdConstants.ROLE_VALUE_TC)
         .withTag(IdConstants.METER_KEY, IdConstants.METER_VALUE_TIMER)
         .withTag(IdConstants.STATUS_KEY, IdConstants.STATUS_VALUE_ROLLBACKED);
+
+    Id GAUGE_TIMEOUT_INDEX_SIZE = new Id(IdConstants.SEATA_TRANSACTION)
+        .withTag(IdConstants.ROLE_KEY, IdConstants.ROLE_VALUE_TC)
+        .withTag(IdConstants.METER_KEY, IdConstants.METER_VALUE_GAUGE)
+        .withTag(IdConstants.NAME_KEY, IdConstants.NAME_VALUE_TIMEOUT_INDEX_SIZE);
+
+    Id TIMER_TIMEOUT_EXPIRY_LAG = new Id(IdConstants.SEATA_TRANSACTION)
+        .withTag(IdConstants.ROLE_KEY, IdConstants.ROLE_VALUE_TC)
+        .withTag(IdConstants.METER_KEY, IdConstants.METER_VALUE_TIMER)
+        .withTag(IdConstants.NAME_KEY, IdConstants.NAME_VALUE_TIMEOUT_EXPIRY_LAG);
+
+    Id GAUGE_SESSION_RELOAD_RECORDS = new Id(IdConstants.SEATA_TRANSACTION)
+        .withTag(IdConstants.ROLE_KEY, IdConstants.ROLE_VALUE_TC)
+        .withTag(IdConstants.METER_KEY, IdConstants.METER_VALUE_GAUGE)
+        .withTag(IdConstants.NAME_KEY, IdConstants.NAME_VALUE_SESSION_RELOAD_RECORDS);
+
+    Id TIMER_SESSION_RELOAD_DURATION = new Id(IdConstants.SEATA_TRANSACTION)
+        .withTag(IdConstants.ROLE_KEY, IdConstants.ROLE_VALUE_TC)
+        .withTag(IdConstants.METER_KEY, IdConstants.METER_VALUE_TIMER)
+        .withTag(IdConstants.NAME_KEY, IdConstants.NAME_VALUE_SESSION_RELOAD_DURATION);
 }
@@ -15,6 +15,8 @@
  */
 package io.seata.server.session;
 
+import java.util.List;
+
 import io.seata.core.exception.BranchTransactionException;
 import io.seata.core.exception.GlobalTransactionException;
 import io.seata.core.exception.TransactionException;
@@ -112,6 +114,19 @@ public abstract class AbstractSessionManager implements SessionManager, SessionL
         writeSession(LogOperation.BRANCH_REMOVE, branchSession);
     }
 
+    @Override
+    public void removeBranchSessions(GlobalSession globalSession, List<BranchSession> branchSessions)
+        throws TransactionException {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("MANAGER[" + name + "] SESSION[" + globalSession + "] " + branchSessions.size() + " "
+                + LogOperation.BRANCH_REMOVE);
+        }
+        if (!transactionStoreManager.writeSessions(LogOperation.BRANCH_REMOVE, branchSessions)) {
+            throw new BranchTransactionException(TransactionExceptionCode.FailedWriteSession,
+                "Fail to remove branch sessions");
+        }
+    }
+
     @Override
     public void onBegin(GlobalSession globalSession) throws TransactionException {
         addGlobalSession(globalSession);
@@ -138,6 +153,12 @@ public abstract class AbstractSessionManager implements SessionManager, SessionL
         removeBranchSession(globalSession, branchSession);
     }
 
+    @Override
+    public void onRemoveBranches(GlobalSession globalSession, List<BranchSession> branchSessions)
+        throws TransactionException {
+        removeBranchSessions(globalSession, branchSessions);
+    }
+
     @Override
     public void onClose(GlobalSession globalSession) throws TransactionException {
         globalSession.setActive(false);
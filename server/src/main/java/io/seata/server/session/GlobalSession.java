@@ -19,6 +19,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -182,6 +183,7 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
         for (SessionLifecycleListener lifecycleListener : lifecycleListeners) {
             lifecycleListener.onBegin(this);
         }
+        SessionHolder.getTimeoutIndex().add(this);
     }
 
     @Override
@@ -208,6 +210,8 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
 
     @Override
     public void close() throws TransactionException {
+        // Closed session can not be timeout anymore
+        SessionHolder.getTimeoutIndex().remove(xid);
         if (active) {
             for (SessionLifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.onClose(this);
@@ -220,6 +224,8 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
         // Clean locks first
         clean();
 
+        SessionHolder.getTimeoutIndex().remove(xid);
+
         for (SessionLifecycleListener lifecycleListener : lifecycleListeners) {
             lifecycleListener.onEnd(this);
         }
@@ -285,6 +291,43 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
         remove(branchSession);
     }
 
+    /**
+     * Remove the finished branches together, their locks are released and they are removed from the store
+     * in one operation, instead of one by one.
+     *
+     * @param branchSessions the branch sessions
+     * @throws TransactionException the transaction exception
+     */
+    public void removeBranches(List<BranchSession> branchSessions) throws TransactionException {
+        if (branchSessions.isEmpty()) {
+            return;
+        }
+        if (branchSessions.size() == 1) {
+            removeBranch(branchSessions.get(0));
+            return;
+        }
+        // do not unlock if global status in (Committing, CommitRetrying, AsyncCommitting),
+        // because it's already unlocked in 'DefaultCore.commit()'
+        if (status != Committing && status != CommitRetrying && status != AsyncCommitting) {
+            List<BranchSession> atBranchSessions = new ArrayList<>(branchSessions.size());
+            for (BranchSession branchSession : branchSessions) {
+                if (branchSession.getBranchType() == BranchType.AT) {
+                    atBranchSessions.add(branchSession);
+                }
+            }
+            if (!atBranchSessions.isEmpty()
+                && !LockerManagerFactory.getLockManager().releaseLock(atBranchSessions)) {
+                throw new TransactionException("Unlock branch lock failed, xid = " + this.xid);
+            }
+        }
+        for (SessionLifecycleListener lifecycleListener : lifecycleListeners) {
+            lifecycleListener.onRemoveBranches(this, branchSessions);
+        }
+        for (BranchSession branchSession : branchSessions) {
+            remove(branchSession);
+        }
+    }
+
     /**
      * Gets branch.
      *
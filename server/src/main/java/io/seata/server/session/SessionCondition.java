@@ -15,6 +15,8 @@
  */
 package io.seata.server.session;
 
+import java.util.Map;
+
 import io.seata.core.model.GlobalStatus;
 
 /**
@@ -28,6 +30,7 @@ public class SessionCondition {
     private GlobalStatus status;
     private GlobalStatus[] statuses;
     private long overTimeAliveMills;
+    private Map<GlobalStatus, String> pagingToken;
 
     /**
      * Instantiates a new Session condition.
@@ -131,4 +134,24 @@ public class SessionCondition {
     public void setStatuses(GlobalStatus[] statuses) {
         this.statuses = statuses;
     }
+
+    /**
+     * Gets the paging token, the position of every status where the previous read stopped.
+     * With a paging token, the store reads one page and resumes after it when the same condition is read again,
+     * without it all the sessions of the statuses are read.
+     *
+     * @return the paging token, null to read all the sessions
+     */
+    public Map<GlobalStatus, String> getPagingToken() {
+        return pagingToken;
+    }
+
+    /**
+     * Sets the paging token, an empty map to read the first page.
+     *
+     * @param pagingToken the paging token
+     */
+    public void setPagingToken(Map<GlobalStatus, String> pagingToken) {
+        this.pagingToken = pagingToken;
+    }
 }
@@ -32,6 +32,7 @@ import io.seata.core.constants.ConfigurationKeys;
 import io.seata.core.exception.TransactionException;
 import io.seata.core.model.GlobalStatus;
 import io.seata.core.store.StoreMode;
+import io.seata.server.lock.LockerManagerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,6 +84,8 @@ public class SessionHolder {
     private static SessionManager RETRY_COMMITTING_SESSION_MANAGER;
     private static SessionManager RETRY_ROLLBACKING_SESSION_MANAGER;
 
+    private static final SessionTimeoutIndex TIMEOUT_INDEX = new SessionTimeoutIndex();
+
     /**
      * Init.
      *
@@ -145,6 +148,7 @@ public class SessionHolder {
         Collection<GlobalSession> allSessions = ROOT_SESSION_MANAGER.allSessions();
         if (CollectionUtils.isNotEmpty(allSessions)) {
             List<GlobalSession> removeGlobalSessions = new ArrayList<>();
+            List<BranchSession> lockBranchSessions = new ArrayList<>();
             Iterator<GlobalSession> iterator = allSessions.iterator();
             while (iterator.hasNext()) {
                 GlobalSession globalSession = iterator.next();
@@ -167,7 +171,7 @@ public class SessionHolder {
                         break;
                     default: {
                         if (storeMode == StoreMode.FILE) {
-                            lockBranchSessions(globalSession.getSortedBranches());
+                            lockBranchSessions.addAll(globalSession.getSortedBranches());
 
                             switch (globalStatus) {
                                 case Committing:
@@ -182,6 +186,7 @@ public class SessionHolder {
                                     break;
                                 case Begin:
                                     globalSession.setActive(true);
+                                    TIMEOUT_INDEX.add(globalSession);
                                     break;
                                 default:
                                     throw new ShouldNeverHappenException("NOT properly handled " + globalStatus);
@@ -194,6 +199,7 @@ public class SessionHolder {
             for (GlobalSession globalSession : removeGlobalSessions) {
                 removeInErrorState(globalSession);
             }
+            lockBranchSessions(lockBranchSessions);
         }
     }
 
@@ -218,14 +224,15 @@ public class SessionHolder {
         }
     }
 
-    private static void lockBranchSessions(ArrayList<BranchSession> branchSessions) {
-        branchSessions.forEach(branchSession -> {
-            try {
-                branchSession.lock();
-            } catch (TransactionException e) {
-                throw new ShouldNeverHappenException(e);
-            }
-        });
+    private static void lockBranchSessions(List<BranchSession> branchSessions) {
+        if (branchSessions.isEmpty()) {
+            return;
+        }
+        try {
+            LockerManagerFactory.getLockManager().restoreLocks(branchSessions);
+        } catch (TransactionException e) {
+            throw new ShouldNeverHappenException(e);
+        }
     }
 
     private static void queueToRetryCommit(GlobalSession globalSession) {
@@ -298,6 +305,15 @@ public class SessionHolder {
         return RETRY_ROLLBACKING_SESSION_MANAGER;
     }
 
+    /**
+     * Gets the timeout index of the global sessions in Begin status.
+     *
+     * @return the timeout index
+     */
+    public static SessionTimeoutIndex getTimeoutIndex() {
+        return TIMEOUT_INDEX;
+    }
+
     //endregion
 
     /**
@@ -424,6 +440,7 @@ public class SessionHolder {
     }
 
     public static void destroy() {
+        TIMEOUT_INDEX.clear();
         if (ROOT_SESSION_MANAGER != null) {
             ROOT_SESSION_MANAGER.destroy();
         }
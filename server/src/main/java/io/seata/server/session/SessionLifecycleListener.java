@@ -15,6 +15,8 @@
  */
 package io.seata.server.session;
 
+import java.util.List;
+
 import io.seata.core.exception.TransactionException;
 import io.seata.core.model.BranchStatus;
 import io.seata.core.model.GlobalStatus;
@@ -72,6 +74,20 @@ public interface SessionLifecycleListener {
      */
     void onRemoveBranch(GlobalSession globalSession, BranchSession branchSession) throws TransactionException;
 
+    /**
+     * On remove branches.
+     *
+     * @param globalSession  the global session
+     * @param branchSessions the branch sessions
+     * @throws TransactionException the transaction exception
+     */
+    default void onRemoveBranches(GlobalSession globalSession, List<BranchSession> branchSessions)
+        throws TransactionException {
+        for (BranchSession branchSession : branchSessions) {
+            onRemoveBranch(globalSession, branchSession);
+        }
+    }
+
     /**
      * On close.
      *
@@ -98,6 +98,20 @@ public interface SessionManager extends SessionLifecycleListener, Disposable {
      */
     void removeBranchSession(GlobalSession globalSession, BranchSession session) throws TransactionException;
 
+    /**
+     * Remove the branch sessions of the global session in one store operation.
+     *
+     * @param globalSession  the global session
+     * @param branchSessions the branch sessions
+     * @throws TransactionException the transaction exception
+     */
+    default void removeBranchSessions(GlobalSession globalSession, List<BranchSession> branchSessions)
+        throws TransactionException {
+        for (BranchSession branchSession : branchSessions) {
+            removeBranchSession(globalSession, branchSession);
+        }
+    }
+
     /**
      * All sessions collection.
      *
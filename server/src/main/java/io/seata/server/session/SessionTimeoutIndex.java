@@ -0,0 +1,158 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.session;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The deadline ordered index of the global sessions in Begin status.
+ * <p>
+ * A session is indexed by {@code beginTime + timeout} when it begins and is dropped when it is closed,
+ * so the timeout checker only visits the sessions that have actually expired instead of scanning all sessions.
+ *
+ * @author wang.liang
+ */
+public class SessionTimeoutIndex {
+
+    private final ConcurrentSkipListSet<Entry> deadlines = new ConcurrentSkipListSet<>();
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Index the global session by its deadline, the previous deadline of the same xid will be replaced.
+     *
+     * @param globalSession the global session
+     */
+    public void add(GlobalSession globalSession) {
+        String xid = globalSession.getXid();
+        if (xid == null) {
+            return;
+        }
+        Entry entry = new Entry(xid, globalSession.getBeginTime() + globalSession.getTimeout(),
+            sequence.incrementAndGet());
+        entries.compute(xid, (key, previous) -> {
+            if (previous != null) {
+                deadlines.remove(previous);
+            }
+            deadlines.add(entry);
+            return entry;
+        });
+    }
+
+    /**
+     * Remove the global session from the index.
+     *
+     * @param xid the xid
+     */
+    public void remove(String xid) {
+        if (xid == null) {
+            return;
+        }
+        entries.computeIfPresent(xid, (key, previous) -> {
+            deadlines.remove(previous);
+            return null;
+        });
+    }
+
+    /**
+     * Whether the xid is indexed.
+     *
+     * @param xid the xid
+     * @return the boolean
+     */
+    public boolean contains(String xid) {
+        return entries.containsKey(xid);
+    }
+
+    /**
+     * Poll the entries whose deadline is before the given time, the polled entries are removed from the index.
+     *
+     * @param now the current time millis
+     * @return the expired entries, ordered by deadline
+     */
+    public List<Entry> pollExpired(long now) {
+        List<Entry> expired = new ArrayList<>();
+        Iterator<Entry> iterator = deadlines.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.getDeadline() >= now) {
+                break;
+            }
+            if (entries.remove(entry.getXid(), entry)) {
+                deadlines.remove(entry);
+                expired.add(entry);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Gets the size of the index.
+     *
+     * @return the size
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Clear the index.
+     */
+    public void clear() {
+        entries.clear();
+        deadlines.clear();
+    }
+
+    /**
+     * The index entry.
+     */
+    public static final class Entry implements Comparable<Entry> {
+
+        private final String xid;
+
+        private final long deadline;
+
+        private final long sequence;
+
+        Entry(String xid, long deadline, long sequence) {
+            this.xid = xid;
+            this.deadline = deadline;
+            this.sequence = sequence;
+        }
+
+        public String getXid() {
+            return xid;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            int result = Long.compare(deadline, o.deadline);
+            return result != 0 ? result : Long.compare(sequence, o.sequence);
+        }
+    }
+}
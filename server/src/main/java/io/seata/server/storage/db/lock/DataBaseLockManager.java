@@ -69,18 +69,23 @@ public class DataBaseLockManager extends AbstractLockManager implements Initiali
     }
 
     @Override
-    public boolean releaseGlobalSessionLock(GlobalSession globalSession) throws TransactionException {
-        List<BranchSession> branchSessions = globalSession.getBranchSessions();
+    public boolean releaseLock(List<BranchSession> branchSessions) throws TransactionException {
         if (CollectionUtils.isEmpty(branchSessions)) {
             return true;
         }
+        String xid = branchSessions.get(0).getXid();
         List<Long> branchIds = branchSessions.stream().map(BranchSession::getBranchId).collect(Collectors.toList());
         try {
-            return getLocker().releaseLock(globalSession.getXid(), branchIds);
+            return getLocker().releaseLock(xid, branchIds);
         } catch (Exception t) {
-            LOGGER.error("unLock globalSession error, xid:{} branchIds:{}", globalSession.getXid(),
-                CollectionUtils.toString(branchIds), t);
+            LOGGER.error("unLock globalSession error, xid:{} branchIds:{}", xid, CollectionUtils.toString(branchIds),
+                t);
             return false;
         }
     }
+
+    @Override
+    public boolean releaseGlobalSessionLock(GlobalSession globalSession) throws TransactionException {
+        return releaseLock(globalSession.getBranchSessions());
+    }
 }
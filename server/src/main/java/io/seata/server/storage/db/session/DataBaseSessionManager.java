@@ -152,6 +152,18 @@ public class DataBaseSessionManager extends AbstractSessionManager
         }
     }
 
+    @Override
+    public void removeBranchSessions(GlobalSession globalSession, List<BranchSession> branchSessions)
+        throws TransactionException {
+        if (StringUtils.isNotBlank(taskName)) {
+            return;
+        }
+        boolean ret = transactionStoreManager.writeSessions(LogOperation.BRANCH_REMOVE, branchSessions);
+        if (!ret) {
+            throw new StoreException("removeBranchSessions failed.");
+        }
+    }
+
     @Override
     public GlobalSession findGlobalSession(String xid) {
         return this.findGlobalSession(xid, true);
@@ -193,4 +205,9 @@ public class DataBaseSessionManager extends AbstractSessionManager
             throws TransactionException {
         return lockCallable.call();
     }
+
+    @Override
+    public void destroy() {
+        transactionStoreManager.shutdown();
+    }
 }
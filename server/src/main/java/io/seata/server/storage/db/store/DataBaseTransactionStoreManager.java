@@ -34,6 +34,7 @@ import io.seata.core.store.BranchTransactionDO;
 import io.seata.core.store.GlobalTransactionDO;
 import io.seata.core.store.LogStore;
 import io.seata.core.store.db.DataSourceProvider;
+import io.seata.server.session.BranchSession;
 import io.seata.server.session.GlobalSession;
 import io.seata.server.session.SessionCondition;
 import io.seata.server.store.AbstractTransactionStoreManager;
@@ -61,6 +62,12 @@ public class DataBaseTransactionStoreManager extends AbstractTransactionStoreMan
      */
     protected static final int DEFAULT_LOG_QUERY_LIMIT = 100;
 
+    private static final int DEFAULT_GROUP_COMMIT_BATCH_SIZE = 128;
+
+    private static final long DEFAULT_GROUP_COMMIT_WINDOW = 1L;
+
+    private static final int DEFAULT_GROUP_COMMIT_THREAD_SIZE = 4;
+
     /**
      * The Log store.
      */
@@ -71,6 +78,11 @@ public class DataBaseTransactionStoreManager extends AbstractTransactionStoreMan
      */
     protected int logQueryLimit;
 
+    /**
+     * The group committer of the session writes, null if the group commit is disabled.
+     */
+    protected LogStoreGroupCommitter groupCommitter;
+
     /**
      * Get the instance.
      */
@@ -94,10 +106,19 @@ public class DataBaseTransactionStoreManager extends AbstractTransactionStoreMan
         //init dataSource
         DataSource logStoreDataSource = EnhancedServiceLoader.load(DataSourceProvider.class, datasourceType).provide();
         logStore = new LogStoreDataBaseDAO(logStoreDataSource);
+        if (CONFIG.getBoolean(ConfigurationKeys.STORE_DB_GROUP_COMMIT_ENABLE, false)) {
+            groupCommitter = new LogStoreGroupCommitter((LogStoreDataBaseDAO)logStore,
+                CONFIG.getInt(ConfigurationKeys.STORE_DB_GROUP_COMMIT_BATCH_SIZE, DEFAULT_GROUP_COMMIT_BATCH_SIZE),
+                CONFIG.getLong(ConfigurationKeys.STORE_DB_GROUP_COMMIT_WINDOW, DEFAULT_GROUP_COMMIT_WINDOW),
+                CONFIG.getInt(ConfigurationKeys.STORE_DB_GROUP_COMMIT_THREAD_SIZE, DEFAULT_GROUP_COMMIT_THREAD_SIZE));
+        }
     }
 
     @Override
     public boolean writeSession(LogOperation logOperation, SessionStorable session) {
+        if (groupCommitter != null) {
+            return writeSessionInGroup(logOperation, session);
+        }
         if (LogOperation.GLOBAL_ADD.equals(logOperation)) {
             return logStore.insertGlobalTransactionDO(SessionConverter.convertGlobalTransactionDO(session));
         } else if (LogOperation.GLOBAL_UPDATE.equals(logOperation)) {
@@ -115,6 +136,35 @@ public class DataBaseTransactionStoreManager extends AbstractTransactionStoreMan
         }
     }
 
+    @Override
+    public boolean writeSessions(LogOperation logOperation, List<? extends SessionStorable> sessions) {
+        if (LogOperation.BRANCH_REMOVE.equals(logOperation) && sessions.size() > 1) {
+            List<Long> branchIds = new ArrayList<>(sessions.size());
+            for (SessionStorable session : sessions) {
+                branchIds.add(((BranchSession)session).getBranchId());
+            }
+            return logStore.deleteBranchTransactionDO(((BranchSession)sessions.get(0)).getXid(), branchIds);
+        }
+        return TransactionStoreManager.super.writeSessions(logOperation, sessions);
+    }
+
+    private boolean writeSessionInGroup(LogOperation logOperation, SessionStorable session) {
+        switch (logOperation) {
+            case GLOBAL_ADD:
+            case GLOBAL_UPDATE:
+            case GLOBAL_REMOVE:
+                GlobalTransactionDO globalTransactionDO = SessionConverter.convertGlobalTransactionDO(session);
+                return groupCommitter.write(globalTransactionDO.getXid(), logOperation, globalTransactionDO);
+            case BRANCH_ADD:
+            case BRANCH_UPDATE:
+            case BRANCH_REMOVE:
+                BranchTransactionDO branchTransactionDO = SessionConverter.convertBranchTransactionDO(session);
+                return groupCommitter.write(branchTransactionDO.getXid(), logOperation, branchTransactionDO);
+            default:
+                throw new StoreException("Unknown LogOperation:" + logOperation.name());
+        }
+    }
+
     /**
      * Read session global session.
      *
@@ -227,6 +277,13 @@ public class DataBaseTransactionStoreManager extends AbstractTransactionStoreMan
     }
 
 
+    @Override
+    public void shutdown() {
+        if (groupCommitter != null) {
+            groupCommitter.shutdown();
+        }
+    }
+
     /**
      * Sets log store.
      *
@@ -20,8 +20,10 @@ import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.StringJoiner;
 import javax.sql.DataSource;
 
 import io.seata.common.exception.DataAccessException;
@@ -36,6 +38,7 @@ import io.seata.core.store.BranchTransactionDO;
 import io.seata.core.store.GlobalTransactionDO;
 import io.seata.core.store.LogStore;
 import io.seata.core.store.db.sql.log.LogStoreSqlsFactory;
+import io.seata.server.store.TransactionStoreManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -191,23 +194,10 @@ public class LogStoreDataBaseDAO implements LogStore {
         Connection conn = null;
         PreparedStatement ps = null;
         try {
-            int index = 1;
             conn = logStoreDataSource.getConnection();
             conn.setAutoCommit(true);
             ps = conn.prepareStatement(sql);
-            ps.setString(index++, globalTransactionDO.getXid());
-            ps.setLong(index++, globalTransactionDO.getTransactionId());
-            ps.setInt(index++, globalTransactionDO.getStatus());
-            ps.setString(index++, globalTransactionDO.getApplicationId());
-            ps.setString(index++, globalTransactionDO.getTransactionServiceGroup());
-            String transactionName = globalTransactionDO.getTransactionName();
-            transactionName = transactionName.length() > transactionNameColumnSize ?
-                    transactionName.substring(0, transactionNameColumnSize) :
-                    transactionName;
-            ps.setString(index++, transactionName);
-            ps.setInt(index++, globalTransactionDO.getTimeout());
-            ps.setLong(index++, globalTransactionDO.getBeginTime());
-            ps.setString(index++, globalTransactionDO.getApplicationData());
+            setInsertGlobalParameters(ps, globalTransactionDO);
             return ps.executeUpdate() > 0;
         } catch (SQLException e) {
             throw new StoreException(e);
@@ -222,12 +212,10 @@ public class LogStoreDataBaseDAO implements LogStore {
         Connection conn = null;
         PreparedStatement ps = null;
         try {
-            int index = 1;
             conn = logStoreDataSource.getConnection();
             conn.setAutoCommit(true);
             ps = conn.prepareStatement(sql);
-            ps.setInt(index++, globalTransactionDO.getStatus());
-            ps.setString(index++, globalTransactionDO.getXid());
+            setUpdateGlobalParameters(ps, globalTransactionDO);
             return ps.executeUpdate() > 0;
         } catch (SQLException e) {
             throw new StoreException(e);
@@ -245,7 +233,7 @@ public class LogStoreDataBaseDAO implements LogStore {
             conn = logStoreDataSource.getConnection();
             conn.setAutoCommit(true);
             ps = conn.prepareStatement(sql);
-            ps.setString(1, globalTransactionDO.getXid());
+            setDeleteGlobalParameters(ps, globalTransactionDO);
             ps.executeUpdate();
         } catch (SQLException e) {
             throw new StoreException(e);
@@ -315,19 +303,10 @@ public class LogStoreDataBaseDAO implements LogStore {
         Connection conn = null;
         PreparedStatement ps = null;
         try {
-            int index = 1;
             conn = logStoreDataSource.getConnection();
             conn.setAutoCommit(true);
             ps = conn.prepareStatement(sql);
-            ps.setString(index++, branchTransactionDO.getXid());
-            ps.setLong(index++, branchTransactionDO.getTransactionId());
-            ps.setLong(index++, branchTransactionDO.getBranchId());
-            ps.setString(index++, branchTransactionDO.getResourceGroupId());
-            ps.setString(index++, branchTransactionDO.getResourceId());
-            ps.setString(index++, branchTransactionDO.getBranchType());
-            ps.setInt(index++, branchTransactionDO.getStatus());
-            ps.setString(index++, branchTransactionDO.getClientId());
-            ps.setString(index++, branchTransactionDO.getApplicationData());
+            setInsertBranchParameters(ps, branchTransactionDO);
             return ps.executeUpdate() > 0;
         } catch (SQLException e) {
             throw new StoreException(e);
@@ -338,23 +317,14 @@ public class LogStoreDataBaseDAO implements LogStore {
 
     @Override
     public boolean updateBranchTransactionDO(BranchTransactionDO branchTransactionDO) {
-        boolean shouldUpdateAppData = StringUtils.isNotBlank(branchTransactionDO.getApplicationData());
-        String sql = shouldUpdateAppData ?
-                LogStoreSqlsFactory.getLogStoreSqls(dbType).getUpdateBranchTransactionStatusAppDataSQL(branchTable) :
-                LogStoreSqlsFactory.getLogStoreSqls(dbType).getUpdateBranchTransactionStatusSQL(branchTable);
+        String sql = getUpdateBranchSql(branchTransactionDO);
         Connection conn = null;
         PreparedStatement ps = null;
         try {
-            int index = 1;
             conn = logStoreDataSource.getConnection();
             conn.setAutoCommit(true);
             ps = conn.prepareStatement(sql);
-            ps.setInt(index++, branchTransactionDO.getStatus());
-            if (shouldUpdateAppData) {
-                ps.setString(index++, branchTransactionDO.getApplicationData());
-            }
-            ps.setString(index++, branchTransactionDO.getXid());
-            ps.setLong(index++, branchTransactionDO.getBranchId());
+            setUpdateBranchParameters(ps, branchTransactionDO);
             return ps.executeUpdate() > 0;
         } catch (SQLException e) {
             throw new StoreException(e);
@@ -372,8 +342,35 @@ public class LogStoreDataBaseDAO implements LogStore {
             conn = logStoreDataSource.getConnection();
             conn.setAutoCommit(true);
             ps = conn.prepareStatement(sql);
-            ps.setString(1, branchTransactionDO.getXid());
-            ps.setLong(2, branchTransactionDO.getBranchId());
+            setDeleteBranchParameters(ps, branchTransactionDO);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new StoreException(e);
+        } finally {
+            IOUtil.close(ps, conn);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean deleteBranchTransactionDO(String xid, List<Long> branchIds) {
+        if (branchIds.isEmpty()) {
+            return true;
+        }
+        StringJoiner sj = new StringJoiner(",");
+        branchIds.forEach(branchId -> sj.add("?"));
+        String sql = LogStoreSqlsFactory.getLogStoreSqls(dbType).getDeleteBranchTransactionByBranchIdsSQL(branchTable,
+            sj.toString());
+        Connection conn = null;
+        PreparedStatement ps = null;
+        try {
+            conn = logStoreDataSource.getConnection();
+            conn.setAutoCommit(true);
+            ps = conn.prepareStatement(sql);
+            ps.setString(1, xid);
+            for (int i = 0; i < branchIds.size(); i++) {
+                ps.setLong(i + 2, branchIds.get(i));
+            }
             ps.executeUpdate();
         } catch (SQLException e) {
             throw new StoreException(e);
@@ -383,6 +380,187 @@ public class LogStoreDataBaseDAO implements LogStore {
         return true;
     }
 
+    /**
+     * Write the global and branch transactions in one local transaction.
+     * The consecutive writes of the same sql are sent in one batch, so the writes are applied in order.
+     *
+     * @param writes the writes
+     * @return the results of the writes, in the same order
+     */
+    public boolean[] writeInBatch(List<LogStoreGroupCommitter.Write> writes) {
+        boolean[] results = new boolean[writes.size()];
+        Connection conn = null;
+        PreparedStatement ps = null;
+        String currentSql = null;
+        int batchStart = 0;
+        try {
+            conn = logStoreDataSource.getConnection();
+            conn.setAutoCommit(false);
+            for (int i = 0; i < writes.size(); i++) {
+                LogStoreGroupCommitter.Write write = writes.get(i);
+                String sql = getWriteSql(write);
+                if (!sql.equals(currentSql)) {
+                    if (ps != null) {
+                        fillBatchResults(writes, batchStart, ps.executeBatch(), results);
+                        ps.close();
+                    }
+                    ps = conn.prepareStatement(sql);
+                    currentSql = sql;
+                    batchStart = i;
+                }
+                setWriteParameters(ps, write);
+                ps.addBatch();
+            }
+            if (ps != null) {
+                fillBatchResults(writes, batchStart, ps.executeBatch(), results);
+            }
+            conn.commit();
+            return results;
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackEx) {
+                    LOGGER.warn("Rollback the batch writes failed: {}", rollbackEx.getMessage());
+                }
+            }
+            throw new StoreException(e);
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    LOGGER.warn("Reset the auto commit failed: {}", e.getMessage());
+                }
+            }
+            IOUtil.close(ps, conn);
+        }
+    }
+
+    private void fillBatchResults(List<LogStoreGroupCommitter.Write> writes, int batchStart, int[] updateCounts,
+                                  boolean[] results) {
+        for (int i = 0; i < updateCounts.length; i++) {
+            TransactionStoreManager.LogOperation operation = writes.get(batchStart + i).getOperation();
+            // the deletion always succeeds, and some drivers do not return the update count in batch
+            results[batchStart + i] = operation == TransactionStoreManager.LogOperation.GLOBAL_REMOVE
+                || operation == TransactionStoreManager.LogOperation.BRANCH_REMOVE
+                || updateCounts[i] > 0 || updateCounts[i] == Statement.SUCCESS_NO_INFO;
+        }
+    }
+
+    private String getWriteSql(LogStoreGroupCommitter.Write write) {
+        switch (write.getOperation()) {
+            case GLOBAL_ADD:
+                return LogStoreSqlsFactory.getLogStoreSqls(dbType).getInsertGlobalTransactionSQL(globalTable);
+            case GLOBAL_UPDATE:
+                return LogStoreSqlsFactory.getLogStoreSqls(dbType).getUpdateGlobalTransactionStatusSQL(globalTable);
+            case GLOBAL_REMOVE:
+                return LogStoreSqlsFactory.getLogStoreSqls(dbType).getDeleteGlobalTransactionSQL(globalTable);
+            case BRANCH_ADD:
+                return LogStoreSqlsFactory.getLogStoreSqls(dbType).getInsertBranchTransactionSQL(branchTable);
+            case BRANCH_UPDATE:
+                return getUpdateBranchSql((BranchTransactionDO)write.getStoreDO());
+            case BRANCH_REMOVE:
+                return LogStoreSqlsFactory.getLogStoreSqls(dbType).getDeleteBranchTransactionByBranchIdSQL(branchTable);
+            default:
+                throw new StoreException("Unknown LogOperation:" + write.getOperation().name());
+        }
+    }
+
+    private void setWriteParameters(PreparedStatement ps, LogStoreGroupCommitter.Write write) throws SQLException {
+        switch (write.getOperation()) {
+            case GLOBAL_ADD:
+                setInsertGlobalParameters(ps, (GlobalTransactionDO)write.getStoreDO());
+                break;
+            case GLOBAL_UPDATE:
+                setUpdateGlobalParameters(ps, (GlobalTransactionDO)write.getStoreDO());
+                break;
+            case GLOBAL_REMOVE:
+                setDeleteGlobalParameters(ps, (GlobalTransactionDO)write.getStoreDO());
+                break;
+            case BRANCH_ADD:
+                setInsertBranchParameters(ps, (BranchTransactionDO)write.getStoreDO());
+                break;
+            case BRANCH_UPDATE:
+                setUpdateBranchParameters(ps, (BranchTransactionDO)write.getStoreDO());
+                break;
+            case BRANCH_REMOVE:
+                setDeleteBranchParameters(ps, (BranchTransactionDO)write.getStoreDO());
+                break;
+            default:
+                throw new StoreException("Unknown LogOperation:" + write.getOperation().name());
+        }
+    }
+
+    private void setInsertGlobalParameters(PreparedStatement ps, GlobalTransactionDO globalTransactionDO)
+        throws SQLException {
+        int index = 1;
+        ps.setString(index++, globalTransactionDO.getXid());
+        ps.setLong(index++, globalTransactionDO.getTransactionId());
+        ps.setInt(index++, globalTransactionDO.getStatus());
+        ps.setString(index++, globalTransactionDO.getApplicationId());
+        ps.setString(index++, globalTransactionDO.getTransactionServiceGroup());
+        String transactionName = globalTransactionDO.getTransactionName();
+        transactionName = transactionName.length() > transactionNameColumnSize ?
+                transactionName.substring(0, transactionNameColumnSize) :
+                transactionName;
+        ps.setString(index++, transactionName);
+        ps.setInt(index++, globalTransactionDO.getTimeout());
+        ps.setLong(index++, globalTransactionDO.getBeginTime());
+        ps.setString(index++, globalTransactionDO.getApplicationData());
+    }
+
+    private void setUpdateGlobalParameters(PreparedStatement ps, GlobalTransactionDO globalTransactionDO)
+        throws SQLException {
+        int index = 1;
+        ps.setInt(index++, globalTransactionDO.getStatus());
+        ps.setString(index++, globalTransactionDO.getXid());
+    }
+
+    private void setDeleteGlobalParameters(PreparedStatement ps, GlobalTransactionDO globalTransactionDO)
+        throws SQLException {
+        ps.setString(1, globalTransactionDO.getXid());
+    }
+
+    private void setInsertBranchParameters(PreparedStatement ps, BranchTransactionDO branchTransactionDO)
+        throws SQLException {
+        int index = 1;
+        ps.setString(index++, branchTransactionDO.getXid());
+        ps.setLong(index++, branchTransactionDO.getTransactionId());
+        ps.setLong(index++, branchTransactionDO.getBranchId());
+        ps.setString(index++, branchTransactionDO.getResourceGroupId());
+        ps.setString(index++, branchTransactionDO.getResourceId());
+        ps.setString(index++, branchTransactionDO.getBranchType());
+        ps.setInt(index++, branchTransactionDO.getStatus());
+        ps.setString(index++, branchTransactionDO.getClientId());
+        ps.setString(index++, branchTransactionDO.getApplicationData());
+    }
+
+    private String getUpdateBranchSql(BranchTransactionDO branchTransactionDO) {
+        boolean shouldUpdateAppData = StringUtils.isNotBlank(branchTransactionDO.getApplicationData());
+        return shouldUpdateAppData ?
+                LogStoreSqlsFactory.getLogStoreSqls(dbType).getUpdateBranchTransactionStatusAppDataSQL(branchTable) :
+                LogStoreSqlsFactory.getLogStoreSqls(dbType).getUpdateBranchTransactionStatusSQL(branchTable);
+    }
+
+    private void setUpdateBranchParameters(PreparedStatement ps, BranchTransactionDO branchTransactionDO)
+        throws SQLException {
+        boolean shouldUpdateAppData = StringUtils.isNotBlank(branchTransactionDO.getApplicationData());
+        int index = 1;
+        ps.setInt(index++, branchTransactionDO.getStatus());
+        if (shouldUpdateAppData) {
+            ps.setString(index++, branchTransactionDO.getApplicationData());
+        }
+        ps.setString(index++, branchTransactionDO.getXid());
+        ps.setLong(index++, branchTransactionDO.getBranchId());
+    }
+
+    private void setDeleteBranchParameters(PreparedStatement ps, BranchTransactionDO branchTransactionDO)
+        throws SQLException {
+        ps.setString(1, branchTransactionDO.getXid());
+        ps.setLong(2, branchTransactionDO.getBranchId());
+    }
+
     @Override
     public long getCurrentMaxSessionId(long high, long low) {
         String transMaxSql = LogStoreSqlsFactory.getLogStoreSqls(dbType).getQueryGlobalMax(globalTable);
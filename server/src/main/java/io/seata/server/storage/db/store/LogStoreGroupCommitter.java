@@ -0,0 +1,290 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.storage.db.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import io.seata.common.exception.StoreException;
+import io.seata.common.thread.NamedThreadFactory;
+import io.seata.core.store.BranchTransactionDO;
+import io.seata.core.store.GlobalTransactionDO;
+import io.seata.core.store.LogStore;
+import io.seata.server.store.TransactionStoreManager.LogOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Group the session writes of the concurrent requests and commit them in one local transaction.
+ * <p>
+ * The writes are sharded by xid, every shard is written by a single thread in the submitted order,
+ * so the writes of one global transaction are never reordered. The writer waits at most the window for
+ * more writes after the first one, and the caller is blocked until the group is committed.
+ * If the group fails, the writes are retried one by one, so only the broken write fails.
+ * When shutdown, the queued writes are still committed, and the writes submitted after it fail.
+ *
+ * @author wang.liang
+ */
+public class LogStoreGroupCommitter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogStoreGroupCommitter.class);
+
+    private static final int SHUTDOWN_MAX_WAIT_MILLS = 5000;
+
+    /**
+     * The marker which stops the writer after the writes queued before it.
+     */
+    private static final Write STOP = new Write(null, null);
+
+    private final LogStoreDataBaseDAO logStore;
+
+    private final int batchSize;
+
+    private final long windowNanos;
+
+    private final BlockingQueue<Write>[] queues;
+
+    private final Thread[] writers;
+
+    private volatile boolean stopped;
+
+    /**
+     * Instantiates a new Log store group committer.
+     *
+     * @param logStore     the log store
+     * @param batchSize    the max writes in one group
+     * @param windowMillis the max millis to wait for more writes
+     * @param threadSize   the writer thread size
+     */
+    @SuppressWarnings("unchecked")
+    public LogStoreGroupCommitter(LogStoreDataBaseDAO logStore, int batchSize, long windowMillis, int threadSize) {
+        this.logStore = logStore;
+        this.batchSize = Math.max(1, batchSize);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMillis));
+        int size = Math.max(1, threadSize);
+        this.queues = new BlockingQueue[size];
+        this.writers = new Thread[size];
+        NamedThreadFactory threadFactory = new NamedThreadFactory("LogStoreGroupCommit", size);
+        for (int i = 0; i < size; i++) {
+            BlockingQueue<Write> queue = new LinkedBlockingQueue<>();
+            queues[i] = queue;
+            writers[i] = threadFactory.newThread(() -> runWriter(queue));
+            writers[i].start();
+        }
+    }
+
+    /**
+     * Write the store DO and wait until it is committed.
+     *
+     * @param xid       the xid
+     * @param operation the operation
+     * @param storeDO   the global or branch transaction DO
+     * @return the result of the write
+     */
+    public boolean write(String xid, LogOperation operation, Object storeDO) {
+        if (stopped) {
+            throw new StoreException("The group committer is shutdown");
+        }
+        Write write = new Write(operation, storeDO);
+        BlockingQueue<Write> queue = queues[(xid.hashCode() & Integer.MAX_VALUE) % queues.length];
+        queue.add(write);
+        if (stopped && queue.remove(write)) {
+            // added after the writer is stopped
+            throw new StoreException("The group committer is shutdown");
+        }
+        try {
+            return write.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StoreException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof StoreException) {
+                throw (StoreException)cause;
+            }
+            throw new StoreException(cause);
+        }
+    }
+
+    private void runWriter(BlockingQueue<Write> queue) {
+        List<Write> group = new ArrayList<>(batchSize);
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                stopping = collect(queue, group);
+                commit(group);
+            } catch (InterruptedException e) {
+                group.forEach(write -> write.future.completeExceptionally(e));
+                return;
+            } catch (Throwable t) {
+                LOGGER.error("Group commit the session writes failed: {}", t.getMessage(), t);
+                group.forEach(write -> write.future.completeExceptionally(t));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    /**
+     * Collect the writes of one group.
+     *
+     * @param queue the queue
+     * @param group the group
+     * @return true if the stop marker is reached
+     * @throws InterruptedException the interrupted exception
+     */
+    private boolean collect(BlockingQueue<Write> queue, List<Write> group) throws InterruptedException {
+        Write first = queue.take();
+        if (first == STOP) {
+            return true;
+        }
+        group.add(first);
+        long deadline = System.nanoTime() + windowNanos;
+        while (group.size() < batchSize) {
+            int from = group.size();
+            if (queue.drainTo(group, batchSize - from) > 0) {
+                if (group.subList(from, group.size()).remove(STOP)) {
+                    return true;
+                }
+                continue;
+            }
+            long waitNanos = deadline - System.nanoTime();
+            Write write = waitNanos > 0 ? queue.poll(waitNanos, TimeUnit.NANOSECONDS) : null;
+            if (write == null) {
+                break;
+            }
+            if (write == STOP) {
+                return true;
+            }
+            group.add(write);
+        }
+        return false;
+    }
+
+    private void commit(List<Write> group) {
+        if (group.isEmpty()) {
+            return;
+        }
+        if (group.size() > 1) {
+            try {
+                boolean[] results = logStore.writeInBatch(group);
+                for (int i = 0; i < group.size(); i++) {
+                    group.get(i).future.complete(results[i]);
+                }
+                return;
+            } catch (StoreException e) {
+                LOGGER.warn("Group commit {} session writes failed, write them one by one: {}", group.size(),
+                    e.getMessage());
+            }
+        }
+        for (Write write : group) {
+            try {
+                write.future.complete(writeOne(logStore, write));
+            } catch (Throwable t) {
+                write.future.completeExceptionally(t);
+            }
+        }
+    }
+
+    /**
+     * Commit the queued writes and stop the writers, the writes which are not committed in time fail.
+     */
+    public synchronized void shutdown() {
+        if (stopped) {
+            return;
+        }
+        stopped = true;
+        for (BlockingQueue<Write> queue : queues) {
+            queue.add(STOP);
+        }
+        long deadline = System.currentTimeMillis() + SHUTDOWN_MAX_WAIT_MILLS;
+        for (Thread writer : writers) {
+            try {
+                writer.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // the writer fails its group when interrupted
+            writer.interrupt();
+        }
+        StoreException e = new StoreException("The group committer is shutdown");
+        for (BlockingQueue<Write> queue : queues) {
+            List<Write> left = new ArrayList<>();
+            queue.drainTo(left);
+            for (Write write : left) {
+                if (write != STOP) {
+                    write.future.completeExceptionally(e);
+                }
+            }
+        }
+        LOGGER.info("The group committer is shutdown");
+    }
+
+    private static boolean writeOne(LogStore logStore, Write write) {
+        switch (write.getOperation()) {
+            case GLOBAL_ADD:
+                return logStore.insertGlobalTransactionDO((GlobalTransactionDO)write.getStoreDO());
+            case GLOBAL_UPDATE:
+                return logStore.updateGlobalTransactionDO((GlobalTransactionDO)write.getStoreDO());
+            case GLOBAL_REMOVE:
+                return logStore.deleteGlobalTransactionDO((GlobalTransactionDO)write.getStoreDO());
+            case BRANCH_ADD:
+                return logStore.insertBranchTransactionDO((BranchTransactionDO)write.getStoreDO());
+            case BRANCH_UPDATE:
+                return logStore.updateBranchTransactionDO((BranchTransactionDO)write.getStoreDO());
+            case BRANCH_REMOVE:
+                return logStore.deleteBranchTransactionDO((BranchTransactionDO)write.getStoreDO());
+            default:
+                throw new StoreException("Unknown LogOperation:" + write.getOperation().name());
+        }
+    }
+
+    /**
+     * The write of a global or branch transaction.
+     */
+    public static class Write {
+
+        private final LogOperation operation;
+
+        private final Object storeDO;
+
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        /**
+         * Instantiates a new Write.
+         *
+         * @param operation the operation
+         * @param storeDO   the global or branch transaction DO
+         */
+        public Write(LogOperation operation, Object storeDO) {
+            this.operation = operation;
+            this.storeDO = storeDO;
+        }
+
+        public LogOperation getOperation() {
+            return operation;
+        }
+
+        public Object getStoreDO() {
+            return storeDO;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.storage.file;
+
+import java.util.List;
+
+/**
+ * The interface Segment reloadable store, the segments can be read concurrently when reloading.
+ * <p>
+ * The history and current data files of the {@link ReloadableStore} are read before the segments.
+ *
+ * @author wang.liang
+ */
+public interface SegmentReloadableStore extends ReloadableStore {
+
+    /**
+     * Gets the ids of the segments to reload, in the written order.
+     *
+     * @return the segment ids
+     */
+    List<Long> getSegmentIds();
+
+    /**
+     * Read all the write stores of the segment.
+     *
+     * @param segmentId the segment id
+     * @return the write stores in the written order
+     */
+    List<TransactionWriteStore> readSegment(long segmentId);
+
+    /**
+     * Called after all the sessions are reloaded.
+     */
+    void afterReload();
+}
@@ -16,10 +16,12 @@
 package io.seata.server.storage.file.lock;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import io.seata.common.loader.LoadLevel;
 import io.seata.core.exception.TransactionException;
 import io.seata.core.lock.Locker;
+import io.seata.core.model.BranchType;
 import io.seata.server.lock.AbstractLockManager;
 import io.seata.server.session.BranchSession;
 import io.seata.server.session.GlobalSession;
@@ -40,6 +42,19 @@ public class FileLockManager extends AbstractLockManager {
         return new FileLocker(branchSession);
     }
 
+    /**
+     * The locks held before the restart never conflict, so the branches are restored concurrently
+     * without the conflict handling of acquiring.
+     *
+     * @param branchSessions the branch sessions
+     */
+    @Override
+    public void restoreLocks(List<BranchSession> branchSessions) {
+        branchSessions.parallelStream()
+            .filter(branchSession -> branchSession.getBranchType() == BranchType.AT)
+            .forEach(branchSession -> new FileLocker(branchSession).restoreLocks(collectRowLocks(branchSession)));
+    }
+
     @Override
     public boolean releaseGlobalSessionLock(GlobalSession globalSession) throws TransactionException {
         ArrayList<BranchSession> branchSessions = globalSession.getBranchSessions();
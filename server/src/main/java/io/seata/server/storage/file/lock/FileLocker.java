@@ -16,14 +16,11 @@
 package io.seata.server.storage.file.lock;
 
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
-import io.netty.util.internal.ConcurrentSet;
 import io.seata.common.exception.FrameworkException;
 import io.seata.common.util.CollectionUtils;
+import io.seata.config.ConfigurationFactory;
+import io.seata.core.constants.ConfigurationKeys;
 import io.seata.core.exception.TransactionException;
 import io.seata.core.lock.AbstractLocker;
 import io.seata.core.lock.RowLock;
@@ -36,11 +33,10 @@ import io.seata.server.session.BranchSession;
  */
 public class FileLocker extends AbstractLocker {
 
-    private static final int BUCKET_PER_TABLE = 128;
+    private static final int DEFAULT_LOCK_STRIPE_SIZE = 256;
 
-    private static final ConcurrentMap<String/* resourceId */, ConcurrentMap<String/* tableName */,
-        ConcurrentMap<Integer/* bucketId */, BucketLockMap>>>
-        LOCK_MAP = new ConcurrentHashMap<>();
+    private static final RowLockTable LOCK_TABLE = new RowLockTable(ConfigurationFactory.getInstance()
+        .getInt(ConfigurationKeys.STORE_FILE_LOCK_STRIPE_SIZE, DEFAULT_LOCK_STRIPE_SIZE));
 
     /**
      * The Branch session.
@@ -65,25 +61,15 @@ public class FileLocker extends AbstractLocker {
         String resourceId = branchSession.getResourceId();
         long transactionId = branchSession.getTransactionId();
 
-        ConcurrentMap<BucketLockMap, Set<String>> bucketHolder = branchSession.getLockHolder();
-        ConcurrentMap<String, ConcurrentMap<Integer, BucketLockMap>> dbLockMap = CollectionUtils.computeIfAbsent(
-            LOCK_MAP, resourceId, key -> new ConcurrentHashMap<>());
-
+        RowLockTable.Holder lockHolder = branchSession.getLockHolder();
         for (RowLock lock : rowLocks) {
             String tableName = lock.getTableName();
             String pk = lock.getPk();
-            ConcurrentMap<Integer, BucketLockMap> tableLockMap = CollectionUtils.computeIfAbsent(dbLockMap, tableName,
-                key -> new ConcurrentHashMap<>());
-
-            int bucketId = pk.hashCode() % BUCKET_PER_TABLE;
-            BucketLockMap bucketLockMap = CollectionUtils.computeIfAbsent(tableLockMap, bucketId,
-                key -> new BucketLockMap());
-            Long previousLockTransactionId = bucketLockMap.get().putIfAbsent(pk, transactionId);
-            if (previousLockTransactionId == null) {
+            long key = LOCK_TABLE.lockKey(resourceId, tableName, pk);
+            long previousLockTransactionId = LOCK_TABLE.acquire(key, transactionId);
+            if (previousLockTransactionId == RowLockTable.NO_OWNER) {
                 //No existing lock, and now locked by myself
-                Set<String> keysInHolder = CollectionUtils.computeIfAbsent(bucketHolder, bucketLockMap,
-                    key -> new ConcurrentSet<>());
-                keysInHolder.add(pk);
+                lockHolder.add(key);
             } else if (previousLockTransactionId == transactionId) {
                 // Locked by me before
                 continue;
@@ -101,25 +87,39 @@ public class FileLocker extends AbstractLocker {
         return true;
     }
 
+    /**
+     * Restore the locks of the reloaded branch, a lock held by another transaction is kept.
+     *
+     * @param rowLocks the row locks
+     */
+    public void restoreLocks(List<RowLock> rowLocks) {
+        String resourceId = branchSession.getResourceId();
+        long transactionId = branchSession.getTransactionId();
+        RowLockTable.Holder lockHolder = branchSession.getLockHolder();
+        for (RowLock lock : rowLocks) {
+            long key = LOCK_TABLE.lockKey(resourceId, lock.getTableName(), lock.getPk());
+            long previousLockTransactionId = LOCK_TABLE.acquire(key, transactionId);
+            if (previousLockTransactionId == RowLockTable.NO_OWNER) {
+                lockHolder.add(key);
+            } else if (previousLockTransactionId != transactionId) {
+                LOGGER.warn("Restore global lock on [" + lock.getTableName() + ":" + lock.getPk()
+                    + "] is holding by " + previousLockTransactionId);
+            }
+        }
+    }
+
     @Override
     public boolean releaseLock(List<RowLock> rowLock) {
         if (CollectionUtils.isEmpty(rowLock)) {
             //no lock
             return true;
         }
-        ConcurrentMap<BucketLockMap, Set<String>> lockHolder = branchSession.getLockHolder();
-        if (CollectionUtils.isEmpty(lockHolder)) {
+        RowLockTable.Holder lockHolder = branchSession.getLockHolder();
+        if (lockHolder.isEmpty()) {
             return true;
         }
-        for (Map.Entry<BucketLockMap, Set<String>> entry : lockHolder.entrySet()) {
-            BucketLockMap bucket = entry.getKey();
-            Set<String> keys = entry.getValue();
-            for (String key : keys) {
-                // remove lock only if it locked by myself
-                bucket.get().remove(key, branchSession.getTransactionId());
-            }
-        }
-        lockHolder.clear();
+        // remove lock only if it locked by myself
+        LOCK_TABLE.release(lockHolder, branchSession.getTransactionId());
         return true;
     }
 
@@ -129,27 +129,13 @@ public class FileLocker extends AbstractLocker {
             //no lock
             return true;
         }
-        Long transactionId = rowLocks.get(0).getTransactionId();
+        long transactionId = rowLocks.get(0).getTransactionId();
         String resourceId = rowLocks.get(0).getResourceId();
-        ConcurrentMap<String, ConcurrentMap<Integer, BucketLockMap>> dbLockMap = LOCK_MAP.get(resourceId);
-        if (dbLockMap == null) {
-            return true;
-        }
         for (RowLock rowLock : rowLocks) {
             String tableName = rowLock.getTableName();
             String pk = rowLock.getPk();
-
-            ConcurrentMap<Integer, BucketLockMap> tableLockMap = dbLockMap.get(tableName);
-            if (tableLockMap == null) {
-                continue;
-            }
-            int bucketId = pk.hashCode() % BUCKET_PER_TABLE;
-            BucketLockMap bucketLockMap = tableLockMap.get(bucketId);
-            if (bucketLockMap == null) {
-                continue;
-            }
-            Long lockingTransactionId = bucketLockMap.get().get(pk);
-            if (lockingTransactionId == null || lockingTransactionId.longValue() == transactionId) {
+            long lockingTransactionId = LOCK_TABLE.owner(LOCK_TABLE.lockKey(resourceId, tableName, pk));
+            if (lockingTransactionId == RowLockTable.NO_OWNER || lockingTransactionId == transactionId) {
                 // Locked by me
                 continue;
             } else {
@@ -162,31 +148,6 @@ public class FileLocker extends AbstractLocker {
 
     @Override
     public void cleanAllLocks() {
-        LOCK_MAP.clear();
-    }
-
-    /**
-     * Because bucket lock map will be key of HashMap(lockHolder), however {@link ConcurrentHashMap} overwrites
-     * {@link Object##hashCode()} and {@link Object##equals(Object)}, that leads to hash key conflict in lockHolder.
-     * We define a {@link BucketLockMap} to hold the ConcurrentHashMap(bucketLockMap) and replace it as key of
-     * HashMap(lockHolder).
-     */
-    public static class BucketLockMap {
-        private final ConcurrentHashMap<String/* pk */, Long/* transactionId */> bucketLockMap
-            = new ConcurrentHashMap<>();
-
-        ConcurrentHashMap<String, Long> get() {
-            return bucketLockMap;
-        }
-
-        @Override
-        public int hashCode() {
-            return super.hashCode();
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            return super.equals(o);
-        }
+        LOCK_TABLE.clear();
     }
 }
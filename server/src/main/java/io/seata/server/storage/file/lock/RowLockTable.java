@@ -0,0 +1,336 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.storage.file.lock;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The in-memory table of the row locks.
+ * <p>
+ * A row lock is identified by a 64-bit key, which is hashed from the interned id of the resource and the table
+ * and the primary key. The keys are spread over a fixed number of stripes, every stripe is an open addressing
+ * hash table of primitive {@code long} keys and transaction ids guarded by its own monitor.
+ * Two different rows may share a key in theory, which only makes them conflict with each other,
+ * a row is never considered unlocked while it is locked.
+ *
+ * @author wang.liang
+ */
+public class RowLockTable {
+
+    /**
+     * No transaction holds the lock, the transaction id is never 0.
+     */
+    public static final long NO_OWNER = 0L;
+
+    private static final long EMPTY_KEY = 0L;
+
+    private final ConcurrentMap<String, Integer> nameIds = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nameIdSequence = new AtomicInteger();
+
+    private final Stripe[] stripes;
+
+    private final int stripeMask;
+
+    /**
+     * Instantiates a new Row lock table.
+     *
+     * @param stripeSize the stripe size, rounded up to the power of 2
+     */
+    public RowLockTable(int stripeSize) {
+        int size = tableSizeFor(Math.max(1, stripeSize));
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = size - 1;
+    }
+
+    /**
+     * Gets the key of the row lock.
+     *
+     * @param resourceId the resource id
+     * @param tableName  the table name
+     * @param pk         the primary key
+     * @return the key
+     */
+    public long lockKey(String resourceId, String tableName, String pk) {
+        long h = ((long)internName(resourceId) << 32) | (internName(tableName) & 0xFFFFFFFFL);
+        for (int i = 0; i < pk.length(); i++) {
+            h = (h ^ pk.charAt(i)) * 0x100000001B3L;
+        }
+        h = mix(h ^ pk.length());
+        return h == EMPTY_KEY ? 1L : h;
+    }
+
+    /**
+     * Lock the row if it is not locked.
+     *
+     * @param key           the key
+     * @param transactionId the transaction id
+     * @return {@link #NO_OWNER} if it is locked by this call, otherwise the transaction id holding the lock
+     */
+    public long acquire(long key, long transactionId) {
+        return stripe(key).putIfAbsent(key, transactionId);
+    }
+
+    /**
+     * Gets the transaction id holding the lock.
+     *
+     * @param key the key
+     * @return the transaction id, {@link #NO_OWNER} if it is not locked
+     */
+    public long owner(long key) {
+        return stripe(key).get(key);
+    }
+
+    /**
+     * Unlock the row if it is locked by the transaction.
+     *
+     * @param key           the key
+     * @param transactionId the transaction id
+     */
+    public void release(long key, long transactionId) {
+        stripe(key).remove(key, transactionId);
+    }
+
+    /**
+     * Unlock all the rows in the holder.
+     *
+     * @param holder        the holder
+     * @param transactionId the transaction id
+     */
+    public void release(Holder holder, long transactionId) {
+        for (long key : holder.drain()) {
+            release(key, transactionId);
+        }
+    }
+
+    /**
+     * Gets the count of the locked rows.
+     *
+     * @return the count
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Unlock all the rows.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    private Stripe stripe(long key) {
+        return stripes[(int)(key >>> 32) & stripeMask];
+    }
+
+    private int internName(String name) {
+        Integer id = nameIds.get(name);
+        if (id == null) {
+            id = nameIds.computeIfAbsent(name, key -> nameIdSequence.incrementAndGet());
+        }
+        return id;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int tableSizeFor(int size) {
+        int n = Integer.highestOneBit(size);
+        return n == size ? n : n << 1;
+    }
+
+    /**
+     * The stripe of the row locks, linear probing with backward shift deletion.
+     */
+    static final class Stripe {
+
+        private static final int MIN_CAPACITY = 16;
+
+        private long[] keys = new long[MIN_CAPACITY];
+
+        private long[] owners = new long[MIN_CAPACITY];
+
+        private int size;
+
+        synchronized long putIfAbsent(long key, long transactionId) {
+            int mask = keys.length - 1;
+            int i = (int)key & mask;
+            while (keys[i] != EMPTY_KEY) {
+                if (keys[i] == key) {
+                    return owners[i];
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            owners[i] = transactionId;
+            if (++size > keys.length >>> 1) {
+                rehash(keys.length << 1);
+            }
+            return NO_OWNER;
+        }
+
+        synchronized long get(long key) {
+            int mask = keys.length - 1;
+            int i = (int)key & mask;
+            while (keys[i] != EMPTY_KEY) {
+                if (keys[i] == key) {
+                    return owners[i];
+                }
+                i = (i + 1) & mask;
+            }
+            return NO_OWNER;
+        }
+
+        synchronized void remove(long key, long transactionId) {
+            int mask = keys.length - 1;
+            int i = (int)key & mask;
+            while (keys[i] != EMPTY_KEY) {
+                if (keys[i] == key) {
+                    if (owners[i] == transactionId) {
+                        delete(i, mask);
+                    }
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void clear() {
+            keys = new long[MIN_CAPACITY];
+            owners = new long[MIN_CAPACITY];
+            size = 0;
+        }
+
+        private void delete(int hole, int mask) {
+            int i = hole;
+            while (true) {
+                i = (i + 1) & mask;
+                long key = keys[i];
+                if (key == EMPTY_KEY) {
+                    break;
+                }
+                int home = (int)key & mask;
+                // move back the entry if the hole is between its home and its current slot
+                if (((i - home) & mask) >= ((i - hole) & mask)) {
+                    keys[hole] = key;
+                    owners[hole] = owners[i];
+                    hole = i;
+                }
+            }
+            keys[hole] = EMPTY_KEY;
+            owners[hole] = NO_OWNER;
+            // give back the memory after a large transaction is released
+            if (--size < keys.length >>> 3 && keys.length > MIN_CAPACITY) {
+                rehash(keys.length >>> 1);
+            }
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldOwners = owners;
+            keys = new long[capacity];
+            owners = new long[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                long key = oldKeys[j];
+                if (key != EMPTY_KEY) {
+                    int i = (int)key & mask;
+                    while (keys[i] != EMPTY_KEY) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = key;
+                    owners[i] = oldOwners[j];
+                }
+            }
+        }
+    }
+
+    /**
+     * The keys of the row locks held by a branch, so all of them can be released without searching the table.
+     */
+    public static final class Holder {
+
+        private static final long[] EMPTY = new long[0];
+
+        private long[] keys = EMPTY;
+
+        private int size;
+
+        /**
+         * Add the key of a row locked by the branch.
+         *
+         * @param key the key
+         */
+        public synchronized void add(long key) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(8, size << 1));
+            }
+            keys[size++] = key;
+        }
+
+        /**
+         * Gets the count of the held row locks.
+         *
+         * @return the count
+         */
+        public synchronized int size() {
+            return size;
+        }
+
+        /**
+         * Whether the branch holds no row lock.
+         *
+         * @return the boolean
+         */
+        public synchronized boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Take all the keys out of the holder.
+         *
+         * @return the keys
+         */
+        synchronized long[] drain() {
+            long[] drained = size == keys.length ? keys : Arrays.copyOf(keys, size);
+            keys = EMPTY;
+            size = 0;
+            return drained;
+        }
+    }
+}
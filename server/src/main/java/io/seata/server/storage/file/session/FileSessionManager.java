@@ -21,29 +21,45 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import io.seata.common.exception.ShouldNeverHappenException;
+import io.seata.common.exception.StoreException;
 import io.seata.common.loader.LoadLevel;
 import io.seata.common.loader.Scope;
+import io.seata.common.thread.NamedThreadFactory;
 import io.seata.common.util.StringUtils;
 import io.seata.config.ConfigurationFactory;
 import io.seata.core.constants.ConfigurationKeys;
 import io.seata.core.exception.TransactionException;
 import io.seata.core.model.GlobalStatus;
+import io.seata.metrics.registry.Registry;
+import io.seata.server.metrics.MeterIdConstants;
+import io.seata.server.metrics.MetricsManager;
 import io.seata.server.session.AbstractSessionManager;
 import io.seata.server.session.BranchSession;
 import io.seata.server.session.GlobalSession;
 import io.seata.server.session.Reloadable;
 import io.seata.server.session.SessionCondition;
 import io.seata.server.storage.file.ReloadableStore;
+import io.seata.server.storage.file.SegmentReloadableStore;
 import io.seata.server.storage.file.TransactionWriteStore;
 import io.seata.server.storage.file.store.FileTransactionStoreManager;
+import io.seata.server.storage.file.store.SegmentedFileTransactionStoreManager;
 import io.seata.server.store.AbstractTransactionStoreManager;
 import io.seata.server.store.SessionStorable;
+import io.seata.server.store.StoreConfig;
 import io.seata.server.store.TransactionStoreManager;
 
 
@@ -57,6 +73,18 @@ public class FileSessionManager extends AbstractSessionManager implements Reload
 
     private static final int READ_SIZE = ConfigurationFactory.getInstance().getInt(
         ConfigurationKeys.SERVICE_SESSION_RELOAD_READ_SIZE, 100);
+
+    private static final int RELOAD_THREAD_SIZE = Math.max(1, ConfigurationFactory.getInstance().getInt(
+        ConfigurationKeys.SERVICE_SESSION_RELOAD_THREAD_SIZE, Runtime.getRuntime().availableProcessors()));
+
+    private static final int RESTORE_QUEUE_SIZE = 16;
+
+    private static final List<TransactionWriteStore> END_OF_STORES = new ArrayList<>(0);
+
+    /**
+     * The count of the write stores restored by the reload.
+     */
+    private final AtomicLong reloadedRecords = new AtomicLong();
     /**
      * The Session map.
      */
@@ -71,7 +99,10 @@ public class FileSessionManager extends AbstractSessionManager implements Reload
      */
     public FileSessionManager(String name, String sessionStoreFilePath) throws IOException {
         super(name);
-        if (StringUtils.isNotBlank(sessionStoreFilePath)) {
+        if (StringUtils.isNotBlank(sessionStoreFilePath) && StoreConfig.isFileSegmentEnable()) {
+            transactionStoreManager = new SegmentedFileTransactionStoreManager(
+                    sessionStoreFilePath + File.separator + name, this);
+        } else if (StringUtils.isNotBlank(sessionStoreFilePath)) {
             transactionStoreManager = new FileTransactionStoreManager(
                     sessionStoreFilePath + File.separator + name, this);
         } else {
@@ -87,6 +118,9 @@ public class FileSessionManager extends AbstractSessionManager implements Reload
     @Override
     public void reload() {
         restoreSessions();
+        if (transactionStoreManager instanceof SegmentReloadableStore) {
+            ((SegmentReloadableStore)transactionStoreManager).afterReload();
+        }
     }
 
     @Override
@@ -140,12 +174,46 @@ public class FileSessionManager extends AbstractSessionManager implements Reload
     }
 
     private void restoreSessions() {
-        final Set<String> removedGlobalBuffer = new HashSet<>();
-        final Map<String, Map<Long, BranchSession>> unhandledBranchBuffer = new HashMap<>();
-
-        restoreSessions(true, removedGlobalBuffer, unhandledBranchBuffer);
-        restoreSessions(false, removedGlobalBuffer, unhandledBranchBuffer);
+        long startTime = System.currentTimeMillis();
+        reloadedRecords.set(0);
+        Registry registry = MetricsManager.get().getRegistry();
+        if (registry != null) {
+            registry.getGauge(MeterIdConstants.GAUGE_SESSION_RELOAD_RECORDS, reloadedRecords::get);
+        }
+        RestoreShard[] shards = new RestoreShard[RELOAD_THREAD_SIZE];
+        NamedThreadFactory threadFactory = new NamedThreadFactory("sessionRestore", shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new RestoreShard();
+            shards[i].thread = threadFactory.newThread(shards[i]);
+            shards[i].thread.start();
+        }
+        try {
+            restoreSessions(true, shards);
+            restoreSessions(false, shards);
+            if (transactionStoreManager instanceof SegmentReloadableStore) {
+                restoreSegments((SegmentReloadableStore)transactionStoreManager, shards);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StoreException(e);
+        } finally {
+            for (RestoreShard shard : shards) {
+                shard.finish();
+            }
+        }
+        for (RestoreShard shard : shards) {
+            shard.await();
+        }
+        long duration = System.currentTimeMillis() - startTime;
+        if (registry != null) {
+            registry.getTimer(MeterIdConstants.TIMER_SESSION_RELOAD_DURATION).record(duration, TimeUnit.MILLISECONDS);
+        }
+        LOGGER.info("Reload {} global sessions from {} write stores in {} ms", sessionMap.size(),
+            reloadedRecords.get(), duration);
+    }
 
+    private void restoreUnhandledBranches(Set<String> removedGlobalBuffer,
+                                          Map<String, Map<Long, BranchSession>> unhandledBranchBuffer) {
         if (!unhandledBranchBuffer.isEmpty()) {
             unhandledBranchBuffer.values().forEach(unhandledBranchSessions -> {
                 unhandledBranchSessions.values().forEach(branchSession -> {
@@ -191,15 +259,71 @@ public class FileSessionManager extends AbstractSessionManager implements Reload
         }
     }
 
-    private void restoreSessions(boolean isHistory, Set<String> removedGlobalBuffer, Map<String,
-            Map<Long, BranchSession>> unhandledBranchBuffer) {
+    private void restoreSessions(boolean isHistory, RestoreShard[] shards) throws InterruptedException {
         if (!(transactionStoreManager instanceof ReloadableStore)) {
             return;
         }
         while (((ReloadableStore)transactionStoreManager).hasRemaining(isHistory)) {
             List<TransactionWriteStore> stores = ((ReloadableStore)transactionStoreManager).readWriteStore(READ_SIZE,
                 isHistory);
-            restore(stores, removedGlobalBuffer, unhandledBranchBuffer);
+            if (stores == null) {
+                throw new StoreException("read the session data file failed, isHistory: " + isHistory);
+            }
+            dispatch(stores, shards);
+        }
+    }
+
+    /**
+     * Decode the segments concurrently and restore them in the written order.
+     */
+    private void restoreSegments(SegmentReloadableStore store, RestoreShard[] shards) throws InterruptedException {
+        List<Long> segmentIds = store.getSegmentIds();
+        if (segmentIds.isEmpty()) {
+            return;
+        }
+        int threadSize = Math.min(segmentIds.size(), Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor reloadExecutor = new ThreadPoolExecutor(threadSize, threadSize, Integer.MAX_VALUE,
+            TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new NamedThreadFactory("segmentReload", threadSize));
+        try {
+            // decode at most two segments ahead per thread, so the decoded segments do not fill the memory
+            Iterator<Long> segmentIdIterator = segmentIds.iterator();
+            List<Future<List<TransactionWriteStore>>> decoding = new ArrayList<>();
+            while (segmentIdIterator.hasNext() || !decoding.isEmpty()) {
+                while (segmentIdIterator.hasNext() && decoding.size() < threadSize * 2) {
+                    long segmentId = segmentIdIterator.next();
+                    decoding.add(reloadExecutor.submit(() -> store.readSegment(segmentId)));
+                }
+                dispatch(decoding.remove(0).get(), shards);
+            }
+        } catch (ExecutionException e) {
+            throw new StoreException(e.getCause());
+        } finally {
+            reloadExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Split the write stores by the transaction id, so the write stores of a transaction keep their order
+     * in the same shard, and the different transactions are restored concurrently.
+     */
+    private void dispatch(List<TransactionWriteStore> stores, RestoreShard[] shards) throws InterruptedException {
+        if (shards.length == 1) {
+            shards[0].put(stores);
+            return;
+        }
+        List<List<TransactionWriteStore>> parts = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            parts.add(new ArrayList<>());
+        }
+        for (TransactionWriteStore store : stores) {
+            SessionStorable sessionStorable = store.getSessionRequest();
+            long transactionId = sessionStorable instanceof GlobalSession
+                ? ((GlobalSession)sessionStorable).getTransactionId()
+                : ((BranchSession)sessionStorable).getTransactionId();
+            parts.get((Long.hashCode(transactionId) & Integer.MAX_VALUE) % shards.length).add(store);
+        }
+        for (int i = 0; i < shards.length; i++) {
+            shards[i].put(parts.get(i));
         }
     }
 
@@ -325,6 +449,73 @@ public class FileSessionManager extends AbstractSessionManager implements Reload
 
     }
 
+    /**
+     * The shard restoring the write stores of a part of the transactions in the put order.
+     */
+    private class RestoreShard implements Runnable {
+
+        private final BlockingQueue<List<TransactionWriteStore>> queue = new LinkedBlockingQueue<>(
+            RESTORE_QUEUE_SIZE);
+
+        private final Set<String> removedGlobalBuffer = new HashSet<>();
+
+        private final Map<String, Map<Long, BranchSession>> unhandledBranchBuffer = new HashMap<>();
+
+        private Thread thread;
+
+        private volatile Throwable failure;
+
+        void put(List<TransactionWriteStore> stores) throws InterruptedException {
+            if (!stores.isEmpty()) {
+                queue.put(stores);
+            }
+        }
+
+        void finish() {
+            try {
+                queue.put(END_OF_STORES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                thread.interrupt();
+            }
+        }
+
+        void await() {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StoreException(e);
+            }
+            if (failure != null) {
+                throw new StoreException(failure);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                List<TransactionWriteStore> stores;
+                while ((stores = queue.take()) != END_OF_STORES) {
+                    // keep taking after a failure, so the reader is never blocked
+                    if (failure == null) {
+                        try {
+                            restore(stores, removedGlobalBuffer, unhandledBranchBuffer);
+                            reloadedRecords.addAndGet(stores.size());
+                        } catch (Throwable t) {
+                            failure = t;
+                        }
+                    }
+                }
+                if (failure == null) {
+                    restoreUnhandledBranches(removedGlobalBuffer, unhandledBranchBuffer);
+                }
+            } catch (Throwable t) {
+                failure = t;
+            }
+        }
+    }
+
     @Override
     public void destroy() {
         transactionStoreManager.shutdown();
@@ -193,6 +193,38 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
         return true;
     }
 
+    /**
+     * Write the sessions under one lock and wait for one flush.
+     */
+    @Override
+    public boolean writeSessions(LogOperation logOperation, List<? extends SessionStorable> sessions) {
+        if (sessions.size() <= 1) {
+            return TransactionStoreManager.super.writeSessions(logOperation, sessions);
+        }
+        long curFileTrxNum;
+        writeSessionLock.lock();
+        try {
+            for (SessionStorable session : sessions) {
+                if (!writeDataFile(new TransactionWriteStore(session, logOperation).encode())) {
+                    return false;
+                }
+            }
+            lastModifiedTime = System.currentTimeMillis();
+            curFileTrxNum = FILE_TRX_NUM.addAndGet(sessions.size());
+            if (curFileTrxNum / PER_FILE_BLOCK_SIZE != (curFileTrxNum - sessions.size()) / PER_FILE_BLOCK_SIZE
+                    && (System.currentTimeMillis() - trxStartTimeMills) > MAX_TRX_TIMEOUT_MILLS) {
+                return saveHistory();
+            }
+        } catch (Exception exx) {
+            LOGGER.error("writeSessions error, {}", exx.getMessage(), exx);
+            return false;
+        } finally {
+            writeSessionLock.unlock();
+        }
+        flushDisk(curFileTrxNum, currFileChannel);
+        return true;
+    }
+
     private void flushDisk(long curFileNum, FileChannel currFileChannel) {
 
         if (FLUSH_DISK_MODE == FlushDiskMode.SYNC_MODEL) {
@@ -384,15 +416,38 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
 
     private List<TransactionWriteStore> parseDataFile(File file, int readSize, long currentOffset, boolean isHistory) {
         List<TransactionWriteStore> transactionWriteStores = new ArrayList<>(readSize);
-        RandomAccessFile raf = null;
-        FileChannel fileChannel = null;
         try {
-            raf = new RandomAccessFile(file, "r");
-            raf.seek(currentOffset);
-            fileChannel = raf.getChannel();
+            long nextOffset = readDataFile(file, readSize, currentOffset, transactionWriteStores);
+            if (isHistory) {
+                recoverHisOffset = nextOffset;
+            } else {
+                recoverCurrOffset = nextOffset;
+            }
+            return transactionWriteStores;
+        } catch (IOException exx) {
+            LOGGER.error("parse data file error:{},file:{}", exx.getMessage(), file.getName(), exx);
+            return null;
+        }
+    }
+
+    /**
+     * Read at most the read size of write stores from the offset of the data file.
+     *
+     * @param file                   the data file
+     * @param readSize               the read size
+     * @param currentOffset          the offset to read from
+     * @param transactionWriteStores the list to add the write stores to
+     * @return the offset after the read write stores
+     * @throws IOException the io exception
+     */
+    static long readDataFile(File file, int readSize, long currentOffset,
+                             List<TransactionWriteStore> transactionWriteStores) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel fileChannel = raf.getChannel();
             fileChannel.position(currentOffset);
             long size = raf.length();
             ByteBuffer buffSize = ByteBuffer.allocate(MARK_SIZE);
+            int readCount = 0;
             while (fileChannel.position() < size) {
                 try {
                     buffSize.clear();
@@ -411,7 +466,7 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
                     TransactionWriteStore writeStore = new TransactionWriteStore();
                     writeStore.decode(byBody);
                     transactionWriteStores.add(writeStore);
-                    if (transactionWriteStores.size() == readSize) {
+                    if (++readCount == readSize) {
                         break;
                     }
                 } catch (Exception ex) {
@@ -419,23 +474,7 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
                     break;
                 }
             }
-            return transactionWriteStores;
-        } catch (IOException exx) {
-            LOGGER.error("parse data file error:{},file:{}", exx.getMessage(), file.getName(), exx);
-            return null;
-        } finally {
-            try {
-                if (fileChannel != null) {
-                    if (isHistory) {
-                        recoverHisOffset = fileChannel.position();
-                    } else {
-                        recoverCurrOffset = fileChannel.position();
-                    }
-                }
-                closeFile(raf);
-            } catch (IOException exx) {
-                LOGGER.error("file close error{}", exx.getMessage(), exx);
-            }
+            return fileChannel.position();
         }
     }
 
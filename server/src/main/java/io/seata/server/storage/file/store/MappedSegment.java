@@ -0,0 +1,432 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.storage.file.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A fixed size segment of the session log, mapped into the memory.
+ * <p>
+ * Every record is written as {@code [int length][int crc32][body]}, the unused tail of the segment is zero,
+ * so the records are read until a zero length. A record with the broken length or crc is the torn tail
+ * of the last write before a crash, the records after it are ignored.
+ * The segment also keeps the position and xid of every record, and the xids of the live sessions having
+ * records in it, so the records of the live sessions can be copied without decoding them.
+ * The mapped memory is released when the segment is closed, so the segment must not be used after it.
+ * <p>
+ * A segment compacted from the sealed segments is named by the range of their ids, like {@code <id>.<lastId>},
+ * so the reload knows it supersedes the sealed segments in the range, which may be left by a crash.
+ *
+ * @author wang.liang
+ */
+public class MappedSegment {
+
+    /**
+     * The size of the record header, the length and the crc.
+     */
+    public static final int RECORD_HEADER_SIZE = 8;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedSegment.class);
+
+    private final long id;
+
+    private final long lastId;
+
+    private File file;
+
+    private final int size;
+
+    private final RandomAccessFile raf;
+
+    private final MappedByteBuffer buffer;
+
+    private final Set<String> liveXids = ConcurrentHashMap.newKeySet();
+
+    private int writePosition;
+
+    private int[] recordPositions = new int[64];
+
+    private String[] recordXids = new String[64];
+
+    private int recordCount;
+
+    private boolean closed;
+
+    private MappedSegment(long id, long lastId, File file, int size) throws IOException {
+        this.id = id;
+        this.lastId = lastId;
+        this.file = file;
+        this.size = size;
+        this.raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(size);
+            this.buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Create a new empty segment.
+     *
+     * @param file the file
+     * @param id   the segment id
+     * @param size the segment size
+     * @return the segment
+     * @throws IOException the io exception
+     */
+    public static MappedSegment create(File file, long id, int size) throws IOException {
+        return create(file, id, id, size);
+    }
+
+    /**
+     * Create a new empty segment compacted from the segments in the range of the ids.
+     *
+     * @param file   the file
+     * @param id     the first segment id of the range
+     * @param lastId the last segment id of the range
+     * @param size   the segment size
+     * @return the segment
+     * @throws IOException the io exception
+     */
+    public static MappedSegment create(File file, long id, long lastId, int size) throws IOException {
+        Files.deleteIfExists(file.toPath());
+        return new MappedSegment(id, lastId, file, size);
+    }
+
+    /**
+     * Open an existing segment for reading, it is sealed and no record can be appended to it.
+     *
+     * @param file the segment file
+     * @return the segment
+     * @throws IOException the io exception
+     */
+    public static MappedSegment open(File file) throws IOException {
+        MappedSegment segment = new MappedSegment(parseId(file.getName()), parseLastId(file.getName()), file,
+            (int)file.length());
+        segment.writePosition = segment.size;
+        return segment;
+    }
+
+    /**
+     * Gets the file name of the segment.
+     *
+     * @param id the segment id
+     * @return the file name
+     */
+    public static String fileName(long id) {
+        return String.format("%020d", id);
+    }
+
+    /**
+     * Gets the file name of the segment compacted from the segments in the range of the ids.
+     *
+     * @param id     the first segment id of the range
+     * @param lastId the last segment id of the range
+     * @return the file name
+     */
+    public static String fileName(long id, long lastId) {
+        return id == lastId ? fileName(id) : fileName(id) + "." + fileName(lastId);
+    }
+
+    /**
+     * Parse the segment id from the file name.
+     *
+     * @param fileName the file name
+     * @return the segment id, -1 if it is not a segment file
+     */
+    public static long parseId(String fileName) {
+        if (fileName.length() == 41 && fileName.charAt(20) == '.' && isDigits(fileName, 21, 41)) {
+            return isDigits(fileName, 0, 20) ? Long.parseLong(fileName.substring(0, 20)) : -1;
+        }
+        return fileName.length() == 20 && isDigits(fileName, 0, 20) ? Long.parseLong(fileName) : -1;
+    }
+
+    /**
+     * Parse the last segment id of the range from the file name.
+     *
+     * @param fileName the file name
+     * @return the last segment id, -1 if it is not a segment file
+     */
+    public static long parseLastId(String fileName) {
+        long id = parseId(fileName);
+        return id >= 0 && fileName.length() == 41 ? Long.parseLong(fileName.substring(21)) : id;
+    }
+
+    private static boolean isDigits(String fileName, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isDigit(fileName.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Append a record, only called by the single writer.
+     *
+     * @param xid  the xid of the record
+     * @param data the record body
+     * @return false if the segment has no room for it
+     */
+    public boolean append(String xid, byte[] data) {
+        if (size - writePosition < RECORD_HEADER_SIZE + data.length) {
+            return false;
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(data, 0, data.length);
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(writePosition + RECORD_HEADER_SIZE);
+        slice.put(data);
+        buffer.putInt(writePosition + 4, (int)crc32.getValue());
+        buffer.putInt(writePosition, data.length);
+        addRecord(writePosition, xid);
+        writePosition += RECORD_HEADER_SIZE + data.length;
+        return true;
+    }
+
+    /**
+     * Gets the bytes of the records of the live sessions, with the record headers.
+     *
+     * @return the byte size
+     */
+    public int liveSize() {
+        return liveSize(liveXids);
+    }
+
+    /**
+     * Gets the bytes of the records of the given live sessions, with the record headers.
+     *
+     * @param liveXids the xids of the live sessions
+     * @return the byte size
+     */
+    public int liveSize(Set<String> liveXids) {
+        int liveSize = 0;
+        for (int i = 0; i < recordCount; i++) {
+            if (isLive(i, liveXids)) {
+                liveSize += recordSize(i);
+            }
+        }
+        return liveSize;
+    }
+
+    /**
+     * Copy the records of the live sessions to the target segment in the written order.
+     *
+     * @param target the target segment
+     */
+    public void copyLiveRecordsTo(MappedSegment target) {
+        copyLiveRecordsTo(target, liveXids);
+    }
+
+    /**
+     * Copy the records of the given live sessions to the target segment in the written order.
+     *
+     * @param target   the target segment
+     * @param liveXids the xids of the live sessions
+     */
+    public void copyLiveRecordsTo(MappedSegment target, Set<String> liveXids) {
+        ByteBuffer reader = buffer.duplicate();
+        for (int i = 0; i < recordCount; i++) {
+            if (isLive(i, liveXids)) {
+                int recordSize = recordSize(i);
+                reader.limit(recordPositions[i] + recordSize).position(recordPositions[i]);
+                ByteBuffer writer = target.buffer.duplicate();
+                writer.position(target.writePosition);
+                writer.put(reader);
+                target.addRecord(target.writePosition, recordXids[i]);
+                target.writePosition += recordSize;
+                target.liveXids.add(recordXids[i]);
+            }
+        }
+    }
+
+    private boolean isLive(int index, Set<String> liveXids) {
+        return recordXids[index] != null && liveXids.contains(recordXids[index]);
+    }
+
+    private int recordSize(int index) {
+        return RECORD_HEADER_SIZE + buffer.getInt(recordPositions[index]);
+    }
+
+    private void addRecord(int position, String xid) {
+        if (recordCount == recordPositions.length) {
+            recordPositions = Arrays.copyOf(recordPositions, recordCount << 1);
+            recordXids = Arrays.copyOf(recordXids, recordCount << 1);
+        }
+        recordPositions[recordCount] = position;
+        recordXids[recordCount++] = xid;
+    }
+
+    /**
+     * Sets the xid of the record read by {@link #readAll()}, it must be called before copying the live records.
+     *
+     * @param index the index of the record
+     * @param xid   the xid
+     */
+    public void setRecordXid(int index, String xid) {
+        recordXids[index] = xid;
+        liveXids.add(xid);
+    }
+
+    /**
+     * Read the bodies of all the valid records, and index their positions.
+     *
+     * @return the record bodies in the written order
+     */
+    public List<byte[]> readAll() {
+        recordCount = 0;
+        List<byte[]> records = new ArrayList<>();
+        ByteBuffer reader = buffer.duplicate();
+        CRC32 crc32 = new CRC32();
+        int position = 0;
+        while (size - position >= RECORD_HEADER_SIZE) {
+            int length = reader.getInt(position);
+            if (length <= 0 || length > size - position - RECORD_HEADER_SIZE) {
+                break;
+            }
+            byte[] data = new byte[length];
+            reader.position(position + RECORD_HEADER_SIZE);
+            reader.get(data);
+            crc32.reset();
+            crc32.update(data, 0, length);
+            if ((int)crc32.getValue() != reader.getInt(position + 4)) {
+                break;
+            }
+            records.add(data);
+            addRecord(position, null);
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return records;
+    }
+
+    /**
+     * Force the written records to the disk, it does nothing after the segment is closed.
+     */
+    public synchronized void flush() {
+        if (!closed) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Move the segment file, replacing the target file atomically.
+     *
+     * @param target the target file
+     * @throws IOException the io exception
+     */
+    public void moveTo(File target) throws IOException {
+        Files.move(file.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+        file = target;
+    }
+
+    /**
+     * Close the file and unmap the memory, instead of waiting for the gc to release it.
+     *
+     * @throws IOException the io exception
+     */
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            raf.close();
+        } finally {
+            unmap(buffer);
+        }
+    }
+
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException e) {
+                // jdk 8
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+                return;
+            }
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+        } catch (Exception e) {
+            LOGGER.warn("unmap segment buffer failed, it is released by the gc, {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Close and delete the file.
+     *
+     * @throws IOException the io exception
+     */
+    public void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file.toPath());
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the last segment id of the range the segment is compacted from, it is the id if not compacted.
+     *
+     * @return the last segment id
+     */
+    public long getLastId() {
+        return lastId;
+    }
+
+    public int getWritePosition() {
+        return writePosition;
+    }
+
+    /**
+     * Gets the xids of the live sessions having records in the segment.
+     *
+     * @return the live xids
+     */
+    public Set<String> getLiveXids() {
+        return liveXids;
+    }
+}
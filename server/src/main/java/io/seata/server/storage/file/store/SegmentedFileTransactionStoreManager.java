@@ -0,0 +1,751 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.storage.file.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.seata.common.exception.StoreException;
+import io.seata.common.thread.NamedThreadFactory;
+import io.seata.server.session.BranchSession;
+import io.seata.server.session.GlobalSession;
+import io.seata.server.session.SessionCondition;
+import io.seata.server.session.SessionManager;
+import io.seata.server.storage.file.FlushDiskMode;
+import io.seata.server.storage.file.SegmentReloadableStore;
+import io.seata.server.storage.file.TransactionWriteStore;
+import io.seata.server.store.AbstractTransactionStoreManager;
+import io.seata.server.store.SessionStorable;
+import io.seata.server.store.StoreConfig;
+import io.seata.server.store.TransactionStoreManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The file transaction store manager appending to the memory mapped segments.
+ * <p>
+ * The records are appended to the active segment, a full segment is sealed and a new one is created.
+ * The oldest sealed segments are deleted when none of their sessions is live. When there are too many sealed
+ * segments, the records of the live sessions in the oldest ones are merged into fewer segments in the written
+ * order. The records are only dropped from the oldest segments, so the remove record of a session is never
+ * dropped while the older records of the session are kept.
+ * The compaction runs on a background thread with a snapshot of the live sessions, the writers are only blocked
+ * while the compacted segments replace the sealed ones. The merged segments are kept until the compacted ones
+ * are committed by renaming them to the range of the merged ids, and a committed segment supersedes the merged
+ * ones left by a crash on the reload.
+ * The data files of the {@link FileTransactionStoreManager} are reloaded before the segments,
+ * and the sessions in them are moved into the segments after the reload.
+ *
+ * @author wang.liang
+ */
+public class SegmentedFileTransactionStoreManager extends AbstractTransactionStoreManager
+    implements TransactionStoreManager, SegmentReloadableStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SegmentedFileTransactionStoreManager.class);
+
+    private static final String SEGMENT_DIR_POSTFIX = ".segments";
+
+    private static final String HIS_DATA_FILENAME_POSTFIX = ".1";
+
+    private static final String COMPACT_FILENAME_POSTFIX = ".compact";
+
+    private static final int MAX_FLUSH_NUM = 10;
+
+    private static final int MAX_FLUSH_TIME_MILLS = 2 * 1000;
+
+    private static final int MAX_WAIT_FOR_FLUSH_TIME_MILLS = 2 * 1000;
+
+    private static final int MAX_WAIT_FOR_COMPACT_TIME_MILLS = 10 * 1000;
+
+    private static final FlushDiskMode FLUSH_DISK_MODE = StoreConfig.getFlushDiskMode();
+
+    private final SessionManager sessionManager;
+
+    private final File currDataFile;
+
+    private final File hisDataFile;
+
+    private final File segmentDir;
+
+    private final int segmentSize;
+
+    private final int maxSealedSegments;
+
+    private final Map<Long, MappedSegment> reloadSegments = new TreeMap<>();
+
+    private final Deque<MappedSegment> sealedSegments = new ArrayDeque<>();
+
+    private final ReentrantLock writeSessionLock = new ReentrantLock();
+
+    private final Object flushMonitor = new Object();
+
+    private final Thread flushThread;
+
+    private final ThreadPoolExecutor compactExecutor;
+
+    private MappedSegment activeSegment;
+
+    private long writeSequence;
+
+    private volatile long flushedSequence;
+
+    private boolean flushRequested;
+
+    private volatile boolean reloaded;
+
+    private volatile boolean stopping;
+
+    private boolean compacting;
+
+    private boolean closed;
+
+    private long recoverCurrOffset;
+
+    private long recoverHisOffset;
+
+    /**
+     * Instantiates a new Segmented file transaction store manager.
+     *
+     * @param fullFileName   the full file name
+     * @param sessionManager the session manager
+     * @throws IOException the io exception
+     */
+    public SegmentedFileTransactionStoreManager(String fullFileName, SessionManager sessionManager)
+        throws IOException {
+        this(fullFileName, sessionManager, StoreConfig.getFileSegmentSize());
+    }
+
+    /**
+     * Instantiates a new Segmented file transaction store manager.
+     *
+     * @param fullFileName   the full file name
+     * @param sessionManager the session manager
+     * @param segmentSize    the segment size
+     * @throws IOException the io exception
+     */
+    public SegmentedFileTransactionStoreManager(String fullFileName, SessionManager sessionManager, int segmentSize)
+        throws IOException {
+        this(fullFileName, sessionManager, segmentSize, StoreConfig.getFileMaxSealedSegments());
+    }
+
+    /**
+     * Instantiates a new Segmented file transaction store manager.
+     *
+     * @param fullFileName      the full file name
+     * @param sessionManager    the session manager
+     * @param segmentSize       the segment size
+     * @param maxSealedSegments the max count of the sealed segments before the compaction
+     * @throws IOException the io exception
+     */
+    public SegmentedFileTransactionStoreManager(String fullFileName, SessionManager sessionManager, int segmentSize,
+                                                int maxSealedSegments) throws IOException {
+        this.sessionManager = sessionManager;
+        this.currDataFile = new File(fullFileName);
+        this.hisDataFile = new File(fullFileName + HIS_DATA_FILENAME_POSTFIX);
+        this.segmentDir = new File(fullFileName + SEGMENT_DIR_POSTFIX);
+        this.segmentSize = segmentSize;
+        this.maxSealedSegments = maxSealedSegments;
+        if (!segmentDir.exists() && !segmentDir.mkdirs()) {
+            throw new IOException("create segment dir failed: " + segmentDir.getAbsolutePath());
+        }
+        long lastSegmentId = -1;
+        for (File file : listSegmentFiles()) {
+            if (MappedSegment.parseId(file.getName()) <= lastSegmentId) {
+                // superseded by the committed compacted segment before it is deleted
+                Files.deleteIfExists(file.toPath());
+                continue;
+            }
+            MappedSegment segment = MappedSegment.open(file);
+            reloadSegments.put(segment.getId(), segment);
+            sealedSegments.addLast(segment);
+            lastSegmentId = segment.getLastId();
+        }
+        this.activeSegment = newSegment(lastSegmentId + 1);
+        this.flushThread = new NamedThreadFactory("segmentFileFlush", 1, true).newThread(this::flushLoop);
+        flushThread.start();
+        // one running compaction and one pending request at most, the others are merged into the pending one
+        this.compactExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+            new NamedThreadFactory("segmentFileCompact", 1, true), new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * List the segment files ordered by the id, and the wider range first for the same id.
+     */
+    private List<File> listSegmentFiles() throws IOException {
+        List<File> segmentFiles = new ArrayList<>();
+        File[] files = segmentDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(COMPACT_FILENAME_POSTFIX)) {
+                    // the compaction is not committed before the restart
+                    Files.deleteIfExists(file.toPath());
+                } else if (MappedSegment.parseId(file.getName()) >= 0) {
+                    segmentFiles.add(file);
+                }
+            }
+        }
+        segmentFiles.sort(Comparator.<File>comparingLong(file -> MappedSegment.parseId(file.getName()))
+            .thenComparing(Comparator.<File>comparingLong(file -> MappedSegment.parseLastId(file.getName())).reversed()));
+        return segmentFiles;
+    }
+
+    @Override
+    public boolean writeSession(LogOperation logOperation, SessionStorable session) {
+        long sequence;
+        writeSessionLock.lock();
+        try {
+            String xid = session instanceof GlobalSession ? ((GlobalSession)session).getXid()
+                : ((BranchSession)session).getXid();
+            if (!append(xid, new TransactionWriteStore(session, logOperation).encode())) {
+                return false;
+            }
+            if (logOperation == LogOperation.GLOBAL_REMOVE) {
+                release(xid);
+            }
+            sequence = ++writeSequence;
+        } catch (Exception exx) {
+            LOGGER.error("writeSession error, {}", exx.getMessage(), exx);
+            return false;
+        } finally {
+            writeSessionLock.unlock();
+        }
+        if (FLUSH_DISK_MODE == FlushDiskMode.SYNC_MODEL) {
+            waitForFlush(sequence);
+        } else if (sequence - flushedSequence >= MAX_FLUSH_NUM) {
+            requestFlush();
+        }
+        return true;
+    }
+
+    /**
+     * Append the sessions under one lock and wait for one flush.
+     */
+    @Override
+    public boolean writeSessions(LogOperation logOperation, List<? extends SessionStorable> sessions) {
+        if (sessions.size() <= 1) {
+            return TransactionStoreManager.super.writeSessions(logOperation, sessions);
+        }
+        long sequence;
+        writeSessionLock.lock();
+        try {
+            for (SessionStorable session : sessions) {
+                String xid = session instanceof GlobalSession ? ((GlobalSession)session).getXid()
+                    : ((BranchSession)session).getXid();
+                if (!append(xid, new TransactionWriteStore(session, logOperation).encode())) {
+                    return false;
+                }
+                if (logOperation == LogOperation.GLOBAL_REMOVE) {
+                    release(xid);
+                }
+            }
+            writeSequence += sessions.size();
+            sequence = writeSequence;
+        } catch (Exception exx) {
+            LOGGER.error("writeSessions error, {}", exx.getMessage(), exx);
+            return false;
+        } finally {
+            writeSessionLock.unlock();
+        }
+        if (FLUSH_DISK_MODE == FlushDiskMode.SYNC_MODEL) {
+            waitForFlush(sequence);
+        } else if (sequence - flushedSequence >= MAX_FLUSH_NUM) {
+            requestFlush();
+        }
+        return true;
+    }
+
+    private boolean append(String xid, byte[] data) throws IOException {
+        if (closed) {
+            LOGGER.error("the segments are closed, the session {} is not written", xid);
+            return false;
+        }
+        if (MappedSegment.RECORD_HEADER_SIZE + data.length > segmentSize) {
+            LOGGER.error("the session data size {} is larger than the segment size {}", data.length, segmentSize);
+            return false;
+        }
+        if (!activeSegment.append(xid, data)) {
+            MappedSegment sealed = activeSegment;
+            sealed.flush();
+            activeSegment = newSegment(sealed.getId() + 1);
+            sealedSegments.addLast(sealed);
+            activeSegment.append(xid, data);
+            requestCompact();
+        }
+        activeSegment.getLiveXids().add(xid);
+        return true;
+    }
+
+    private MappedSegment newSegment(long segmentId) throws IOException {
+        return MappedSegment.create(new File(segmentDir, MappedSegment.fileName(segmentId)), segmentId, segmentSize);
+    }
+
+    private void release(String xid) {
+        activeSegment.getLiveXids().remove(xid);
+        for (MappedSegment segment : sealedSegments) {
+            segment.getLiveXids().remove(xid);
+        }
+        deleteDeadSegments();
+    }
+
+    private void requestCompact() {
+        if (reloaded) {
+            compactExecutor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Compact the sealed segments on the compact thread. The live sessions of the sealed segments are copied
+     * under the lock, and the segments are merged with the copy, so a session ended during the merge is still
+     * merged as a live one, and its remove record in the newer segments is kept.
+     * The sealed segments are neither closed nor deleted until the compacted ones replace them, and only
+     * the compact thread reads them.
+     */
+    private void compact() {
+        List<MappedSegment> segments;
+        Map<MappedSegment, Set<String>> liveXids = new IdentityHashMap<>();
+        writeSessionLock.lock();
+        try {
+            if (!reloaded || compacting || closed) {
+                return;
+            }
+            deleteDeadSegments();
+            if (sealedSegments.size() <= maxSealedSegments) {
+                return;
+            }
+            segments = new ArrayList<>(sealedSegments);
+            for (MappedSegment segment : segments) {
+                liveXids.put(segment, new HashSet<>(segment.getLiveXids()));
+            }
+            compacting = true;
+        } finally {
+            writeSessionLock.unlock();
+        }
+        List<MappedSegment> compacted = null;
+        try {
+            compacted = merge(segments, liveXids);
+            commit(segments, compacted);
+        } catch (Exception exx) {
+            LOGGER.error("compact segments error, {}", exx.getMessage(), exx);
+            compacted = null;
+        }
+        writeSessionLock.lock();
+        try {
+            if (compacted != null) {
+                replaceSealedSegments(segments, compacted);
+            }
+            compacting = false;
+            deleteDeadSegments();
+        } finally {
+            writeSessionLock.unlock();
+        }
+        if (compacted != null) {
+            releaseMergedSegments(segments, compacted);
+        }
+    }
+
+    /**
+     * Merge the live records of the oldest two sealed segments into a compacted one. If they do not fit
+     * in one segment, the older one only keeps its live records, and the next two are merged.
+     * All the segments before the merged ones only have live records, so dropping the records of
+     * the ended sessions is safe. The sealed segments are not changed, the compacted ones are the temp files,
+     * which are deleted if the merge fails.
+     */
+    private List<MappedSegment> merge(List<MappedSegment> sealed, Map<MappedSegment, Set<String>> liveXids)
+        throws IOException {
+        List<MappedSegment> segments = new ArrayList<>(sealed);
+        List<MappedSegment> created = new ArrayList<>();
+        try {
+            int index = 0;
+            while (segments.size() > maxSealedSegments && index + 1 < segments.size()) {
+                MappedSegment older = segments.get(index);
+                MappedSegment newer = segments.get(index + 1);
+                boolean olderCreated = containsSegment(created, older);
+                Set<String> olderLiveXids = liveXids.getOrDefault(older, older.getLiveXids());
+                Set<String> newerLiveXids = liveXids.get(newer);
+                int olderLiveSize = olderLiveXids.isEmpty() ? 0 : older.liveSize(olderLiveXids);
+                int newerLiveSize = newerLiveXids.isEmpty() ? 0 : newer.liveSize(newerLiveXids);
+                if (olderLiveSize + newerLiveSize <= segmentSize) {
+                    MappedSegment compacted = rewrite(older, olderLiveXids, newer, newerLiveXids,
+                        olderLiveSize + newerLiveSize);
+                    created.add(compacted);
+                    segments.set(index, compacted);
+                    segments.remove(index + 1);
+                    if (olderCreated) {
+                        // the temp segment is merged into the new one
+                        created.remove(older);
+                        older.delete();
+                    }
+                } else {
+                    if (!olderCreated) {
+                        MappedSegment compacted = rewrite(older, olderLiveXids, null, null, olderLiveSize);
+                        created.add(compacted);
+                        segments.set(index, compacted);
+                    }
+                    index++;
+                }
+            }
+            return segments;
+        } catch (IOException exx) {
+            for (MappedSegment segment : created) {
+                deleteQuietly(segment);
+            }
+            throw exx;
+        }
+    }
+
+    private MappedSegment rewrite(MappedSegment older, Set<String> olderLiveXids, MappedSegment newer,
+                                  Set<String> newerLiveXids, int liveSize) throws IOException {
+        long lastId = newer != null ? newer.getLastId() : older.getLastId();
+        MappedSegment compacted = MappedSegment.create(new File(segmentDir,
+            MappedSegment.fileName(older.getId(), lastId) + COMPACT_FILENAME_POSTFIX), older.getId(), lastId, liveSize);
+        older.copyLiveRecordsTo(compacted, olderLiveXids);
+        if (newer != null) {
+            newer.copyLiveRecordsTo(compacted, newerLiveXids);
+        }
+        compacted.flush();
+        return compacted;
+    }
+
+    /**
+     * Commit the compacted segments from the oldest one, by renaming each temp file to the range of the merged ids.
+     * A committed segment with the range of a single sealed segment replaces its file, the others are kept
+     * with the merged ones until they are deleted, and supersede them on the reload.
+     * If a rename fails, the committed segments with the new ranges are deleted with the temp files.
+     */
+    private void commit(List<MappedSegment> merged, List<MappedSegment> compacted) throws IOException {
+        List<MappedSegment> committed = new ArrayList<>();
+        try {
+            for (MappedSegment segment : compacted) {
+                if (!containsSegment(merged, segment)) {
+                    segment.moveTo(new File(segmentDir, MappedSegment.fileName(segment.getId(), segment.getLastId())));
+                    committed.add(segment);
+                }
+            }
+        } catch (IOException exx) {
+            for (MappedSegment segment : compacted) {
+                if (containsSegment(merged, segment)) {
+                    continue;
+                }
+                if (containsSegment(committed, segment) && findSameRange(merged, segment) != null) {
+                    // the file of the sealed segment is replaced by a valid compaction of it
+                    segment.close();
+                } else {
+                    deleteQuietly(segment);
+                }
+            }
+            throw exx;
+        }
+    }
+
+    /**
+     * Replace the merged sealed segments at the head with the compacted ones. A compacted segment only keeps
+     * the sessions still live in the merged segments, the others are ended during the merge.
+     */
+    private void replaceSealedSegments(List<MappedSegment> merged, List<MappedSegment> compacted) {
+        Set<String> liveXids = new HashSet<>();
+        for (MappedSegment segment : merged) {
+            liveXids.addAll(segment.getLiveXids());
+            sealedSegments.pollFirst();
+        }
+        for (int i = compacted.size() - 1; i >= 0; i--) {
+            MappedSegment segment = compacted.get(i);
+            segment.getLiveXids().retainAll(liveXids);
+            sealedSegments.addFirst(segment);
+        }
+    }
+
+    /**
+     * Close the merged segments replaced by the compacted ones, and delete their files unless a compacted one
+     * with the same range has replaced the file.
+     */
+    private void releaseMergedSegments(List<MappedSegment> merged, List<MappedSegment> compacted) {
+        for (MappedSegment segment : merged) {
+            if (containsSegment(compacted, segment)) {
+                continue;
+            }
+            try {
+                if (findSameRange(compacted, segment) != null) {
+                    segment.close();
+                } else {
+                    segment.delete();
+                }
+            } catch (IOException exx) {
+                LOGGER.error("release segment {} error, {}", segment.getId(), exx.getMessage(), exx);
+            }
+        }
+    }
+
+    private static MappedSegment findSameRange(List<MappedSegment> segments, MappedSegment target) {
+        for (MappedSegment segment : segments) {
+            if (segment != target && segment.getId() == target.getId() && segment.getLastId() == target.getLastId()) {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    private static boolean containsSegment(List<MappedSegment> segments, MappedSegment target) {
+        for (MappedSegment segment : segments) {
+            if (segment == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void deleteQuietly(MappedSegment segment) {
+        try {
+            segment.delete();
+        } catch (IOException exx) {
+            LOGGER.error("delete segment {} error, {}", segment.getId(), exx.getMessage(), exx);
+        }
+    }
+
+    private void writeSnapshot(GlobalSession globalSession) throws IOException {
+        String xid = globalSession.getXid();
+        append(xid, new TransactionWriteStore(globalSession, LogOperation.GLOBAL_ADD).encode());
+        for (BranchSession branchSession : globalSession.getSortedBranches()) {
+            append(xid, new TransactionWriteStore(branchSession, LogOperation.BRANCH_ADD).encode());
+        }
+    }
+
+    /**
+     * Delete the oldest sealed segments without live sessions, a newer one is kept even if none of its sessions
+     * is live, because it may have the remove records of the sessions in the older segments.
+     * They are deleted after the compaction if it is running.
+     */
+    private void deleteDeadSegments() {
+        if (!reloaded || compacting) {
+            return;
+        }
+        while (!sealedSegments.isEmpty() && sealedSegments.peekFirst().getLiveXids().isEmpty()) {
+            MappedSegment segment = sealedSegments.pollFirst();
+            try {
+                segment.delete();
+            } catch (IOException exx) {
+                LOGGER.error("delete segment {} error, {}", segment.getId(), exx.getMessage(), exx);
+            }
+        }
+    }
+
+    @Override
+    public List<Long> getSegmentIds() {
+        return new ArrayList<>(reloadSegments.keySet());
+    }
+
+    @Override
+    public List<TransactionWriteStore> readSegment(long segmentId) {
+        MappedSegment segment = reloadSegments.get(segmentId);
+        if (segment == null) {
+            return Collections.emptyList();
+        }
+        List<byte[]> records = segment.readAll();
+        List<TransactionWriteStore> transactionWriteStores = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            TransactionWriteStore writeStore = new TransactionWriteStore();
+            try {
+                writeStore.decode(record);
+            } catch (Exception ex) {
+                LOGGER.error("decode segment {} error:{}", segmentId, ex.getMessage(), ex);
+                break;
+            }
+            SessionStorable session = writeStore.getSessionRequest();
+            segment.setRecordXid(transactionWriteStores.size(), session instanceof GlobalSession
+                ? ((GlobalSession)session).getXid() : ((BranchSession)session).getXid());
+            transactionWriteStores.add(writeStore);
+        }
+        return transactionWriteStores;
+    }
+
+    @Override
+    public void afterReload() {
+        writeSessionLock.lock();
+        try {
+            if (sessionManager != null) {
+                if (currDataFile.exists() || hisDataFile.exists()) {
+                    for (GlobalSession globalSession : sessionManager.allSessions()) {
+                        writeSnapshot(globalSession);
+                    }
+                    activeSegment.flush();
+                    Files.deleteIfExists(hisDataFile.toPath());
+                    Files.deleteIfExists(currDataFile.toPath());
+                }
+                for (MappedSegment segment : sealedSegments) {
+                    segment.getLiveXids().removeIf(xid -> sessionManager.findGlobalSession(xid) == null);
+                }
+            }
+            reloaded = true;
+            reloadSegments.clear();
+            requestCompact();
+        } catch (Exception exx) {
+            throw new StoreException(exx);
+        } finally {
+            writeSessionLock.unlock();
+        }
+    }
+
+    @Override
+    public List<TransactionWriteStore> readWriteStore(int readSize, boolean isHistory) {
+        File file = isHistory ? hisDataFile : currDataFile;
+        if (!file.exists()) {
+            return null;
+        }
+        List<TransactionWriteStore> transactionWriteStores = new ArrayList<>(readSize);
+        try {
+            long nextOffset = FileTransactionStoreManager.readDataFile(file, readSize,
+                isHistory ? recoverHisOffset : recoverCurrOffset, transactionWriteStores);
+            if (isHistory) {
+                recoverHisOffset = nextOffset;
+            } else {
+                recoverCurrOffset = nextOffset;
+            }
+            return transactionWriteStores;
+        } catch (IOException exx) {
+            LOGGER.error("parse data file error:{},file:{}", exx.getMessage(), file.getName(), exx);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean hasRemaining(boolean isHistory) {
+        File file = isHistory ? hisDataFile : currDataFile;
+        return file.exists() && (isHistory ? recoverHisOffset : recoverCurrOffset) < file.length();
+    }
+
+    private void requestFlush() {
+        synchronized (flushMonitor) {
+            flushRequested = true;
+            flushMonitor.notifyAll();
+        }
+    }
+
+    private void waitForFlush(long sequence) {
+        long deadline = System.currentTimeMillis() + MAX_WAIT_FOR_FLUSH_TIME_MILLS;
+        synchronized (flushMonitor) {
+            flushRequested = true;
+            flushMonitor.notifyAll();
+            long waitMills;
+            while (flushedSequence < sequence && (waitMills = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    flushMonitor.wait(waitMills);
+                } catch (InterruptedException e) {
+                    LOGGER.error("Interrupted", e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (!stopping) {
+            try {
+                synchronized (flushMonitor) {
+                    if (!flushRequested) {
+                        flushMonitor.wait(MAX_FLUSH_TIME_MILLS);
+                    }
+                    flushRequested = false;
+                }
+                flush();
+            } catch (InterruptedException e) {
+                LOGGER.error("Interrupted", e);
+                return;
+            } catch (Exception exx) {
+                LOGGER.error("flush segment error: {}", exx.getMessage(), exx);
+            }
+        }
+    }
+
+    /**
+     * Force the active segment, a sealed segment is forced when it is sealed.
+     */
+    private void flush() {
+        MappedSegment segment;
+        long sequence;
+        writeSessionLock.lock();
+        try {
+            segment = activeSegment;
+            sequence = writeSequence;
+        } finally {
+            writeSessionLock.unlock();
+        }
+        if (sequence > flushedSequence) {
+            segment.flush();
+            synchronized (flushMonitor) {
+                flushedSequence = sequence;
+                flushMonitor.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public GlobalSession readSession(String xid) {
+        throw new StoreException("unsupport for read from file, xid:" + xid);
+    }
+
+    @Override
+    public List<GlobalSession> readSession(SessionCondition sessionCondition) {
+        throw new StoreException("unsupport for read from file");
+    }
+
+    @Override
+    public void shutdown() {
+        stopping = true;
+        requestFlush();
+        try {
+            flushThread.join(MAX_WAIT_FOR_FLUSH_TIME_MILLS);
+        } catch (InterruptedException ignore) {
+        }
+        compactExecutor.shutdown();
+        try {
+            compactExecutor.awaitTermination(MAX_WAIT_FOR_COMPACT_TIME_MILLS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ignore) {
+        }
+        writeSessionLock.lock();
+        try {
+            closed = true;
+            activeSegment.flush();
+            activeSegment.close();
+            if (compacting) {
+                // the compact thread is still reading the sealed segments, they are released by the gc
+                LOGGER.warn("the segment compaction is not finished before the shutdown");
+                return;
+            }
+            for (MappedSegment segment : sealedSegments) {
+                segment.close();
+            }
+        } catch (IOException exx) {
+            LOGGER.error("segment close error{}", exx.getMessage(), exx);
+        } finally {
+            writeSessionLock.unlock();
+        }
+    }
+}
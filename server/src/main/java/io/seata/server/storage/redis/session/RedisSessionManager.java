@@ -16,6 +16,7 @@
 package io.seata.server.storage.redis.session;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import io.seata.common.exception.StoreException;
 import io.seata.common.executor.Initialize;
@@ -51,6 +52,11 @@ public class RedisSessionManager extends AbstractSessionManager
      */
     protected String taskName;
 
+    /**
+     * The session condition of the task, read by the task thread only.
+     */
+    private SessionCondition taskSessionCondition;
+
     /**
      * Instantiates a new Data base session manager.
      */
@@ -150,6 +156,18 @@ public class RedisSessionManager extends AbstractSessionManager
         }
     }
 
+    @Override
+    public void removeBranchSessions(GlobalSession globalSession, List<BranchSession> branchSessions)
+        throws TransactionException {
+        if (!StringUtils.isEmpty(taskName)) {
+            return;
+        }
+        boolean ret = transactionStoreManager.writeSessions(LogOperation.BRANCH_REMOVE, branchSessions);
+        if (!ret) {
+            throw new StoreException("removeBranchSessions failed.");
+        }
+    }
+
     @Override
     public GlobalSession findGlobalSession(String xid) {
         return this.findGlobalSession(xid, true);
@@ -164,12 +182,12 @@ public class RedisSessionManager extends AbstractSessionManager
     public Collection<GlobalSession> allSessions() {
         // get by taskName
         if (SessionHolder.ASYNC_COMMITTING_SESSION_MANAGER_NAME.equalsIgnoreCase(taskName)) {
-            return findGlobalSessions(new SessionCondition(GlobalStatus.AsyncCommitting));
+            return findTaskSessions(GlobalStatus.AsyncCommitting);
         } else if (SessionHolder.RETRY_COMMITTING_SESSION_MANAGER_NAME.equalsIgnoreCase(taskName)) {
-            return findGlobalSessions(new SessionCondition(new GlobalStatus[] {GlobalStatus.CommitRetrying, GlobalStatus.Committing}));
+            return findTaskSessions(GlobalStatus.CommitRetrying, GlobalStatus.Committing);
         } else if (SessionHolder.RETRY_ROLLBACKING_SESSION_MANAGER_NAME.equalsIgnoreCase(taskName)) {
-            return findGlobalSessions(new SessionCondition(new GlobalStatus[] {GlobalStatus.RollbackRetrying,
-                GlobalStatus.Rollbacking, GlobalStatus.TimeoutRollbacking, GlobalStatus.TimeoutRollbackRetrying}));
+            return findTaskSessions(GlobalStatus.RollbackRetrying, GlobalStatus.Rollbacking,
+                GlobalStatus.TimeoutRollbacking, GlobalStatus.TimeoutRollbackRetrying);
         } else {
             // all data
             return findGlobalSessions(new SessionCondition(new GlobalStatus[] {GlobalStatus.UnKnown, GlobalStatus.Begin,
@@ -179,6 +197,21 @@ public class RedisSessionManager extends AbstractSessionManager
         }
     }
 
+    /**
+     * The task reads its sessions page by page, the condition of the task keeps where the last read stopped.
+     *
+     * @param statuses the statuses of the task
+     * @return the global sessions
+     */
+    private List<GlobalSession> findTaskSessions(GlobalStatus... statuses) {
+        if (taskSessionCondition == null) {
+            // every tick of the retry task reads one page
+            taskSessionCondition = new SessionCondition(statuses);
+            taskSessionCondition.setPagingToken(new HashMap<>(statuses.length));
+        }
+        return findGlobalSessions(taskSessionCondition);
+    }
+
     @Override
     public List<GlobalSession> findGlobalSessions(SessionCondition condition) {
         // nothing need to do
@@ -19,9 +19,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -35,9 +38,12 @@ import io.seata.common.util.StringUtils;
 import io.seata.common.exception.RedisException;
 import io.seata.common.util.BeanUtils;
 import io.seata.common.XID;
+import io.seata.config.ConfigurationFactory;
+import io.seata.core.constants.ConfigurationKeys;
 import io.seata.core.model.GlobalStatus;
 import io.seata.core.store.BranchTransactionDO;
 import io.seata.core.store.GlobalTransactionDO;
+import io.seata.server.session.BranchSession;
 import io.seata.server.session.GlobalSession;
 import io.seata.server.session.SessionCondition;
 import io.seata.server.storage.SessionConverter;
@@ -49,6 +55,7 @@ import io.seata.server.store.TransactionStoreManager;
 import static io.seata.core.constants.RedisKeyConstants.REDIS_KEY_BRANCH_GMT_MODIFIED;
 import static io.seata.core.constants.RedisKeyConstants.REDIS_KEY_BRANCH_STATUS;
 import static io.seata.core.constants.RedisKeyConstants.REDIS_KEY_BRANCH_XID;
+import static io.seata.core.constants.RedisKeyConstants.REDIS_KEY_GLOBAL_BEGIN_TIME;
 import static io.seata.core.constants.RedisKeyConstants.REDIS_KEY_GLOBAL_GMT_MODIFIED;
 import static io.seata.core.constants.RedisKeyConstants.REDIS_KEY_GLOBAL_STATUS;
 import static io.seata.core.constants.RedisKeyConstants.REDIS_KEY_GLOBAL_XID;
@@ -73,13 +80,48 @@ public class RedisTransactionStoreManager extends AbstractTransactionStoreManage
     /**the prefix of the global transaction*/
     private static final String REDIS_SEATA_GLOBAL_PREFIX = "SEATA_GLOBAL_";
 
-    /**the prefix of the global transaction status*/
+    /**the prefix of the global transaction status list, the status index of the previous versions*/
     private static final String REDIS_SEATA_STATUS_PREFIX = "SEATA_STATUS_";
 
+    /**the prefix of the global transaction status index, a sorted set ordered by the begin time*/
+    private static final String REDIS_SEATA_STATUS_INDEX_PREFIX = "SEATA_STATUS_INDEX_";
+
+    /**the width of the zero padded begin time in the status index member*/
+    private static final int BEGIN_TIME_WIDTH = 19;
+
+    private static final int DEFAULT_QUERY_LIMIT = 100;
+
+    private static final boolean DEFAULT_STATUS_LIST_COMPATIBLE = false;
+
+    /**the xids popped from a status list at a time when it is migrated*/
+    private static final int MIGRATE_BATCH_SIZE = 100;
+
     private static volatile RedisTransactionStoreManager instance;
 
     private static final String OK = "OK";
 
+    /**the max global sessions read by status at a time*/
+    private final int queryLimit;
+
+    /**
+     * whether the status lists are still written and read, it is on while the servers of the previous versions
+     * are running, which only know the status lists
+     */
+    private final boolean statusListCompatible;
+
+    /**
+     * Instantiates a new Redis transaction store manager.
+     */
+    private RedisTransactionStoreManager() {
+        queryLimit = Math.max(1, ConfigurationFactory.getInstance().getInt(ConfigurationKeys.STORE_REDIS_QUERY_LIMIT,
+            DEFAULT_QUERY_LIMIT));
+        statusListCompatible = ConfigurationFactory.getInstance().getBoolean(
+            ConfigurationKeys.STORE_REDIS_STATUS_LIST_COMPATIBLE, DEFAULT_STATUS_LIST_COMPATIBLE);
+        if (!statusListCompatible) {
+            migrateStatusLists();
+        }
+    }
+
     /**
      * Get the instance.
      */
@@ -113,6 +155,14 @@ public class RedisTransactionStoreManager extends AbstractTransactionStoreManage
         }
     }
 
+    @Override
+    public boolean writeSessions(LogOperation logOperation, List<? extends SessionStorable> sessions) {
+        if (LogOperation.BRANCH_REMOVE.equals(logOperation) && sessions.size() > 1) {
+            return deleteBranchTransactionDOs(((BranchSession)sessions.get(0)).getXid(), sessions);
+        }
+        return TransactionStoreManager.super.writeSessions(logOperation, sessions);
+    }
+
     /**
      * Insert branch transaction
      * @param branchTransactionDO
@@ -158,6 +208,28 @@ public class RedisTransactionStoreManager extends AbstractTransactionStoreManage
         }
     }
 
+    /**
+     * Delete the branch transactions of the global transaction in one pipeline
+     * @param xid
+     * @param branchSessions
+     * @return the boolean
+     */
+    private boolean deleteBranchTransactionDOs(String xid, List<? extends SessionStorable> branchSessions) {
+        String branchListKey = buildBranchListKeyByXid(xid);
+        try (Jedis jedis = JedisPooledFactory.getJedisInstance()) {
+            Pipeline pipelined = jedis.pipelined();
+            for (SessionStorable branchSession : branchSessions) {
+                String branchKey = buildBranchKey(((BranchSession)branchSession).getBranchId());
+                pipelined.lrem(branchListKey, 0, branchKey);
+                pipelined.del(branchKey);
+            }
+            pipelined.sync();
+            return true;
+        } catch (Exception ex) {
+            throw new RedisException(ex);
+        }
+    }
+
     /**
      * Update the branch transaction
      * @param branchTransactionDO
@@ -196,7 +268,11 @@ public class RedisTransactionStoreManager extends AbstractTransactionStoreManage
             globalTransactionDO.setGmtModified(now);
             Pipeline pipelined = jedis.pipelined();
             pipelined.hmset(globalKey, BeanUtils.objectToMap(globalTransactionDO));
-            pipelined.rpush(buildGlobalStatus(globalTransactionDO.getStatus()), globalTransactionDO.getXid());
+            pipelined.zadd(buildGlobalStatusIndex(globalTransactionDO.getStatus()), 0,
+                buildStatusMember(globalTransactionDO.getBeginTime(), globalTransactionDO.getXid()));
+            if (statusListCompatible) {
+                pipelined.rpush(buildGlobalStatus(globalTransactionDO.getStatus()), globalTransactionDO.getXid());
+            }
             pipelined.sync();
             return true;
         } catch (Exception ex) {
@@ -208,7 +284,7 @@ public class RedisTransactionStoreManager extends AbstractTransactionStoreManage
      * Delete the global transaction.
      * It will operate two parts:
      *  1.delete the global session map
-     *  2.remove the xid from the global status list
+     *  2.remove the xid from the global status index
      * If the operate failed,the succeed operates will rollback
      * @param globalTransactionDO
      * @return
@@ -223,7 +299,11 @@ public class RedisTransactionStoreManager extends AbstractTransactionStoreManage
                 return true;
             }
             Pipeline pipelined = jedis.pipelined();
-            pipelined.lrem(buildGlobalStatus(globalTransactionDO.getStatus()), 0, globalTransactionDO.getXid());
+            pipelined.zrem(buildGlobalStatusIndex(globalTransactionDO.getStatus()),
+                buildStatusMember(globalTransactionDO.getBeginTime(), globalTransactionDO.getXid()));
+            if (statusListCompatible) {
+                pipelined.lrem(buildGlobalStatus(globalTransactionDO.getStatus()), 0, globalTransactionDO.getXid());
+            }
             pipelined.del(globalKey);
             pipelined.sync();
             return true;
@@ -236,7 +316,7 @@ public class RedisTransactionStoreManager extends AbstractTransactionStoreManage
      * Update the global transaction.
      * It will update two parts:
      *  1.the global session map
-     *  2.the global status list
+     *  2.the global status index
      * If the update failed,the succeed operates will rollback
      * @param globalTransactionDO
      * @return
@@ -247,7 +327,8 @@ public class RedisTransactionStoreManager extends AbstractTransactionStoreManage
         try (Jedis jedis = JedisPooledFactory.getJedisInstance()) {
             // Defensive watch to prevent other TC server operating concurrently,Fail fast
             jedis.watch(globalKey);
-            List<String> statusAndGmtModified = jedis.hmget(globalKey, REDIS_KEY_GLOBAL_STATUS, REDIS_KEY_GLOBAL_GMT_MODIFIED);
+            List<String> statusAndGmtModified = jedis.hmget(globalKey, REDIS_KEY_GLOBAL_STATUS,
+                REDIS_KEY_GLOBAL_GMT_MODIFIED, REDIS_KEY_GLOBAL_BEGIN_TIME);
             String previousStatus = statusAndGmtModified.get(0);
             if (StringUtils.isEmpty(previousStatus)) {
                 jedis.unwatch();
@@ -259,18 +340,26 @@ public class RedisTransactionStoreManager extends AbstractTransactionStoreManage
             }
 
             String previousGmtModified = statusAndGmtModified.get(1);
+            String member = buildStatusMember(Long.parseLong(statusAndGmtModified.get(2)), xid);
             Transaction multi = jedis.multi();
             Map<String,String> map = new HashMap<>(2);
             map.put(REDIS_KEY_GLOBAL_STATUS,String.valueOf(globalTransactionDO.getStatus()));
             map.put(REDIS_KEY_GLOBAL_GMT_MODIFIED,String.valueOf((new Date()).getTime()));
             multi.hmset(globalKey,map);
-            multi.lrem(buildGlobalStatus(Integer.valueOf(previousStatus)),0, xid);
-            multi.rpush(buildGlobalStatus(globalTransactionDO.getStatus()), xid);
+            multi.zrem(buildGlobalStatusIndex(Integer.valueOf(previousStatus)), member);
+            multi.zadd(buildGlobalStatusIndex(globalTransactionDO.getStatus()), 0, member);
+            if (statusListCompatible) {
+                multi.lrem(buildGlobalStatus(Integer.valueOf(previousStatus)), 0, xid);
+                multi.rpush(buildGlobalStatus(globalTransactionDO.getStatus()), xid);
+            }
             List<Object> exec = multi.exec();
             String hmset = exec.get(0).toString();
-            long lrem  = (long)exec.get(1);
-            long rpush = (long)exec.get(2);
-            if (OK.equalsIgnoreCase(hmset) && lrem > 0 && rpush > 0) {
+            long zrem  = (long)exec.get(1);
+            long zadd = (long)exec.get(2);
+            long lrem = statusListCompatible ? (long)exec.get(3) : 0;
+            long rpush = statusListCompatible ? (long)exec.get(4) : 0;
+            // the session added by a server of the previous versions is only in the status list
+            if (OK.equalsIgnoreCase(hmset) && (zrem > 0 || lrem > 0) && zadd > 0) {
                 return true;
             } else {
                 // If someone failed, the succeed operations need rollback
@@ -287,11 +376,17 @@ public class RedisTransactionStoreManager extends AbstractTransactionStoreManage
                         multi2.exec();
                     }
                 }
+                if (zrem > 0) {
+                    jedis.zadd(buildGlobalStatusIndex(Integer.valueOf(previousStatus)), 0, member);
+                }
+                if (zadd > 0) {
+                    jedis.zrem(buildGlobalStatusIndex(globalTransactionDO.getStatus()), member);
+                }
                 if (lrem > 0) {
-                    jedis.rpush(buildGlobalStatus(Integer.valueOf(previousStatus)),xid);
+                    jedis.rpush(buildGlobalStatus(Integer.valueOf(previousStatus)), xid);
                 }
                 if (rpush > 0) {
-                    jedis.lrem(buildGlobalStatus(globalTransactionDO.getStatus()),0,xid);
+                    jedis.lrem(buildGlobalStatus(globalTransactionDO.getStatus()), 0, xid);
                 }
                 return false;
             }
@@ -338,31 +433,173 @@ public class RedisTransactionStoreManager extends AbstractTransactionStoreManage
     }
 
     /**
-     * Read globalSession list by global status
+     * Read all the globalSessions of the global statuses, page by page until every status is read to the end.
      *
      * @param statuses the statuses
      * @return the list
      */
     public List<GlobalSession> readSession(GlobalStatus[] statuses) {
-        List<String> statusKeys = new ArrayList<>();
-        for (int i = 0; i < statuses.length; i++) {
-            statusKeys.add(buildGlobalStatus(statuses[i].getCode()));
+        if (statusListCompatible) {
+            return readSessionByStatusLists(statuses);
         }
+        Map<GlobalStatus, String> pagingToken = new HashMap<>(statuses.length);
+        // a session changing its status during the read may be read twice
+        Map<String, GlobalSession> globalSessions = new LinkedHashMap<>();
+        do {
+            for (GlobalSession globalSession : readSessionPage(statuses, pagingToken)) {
+                globalSessions.putIfAbsent(globalSession.getXid(), globalSession);
+            }
+        } while (!pagingToken.isEmpty());
+        return new ArrayList<>(globalSessions.values());
+    }
+
+    /**
+     * Read globalSession list by global status.
+     * At most the query limit sessions are read in the begin time order, and the next read resumes after
+     * the last session read of every status kept in the paging token, so every tick of the retry tasks reads
+     * one page instead of all the sessions. When all the statuses are read to the end, the paging token is empty
+     * and the next read starts over.
+     * <p>
+     * A status list left by the servers of the previous versions is migrated to the status index when it is seen.
+     *
+     * @param statuses    the statuses
+     * @param pagingToken the position where the previous read stopped of every status, updated by this read
+     * @return the list
+     */
+    private List<GlobalSession> readSessionPage(GlobalStatus[] statuses, Map<GlobalStatus, String> pagingToken) {
+        if (statusListCompatible) {
+            return readSessionByStatusLists(statuses);
+        }
+        List<String> xids = new ArrayList<>();
         try (Jedis jedis = JedisPooledFactory.getJedisInstance()) {
             Pipeline pipelined = jedis.pipelined();
-            statusKeys.stream().forEach(statusKey -> pipelined.lrange(statusKey, 0, -1));
-            List<List<String>> list = (List<List<String>>)(List)pipelined.syncAndReturnAll();
-            List<GlobalSession> globalSessions = Collections.synchronizedList(new ArrayList<>());
-            if (CollectionUtils.isNotEmpty(list)) {
-                List<String> xids = list.stream().flatMap(ll -> ll.stream()).collect(Collectors.toList());
-                xids.parallelStream().forEach(xid -> {
-                    GlobalSession globalSession = this.readSession(xid, true);
-                    if (globalSession != null) {
-                        globalSessions.add(globalSession);
+            for (GlobalStatus status : statuses) {
+                String cursor = pagingToken.get(status);
+                pipelined.zrangeByLex(buildGlobalStatusIndex(status.getCode()), cursor == null ? "-" : "(" + cursor,
+                    "+", 0, queryLimit);
+            }
+            for (GlobalStatus status : statuses) {
+                pipelined.exists(buildGlobalStatus(status.getCode()));
+            }
+            List<Object> replies = pipelined.syncAndReturnAll();
+            for (int i = 0; i < statuses.length; i++) {
+                if ((Boolean)replies.get(statuses.length + i)) {
+                    migrateStatusList(jedis, statuses[i]);
+                }
+            }
+            // merge the pages of the statuses in the begin time order, the member to the index of its status
+            TreeMap<String, Integer> members = new TreeMap<>();
+            int[] pageSizes = new int[statuses.length];
+            for (int i = 0; i < statuses.length; i++) {
+                for (String member : (Set<String>)replies.get(i)) {
+                    if (pageSizes[i] == queryLimit) {
+                        break;
                     }
-                });
+                    pageSizes[i]++;
+                    members.put(member, i);
+                }
+            }
+            String[] lastMembers = new String[statuses.length];
+            int[] readSizes = new int[statuses.length];
+            for (Map.Entry<String, Integer> entry : members.entrySet()) {
+                if (xids.size() == queryLimit) {
+                    break;
+                }
+                lastMembers[entry.getValue()] = entry.getKey();
+                readSizes[entry.getValue()]++;
+                xids.add(entry.getKey().substring(BEGIN_TIME_WIDTH + 1));
+            }
+            for (int i = 0; i < statuses.length; i++) {
+                if (pageSizes[i] < queryLimit && readSizes[i] == pageSizes[i]) {
+                    pagingToken.remove(statuses[i]);
+                } else if (lastMembers[i] != null) {
+                    pagingToken.put(statuses[i], lastMembers[i]);
+                }
             }
-            return globalSessions;
+        }
+        return xids.parallelStream().map(xid -> this.readSession(xid, true)).filter(globalSession -> globalSession != null)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Read all the globalSessions of the statuses from the status lists, which are complete only while the servers
+     * of the previous versions are running.
+     *
+     * @param statuses the statuses
+     * @return the list
+     */
+    private List<GlobalSession> readSessionByStatusLists(GlobalStatus[] statuses) {
+        try (Jedis jedis = JedisPooledFactory.getJedisInstance()) {
+            Pipeline pipelined = jedis.pipelined();
+            for (GlobalStatus status : statuses) {
+                pipelined.lrange(buildGlobalStatus(status.getCode()), 0, -1);
+            }
+            List<List<String>> list = (List<List<String>>)(List)pipelined.syncAndReturnAll();
+            return list.stream().flatMap(List::stream).collect(Collectors.toList()).parallelStream()
+                .map(xid -> this.readSession(xid, true)).filter(globalSession -> globalSession != null)
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Move the xids of the global status lists written by the previous versions to the status index.
+     */
+    private void migrateStatusLists() {
+        try (Jedis jedis = JedisPooledFactory.getJedisInstance()) {
+            for (GlobalStatus status : GlobalStatus.values()) {
+                migrateStatusList(jedis, status);
+            }
+        } catch (Exception ex) {
+            throw new RedisException(ex);
+        }
+    }
+
+    /**
+     * Move the xids of the global status list written by the previous versions to the status index.
+     * Every xid is added to the index before it is removed from the list, and the commands are executed in order,
+     * so an xid is never missing from both if the connection breaks. The xid without the global session is left
+     * in the list, the previous versions remove it when the session is removed.
+     */
+    private void migrateStatusList(Jedis jedis, GlobalStatus status) {
+        String statusKey = buildGlobalStatus(status.getCode());
+        String statusIndex = buildGlobalStatusIndex(status.getCode());
+        int migrated = 0;
+        long offset = 0;
+        for (;;) {
+            List<String> xids = jedis.lrange(statusKey, offset, offset + MIGRATE_BATCH_SIZE - 1);
+            if (CollectionUtils.isEmpty(xids)) {
+                break;
+            }
+            Pipeline pipelined = jedis.pipelined();
+            for (String xid : xids) {
+                pipelined.hget(buildGlobalKeyByTransactionId(XID.getTransactionId(xid)), REDIS_KEY_GLOBAL_BEGIN_TIME);
+            }
+            List<Object> beginTimes = pipelined.syncAndReturnAll();
+            List<String> movedXids = new ArrayList<>(xids.size());
+            pipelined = jedis.pipelined();
+            for (int i = 0; i < xids.size(); i++) {
+                if (beginTimes.get(i) != null) {
+                    pipelined.zadd(statusIndex, 0, buildStatusMember(Long.parseLong((String)beginTimes.get(i)),
+                        xids.get(i)));
+                    movedXids.add(xids.get(i));
+                }
+            }
+            for (String xid : movedXids) {
+                pipelined.lrem(statusKey, 0, xid);
+            }
+            pipelined.sync();
+            migrated += movedXids.size();
+            if (movedXids.size() < xids.size()) {
+                LOGGER.warn("{} global transactions of the status {} are left in the status list without the global "
+                    + "sessions.", xids.size() - movedXids.size(), status);
+            }
+            if (xids.size() < MIGRATE_BATCH_SIZE) {
+                break;
+            }
+            offset += xids.size() - movedXids.size();
+        }
+        if (migrated > 0) {
+            LOGGER.info("Migrated {} global transactions of the status {} to the status index.", migrated, status);
         }
     }
 
@@ -388,13 +625,20 @@ public class RedisTransactionStoreManager extends AbstractTransactionStoreManage
             }
             return globalSessions;
         } else if (CollectionUtils.isNotEmpty(sessionCondition.getStatuses())) {
-            return readSession(sessionCondition.getStatuses());
+            return readSession(sessionCondition.getStatuses(), sessionCondition.getPagingToken());
         } else if (sessionCondition.getStatus() != null) {
-            return readSession(new GlobalStatus[]{sessionCondition.getStatus()});
+            return readSession(new GlobalStatus[]{sessionCondition.getStatus()}, sessionCondition.getPagingToken());
         }
         return null;
     }
 
+    /**
+     * Read one page if the condition has the paging token, or all the sessions of the statuses.
+     */
+    private List<GlobalSession> readSession(GlobalStatus[] statuses, Map<GlobalStatus, String> pagingToken) {
+        return pagingToken != null ? readSessionPage(statuses, pagingToken) : readSession(statuses);
+    }
+
     /**
      * assemble the global session and branch session
      * @param globalTransactionDO the global transactionDo
@@ -501,4 +745,21 @@ public class RedisTransactionStoreManager extends AbstractTransactionStoreManage
         return REDIS_SEATA_STATUS_PREFIX + status;
     }
 
+    private String buildGlobalStatusIndex(Integer status) {
+        return REDIS_SEATA_STATUS_INDEX_PREFIX + status;
+    }
+
+    /**
+     * The member of the status index, all the members have the same score, so they are ordered
+     * by the zero padded begin time and then the xid.
+     */
+    private String buildStatusMember(long beginTime, String xid) {
+        StringBuilder member = new StringBuilder(BEGIN_TIME_WIDTH + 1 + xid.length());
+        String time = String.valueOf(beginTime);
+        for (int i = time.length(); i < BEGIN_TIME_WIDTH; i++) {
+            member.append('0');
+        }
+        return member.append(time).append(':').append(xid).toString();
+    }
+
 }
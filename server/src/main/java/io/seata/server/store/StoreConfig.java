@@ -20,6 +20,9 @@ import io.seata.config.ConfigurationFactory;
 import io.seata.server.storage.file.FlushDiskMode;
 
 import static io.seata.core.constants.ConfigurationKeys.STORE_FILE_PREFIX;
+import static io.seata.core.constants.ConfigurationKeys.STORE_FILE_SEGMENT_ENABLE;
+import static io.seata.core.constants.ConfigurationKeys.STORE_FILE_MAX_SEALED_SEGMENTS;
+import static io.seata.core.constants.ConfigurationKeys.STORE_FILE_SEGMENT_SIZE;
 
 
 /**
@@ -45,6 +48,16 @@ public class StoreConfig {
      */
     private static final int DEFAULT_WRITE_BUFFER_SIZE = 1024 * 16;
 
+    /**
+     * Default 64mb.
+     */
+    private static final int DEFAULT_SEGMENT_SIZE = 1024 * 1024 * 64;
+
+    /**
+     * Default 4.
+     */
+    private static final int DEFAULT_MAX_SEALED_SEGMENTS = 4;
+
     public static int getMaxBranchSessionSize() {
         return CONFIGURATION.getInt(STORE_FILE_PREFIX + "maxBranchSessionSize", DEFAULT_MAX_BRANCH_SESSION_SIZE);
     }
@@ -57,6 +70,18 @@ public class StoreConfig {
         return CONFIGURATION.getInt(STORE_FILE_PREFIX + "fileWriteBufferCacheSize", DEFAULT_WRITE_BUFFER_SIZE);
     }
 
+    public static boolean isFileSegmentEnable() {
+        return CONFIGURATION.getBoolean(STORE_FILE_SEGMENT_ENABLE, false);
+    }
+
+    public static int getFileSegmentSize() {
+        return CONFIGURATION.getInt(STORE_FILE_SEGMENT_SIZE, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public static int getFileMaxSealedSegments() {
+        return CONFIGURATION.getInt(STORE_FILE_MAX_SEALED_SEGMENTS, DEFAULT_MAX_SEALED_SEGMENTS);
+    }
+
     public static FlushDiskMode getFlushDiskMode() {
         return FlushDiskMode.findDiskMode(CONFIGURATION.getConfig(STORE_FILE_PREFIX + "flushDiskMode"));
     }
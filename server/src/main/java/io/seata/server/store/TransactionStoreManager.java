@@ -36,6 +36,23 @@ public interface TransactionStoreManager {
      */
     boolean writeSession(LogOperation logOperation, SessionStorable session);
 
+    /**
+     * Write the sessions of one global transaction with the same operation, the stores can write them
+     * in one operation.
+     *
+     * @param logOperation the log operation
+     * @param sessions     the sessions
+     * @return the boolean
+     */
+    default boolean writeSessions(LogOperation logOperation, List<? extends SessionStorable> sessions) {
+        for (SessionStorable session : sessions) {
+            if (!writeSession(logOperation, session)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 
     /**
      * Read global session global session.
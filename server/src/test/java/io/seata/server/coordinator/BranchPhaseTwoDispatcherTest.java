@@ -0,0 +1,158 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.coordinator;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.seata.core.exception.TransactionException;
+import io.seata.core.model.BranchStatus;
+import io.seata.core.model.BranchType;
+import io.seata.server.coordinator.BranchPhaseTwoDispatcher.PhaseTwoFutures;
+import io.seata.server.session.BranchSession;
+import io.seata.server.session.GlobalSession;
+import io.seata.server.session.SessionHelper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Branch phase two dispatcher test.
+ *
+ * @author wang.liang
+ */
+public class BranchPhaseTwoDispatcherTest {
+
+    private final BranchPhaseTwoDispatcher dispatcher = new BranchPhaseTwoDispatcher(4);
+
+    @Test
+    public void testDispatchCommit() throws TransactionException {
+        GlobalSession globalSession = newSession();
+        addBranch(globalSession, BranchType.AT, "r1");
+        addBranch(globalSession, BranchType.AT, "r2");
+        BranchSession tcc = addBranch(globalSession, BranchType.TCC, "r3");
+
+        PhaseTwoFutures futures = dispatcher.dispatchCommit(
+            globalSession.getSortedBranches(), branchSession -> true,
+            branchSession -> BranchStatus.PhaseTwo_Committed);
+        // the TCC branch is not dispatched
+        Assertions.assertEquals(2, futures.size());
+        Assertions.assertNull(futures.get(tcc.getBranchId()));
+        for (BranchSession branchSession : globalSession.getSortedBranches()) {
+            if (branchSession != tcc) {
+                Assertions.assertEquals(BranchStatus.PhaseTwo_Committed,
+                    BranchPhaseTwoDispatcher.await(futures.get(branchSession.getBranchId())));
+            }
+        }
+    }
+
+    @Test
+    public void testDispatchOnlyOneBranch() {
+        GlobalSession globalSession = newSession();
+        addBranch(globalSession, BranchType.AT, "r1");
+        addBranch(globalSession, BranchType.AT, "r1");
+        // all branches belong to one resource, nothing to be parallel
+        Assertions.assertEquals(0, dispatcher.dispatchRollback(globalSession.getReverseSortedBranches(),
+            branchSession -> true, branchSession -> BranchStatus.PhaseTwo_Rollbacked).size());
+    }
+
+    @Test
+    public void testDispatchRollback() throws TransactionException {
+        GlobalSession globalSession = newSession();
+        BranchSession r1First = addBranch(globalSession, BranchType.AT, "r1");
+        BranchSession r1Second = addBranch(globalSession, BranchType.AT, "r1");
+        BranchSession r1Third = addBranch(globalSession, BranchType.AT, "r1");
+        BranchSession r2 = addBranch(globalSession, BranchType.XA, "r2");
+
+        List<Long> sent = new CopyOnWriteArrayList<>();
+        PhaseTwoFutures futures = dispatcher.dispatchRollback(
+            globalSession.getReverseSortedBranches(), branchSession -> true, branchSession -> {
+                sent.add(branchSession.getBranchId());
+                return branchSession == r1Second ? BranchStatus.PhaseTwo_RollbackFailed_Retryable
+                    : BranchStatus.PhaseTwo_Rollbacked;
+            });
+        Assertions.assertEquals(4, futures.size());
+        Assertions.assertEquals(BranchStatus.PhaseTwo_Rollbacked, BranchPhaseTwoDispatcher.await(futures.get(r2.getBranchId())));
+        Assertions.assertEquals(BranchStatus.PhaseTwo_Rollbacked, BranchPhaseTwoDispatcher.await(futures.get(r1Third.getBranchId())));
+        Assertions.assertEquals(BranchStatus.PhaseTwo_RollbackFailed_Retryable,
+            BranchPhaseTwoDispatcher.await(futures.get(r1Second.getBranchId())));
+        // the branches after the failed one of the same resource are not sent
+        Assertions.assertNull(BranchPhaseTwoDispatcher.await(futures.get(r1First.getBranchId())));
+        Assertions.assertFalse(sent.contains(r1First.getBranchId()));
+        Assertions.assertTrue(sent.indexOf(r1Third.getBranchId()) < sent.indexOf(r1Second.getBranchId()));
+    }
+
+    @Test
+    public void testDispatchException() {
+        GlobalSession globalSession = newSession();
+        BranchSession r1 = addBranch(globalSession, BranchType.AT, "r1");
+        addBranch(globalSession, BranchType.AT, "r2");
+        PhaseTwoFutures futures = dispatcher.dispatchCommit(
+            globalSession.getSortedBranches(), branchSession -> true, branchSession -> {
+                throw new RuntimeException("mock");
+            });
+        Assertions.assertThrows(TransactionException.class,
+            () -> BranchPhaseTwoDispatcher.await(futures.get(r1.getBranchId())));
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        GlobalSession globalSession = newSession();
+        BranchSession r1First = addBranch(globalSession, BranchType.AT, "r1");
+        addBranch(globalSession, BranchType.AT, "r1");
+        addBranch(globalSession, BranchType.AT, "r2");
+
+        CountDownLatch sending = new CountDownLatch(2);
+        CountDownLatch released = new CountDownLatch(1);
+        List<Long> sent = new CopyOnWriteArrayList<>();
+        PhaseTwoFutures futures = dispatcher.dispatchRollback(
+            globalSession.getReverseSortedBranches(), branchSession -> true, branchSession -> {
+                sent.add(branchSession.getBranchId());
+                sending.countDown();
+                try {
+                    released.await();
+                } catch (InterruptedException ignore) {
+                }
+                return BranchStatus.PhaseTwo_Rollbacked;
+            });
+        sending.await();
+        new Thread(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException ignore) {
+            }
+            released.countDown();
+        }).start();
+        // waits for the branches being sent, and the following branch of the same resource is not sent
+        futures.cancel();
+        Assertions.assertEquals(0, released.getCount());
+        Assertions.assertEquals(2, sent.size());
+        Assertions.assertFalse(sent.contains(r1First.getBranchId()));
+        Assertions.assertTrue(futures.get(r1First.getBranchId()).isCancelled());
+    }
+
+    private static GlobalSession newSession() {
+        return GlobalSession.createGlobalSession("demo-app", "my_test_tx_group", "test", 6000);
+    }
+
+    private static BranchSession addBranch(GlobalSession globalSession, BranchType branchType, String resourceId) {
+        BranchSession branchSession = SessionHelper.newBranchByGlobal(globalSession, branchType, resourceId,
+            null, "t:1", "clientId");
+        globalSession.add(branchSession);
+        return branchSession;
+    }
+}
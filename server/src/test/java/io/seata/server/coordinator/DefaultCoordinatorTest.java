@@ -150,6 +150,7 @@ public class DefaultCoordinatorTest {
         Thread.sleep(100);
         defaultCoordinator.timeoutCheck();
         defaultCoordinator.handleRetryRollbacking();
+        awaitRetryRollbackingHandled(xid);
 
         GlobalSession globalSession = SessionHolder.findGlobalSession(xid);
         Assertions.assertNull(globalSession);
@@ -171,6 +172,7 @@ public class DefaultCoordinatorTest {
         TimeUnit.MILLISECONDS.sleep(100);
         defaultCoordinator.timeoutCheck();
         defaultCoordinator.handleRetryRollbacking();
+        awaitRetryRollbackingHandled(xid);
         int lockSize = globalSession.getBranchSessions().get(0).getLockHolder().size();
         try {
             Assertions.assertTrue(lockSize > 0);
@@ -198,6 +200,7 @@ public class DefaultCoordinatorTest {
 
         defaultCoordinator.timeoutCheck();
         defaultCoordinator.handleRetryRollbacking();
+        awaitRetryRollbackingHandled(xid);
 
         int lockSize = globalSession.getBranchSessions().get(0).getLockHolder().size();
         try {
@@ -209,6 +212,15 @@ public class DefaultCoordinatorTest {
         }
     }
 
+    private static void awaitRetryRollbackingHandled(String xid) throws InterruptedException {
+        // the recovery sessions are handled by the recovery workers asynchronously
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline && SessionHolder.getRetryRollbackingSessionManager().allSessions()
+            .stream().anyMatch(globalSession -> xid.equals(globalSession.getXid()))) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
     @AfterAll
     public static void afterClass() throws Exception {
 
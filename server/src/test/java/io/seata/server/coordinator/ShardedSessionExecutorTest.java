@@ -0,0 +1,115 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.coordinator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import io.seata.core.model.BranchType;
+import io.seata.server.session.BranchSession;
+import io.seata.server.session.GlobalSession;
+import io.seata.server.session.GlobalSessionHandler;
+import io.seata.server.session.SessionHelper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Sharded session executor test.
+ *
+ * @author wang.liang
+ */
+public class ShardedSessionExecutorTest {
+
+    @Test
+    public void testForEach() throws InterruptedException {
+        ShardedSessionExecutor executor = new ShardedSessionExecutor("TestWorker", 4, 128, 16);
+        try {
+            List<GlobalSession> sessions = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                sessions.add(newSession("resource_" + (i % 10)));
+            }
+            Set<String> handled = ConcurrentHashMap.newKeySet();
+            Assertions.assertEquals(100, executor.forEach(sessions, globalSession -> handled.add(globalSession.getXid())));
+            Assertions.assertTrue(await(() -> handled.size() == 100));
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    public void testMaxSessionsPerResource() throws InterruptedException {
+        ShardedSessionExecutor executor = new ShardedSessionExecutor("TestWorker", 4, 32, 1);
+        try {
+            List<GlobalSession> slowSessions = new ArrayList<>();
+            List<GlobalSession> sessions = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                slowSessions.add(newSession("slow"));
+                sessions.add(slowSessions.get(i));
+                sessions.add(newSession("fast_" + i));
+            }
+            AtomicInteger slowHandled = new AtomicInteger();
+            Set<String> handled = ConcurrentHashMap.newKeySet();
+            GlobalSessionHandler handler = globalSession -> {
+                String resourceId = globalSession.getSortedBranches().get(0).getResourceId();
+                if ("slow".equals(resourceId)) {
+                    slowHandled.incrementAndGet();
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(500);
+                    } catch (InterruptedException ignore) {
+                    }
+                } else {
+                    handled.add(resourceId);
+                }
+            };
+            // returns without waiting for the session of the slow resource
+            long start = System.currentTimeMillis();
+            Assertions.assertEquals(17, executor.forEach(sessions, handler));
+            // the session in flight is not submitted again, the other sessions of the slow resource are skipped
+            Assertions.assertEquals(0, executor.forEach(slowSessions, handler));
+            Assertions.assertTrue(System.currentTimeMillis() - start < 500);
+
+            Assertions.assertTrue(await(() -> handled.size() == 16));
+            Assertions.assertTrue(await(() -> executor.forEach(slowSessions, handler) > 0));
+            Assertions.assertTrue(await(() -> slowHandled.get() > 1));
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        return true;
+    }
+
+    private static GlobalSession newSession(String resourceId) {
+        GlobalSession globalSession = GlobalSession.createGlobalSession("demo-app", "my_test_tx_group", "test", 6000);
+        BranchSession branchSession = SessionHelper.newBranchByGlobal(globalSession, BranchType.AT, resourceId,
+            null, "t:1", "clientId");
+        globalSession.add(branchSession);
+        return globalSession;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.lock;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import io.seata.core.lock.Locker;
+import io.seata.core.lock.RowLock;
+import io.seata.server.session.BranchSession;
+import io.seata.server.session.GlobalSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Abstract lock manager test.
+ *
+ * @author wang.liang
+ */
+public class AbstractLockManagerTest {
+
+    private final AbstractLockManager lockManager = new AbstractLockManager() {
+        @Override
+        protected Locker getLocker(BranchSession branchSession) {
+            return null;
+        }
+
+        @Override
+        public boolean releaseGlobalSessionLock(GlobalSession globalSession) {
+            return true;
+        }
+    };
+
+    @Test
+    public void testCollectRowLocks() {
+        assertRowLocks("t1:1,2;t2:3", "t1:1", "t1:2", "t2:3");
+        assertRowLocks("t1:1_a,,2,;t2:3;;", "t1:1_a", "t1:2", "t2:3");
+        assertRowLocks("t1:1, ,2", "t1:1", "t1:2");
+        // stop at the broken table group
+        assertRowLocks("t1:1;;t2:3", "t1:1");
+        assertRowLocks("t1:1;t2;t3:1", "t1:1");
+        assertRowLocks("t1:1;t2: ;t3:1", "t1:1");
+        assertRowLocks("t1:1;t2:,,;t3:1", "t1:1");
+        assertRowLocks("t1:1:2", "t1:1:2");
+        assertRowLocks(";t1:1");
+    }
+
+    @Test
+    public void testCollectRowLocksOfBranch() {
+        BranchSession branchSession = new BranchSession();
+        branchSession.setXid("127.0.0.1:8091:1");
+        branchSession.setTransactionId(1L);
+        branchSession.setBranchId(2L);
+        branchSession.setResourceId("resource");
+        branchSession.setLockKey("t1:1,2");
+
+        List<RowLock> rowLocks = lockManager.collectRowLocks(branchSession);
+        Assertions.assertEquals(2, rowLocks.size());
+        Assertions.assertEquals(Long.valueOf(2L), rowLocks.get(0).getBranchId());
+        Assertions.assertEquals("resource", rowLocks.get(0).getResourceId());
+
+        branchSession.setLockKey("t1:3");
+        rowLocks = lockManager.collectRowLocks(branchSession);
+        Assertions.assertEquals(1, rowLocks.size());
+        Assertions.assertEquals("3", rowLocks.get(0).getPk());
+    }
+
+    private void assertRowLocks(String lockKey, String... expected) {
+        List<String> actual = lockManager.collectRowLocks(lockKey, "resource", "127.0.0.1:8091:1", 1L, 2L).stream()
+            .map(rowLock -> rowLock.getTableName() + ":" + rowLock.getPk())
+            .collect(Collectors.toList());
+        Assertions.assertArrayEquals(expected, actual.toArray(new String[0]), lockKey);
+    }
+}
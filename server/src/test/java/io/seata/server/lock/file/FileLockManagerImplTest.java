@@ -25,6 +25,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
 
@@ -71,6 +73,37 @@ public class FileLockManagerImplTest {
         Assertions.assertTrue(resultOne);
     }
 
+    /**
+     * Restore locks test.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void restoreLocksTest() throws Exception {
+        long restoredTransactionId = UUIDGenerator.generateUUID();
+        List<BranchSession> branchSessions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            BranchSession branchSession = new BranchSession();
+            branchSession.setXid(XID.generateXID(restoredTransactionId));
+            branchSession.setTransactionId(restoredTransactionId);
+            branchSession.setBranchId(restoredTransactionId + i + 1);
+            branchSession.setResourceId(resourceId);
+            branchSession.setLockKey("tb_2:" + i);
+            branchSession.setBranchType(i == 0 ? BranchType.TCC : BranchType.AT);
+            branchSessions.add(branchSession);
+        }
+        lockManager.restoreLocks(branchSessions);
+
+        String xid = XID.generateXID(UUIDGenerator.generateUUID());
+        Assertions.assertTrue(lockManager.isLockable(xid, resourceId, "tb_2:0"));
+        Assertions.assertFalse(lockManager.isLockable(xid, resourceId, "tb_2:1"));
+        Assertions.assertFalse(lockManager.isLockable(xid, resourceId, "tb_2:99"));
+        for (BranchSession branchSession : branchSessions) {
+            lockManager.releaseLock(branchSession);
+        }
+        Assertions.assertTrue(lockManager.isLockable(xid, resourceId, "tb_2:99"));
+    }
+
     /**
      * Branch session provider object [ ] [ ].
      *
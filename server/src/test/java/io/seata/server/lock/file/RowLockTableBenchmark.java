@@ -0,0 +1,174 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.lock.file;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.seata.server.storage.file.lock.RowLockTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the {@link RowLockTable} with the bucket maps used by the file locker before.
+ * <p>
+ * Every invocation acquires the row locks of a branch, checks them and releases them,
+ * while {@code heldRows} rows of the other transactions stay locked in the table.
+ * Run it with the main method, it is not run by the unit tests.
+ *
+ * @author wang.liang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RowLockTableBenchmark {
+
+    private static final String RESOURCE_ID = "jdbc:mysql://127.0.0.1:3306/seata";
+
+    private static final String TABLE_NAME = "stock_tbl";
+
+    @Param({"100000", "1000000"})
+    private int heldRows;
+
+    @Param({"16"})
+    private int rowsPerBranch;
+
+    private final AtomicLong transactionIds = new AtomicLong(1);
+
+    private final AtomicLong pks = new AtomicLong();
+
+    private RowLockTable rowLockTable;
+
+    private LegacyLockTable legacyLockTable;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        rowLockTable = new RowLockTable(256);
+        legacyLockTable = new LegacyLockTable();
+        long transactionId = transactionIds.incrementAndGet();
+        for (int i = 0; i < heldRows; i++) {
+            String pk = String.valueOf(pks.incrementAndGet());
+            rowLockTable.acquire(rowLockTable.lockKey(RESOURCE_ID, TABLE_NAME, pk), transactionId);
+            legacyLockTable.acquire(RESOURCE_ID, TABLE_NAME, pk, transactionId, new ConcurrentHashMap<>());
+        }
+    }
+
+    @Benchmark
+    public void rowLockTable(Blackhole blackhole) {
+        long transactionId = transactionIds.incrementAndGet();
+        RowLockTable.Holder holder = new RowLockTable.Holder();
+        long firstPk = pks.getAndAdd(rowsPerBranch);
+        for (int i = 1; i <= rowsPerBranch; i++) {
+            long key = rowLockTable.lockKey(RESOURCE_ID, TABLE_NAME, String.valueOf(firstPk + i));
+            if (rowLockTable.acquire(key, transactionId) == RowLockTable.NO_OWNER) {
+                holder.add(key);
+            }
+        }
+        for (int i = 1; i <= rowsPerBranch; i++) {
+            blackhole.consume(rowLockTable.owner(rowLockTable.lockKey(RESOURCE_ID, TABLE_NAME,
+                String.valueOf(firstPk + i))));
+        }
+        rowLockTable.release(holder, transactionId);
+    }
+
+    @Benchmark
+    public void legacyLockTable(Blackhole blackhole) {
+        long transactionId = transactionIds.incrementAndGet();
+        ConcurrentMap<LegacyLockTable.BucketLockMap, Set<String>> holder = new ConcurrentHashMap<>();
+        long firstPk = pks.getAndAdd(rowsPerBranch);
+        for (int i = 1; i <= rowsPerBranch; i++) {
+            legacyLockTable.acquire(RESOURCE_ID, TABLE_NAME, String.valueOf(firstPk + i), transactionId, holder);
+        }
+        for (int i = 1; i <= rowsPerBranch; i++) {
+            blackhole.consume(legacyLockTable.owner(RESOURCE_ID, TABLE_NAME, String.valueOf(firstPk + i)));
+        }
+        legacyLockTable.release(holder, transactionId);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RowLockTableBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * The bucket maps used by the file locker before.
+     */
+    static class LegacyLockTable {
+
+        private static final int BUCKET_PER_TABLE = 128;
+
+        private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<Integer, BucketLockMap>>> lockMap
+            = new ConcurrentHashMap<>();
+
+        void acquire(String resourceId, String tableName, String pk, long transactionId,
+                     ConcurrentMap<BucketLockMap, Set<String>> holder) {
+            BucketLockMap bucketLockMap = lockMap.computeIfAbsent(resourceId, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(tableName, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(pk.hashCode() % BUCKET_PER_TABLE, key -> new BucketLockMap());
+            if (bucketLockMap.locks.putIfAbsent(pk, transactionId) == null) {
+                holder.computeIfAbsent(bucketLockMap, key -> ConcurrentHashMap.newKeySet()).add(pk);
+            }
+        }
+
+        Long owner(String resourceId, String tableName, String pk) {
+            ConcurrentMap<String, ConcurrentMap<Integer, BucketLockMap>> dbLockMap = lockMap.get(resourceId);
+            if (dbLockMap == null) {
+                return null;
+            }
+            ConcurrentMap<Integer, BucketLockMap> tableLockMap = dbLockMap.get(tableName);
+            if (tableLockMap == null) {
+                return null;
+            }
+            BucketLockMap bucketLockMap = tableLockMap.get(pk.hashCode() % BUCKET_PER_TABLE);
+            return bucketLockMap == null ? null : bucketLockMap.locks.get(pk);
+        }
+
+        void release(ConcurrentMap<BucketLockMap, Set<String>> holder, long transactionId) {
+            for (Map.Entry<BucketLockMap, Set<String>> entry : holder.entrySet()) {
+                for (String pk : entry.getValue()) {
+                    entry.getKey().locks.remove(pk, transactionId);
+                }
+            }
+            holder.clear();
+        }
+
+        static class BucketLockMap {
+            private final ConcurrentHashMap<String, Long> locks = new ConcurrentHashMap<>();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.lock.file;
+
+import io.seata.server.storage.file.lock.RowLockTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Row lock table test.
+ *
+ * @author wang.liang
+ */
+public class RowLockTableTest {
+
+    @Test
+    public void testAcquireAndRelease() {
+        RowLockTable table = new RowLockTable(4);
+        long key = table.lockKey("jdbc:mysql://127.0.0.1:3306/seata", "t", "1");
+        Assertions.assertEquals(key, table.lockKey("jdbc:mysql://127.0.0.1:3306/seata", "t", "1"));
+        Assertions.assertNotEquals(key, table.lockKey("jdbc:mysql://127.0.0.1:3306/seata", "t1", "1"));
+        Assertions.assertNotEquals(key, table.lockKey("jdbc:mysql://127.0.0.1:3306/other", "t", "1"));
+
+        Assertions.assertEquals(RowLockTable.NO_OWNER, table.acquire(key, 100L));
+        Assertions.assertEquals(100L, table.acquire(key, 200L));
+        Assertions.assertEquals(100L, table.owner(key));
+
+        // only the owner can release the lock
+        table.release(key, 200L);
+        Assertions.assertEquals(100L, table.owner(key));
+        table.release(key, 100L);
+        Assertions.assertEquals(RowLockTable.NO_OWNER, table.owner(key));
+        Assertions.assertEquals(RowLockTable.NO_OWNER, table.acquire(key, 200L));
+    }
+
+    @Test
+    public void testReleaseHolder() {
+        RowLockTable table = new RowLockTable(8);
+        RowLockTable.Holder holder = new RowLockTable.Holder();
+        int count = 10000;
+        for (int i = 0; i < count; i++) {
+            long key = table.lockKey("resource", "t", String.valueOf(i));
+            Assertions.assertEquals(RowLockTable.NO_OWNER, table.acquire(key, 1L));
+            holder.add(key);
+        }
+        Assertions.assertEquals(count, holder.size());
+        Assertions.assertEquals(count, table.size());
+        for (int i = 0; i < count; i++) {
+            Assertions.assertEquals(1L, table.owner(table.lockKey("resource", "t", String.valueOf(i))));
+        }
+
+        table.release(holder, 1L);
+        Assertions.assertTrue(holder.isEmpty());
+        Assertions.assertEquals(0, table.size());
+        for (int i = 0; i < count; i++) {
+            Assertions.assertEquals(RowLockTable.NO_OWNER, table.owner(table.lockKey("resource", "t", String.valueOf(i))));
+        }
+    }
+
+    @Test
+    public void testReleaseKeepsOthers() {
+        RowLockTable table = new RowLockTable(1);
+        RowLockTable.Holder holder1 = new RowLockTable.Holder();
+        RowLockTable.Holder holder2 = new RowLockTable.Holder();
+        for (int i = 0; i < 1000; i++) {
+            long key = table.lockKey("resource", "t", String.valueOf(i));
+            RowLockTable.Holder holder = i % 2 == 0 ? holder1 : holder2;
+            table.acquire(key, i % 2 == 0 ? 1L : 2L);
+            holder.add(key);
+        }
+        table.release(holder1, 1L);
+        Assertions.assertEquals(500, table.size());
+        for (int i = 0; i < 1000; i++) {
+            long expected = i % 2 == 0 ? RowLockTable.NO_OWNER : 2L;
+            Assertions.assertEquals(expected, table.owner(table.lockKey("resource", "t", String.valueOf(i))));
+        }
+        table.clear();
+        Assertions.assertEquals(0, table.size());
+    }
+}
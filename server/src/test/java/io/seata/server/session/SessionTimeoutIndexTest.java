@@ -0,0 +1,73 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.session;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Session timeout index test.
+ *
+ * @author wang.liang
+ */
+public class SessionTimeoutIndexTest {
+
+    @Test
+    public void testPollExpired() {
+        SessionTimeoutIndex index = new SessionTimeoutIndex();
+        GlobalSession late = newSession(1000L, 500);
+        GlobalSession early = newSession(1000L, 100);
+        GlobalSession notExpired = newSession(1000L, 5000);
+        index.add(late);
+        index.add(early);
+        index.add(notExpired);
+        Assertions.assertEquals(3, index.size());
+
+        List<SessionTimeoutIndex.Entry> expired = index.pollExpired(2000L);
+        Assertions.assertEquals(2, expired.size());
+        Assertions.assertEquals(early.getXid(), expired.get(0).getXid());
+        Assertions.assertEquals(1100L, expired.get(0).getDeadline());
+        Assertions.assertEquals(late.getXid(), expired.get(1).getXid());
+
+        Assertions.assertEquals(1, index.size());
+        Assertions.assertTrue(index.contains(notExpired.getXid()));
+        Assertions.assertTrue(index.pollExpired(2000L).isEmpty());
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        SessionTimeoutIndex index = new SessionTimeoutIndex();
+        GlobalSession session = newSession(1000L, 100);
+        index.add(session);
+        // re-index the same xid replaces the previous deadline
+        session.setBeginTime(5000L);
+        index.add(session);
+        Assertions.assertEquals(1, index.size());
+        Assertions.assertTrue(index.pollExpired(2000L).isEmpty());
+
+        index.remove(session.getXid());
+        Assertions.assertEquals(0, index.size());
+        Assertions.assertTrue(index.pollExpired(Long.MAX_VALUE).isEmpty());
+    }
+
+    private static GlobalSession newSession(long beginTime, int timeout) {
+        GlobalSession session = GlobalSession.createGlobalSession("demo-app", "my_test_tx_group", "test", timeout);
+        session.setBeginTime(beginTime);
+        return session;
+    }
+}
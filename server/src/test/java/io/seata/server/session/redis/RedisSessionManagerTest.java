@@ -17,10 +17,14 @@
 package io.seata.server.session.redis;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 
 import com.github.fppt.jedismock.RedisServer;
 import io.seata.common.XID;
+import io.seata.common.util.BeanUtils;
 import io.seata.core.exception.TransactionException;
 import io.seata.core.model.BranchStatus;
 import io.seata.core.model.BranchType;
@@ -30,6 +34,7 @@ import io.seata.server.session.BranchSession;
 import io.seata.server.session.GlobalSession;
 import io.seata.server.session.SessionCondition;
 import io.seata.server.session.SessionManager;
+import io.seata.server.storage.SessionConverter;
 import io.seata.server.storage.redis.JedisPooledFactory;
 import io.seata.server.storage.redis.session.RedisSessionManager;
 import io.seata.server.storage.redis.store.RedisTransactionStoreManager;
@@ -37,6 +42,7 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
 
@@ -294,6 +300,85 @@ public class RedisSessionManagerTest {
         sessionManager.removeGlobalSession(session);
     }
 
+    @Test
+    public void testReadSessionByStatusInPages() throws TransactionException {
+        List<GlobalSession> sessions = new ArrayList<>();
+        long beginTime = System.currentTimeMillis();
+        for (int i = 0; i < 150; i++) {
+            GlobalSession session = GlobalSession.createGlobalSession("test", "test", "test123", 100);
+            session.setXid(XID.generateXID(session.getTransactionId()));
+            // added in the reverse begin time order
+            session.setBeginTime(beginTime - i);
+            session.setStatus(GlobalStatus.AsyncCommitting);
+            sessionManager.addGlobalSession(session);
+            sessions.add(0, session);
+        }
+
+        // the condition without the paging token reads all the pages
+        List<GlobalSession> globalSessions = sessionManager.findGlobalSessions(
+            new SessionCondition(GlobalStatus.AsyncCommitting));
+        Assertions.assertEquals(150, globalSessions.size());
+        for (int i = 0; i < globalSessions.size(); i++) {
+            Assertions.assertEquals(sessions.get(i).getXid(), globalSessions.get(i).getXid());
+        }
+
+        SessionCondition condition = new SessionCondition(GlobalStatus.AsyncCommitting);
+        condition.setPagingToken(new HashMap<>());
+        globalSessions = sessionManager.findGlobalSessions(condition);
+        Assertions.assertEquals(100, globalSessions.size());
+        for (int i = 0; i < globalSessions.size(); i++) {
+            Assertions.assertEquals(sessions.get(i).getXid(), globalSessions.get(i).getXid());
+        }
+        // another condition does not share the position of the first one
+        SessionCondition another = new SessionCondition(GlobalStatus.AsyncCommitting);
+        another.setPagingToken(new HashMap<>());
+        globalSessions = sessionManager.findGlobalSessions(another);
+        Assertions.assertEquals(sessions.get(0).getXid(), globalSessions.get(0).getXid());
+        globalSessions = sessionManager.findGlobalSessions(condition);
+        Assertions.assertEquals(50, globalSessions.size());
+        Assertions.assertEquals(sessions.get(100).getXid(), globalSessions.get(0).getXid());
+        // start over after the end
+        globalSessions = sessionManager.findGlobalSessions(condition);
+        Assertions.assertEquals(100, globalSessions.size());
+        Assertions.assertEquals(sessions.get(0).getXid(), globalSessions.get(0).getXid());
+
+        for (GlobalSession session : sessions) {
+            sessionManager.removeGlobalSession(session);
+        }
+        Assertions.assertEquals(0, sessionManager.findGlobalSessions(condition).size());
+    }
+
+    @Test
+    public void testMigrateStatusListWrittenByOldServer() throws TransactionException {
+        GlobalSession session = GlobalSession.createGlobalSession("test", "test", "test123", 100);
+        session.setXid(XID.generateXID(session.getTransactionId()));
+        session.setBeginTime(System.currentTimeMillis());
+        session.setStatus(GlobalStatus.Rollbacking);
+        try (Jedis jedis = JedisPooledFactory.getJedisInstance()) {
+            // a server of the previous versions only adds the session to the status list
+            jedis.hmset("SEATA_GLOBAL_" + session.getTransactionId(),
+                BeanUtils.objectToMap(SessionConverter.convertGlobalTransactionDO(session)));
+            jedis.rpush("SEATA_STATUS_" + GlobalStatus.Rollbacking.getCode(), session.getXid());
+            // the session removed without its xid removed from the list is not dropped by the migration
+            jedis.rpush("SEATA_STATUS_" + GlobalStatus.Rollbacking.getCode(), XID.generateXID(1L));
+        }
+
+        // the list is migrated when it is seen, and the session is read from the status index since then
+        SessionCondition condition = new SessionCondition(GlobalStatus.Rollbacking);
+        sessionManager.findGlobalSessions(condition);
+        List<GlobalSession> globalSessions = sessionManager.findGlobalSessions(condition);
+        Assertions.assertEquals(1, globalSessions.size());
+        Assertions.assertEquals(session.getXid(), globalSessions.get(0).getXid());
+        try (Jedis jedis = JedisPooledFactory.getJedisInstance()) {
+            Assertions.assertEquals(Collections.singletonList(XID.generateXID(1L)),
+                jedis.lrange("SEATA_STATUS_" + GlobalStatus.Rollbacking.getCode(), 0, -1));
+            jedis.del("SEATA_STATUS_" + GlobalStatus.Rollbacking.getCode());
+        }
+
+        sessionManager.removeGlobalSession(session);
+        Assertions.assertEquals(0, sessionManager.findGlobalSessions(condition).size());
+    }
+
     @Test
     public void testReadSessionWithBranch() throws TransactionException {
         GlobalSession session = GlobalSession.createGlobalSession("test", "test", "test123", 100);
@@ -19,7 +19,10 @@ import io.seata.common.util.CollectionUtils;
 import io.seata.common.util.IOUtil;
 import io.seata.core.store.BranchTransactionDO;
 import io.seata.core.store.GlobalTransactionDO;
+import io.seata.common.exception.StoreException;
 import io.seata.server.storage.db.store.LogStoreDataBaseDAO;
+import io.seata.server.storage.db.store.LogStoreGroupCommitter;
+import io.seata.server.store.TransactionStoreManager.LogOperation;
 import org.apache.commons.dbcp2.BasicDataSource;
 
 import org.h2.store.fs.FileUtils;
@@ -32,7 +35,12 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -626,6 +634,123 @@ public class LogStoreDataBaseDAOTest {
         }
     }
 
+    @Test
+    public void deleteBranchTransactionDOByBranchIds() throws SQLException {
+        for (long branchId = 34567801; branchId <= 34567803; branchId++) {
+            BranchTransactionDO branchTransactionDO = new BranchTransactionDO();
+            branchTransactionDO.setResourceId("qqqq");
+            branchTransactionDO.setXid("abc-123:9998");
+            branchTransactionDO.setTransactionId(1285342);
+            branchTransactionDO.setBranchId(branchId);
+            branchTransactionDO.setBranchType("AT");
+            branchTransactionDO.setClientId("1.1.1.1");
+            branchTransactionDO.setStatus(1);
+            branchTransactionDO.setResourceGroupId("test");
+            Assertions.assertTrue(logStoreDataBaseDAO.insertBranchTransactionDO(branchTransactionDO));
+        }
+
+        Assertions.assertTrue(logStoreDataBaseDAO.deleteBranchTransactionDO("abc-123:9998",
+            Arrays.asList(34567801L, 34567803L)));
+        List<BranchTransactionDO> rest = logStoreDataBaseDAO.queryBranchTransactionDO("abc-123:9998");
+        Assertions.assertEquals(1, rest.size());
+        Assertions.assertEquals(34567802L, rest.get(0).getBranchId());
+
+        Assertions.assertTrue(logStoreDataBaseDAO.deleteBranchTransactionDO("abc-123:9998",
+            Collections.singletonList(34567802L)));
+        Assertions.assertTrue(logStoreDataBaseDAO.queryBranchTransactionDO("abc-123:9998").isEmpty());
+    }
+
+    @Test
+    public void writeInBatch() throws SQLException {
+        GlobalTransactionDO globalTransactionDO = new GlobalTransactionDO();
+        globalTransactionDO.setXid("abc-123:5555");
+        globalTransactionDO.setTransactionServiceGroup("abc");
+        globalTransactionDO.setTransactionName("test");
+        globalTransactionDO.setTransactionId(5555);
+        globalTransactionDO.setTimeout(20);
+        globalTransactionDO.setBeginTime(System.currentTimeMillis());
+        globalTransactionDO.setApplicationId("test");
+        globalTransactionDO.setStatus(1);
+
+        List<LogStoreGroupCommitter.Write> writes = new ArrayList<>();
+        writes.add(newWrite(LogOperation.GLOBAL_ADD, globalTransactionDO));
+        for (int i = 0; i < 3; i++) {
+            BranchTransactionDO branchTransactionDO = new BranchTransactionDO();
+            branchTransactionDO.setXid("abc-123:5555");
+            branchTransactionDO.setTransactionId(5555);
+            branchTransactionDO.setBranchId(55550 + i);
+            branchTransactionDO.setResourceId("qqqq");
+            branchTransactionDO.setBranchType("AT");
+            branchTransactionDO.setStatus(1);
+            writes.add(newWrite(LogOperation.BRANCH_ADD, branchTransactionDO));
+        }
+        GlobalTransactionDO updated = new GlobalTransactionDO();
+        updated.setXid("abc-123:5555");
+        updated.setStatus(2);
+        writes.add(newWrite(LogOperation.GLOBAL_UPDATE, updated));
+
+        boolean[] results = logStoreDataBaseDAO.writeInBatch(writes);
+        Assertions.assertEquals(writes.size(), results.length);
+        for (boolean result : results) {
+            Assertions.assertTrue(result);
+        }
+        // the writes are applied in order
+        Assertions.assertEquals(2, logStoreDataBaseDAO.queryGlobalTransactionDO("abc-123:5555").getStatus());
+        Assertions.assertEquals(3, logStoreDataBaseDAO.queryBranchTransactionDO("abc-123:5555").size());
+
+        // the duplicated insert fails the whole group
+        List<LogStoreGroupCommitter.Write> duplicated = new ArrayList<>();
+        duplicated.add(newWrite(LogOperation.GLOBAL_REMOVE, updated));
+        duplicated.add(newWrite(LogOperation.BRANCH_ADD, writes.get(1).getStoreDO()));
+        Assertions.assertThrows(StoreException.class, () -> logStoreDataBaseDAO.writeInBatch(duplicated));
+        Assertions.assertNotNull(logStoreDataBaseDAO.queryGlobalTransactionDO("abc-123:5555"));
+
+        Connection conn = null;
+        try {
+            conn = dataSource.getConnection();
+            conn.createStatement().execute("delete from global_table where xid= 'abc-123:5555'");
+            conn.createStatement().execute("delete from branch_table where xid= 'abc-123:5555'");
+        } finally {
+            IOUtil.close(conn);
+        }
+    }
+
+    @Test
+    public void groupCommitterShutdown() throws Exception {
+        GlobalTransactionDO globalTransactionDO = new GlobalTransactionDO();
+        globalTransactionDO.setXid("abc-123:6666");
+        globalTransactionDO.setTransactionServiceGroup("abc");
+        globalTransactionDO.setTransactionName("test");
+        globalTransactionDO.setTransactionId(6666);
+        globalTransactionDO.setTimeout(20);
+        globalTransactionDO.setBeginTime(System.currentTimeMillis());
+        globalTransactionDO.setApplicationId("test");
+        globalTransactionDO.setStatus(1);
+
+        // the writer waits for more writes in the long window, until it is shutdown
+        LogStoreGroupCommitter groupCommitter = new LogStoreGroupCommitter(logStoreDataBaseDAO, 128, 60000, 1);
+        CompletableFuture<Boolean> result = CompletableFuture.supplyAsync(
+            () -> groupCommitter.write("abc-123:6666", LogOperation.GLOBAL_ADD, globalTransactionDO));
+        TimeUnit.MILLISECONDS.sleep(200);
+        groupCommitter.shutdown();
+        Assertions.assertTrue(result.get(1, TimeUnit.SECONDS));
+        Assertions.assertNotNull(logStoreDataBaseDAO.queryGlobalTransactionDO("abc-123:6666"));
+        Assertions.assertThrows(StoreException.class,
+            () -> groupCommitter.write("abc-123:6666", LogOperation.GLOBAL_REMOVE, globalTransactionDO));
+
+        Connection conn = null;
+        try {
+            conn = dataSource.getConnection();
+            conn.createStatement().execute("delete from global_table where xid= 'abc-123:6666'");
+        } finally {
+            IOUtil.close(conn);
+        }
+    }
+
+    private static LogStoreGroupCommitter.Write newWrite(LogOperation operation, Object storeDO) {
+        return new LogStoreGroupCommitter.Write(operation, storeDO);
+    }
+
     @AfterAll
     public static void clearStoreDB(){
         FileUtils.deleteRecursive("db_store", true);
@@ -0,0 +1,236 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.store.file;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import io.seata.core.model.BranchType;
+import io.seata.core.model.GlobalStatus;
+import io.seata.server.session.BranchSession;
+import io.seata.server.session.GlobalSession;
+import io.seata.server.storage.file.session.FileSessionManager;
+import io.seata.server.storage.file.store.FileTransactionStoreManager;
+import io.seata.server.storage.file.store.MappedSegment;
+import io.seata.server.storage.file.store.SegmentedFileTransactionStoreManager;
+import io.seata.server.store.TransactionStoreManager;
+import org.assertj.core.util.Files;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Segmented file transaction store manager test.
+ *
+ * @author wang.liang
+ */
+public class SegmentedFileTransactionStoreManagerTest {
+
+    private static final String NAME = "root.data";
+
+    private static final int SEGMENT_SIZE = 16 * 1024;
+
+    private File dir;
+
+    private final List<FileSessionManager> sessionManagers = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        dir = Files.newTemporaryFolder();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sessionManagers.forEach(FileSessionManager::destroy);
+        Files.delete(dir);
+    }
+
+    @Test
+    public void testSkipTornRecord() throws Exception {
+        MappedSegment segment = MappedSegment.create(new File(dir, MappedSegment.fileName(0)), 0, 1024);
+        Assertions.assertTrue(segment.append("1", "a".getBytes()));
+        Assertions.assertTrue(segment.append("1", "bb".getBytes()));
+        Assertions.assertTrue(segment.append("1", "ccc".getBytes()));
+        Assertions.assertFalse(segment.append("1", new byte[1024]));
+        int tornPosition = segment.getWritePosition() - 1;
+        segment.flush();
+        segment.close();
+        segment.close();
+        segment.flush();
+
+        File file = new File(dir, MappedSegment.fileName(0));
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(tornPosition);
+            raf.write('x');
+        }
+        segment = MappedSegment.open(file);
+        List<byte[]> records = segment.readAll();
+        segment.close();
+        Assertions.assertEquals(2, records.size());
+        Assertions.assertEquals("bb", new String(records.get(1)));
+    }
+
+    @Test
+    public void testReloadAfterCompact() throws Exception {
+        FileSessionManager sessionManager = newSessionManager();
+        GlobalSession liveSession = beginSession(sessionManager);
+        liveSession.addBranch(newBranch(liveSession));
+        for (int i = 0; i < 2000; i++) {
+            GlobalSession globalSession = beginSession(sessionManager);
+            sessionManager.removeGlobalSession(globalSession);
+        }
+        // the shutdown waits for the background compaction
+        sessionManager.destroy();
+        File[] segments = new File(dir, NAME + ".segments").listFiles();
+        Assertions.assertNotNull(segments);
+        Assertions.assertTrue(segments.length <= 6, "segments: " + segments.length);
+
+        // a crash after the compacted segment is committed leaves the merged segments in its range
+        File compacted = null;
+        for (File segment : segments) {
+            if (MappedSegment.parseLastId(segment.getName()) > MappedSegment.parseId(segment.getName())) {
+                compacted = segment;
+            }
+        }
+        Assertions.assertNotNull(compacted);
+        File merged = new File(compacted.getParentFile(),
+            MappedSegment.fileName(MappedSegment.parseLastId(compacted.getName())));
+        java.nio.file.Files.copy(compacted.toPath(), merged.toPath());
+
+        sessionManager = newSessionManager();
+        Assertions.assertFalse(merged.exists());
+        Collection<GlobalSession> sessions = sessionManager.allSessions();
+        Assertions.assertEquals(1, sessions.size());
+        GlobalSession reloaded = sessions.iterator().next();
+        Assertions.assertEquals(liveSession.getXid(), reloaded.getXid());
+        Assertions.assertEquals(1, reloaded.getBranchSessions().size());
+    }
+
+    @Test
+    public void testParseSegmentFileName() {
+        Assertions.assertEquals(MappedSegment.fileName(3), MappedSegment.fileName(3, 3));
+        Assertions.assertEquals(3, MappedSegment.parseId(MappedSegment.fileName(3, 7)));
+        Assertions.assertEquals(7, MappedSegment.parseLastId(MappedSegment.fileName(3, 7)));
+        Assertions.assertEquals(3, MappedSegment.parseLastId(MappedSegment.fileName(3)));
+        Assertions.assertEquals(-1, MappedSegment.parseId(MappedSegment.fileName(3, 7) + ".compact"));
+    }
+
+    @Test
+    public void testReloadInterleavedSessions() throws Exception {
+        FileSessionManager sessionManager = newSessionManager();
+        List<GlobalSession> globalSessions = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            globalSessions.add(beginSession(sessionManager));
+        }
+        for (int branch = 0; branch < 3; branch++) {
+            for (GlobalSession globalSession : globalSessions) {
+                BranchSession branchSession = newBranch(globalSession);
+                branchSession.setBranchId(globalSession.getTransactionId() + branch + 1);
+                globalSession.addBranch(branchSession);
+            }
+        }
+        for (int i = 0; i < globalSessions.size(); i++) {
+            GlobalSession globalSession = globalSessions.get(i);
+            if (i % 3 == 0) {
+                sessionManager.removeGlobalSession(globalSession);
+            } else if (i % 3 == 1) {
+                globalSession.removeBranch(globalSession.getBranchSessions().get(0));
+                globalSession.changeStatus(GlobalStatus.Committing);
+            }
+        }
+
+        sessionManager = newSessionManager();
+        Assertions.assertEquals(133, sessionManager.allSessions().size());
+        for (int i = 0; i < globalSessions.size(); i++) {
+            GlobalSession reloaded = sessionManager.findGlobalSession(globalSessions.get(i).getXid());
+            if (i % 3 == 0) {
+                Assertions.assertNull(reloaded);
+            } else {
+                Assertions.assertEquals(i % 3 == 1 ? GlobalStatus.Committing : GlobalStatus.Begin,
+                    reloaded.getStatus());
+                Assertions.assertEquals(i % 3 == 1 ? 2 : 3, reloaded.getBranchSessions().size());
+            }
+        }
+    }
+
+    @Test
+    public void testReloadAfterRemoveBranches() throws Exception {
+        FileSessionManager sessionManager = newSessionManager();
+        GlobalSession globalSession = beginSession(sessionManager);
+        List<BranchSession> branchSessions = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            BranchSession branchSession = newBranch(globalSession);
+            branchSession.setBranchId(globalSession.getTransactionId() + i + 1);
+            branchSession.setBranchType(BranchType.TCC);
+            globalSession.addBranch(branchSession);
+            branchSessions.add(branchSession);
+        }
+        globalSession.removeBranches(branchSessions.subList(0, 4));
+        Assertions.assertEquals(1, globalSession.getBranchSessions().size());
+
+        sessionManager = newSessionManager();
+        GlobalSession reloaded = sessionManager.findGlobalSession(globalSession.getXid());
+        Assertions.assertEquals(1, reloaded.getBranchSessions().size());
+        Assertions.assertEquals(branchSessions.get(4).getBranchId(), reloaded.getBranchSessions().get(0).getBranchId());
+    }
+
+    @Test
+    public void testMoveDataFileIntoSegments() throws Exception {
+        GlobalSession globalSession = new GlobalSession("demo-app", "my_test_tx_group", "test", 60000);
+        FileTransactionStoreManager fileStore = new FileTransactionStoreManager(
+            new File(dir, NAME).getAbsolutePath(), null);
+        Assertions.assertTrue(fileStore.writeSession(TransactionStoreManager.LogOperation.GLOBAL_ADD, globalSession));
+        fileStore.shutdown();
+
+        Assertions.assertEquals(1, newSessionManager().allSessions().size());
+        Assertions.assertFalse(new File(dir, NAME).exists());
+        Collection<GlobalSession> sessions = newSessionManager().allSessions();
+        Assertions.assertEquals(1, sessions.size());
+        Assertions.assertEquals(globalSession.getXid(), sessions.iterator().next().getXid());
+    }
+
+    private FileSessionManager newSessionManager() throws Exception {
+        FileSessionManager sessionManager = new FileSessionManager(NAME, null);
+        sessionManager.setTransactionStoreManager(new SegmentedFileTransactionStoreManager(
+            new File(dir, NAME).getAbsolutePath(), sessionManager, SEGMENT_SIZE));
+        sessionManager.reload();
+        sessionManagers.add(sessionManager);
+        return sessionManager;
+    }
+
+    private GlobalSession beginSession(FileSessionManager sessionManager) throws Exception {
+        GlobalSession globalSession = new GlobalSession("demo-app", "my_test_tx_group", "test", 60000);
+        globalSession.addSessionLifecycleListener(sessionManager);
+        globalSession.begin();
+        return globalSession;
+    }
+
+    private BranchSession newBranch(GlobalSession globalSession) {
+        BranchSession branchSession = new BranchSession();
+        branchSession.setXid(globalSession.getXid());
+        branchSession.setTransactionId(globalSession.getTransactionId());
+        branchSession.setBranchId(globalSession.getTransactionId() + 1);
+        branchSession.setBranchType(BranchType.AT);
+        branchSession.setResourceId("jdbc:mysql://127.0.0.1:3306/seata");
+        branchSession.setLockKey("t:1");
+        branchSession.setClientId("c1");
+        return branchSession;
+    }
+}
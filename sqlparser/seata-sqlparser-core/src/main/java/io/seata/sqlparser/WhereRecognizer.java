@@ -41,6 +41,16 @@ public interface WhereRecognizer extends SQLRecognizer {
      */
     String getWhereCondition();
 
+    /**
+     * Gets the columns of the where condition when it is only the and of the equalities of a column and
+     * a placeholder, like "id = ? and code = ?".
+     *
+     * @return the column names in the order of the placeholders, null if the where condition is of any other shape
+     */
+    default List<String> getWhereEqualityColumns() {
+        return null;
+    }
+
     /**
      * Return the limit SQL
      *
@@ -15,11 +15,18 @@
  */
 package io.seata.sqlparser.druid;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.expr.SQLBetweenExpr;
 import com.alibaba.druid.sql.ast.expr.SQLBinaryOpExpr;
+import com.alibaba.druid.sql.ast.expr.SQLBinaryOperator;
 import com.alibaba.druid.sql.ast.expr.SQLExistsExpr;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
 import com.alibaba.druid.sql.ast.expr.SQLInListExpr;
+import com.alibaba.druid.sql.ast.expr.SQLPropertyExpr;
+import com.alibaba.druid.sql.ast.expr.SQLVariantRefExpr;
 import com.alibaba.druid.sql.visitor.SQLASTVisitor;
 
 import io.seata.sqlparser.SQLParsingException;
@@ -72,6 +79,57 @@ public abstract class BaseRecognizer implements SQLRecognizer {
         }
     }
 
+    /**
+     * Get the columns of the where condition which is only the and of the equalities of a column and a placeholder.
+     *
+     * @param where the where condition
+     * @return the column names in the order of the placeholders, null if the where condition is of any other shape
+     */
+    protected List<String> getWhereEqualityColumns(SQLExpr where) {
+        List<String> columns = new ArrayList<>();
+        return where != null && collectEqualityColumns(where, columns) ? columns : null;
+    }
+
+    private static boolean collectEqualityColumns(SQLExpr expr, List<String> columns) {
+        if (!(expr instanceof SQLBinaryOpExpr)) {
+            return false;
+        }
+        SQLBinaryOpExpr binaryOpExpr = (SQLBinaryOpExpr) expr;
+        if (binaryOpExpr.getOperator() == SQLBinaryOperator.BooleanAnd) {
+            // the placeholders are bound from left to right
+            return collectEqualityColumns(binaryOpExpr.getLeft(), columns)
+                && collectEqualityColumns(binaryOpExpr.getRight(), columns);
+        }
+        if (binaryOpExpr.getOperator() != SQLBinaryOperator.Equality) {
+            return false;
+        }
+        String column = null;
+        if (isPlaceholder(binaryOpExpr.getRight())) {
+            column = getColumnName(binaryOpExpr.getLeft());
+        } else if (isPlaceholder(binaryOpExpr.getLeft())) {
+            column = getColumnName(binaryOpExpr.getRight());
+        }
+        if (column == null) {
+            return false;
+        }
+        columns.add(column);
+        return true;
+    }
+
+    private static boolean isPlaceholder(SQLExpr expr) {
+        return expr instanceof SQLVariantRefExpr && "?".equals(((SQLVariantRefExpr) expr).getName());
+    }
+
+    private static String getColumnName(SQLExpr expr) {
+        if (expr instanceof SQLIdentifierExpr) {
+            return ((SQLIdentifierExpr) expr).getName();
+        } else if (expr instanceof SQLPropertyExpr) {
+            // the column of the table alias
+            return ((SQLPropertyExpr) expr).getName();
+        }
+        return null;
+    }
+
     protected void wrapSQLParsingException(SQLExpr expr) {
         String errorMsg;
         try {
@@ -110,6 +110,11 @@ public class MySQLDeleteRecognizer extends BaseMySQLRecognizer implements SQLDel
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return getWhereEqualityColumns(ast.getWhere());
+    }
+
     @Override
     public String getLimit(ParametersHolder parametersHolder, ArrayList<List<Object>> paramAppenderList) {
         return super.getLimit(ast, getSQLType(), parametersHolder, paramAppenderList);
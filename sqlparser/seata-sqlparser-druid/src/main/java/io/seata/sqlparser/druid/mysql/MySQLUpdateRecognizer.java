@@ -113,6 +113,11 @@ public class MySQLUpdateRecognizer extends BaseMySQLRecognizer implements SQLUpd
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return getWhereEqualityColumns(ast.getWhere());
+    }
+
     @Override
     public String getTableAlias() {
         return ast.getTableSource().getAlias();
@@ -107,4 +107,9 @@ public class OracleDeleteRecognizer extends BaseOracleRecognizer implements SQLD
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return getWhereEqualityColumns(ast.getWhere());
+    }
+
 }
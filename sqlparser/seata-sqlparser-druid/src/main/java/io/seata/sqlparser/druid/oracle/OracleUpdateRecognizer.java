@@ -113,6 +113,11 @@ public class OracleUpdateRecognizer extends BaseOracleRecognizer implements SQLU
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return getWhereEqualityColumns(ast.getWhere());
+    }
+
     @Override
     public String getTableAlias() {
         return ast.getTableSource().getAlias();
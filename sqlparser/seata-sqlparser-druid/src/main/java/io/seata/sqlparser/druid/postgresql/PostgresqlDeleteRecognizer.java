@@ -102,4 +102,9 @@ public class PostgresqlDeleteRecognizer extends BasePostgresqlRecognizer impleme
         SQLExpr where = ast.getWhere();
         return super.getWhereCondition(where);
     }
+
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return getWhereEqualityColumns(ast.getWhere());
+    }
 }
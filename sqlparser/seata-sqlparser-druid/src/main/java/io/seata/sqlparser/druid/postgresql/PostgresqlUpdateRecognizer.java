@@ -111,6 +111,11 @@ public class PostgresqlUpdateRecognizer extends BasePostgresqlRecognizer impleme
         return super.getWhereCondition(where);
     }
 
+    @Override
+    public List<String> getWhereEqualityColumns() {
+        return getWhereEqualityColumns(ast.getWhere());
+    }
+
     @Override
     public String getTableAlias() {
         return ast.getTableSource().getAlias();
@@ -341,6 +341,25 @@ public class MySQLUpdateRecognizerTest extends AbstractRecognizerTest {
         });
     }
 
+    @Test
+    public void testGetWhereEqualityColumns() {
+        String sql = "update t a set name = ? where a.`code` = ? and ? = id";
+        List<SQLStatement> asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        MySQLUpdateRecognizer recognizer = new MySQLUpdateRecognizer(sql, asts.get(0));
+        Assertions.assertEquals(Arrays.asList("`code`", "id"), recognizer.getWhereEqualityColumns());
+
+        for (String where : new String[] {"id > ?", "id = ? or code = ?", "id = ? and code = 'x'",
+            "id = ? and (code = ? or code = ?)", "id in (?, ?)", "id = code"}) {
+            sql = "update t set name = ? where " + where;
+            asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+            recognizer = new MySQLUpdateRecognizer(sql, asts.get(0));
+            Assertions.assertNull(recognizer.getWhereEqualityColumns(), where);
+        }
+        sql = "update t set name = ?";
+        asts = SQLUtils.parseStatements(sql, JdbcConstants.MYSQL);
+        Assertions.assertNull(new MySQLUpdateRecognizer(sql, asts.get(0)).getWhereEqualityColumns());
+    }
+
     @Test
     public void testGetTableAlias() {
         String sql = "update t set a = ?, b = ?, c = ?";